@@ -0,0 +1,116 @@
+package com.linkedin.dagli.benchmark;
+
+import com.linkedin.dagli.dag.DAG;
+import com.linkedin.dagli.dag.DAG1x1;
+import com.linkedin.dagli.function.FunctionResult1;
+import com.linkedin.dagli.liblinear.LiblinearClassification;
+import com.linkedin.dagli.list.NgramVector;
+import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
+import com.linkedin.dagli.placeholder.Placeholder;
+import com.linkedin.dagli.producer.Producer;
+import com.linkedin.dagli.text.token.Tokens;
+import com.linkedin.dagli.vector.DenseVectorFromNumbers;
+import com.linkedin.dagli.xgboost.XGBoostClassification;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * The (preparable) DAGs exercised by the benchmarks.  Each consumes a {@link BenchmarkExample} and is representative
+ * of a common shape of real-world model.
+ */
+public enum BenchmarkDAG {
+  /**
+   * Tokenizes text, extracts unigram and bigram features, and classifies with liblinear logistic regression.
+   */
+  TEXT_LIBLINEAR {
+    @Override
+    public DAG1x1<BenchmarkExample, ?> create() {
+      Placeholder<BenchmarkExample> example = new Placeholder<>();
+      Tokens tokens = new Tokens().withLocale(Locale.ENGLISH).withTextInput(text(example));
+      NgramVector ngrams = new NgramVector().withMaxSize(2).withInput(tokens);
+      LiblinearClassification<Integer> classification =
+          new LiblinearClassification<Integer>().withLabelInput(label(example)).withFeaturesInput(ngrams);
+      return DAG.withPlaceholder(example).withOutput(classification);
+    }
+  },
+
+  /**
+   * Classifies a small dense feature vector with XGBoost.
+   */
+  VECTOR_XGBOOST {
+    @Override
+    public DAG1x1<BenchmarkExample, ?> create() {
+      Placeholder<BenchmarkExample> example = new Placeholder<>();
+      XGBoostClassification<Integer> classification = new XGBoostClassification<Integer>()
+          .withLabelInput(label(example))
+          .withFeaturesInput(features(example))
+          .withRounds(20);
+      return DAG.withPlaceholder(example).withOutput(classification);
+    }
+  },
+
+  /**
+   * A long chain of trivially cheap transformers; the cost of this DAG is dominated by per-node executor overhead.
+   */
+  DEEP_CHAIN {
+    @Override
+    public DAG1x1<BenchmarkExample, ?> create() {
+      Placeholder<BenchmarkExample> example = new Placeholder<>();
+      Producer<Double> last = value(example);
+      for (int i = 0; i < DEPTH; i++) {
+        last = new ChainStep().withInput(last);
+      }
+      return DAG.withPlaceholder(example).withOutput(last);
+    }
+  },
+
+  /**
+   * Many cheap, independent sibling transformers whose results are combined into a single dense vector.
+   */
+  WIDE_FAN_OUT {
+    @Override
+    public DAG1x1<BenchmarkExample, ?> create() {
+      Placeholder<BenchmarkExample> example = new Placeholder<>();
+      Producer<Double> value = value(example);
+      List<ScaledValue> siblings = new ArrayList<>(WIDTH);
+      for (int i = 0; i < WIDTH; i++) {
+        siblings.add(new ScaledValue().withFactor(i + 1).withInput(value));
+      }
+      return DAG.withPlaceholder(example).withOutput(new DenseVectorFromNumbers().withInputs(siblings));
+    }
+  };
+
+  /**
+   * The number of nodes in the chain of {@link #DEEP_CHAIN}.
+   */
+  public static final int DEPTH = 64;
+
+  /**
+   * The number of sibling nodes in {@link #WIDE_FAN_OUT}.
+   */
+  public static final int WIDTH = 64;
+
+  /**
+   * @return a new, preparable instance of this DAG
+   */
+  public abstract DAG1x1<BenchmarkExample, ?> create();
+
+  private static Producer<String> text(Placeholder<BenchmarkExample> example) {
+    return new FunctionResult1<BenchmarkExample, String>(BenchmarkExample::getText).withInput(example);
+  }
+
+  private static Producer<Integer> label(Placeholder<BenchmarkExample> example) {
+    return new FunctionResult1<BenchmarkExample, Integer>(BenchmarkExample::getLabel).withInput(example);
+  }
+
+  private static Producer<Double> value(Placeholder<BenchmarkExample> example) {
+    return new FunctionResult1<BenchmarkExample, Double>(BenchmarkExample::getValue).withInput(example);
+  }
+
+  private static Producer<DenseFloatArrayVector> features(Placeholder<BenchmarkExample> example) {
+    return new FunctionResult1<BenchmarkExample, DenseFloatArrayVector>(BenchmarkExample::getFeatures)
+        .withInput(example);
+  }
+}
@@ -0,0 +1,68 @@
+package com.linkedin.dagli.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Generates deterministic, synthetic {@link BenchmarkExample}s.  The same count and seed always produce the same
+ * examples, so results are comparable across runs and across executors.
+ */
+public abstract class BenchmarkData {
+  private BenchmarkData() { }
+
+  /**
+   * The number of distinct labels assigned to examples.
+   */
+  public static final int LABEL_COUNT = 4;
+
+  /**
+   * The number of dense features in each example.
+   */
+  public static final int FEATURE_COUNT = 32;
+
+  private static final int VOCABULARY_SIZE = 5000;
+  private static final int MIN_TOKENS = 8;
+  private static final int MAX_TOKENS = 24;
+
+  /**
+   * Creates a list of synthetic examples.
+   *
+   * @param count the number of examples to create
+   * @param seed the seed used to generate the examples
+   * @return a list of {@code count} examples
+   */
+  public static List<BenchmarkExample> examples(int count, long seed) {
+    Random random = new Random(seed);
+    ArrayList<BenchmarkExample> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(example(random));
+    }
+    return result;
+  }
+
+  private static BenchmarkExample example(Random random) {
+    int label = random.nextInt(LABEL_COUNT);
+    int tokenCount = MIN_TOKENS + random.nextInt(MAX_TOKENS - MIN_TOKENS + 1);
+
+    StringBuilder text = new StringBuilder(tokenCount * 6);
+    float[] features = new float[FEATURE_COUNT];
+    for (int i = 0; i < tokenCount; i++) {
+      int word = random.nextInt(VOCABULARY_SIZE);
+      if (random.nextBoolean()) {
+        // bias half the words towards the label so that the models have something to learn
+        word = word - (word % LABEL_COUNT) + label;
+      }
+
+      if (i > 0) {
+        text.append(' ');
+      }
+      text.append('w').append(word);
+      features[word % FEATURE_COUNT] += 1.0f / tokenCount;
+    }
+    features[label] += (float) random.nextGaussian() * 0.1f + 0.1f;
+
+    return new BenchmarkExample(text.toString(), tokenCount + label + random.nextGaussian(), features, label);
+  }
+}
@@ -0,0 +1,53 @@
+package com.linkedin.dagli.benchmark;
+
+import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
+import java.io.Serializable;
+
+
+/**
+ * A synthetic example consumed by the benchmark DAGs.  Each example carries a short text, a numeric value and a small
+ * dense feature vector, together with a label that is (noisily) predictable from all three; this allows the same
+ * examples to feed text models, tree models and purely arithmetic DAGs alike.
+ */
+public final class BenchmarkExample implements Serializable {
+  private static final long serialVersionUID = 1;
+
+  private final String _text;
+  private final double _value;
+  private final float[] _features;
+  private final int _label;
+
+  /**
+   * Creates a new example.
+   *
+   * @param text the example's text
+   * @param value the example's numeric value
+   * @param features the example's dense features; this array is not copied and should not be subsequently modified
+   * @param label the example's label
+   */
+  public BenchmarkExample(String text, double value, float[] features, int label) {
+    _text = text;
+    _value = value;
+    _features = features;
+    _label = label;
+  }
+
+  public String getText() {
+    return _text;
+  }
+
+  public double getValue() {
+    return _value;
+  }
+
+  /**
+   * @return a (new) dense vector wrapping this example's features
+   */
+  public DenseFloatArrayVector getFeatures() {
+    return DenseFloatArrayVector.wrap(_features);
+  }
+
+  public int getLabel() {
+    return _label;
+  }
+}
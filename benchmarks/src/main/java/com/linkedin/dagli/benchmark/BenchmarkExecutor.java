@@ -0,0 +1,69 @@
+package com.linkedin.dagli.benchmark;
+
+import com.linkedin.dagli.dag.DAGExecutor;
+import com.linkedin.dagli.dag.FastPreparedDAGExecutor;
+import com.linkedin.dagli.dag.MultithreadedDAGExecutor;
+import com.linkedin.dagli.dag.PreparedDAGExecutor;
+import com.linkedin.dagli.dag.SimpleDAGExecutor;
+
+
+/**
+ * The DAG executors compared by the benchmarks.
+ */
+public enum BenchmarkExecutor {
+  FAST_PREPARED {
+    @Override
+    public PreparedDAGExecutor preparedExecutor(int threads) {
+      return new FastPreparedDAGExecutor().withMaxThreads(threads);
+    }
+
+    @Override
+    public DAGExecutor executor(int threads) {
+      throw new UnsupportedOperationException("FastPreparedDAGExecutor cannot prepare DAGs");
+    }
+  },
+
+  MULTITHREADED {
+    @Override
+    public PreparedDAGExecutor preparedExecutor(int threads) {
+      return executor(threads);
+    }
+
+    @Override
+    public DAGExecutor executor(int threads) {
+      return new MultithreadedDAGExecutor().withMaxThreads(threads);
+    }
+  },
+
+  /**
+   * The single-threaded {@link SimpleDAGExecutor}; the requested thread count is ignored.
+   */
+  SIMPLE {
+    @Override
+    public PreparedDAGExecutor preparedExecutor(int threads) {
+      return executor(threads);
+    }
+
+    @Override
+    public DAGExecutor executor(int threads) {
+      return new SimpleDAGExecutor();
+    }
+  };
+
+  /**
+   * Gets an executor suitable for applying prepared DAGs.
+   *
+   * @param threads the maximum number of threads the executor should use
+   * @return an executor for prepared DAGs
+   */
+  public abstract PreparedDAGExecutor preparedExecutor(int threads);
+
+  /**
+   * Gets an executor suitable for preparing DAGs.
+   *
+   * @param threads the maximum number of threads the executor should use
+   * @return an executor that can prepare DAGs
+   * @throws UnsupportedOperationException if this executor cannot prepare DAGs
+   */
+  public abstract DAGExecutor executor(int threads);
+}
@@ -0,0 +1,19 @@
+package com.linkedin.dagli.benchmark;
+
+import com.linkedin.dagli.annotation.equality.ValueEquality;
+import com.linkedin.dagli.transformer.AbstractPreparedTransformer1WithInput;
+
+
+/**
+ * A deliberately cheap transformer used to build long chains of nodes, so that per-node executor overhead (rather than
+ * the work done by the transformers themselves) dominates the cost of the DAG.
+ */
+@ValueEquality
+class ChainStep extends AbstractPreparedTransformer1WithInput<Double, Double, ChainStep> {
+  private static final long serialVersionUID = 1;
+
+  @Override
+  public Double apply(Double value) {
+    return value * 0.5 + 1;
+  }
+}
@@ -0,0 +1,60 @@
+package com.linkedin.dagli.benchmark;
+
+import com.linkedin.dagli.dag.DAG1x1;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures preparation (training) of DAGs with the executors that support it.  The "examples" secondary result of
+ * {@link #prepare} is the number of training examples processed per second.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DAGPreparationBenchmark {
+  private static final long SEED = 1;
+
+  @Param({"TEXT_LIBLINEAR", "VECTOR_XGBOOST", "DEEP_CHAIN", "WIDE_FAN_OUT"})
+  public BenchmarkDAG dag;
+
+  @Param({"MULTITHREADED", "SIMPLE"})
+  public BenchmarkExecutor executor;
+
+  @Param({"10000", "100000"})
+  public int exampleCount;
+
+  @Param({"1", "4"})
+  public int threads;
+
+  private DAG1x1<BenchmarkExample, ?> _dag;
+  private List<BenchmarkExample> _examples;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    _dag = dag.create().withExecutor(executor.executor(threads));
+    _examples = BenchmarkData.examples(exampleCount, SEED);
+  }
+
+  @Benchmark
+  public Object prepare(ExampleCounter counter) {
+    Object prepared = _dag.prepare(_examples);
+    counter.examples += exampleCount;
+    return prepared;
+  }
+}
@@ -0,0 +1,23 @@
+package com.linkedin.dagli.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Counts the examples processed by a benchmark invocation so that JMH reports examples/sec (as the secondary
+ * "examples" result) in addition to invocations/sec.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ExampleCounter {
+  public long examples;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    examples = 0;
+  }
+}
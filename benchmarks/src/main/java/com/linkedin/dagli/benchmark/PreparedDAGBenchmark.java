@@ -0,0 +1,101 @@
+package com.linkedin.dagli.benchmark;
+
+import com.linkedin.dagli.dag.DAG1x1;
+import com.linkedin.dagli.dag.SimpleDAGExecutor;
+import com.linkedin.dagli.objectio.ObjectIterator;
+import com.linkedin.dagli.objectio.ObjectReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Measures inference with prepared DAGs.  For each combination of DAG, executor, batch size (the number of examples
+ * passed to each {@code applyAll(...)} call) and executor thread count this reports:
+ * <ul>
+ *   <li>Throughput in examples/sec (the "examples" secondary result of {@link #applyAllThroughput})</li>
+ *   <li>Latency percentiles (including p0.99) for an entire batch ({@link #applyAllLatency}) and for a single example
+ *       ({@link #applySingleLatency}, which does not vary with the executor or batch size)</li>
+ *   <li>Allocation rate, via the gc profiler enabled by the {@code jmh} Gradle task</li>
+ * </ul>
+ *
+ * The DAGs are prepared once per trial (using {@link SimpleDAGExecutor}), so preparation time is not included here; see
+ * {@link DAGPreparationBenchmark} for that.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PreparedDAGBenchmark {
+  private static final int TRAINING_EXAMPLE_COUNT = 10000;
+  private static final long TRAINING_SEED = 1;
+  private static final long INFERENCE_SEED = 2;
+
+  @Param({"TEXT_LIBLINEAR", "VECTOR_XGBOOST", "DEEP_CHAIN", "WIDE_FAN_OUT"})
+  public BenchmarkDAG dag;
+
+  @Param({"FAST_PREPARED", "MULTITHREADED", "SIMPLE"})
+  public BenchmarkExecutor executor;
+
+  @Param({"1", "128", "4096", "65536"})
+  public int batchSize;
+
+  @Param({"1", "4"})
+  public int threads;
+
+  private DAG1x1.Prepared<BenchmarkExample, ?> _preparedDAG;
+  private List<BenchmarkExample> _batch;
+  private BenchmarkExample _singleExample;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    _preparedDAG = dag.create()
+        .withExecutor(new SimpleDAGExecutor())
+        .prepare(BenchmarkData.examples(TRAINING_EXAMPLE_COUNT, TRAINING_SEED))
+        .withExecutor(executor.preparedExecutor(threads));
+    _batch = BenchmarkData.examples(batchSize, INFERENCE_SEED);
+    _singleExample = _batch.get(0);
+  }
+
+  private void applyAll(Blackhole blackhole) {
+    try (ObjectReader<?> results = _preparedDAG.applyAll(_batch); ObjectIterator<?> iterator = results.iterator()) {
+      while (iterator.hasNext()) {
+        blackhole.consume(iterator.next());
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void applyAllThroughput(Blackhole blackhole, ExampleCounter counter) {
+    applyAll(blackhole);
+    counter.examples += batchSize;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void applyAllLatency(Blackhole blackhole) {
+    applyAll(blackhole);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Object applySingleLatency() {
+    return _preparedDAG.apply(_singleExample);
+  }
+}
@@ -0,0 +1,30 @@
+package com.linkedin.dagli.benchmark;
+
+import com.linkedin.dagli.annotation.equality.ValueEquality;
+import com.linkedin.dagli.transformer.AbstractPreparedTransformer1WithInput;
+
+
+/**
+ * Multiplies its input by a constant factor.  Used to create many distinct, cheap sibling nodes for "wide" DAGs.
+ */
+@ValueEquality
+class ScaledValue extends AbstractPreparedTransformer1WithInput<Double, Double, ScaledValue> {
+  private static final long serialVersionUID = 1;
+
+  private double _factor = 1;
+
+  /**
+   * Returns a copy of this instance that will multiply its input by the given factor.
+   *
+   * @param factor the factor by which inputs will be multiplied
+   * @return a copy of this instance that will use the specified factor
+   */
+  public ScaledValue withFactor(double factor) {
+    return clone(c -> c._factor = factor);
+  }
+
+  @Override
+  public Double apply(Double value) {
+    return value * _factor;
+  }
+}
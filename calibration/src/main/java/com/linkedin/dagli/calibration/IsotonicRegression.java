@@ -3,6 +3,7 @@ package com.linkedin.dagli.calibration;
 import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.generator.Constant;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer3;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.producer.Producer;
@@ -93,7 +94,8 @@ public class IsotonicRegression
   /**
    * The preparer that actually performs the isotonic regression and produces the {@link Prepared} transformer.
    */
-  private static class Preparer extends AbstractStreamPreparer3<Number, Number, Number, Double, Prepared> {
+  private static class Preparer extends AbstractStreamPreparer3<Number, Number, Number, Double, Prepared>
+      implements MergeablePreparer<Double, Prepared, Preparer> {
     private final boolean _increasing;
     private final ArrayList<double[]> _datapoints;
 
@@ -104,10 +106,25 @@ public class IsotonicRegression
      * @param increasing whether or not the learned function will be mononically increasing (true) or decreasing (false)
      */
     public Preparer(PreparerContext context, boolean increasing) {
-      _datapoints = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, context.getEstimatedExampleCount()));
+      this((int) Math.min(Integer.MAX_VALUE, context.getEstimatedExampleCount()), increasing);
+    }
+
+    private Preparer(int initialCapacity, boolean increasing) {
+      _datapoints = new ArrayList<>(initialCapacity);
       _increasing = increasing;
     }
 
+    @Override
+    public Preparer createPartial() {
+      // partials only see a fraction of the data, so we don't preallocate space for all of it
+      return new Preparer(16, _increasing);
+    }
+
+    @Override
+    public void merge(Preparer partial) {
+      _datapoints.addAll(partial._datapoints);
+    }
+
     @Override
     public PreparerResult<Prepared> finish() {
       return new PreparerResult<>(
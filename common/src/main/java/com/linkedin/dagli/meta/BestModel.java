@@ -6,10 +6,15 @@ import com.linkedin.dagli.array.ArrayElement;
 import com.linkedin.dagli.dag.DAG;
 import com.linkedin.dagli.dag.DAG1x1;
 import com.linkedin.dagli.dag.DAG1x2;
+import com.linkedin.dagli.dag.DAGExecutor;
 import com.linkedin.dagli.dag.DynamicDAG;
+import com.linkedin.dagli.dag.LocalStorage;
+import com.linkedin.dagli.dag.MultithreadedDAGExecutor;
 import com.linkedin.dagli.generator.ExampleIndex;
 import com.linkedin.dagli.list.VariadicList;
+import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.objectio.ObjectWriter;
 import com.linkedin.dagli.placeholder.Placeholder;
 import com.linkedin.dagli.placeholder.internal.PlaceholderInternalAPI;
 import com.linkedin.dagli.preparer.AbstractBatchPreparerDynamic;
@@ -90,6 +95,12 @@ import java.util.stream.IntStream;
  * to memorize a time-to-label mapping to do well on the held-out evaluation data (although they would still be able to
  * overfit on a time-based feature, this underperformance would be correctly observed during evaluation).
  *
+ * Large searches: by default, all candidates are cross-trained and evaluated together, concurrently, in a single pass
+ * over the preparation data.  When there are many candidates (e.g. a hyperparameter sweep), the number cross-trained
+ * at once (and thus held in memory together) can be limited with {@link #withMaxConcurrentCandidates(int)}, and
+ * {@link #withSuccessiveHalving(int)} can be used to stop training candidates that are clearly worse than the others
+ * early, after evaluating them on a smaller sample of the data.
+ *
  * @param <R> The type of result produced by the candidate models (and thus the type of result produced by BestModel)
  */
 @ValueEquality(commutativeInputs = true)
@@ -127,6 +138,8 @@ public class BestModel<R> extends AbstractPreparableTransformerDynamic<R, Prepar
 
   private PreparationDataInferenceMode _preparationDataInferenceMode = PreparationDataInferenceMode.CHEAT;
   private int _splitCount = 5;
+  private int _maxConcurrentCandidates = Integer.MAX_VALUE;
+  private int _successiveHalvingFactor = 1; // 1 means that successive halving is disabled
 
   private PreparableTransformer<? extends Comparable<?>, ?> _evaluator;
 
@@ -248,6 +261,53 @@ public class BestModel<R> extends AbstractPreparableTransformerDynamic<R, Prepar
     return clone(c -> c._splitCount = count);
   }
 
+  /**
+   * Returns a copy of this instance that will cross-train and evaluate no more than the specified number of candidates
+   * at once.  The candidates are divided into groups of (at most) this size, and each group is cross-trained and
+   * evaluated concurrently in a single pass over the preparation data; the groups are processed one after another.
+   * This bounds the number of candidate models (across all the splits) that are being trained and held in memory at any
+   * one time.
+   *
+   * When the candidates will be processed in more than one pass, the preparation data is first copied once, using the
+   * DAG executor's {@link LocalStorage} (if known), and each pass reads this copy rather than re-reading BestModel's
+   * inputs.
+   *
+   * By default, there is no limit: all the candidates are processed together in a single pass.
+   *
+   * @param max the maximum number of candidates to cross-train and evaluate at once; must be at least 1
+   * @return a copy of this instance that will cross-train at most the specified number of candidates at once
+   */
+  public BestModel<R> withMaxConcurrentCandidates(int max) {
+    Arguments.check(max >= 1, "The maximum number of concurrent candidates must be at least 1");
+    return clone(c -> c._maxConcurrentCandidates = max);
+  }
+
+  /**
+   * Returns a copy of this instance that will use successive halving to stop training unpromising candidates early.
+   *
+   * Candidates are cross-trained and evaluated in a series of rounds.  The first round uses only a small sample of the
+   * preparation data, and only the best {@code 1/reductionFactor} of the candidates in each round (as determined by
+   * their evaluations) advance to the next round, which uses {@code reductionFactor} times as much data.  The final
+   * round uses all of the preparation data and selects the best candidate from those that remain.  For example, with 27
+   * candidates and a reduction factor of 3, 27 candidates are evaluated on 1/9 of the data, 9 on 1/3 of the data, and 3
+   * on all of the data.
+   *
+   * This dramatically reduces the cost of large searches, at the risk of eliminating a candidate that performs poorly
+   * on small samples but would ultimately have been best.  Each round is subject to
+   * {@link #withMaxConcurrentCandidates(int)}.
+   *
+   * By default, the reduction factor is 1, which disables successive halving (all candidates are evaluated on all the
+   * data).
+   *
+   * @param reductionFactor the factor by which the number of candidates is reduced (and the amount of data increased)
+   *                        in each round; must be at least 1, where 1 disables successive halving
+   * @return a copy of this instance that will use the specified reduction factor for successive halving
+   */
+  public BestModel<R> withSuccessiveHalving(int reductionFactor) {
+    Arguments.check(reductionFactor >= 1, "The reduction factor must be at least 1");
+    return clone(c -> c._successiveHalvingFactor = reductionFactor);
+  }
+
   /**
    * Returns a copy of this instance that will use the specified evaluator to determine which of the candidate models
    * is the best performing.
@@ -439,6 +499,9 @@ public class BestModel<R> extends AbstractPreparableTransformerDynamic<R, Prepar
     // the evaluator is locked while a batch of predicted/true label pairs is fed in.
     private static final int EVALUATION_BATCH_SIZE = 1024;
 
+    // the smallest (expected) number of examples used to evaluate candidates in a round of successive halving
+    private static final long MIN_SUCCESSIVE_HALVING_EXAMPLES = 1000;
+
     private final BestModel<R> _owner;
     private final PreparerContext _context;
 
@@ -531,17 +594,131 @@ public class BestModel<R> extends AbstractPreparableTransformerDynamic<R, Prepar
               .withInputsUnsafe(mapInputs(candidateInputs[i], arrayElements, null)))
           .collect(Collectors.toList());
 
+      final PreparableTransformer<? extends Comparable<?>, ?> evaluatorPrototype = _owner._evaluator.internalAPI()
+          .withInputsUnsafe(mapInputs(evaluatorInputMap, arrayElements, _owner._evaluatorPredictedLabelInput));
+
+      int candidateCount = hookedUpCandidateList.size();
+      int rounds = getSuccessiveHalvingRoundCount(candidateCount);
+
+      // if we'll make more than one pass over the data, make a single copy of it that all the passes can share
+      boolean multiplePasses = rounds > 1 || _owner._maxConcurrentCandidates < candidateCount;
+      ObjectReader<Object[]> data = multiplePasses ? materialize(inputs) : inputs;
+
+      try {
+        Comparable[] evaluations = new Comparable[candidateCount];
+        PreparedTransformer<? extends R>[] crossTrainedPrepared = new PreparedTransformer[candidateCount];
+        List<Integer> remainingCandidates = IntStream.range(0, candidateCount).boxed().collect(Collectors.toList());
+
+        for (int round = 0; round < rounds; round++) {
+          // all but the final round of successive halving use a sample of the data
+          ObjectReader<Object[]> roundData = round == rounds - 1 ? data
+              : data.sample(0, getSuccessiveHalvingFraction(round, rounds, data), _owner._seed);
+
+          for (int start = 0; start < remainingCandidates.size(); start += _owner._maxConcurrentCandidates) {
+            List<Integer> group = remainingCandidates.subList(start,
+                (int) Math.min(remainingCandidates.size(), (long) start + _owner._maxConcurrentCandidates));
+            crossValidate(group, hookedUpCandidateList, inputArrayPlaceholder, arrayElements.get(GROUP_INPUT_INDEX),
+                evaluatorPrototype, roundData, evaluations, crossTrainedPrepared);
+          }
+
+          // keep the best candidates (the sort is stable, so ties favor earlier candidates)
+          int survivorCount = round == rounds - 1 ? 1
+              : (remainingCandidates.size() + _owner._successiveHalvingFactor - 1) / _owner._successiveHalvingFactor;
+          remainingCandidates = remainingCandidates.stream()
+              .sorted((a, b) -> evaluations[b].compareTo(evaluations[a]))
+              .limit(survivorCount)
+              .collect(Collectors.toList());
+        }
+
+        final int bestCandidateIndex = remainingCandidates.get(0);
+        return prepareBest(hookedUpCandidateList.get(bestCandidateIndex), candidateInputs[bestCandidateIndex],
+            crossTrainedPrepared[bestCandidateIndex], inputArrayPlaceholder, arrayElements.size(), data);
+      } finally {
+        if (multiplePasses) {
+          data.close();
+        }
+      }
+    }
+
+    /**
+     * Gets the number of rounds of successive halving needed to reduce the candidates to a single winner, or 1 if
+     * successive halving is disabled.
+     *
+     * @param candidateCount the number of candidates
+     * @return the number of rounds of cross-validation to perform
+     */
+    private int getSuccessiveHalvingRoundCount(int candidateCount) {
+      if (_owner._successiveHalvingFactor <= 1) {
+        return 1;
+      }
+
+      // each round (including the last) reduces the number of remaining candidates by the reduction factor
+      int rounds = 1;
+      for (long remaining = candidateCount; remaining > _owner._successiveHalvingFactor;
+          remaining = (remaining + _owner._successiveHalvingFactor - 1) / _owner._successiveHalvingFactor) {
+        rounds++;
+      }
+      return rounds;
+    }
+
+    /**
+     * Gets the fraction of the data used for a (non-final) round of successive halving.
+     *
+     * @param round the (0-based) round
+     * @param rounds the total number of rounds
+     * @param data the preparation data
+     * @return the fraction of the data to use for the round
+     */
+    private double getSuccessiveHalvingFraction(int round, int rounds, ObjectReader<Object[]> data) {
+      double fraction = Math.pow(_owner._successiveHalvingFactor, round - (rounds - 1));
+      return Math.min(1.0, Math.max(fraction, ((double) MIN_SUCCESSIVE_HALVING_EXAMPLES) / data.size64()));
+    }
+
+    /**
+     * Copies the preparation data to storage so that it may be read repeatedly without re-reading the original inputs.
+     * The executor's storage is used if it is known; otherwise, the data is stored in memory.
+     *
+     * @param inputs the preparation data
+     * @return a reader over the copy of the data, which should be closed once it is no longer needed
+     */
+    private ObjectReader<Object[]> materialize(ObjectReader<Object[]> inputs) {
+      DAGExecutor executor = _context.getExecutor();
+      LocalStorage storage = executor instanceof MultithreadedDAGExecutor
+          ? ((MultithreadedDAGExecutor) executor).getStorage() : LocalStorage.MEMORY_HEAP;
+
+      ObjectWriter<Object[]> writer = storage.createWriter(inputs.size64());
+      try (ObjectIterator<Object[]> iterator = inputs.iterator()) {
+        writer.write(iterator, Long.MAX_VALUE);
+      }
+      writer.close();
+      return writer.createReader();
+    }
+
+    /**
+     * Cross-trains and evaluates a group of candidates together, in a single pass over the provided data.
+     *
+     * @param candidateIndices the indices of the candidates to be evaluated
+     * @param hookedUpCandidateList all the candidates, with their inputs connected to the array element inputs
+     * @param inputArrayPlaceholder the placeholder providing the input array
+     * @param groupInput the producer of the group of each example
+     * @param evaluatorPrototype the evaluator, with its inputs connected to the array element inputs
+     * @param data the data on which to cross-train and evaluate
+     * @param evaluations the array that will receive the evaluation of each candidate
+     * @param crossTrainedPrepared the array that will receive the prepared, cross-trained transformer of each candidate
+     */
+    private void crossValidate(List<Integer> candidateIndices,
+        List<PreparableTransformer<? extends R, ?>> hookedUpCandidateList, Placeholder<Object[]> inputArrayPlaceholder,
+        Producer<?> groupInput, PreparableTransformer<? extends Comparable<?>, ?> evaluatorPrototype,
+        ObjectReader<Object[]> data, Comparable[] evaluations,
+        PreparedTransformer<? extends R>[] crossTrainedPrepared) {
       // now we can get the cross-trainers for each candidate
-      List<KFoldCrossTrained<? extends R>> crossTrainedList = hookedUpCandidateList.stream()
-          .map(candidate -> new KFoldCrossTrained<>(candidate).withGroupInput(arrayElements.get(GROUP_INPUT_INDEX))
+      List<KFoldCrossTrained<? extends R>> crossTrainedList = candidateIndices.stream()
+          .map(i -> new KFoldCrossTrained<>(hookedUpCandidateList.get(i)).withGroupInput(groupInput)
               .withSplitCount(_owner._splitCount)
               .withSeed(_owner._seed)
               .withRetrainForNewData(false)) // don't retrain the candidate on all data
           .collect(Collectors.toList());
 
-      final PreparableTransformer<? extends Comparable<?>, ?> evaluatorPrototype = _owner._evaluator.internalAPI()
-          .withInputsUnsafe(mapInputs(evaluatorInputMap, arrayElements, _owner._evaluatorPredictedLabelInput));
-
       // create a list of views so we can extra the cross-validated transformers when we're done
       List<PreparedTransformerView<? extends PreparedTransformer<? extends R>>> crossTrainedViewList =
           crossTrainedList.stream().map(PreparedTransformerView::new).collect(Collectors.toList());
@@ -559,7 +736,7 @@ public class BestModel<R> extends AbstractPreparableTransformerDynamic<R, Prepar
           DAG.withPlaceholder(inputArrayPlaceholder)
           .withOutputs(evaluationResultList, new VariadicList<>(crossTrainedViewList))
           .withExecutor(_context.getExecutor())
-          .prepare(inputs);
+          .prepare(data);
 
       // we need to get a single example input to run through the DAG so we can collect the evaluations and figure out
       // which candidate is "best"; the output of the prepared DAG above is reducible to Constants, so we can just use
@@ -575,23 +752,41 @@ public class BestModel<R> extends AbstractPreparableTransformerDynamic<R, Prepar
           "BestModel expected the list of cross-trained transformers to reduce to a Constant, but this is not the "
               + "case; the cause is most likely a bug in a DAG reducer or, less likely, in Dagli itself");
 
-      final int bestCandidateIndex = Iterables.argMax(constantOutput.get0());
-      final List<PreparedTransformer<? extends R>> crossTrainedPreparedList = constantOutput.get1();
+      for (int i = 0; i < candidateIndices.size(); i++) {
+        evaluations[candidateIndices.get(i)] = constantOutput.get0().get(i);
+        crossTrainedPrepared[candidateIndices.get(i)] = constantOutput.get1().get(i);
+      }
+    }
 
+    /**
+     * Prepares the best candidate on all the preparation data and creates the final prepared transformers.
+     *
+     * @param bestCandidate the best candidate, with its inputs connected to the array element inputs
+     * @param bestCandidateInputs the indices of the best candidate's inputs in the global list of inputs
+     * @param bestCrossTrained the prepared, cross-trained best candidate
+     * @param inputArrayPlaceholder the placeholder providing the input array
+     * @param inputCount the number of inputs to BestModel
+     * @param data the preparation data
+     * @return the result of preparation
+     */
+    private PreparerResult<PreparedTransformerDynamic<R>> prepareBest(
+        PreparableTransformer<? extends R, ?> bestCandidate, int[] bestCandidateInputs,
+        PreparedTransformer<? extends R> bestCrossTrained, Placeholder<Object[]> inputArrayPlaceholder, int inputCount,
+        ObjectReader<Object[]> data) {
       // now that we've figured out our best candidate, we need to retrain it with all our training data
       DAG1x1.Prepared<Object[], ? extends R> bestPreparedCandidateDAG = DAG.withPlaceholder(inputArrayPlaceholder)
           .withNoReduction()
-          .withOutput(hookedUpCandidateList.get(bestCandidateIndex))
+          .withOutput(bestCandidate)
           .withExecutor(_context.getExecutor())
-          .prepare(inputs);
+          .prepare(data);
 
       // extract the prepared best candidate
       PreparedTransformer<R> prepared =
           (PreparedTransformer<R>) bestPreparedCandidateDAG.internalAPI().getOutputProducer(0);
 
-      List<Placeholder<?>> placeholders = PlaceholderInternalAPI.createPlaceholderList(arrayElements.size());
+      List<Placeholder<?>> placeholders = PlaceholderInternalAPI.createPlaceholderList(inputCount);
       prepared =
-          prepared.internalAPI().withInputsUnsafe(mapInputs(candidateInputs[bestCandidateIndex], placeholders, null));
+          prepared.internalAPI().withInputsUnsafe(mapInputs(bestCandidateInputs, placeholders, null));
 
       DynamicDAG.Prepared<R> dynamicPrepared =
           new DynamicDAG.Prepared<>().withNoReduction().withPlaceholders(placeholders).withOutputs(prepared);
@@ -600,7 +795,7 @@ public class BestModel<R> extends AbstractPreparableTransformerDynamic<R, Prepar
       return new PreparerResult.Builder<PreparedTransformerDynamic<R>>().withTransformerForPreparationData(
           _owner._preparationDataInferenceMode == PreparationDataInferenceMode.CHEAT ? dynamicPrepared
               : PreparedTransformerDynamic.<R>from(DAG.Prepared.withPlaceholder(inputArrayPlaceholder)
-                  .withOutput(crossTrainedPreparedList.get(bestCandidateIndex)), arrayElements.size()))
+                  .withOutput(bestCrossTrained), inputCount))
           .withTransformerForNewData(dynamicPrepared)
           .build();
     }
@@ -2,9 +2,14 @@ package com.linkedin.dagli.meta;
 
 import com.linkedin.dagli.annotation.equality.IgnoredByValueEquality;
 import com.linkedin.dagli.annotation.equality.ValueEquality;
+import com.linkedin.dagli.dag.DAGExecutor;
+import com.linkedin.dagli.dag.LocalStorage;
+import com.linkedin.dagli.dag.MultithreadedDAGExecutor;
 import com.linkedin.dagli.generator.ExampleIndex;
 import com.linkedin.dagli.math.hashing.MurmurHash3;
+import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.objectio.ObjectWriter;
 import com.linkedin.dagli.preparer.AbstractPreparerDynamic;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerDynamic;
@@ -17,9 +22,11 @@ import com.linkedin.dagli.transformer.AbstractPreparedStatefulTransformerDynamic
 import com.linkedin.dagli.transformer.PreparableTransformer;
 import com.linkedin.dagli.transformer.PreparedTransformer;
 import com.linkedin.dagli.util.invariant.Arguments;
+import it.unimi.dsi.fastutil.ints.IntBigArrayBigList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -248,6 +255,135 @@ public class KFoldCrossTrained<R> extends AbstractPreparableTransformerDynamic<R
     }
   }
 
+  /**
+   * Partitions the preparation data by fold in a single pass as it streams through the preparer, storing each example
+   * (without its group) exactly once, in the storage for the fold that excludes it from training.  The training data for
+   * each fold can then be read back in the original order of the examples without re-reading, re-hashing or copying the
+   * examples of the excluded fold.
+   */
+  private static class FoldPartition {
+    private final ObjectWriter<Object[]>[] _writers;
+    private final IntBigArrayBigList _folds; // the fold of each example, in their original order
+    private ObjectReader<Object[]>[] _readers = null; // available once writing is finished
+
+    /**
+     * Creates a new, empty partition.
+     *
+     * @param foldCount the number of folds
+     * @param storage the storage used to store the examples of each fold
+     * @param estimatedExampleCount the estimated number of examples that will be partitioned
+     */
+    @SuppressWarnings("unchecked")
+    FoldPartition(int foldCount, LocalStorage storage, long estimatedExampleCount) {
+      _writers = new ObjectWriter[foldCount];
+      for (int i = 0; i < foldCount; i++) {
+        _writers[i] = storage.createWriter(estimatedExampleCount / foldCount);
+      }
+      _folds = new IntBigArrayBigList(estimatedExampleCount);
+    }
+
+    /**
+     * Adds an example to the partition.
+     *
+     * @param fold the fold to which the example belongs
+     * @param example the example
+     */
+    void add(int fold, Object[] example) {
+      _writers[fold].write(example);
+      _folds.add(fold);
+    }
+
+    /**
+     * Finishes writing; this must be called before the partition's examples are read.
+     */
+    @SuppressWarnings("unchecked")
+    void finishWriting() {
+      _readers = new ObjectReader[_writers.length];
+      for (int i = 0; i < _writers.length; i++) {
+        _writers[i].close();
+        _readers[i] = _writers[i].createReader();
+      }
+    }
+
+    /**
+     * Releases the stored examples once they are no longer needed.
+     */
+    void close() {
+      Arrays.stream(_readers).forEach(ObjectReader::close);
+    }
+
+    /**
+     * Gets a reader over all examples not in the specified fold, in their original order.
+     *
+     * @param excludedFold the fold whose examples will be excluded, or -1 to read all the examples
+     * @return a reader over all examples not in the specified fold
+     */
+    ObjectReader<Object[]> readerExcluding(int excludedFold) {
+      return new FoldReader(excludedFold);
+    }
+
+    /**
+     * Reads the examples of all but (possibly) one fold, interleaving those read from each fold's storage according to
+     * their original order.
+     */
+    private class FoldReader implements ObjectReader<Object[]> {
+      private final int _excludedFold;
+
+      FoldReader(int excludedFold) {
+        _excludedFold = excludedFold;
+      }
+
+      @Override
+      public long size64() {
+        return _folds.size64() - (_excludedFold >= 0 ? _readers[_excludedFold].size64() : 0);
+      }
+
+      @Override
+      public ObjectIterator<Object[]> iterator() {
+        return new Iterator();
+      }
+
+      @Override
+      public void close() { } // the stored examples are owned by the partition
+
+      private class Iterator implements ObjectIterator<Object[]> {
+        @SuppressWarnings("unchecked")
+        private final ObjectIterator<Object[]>[] _iterators = new ObjectIterator[_readers.length]; // created lazily
+        private long _position = 0;
+
+        @Override
+        public boolean hasNext() {
+          while (_position < _folds.size64() && _folds.getInt(_position) == _excludedFold) {
+            _position++;
+          }
+          return _position < _folds.size64();
+        }
+
+        @Override
+        public Object[] next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+
+          int fold = _folds.getInt(_position++);
+          if (_iterators[fold] == null) {
+            _iterators[fold] = _readers[fold].iterator();
+          }
+          return _iterators[fold].next();
+        }
+
+        @Override
+        public void close() {
+          for (ObjectIterator<Object[]> iterator : _iterators) {
+            if (iterator != null) {
+              iterator.close();
+            }
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Preparer that will perform k-fold cross-training.
    *
@@ -261,6 +397,12 @@ public class KFoldCrossTrained<R> extends AbstractPreparableTransformerDynamic<R
 
     private final long _seed;
 
+    // the maximum number of preparers that will be finished concurrently
+    private final int _maxThreads;
+
+    // stores the examples by fold for batch preparers; null for stream preparers
+    private final FoldPartition _foldPartition;
+
     @Override
     public PreparerMode getMode() {
       return _foldPreparers[0].getMode(); // this is guaranteed to be the mode of all our preparers because they were
@@ -296,6 +438,14 @@ public class KFoldCrossTrained<R> extends AbstractPreparableTransformerDynamic<R
           PreparerMode.BATCH, PreparerMode.STREAM);
 
       _seed = seed;
+
+      // respect the thread budget and storage of the DAG executor, if known
+      DAGExecutor executor = context.getExecutor();
+      _maxThreads = executor instanceof MultithreadedDAGExecutor ? ((MultithreadedDAGExecutor) executor).getMaxThreads()
+          : Runtime.getRuntime().availableProcessors();
+      _foldPartition = _foldPreparers[0].getMode() == PreparerMode.BATCH ? new FoldPartition(k,
+          executor instanceof MultithreadedDAGExecutor ? ((MultithreadedDAGExecutor) executor).getStorage()
+              : LocalStorage.MEMORY_HEAP, context.getEstimatedExampleCount()) : null;
     }
 
     @Override
@@ -311,6 +461,10 @@ public class KFoldCrossTrained<R> extends AbstractPreparableTransformerDynamic<R
           _foldPreparers[i].processUnsafe(passedValues);
         }
       }
+
+      if (_foldPartition != null) {
+        _foldPartition.add(fold, passedValues);
+      }
     }
 
     @Override
@@ -318,24 +472,29 @@ public class KFoldCrossTrained<R> extends AbstractPreparableTransformerDynamic<R
       final Future<PreparedTransformer<? extends R>>[] preparedFoldFutures = new Future[_foldPreparers.length];
       final Future<PreparedTransformer<? extends R>> preparedForNewDataFuture;
 
-      ExecutorService threadPool =
-          Executors.newFixedThreadPool(Math.min(_foldPreparers.length + 1, Runtime.getRuntime().availableProcessors()));
+      // batch preparers read their inputs from the fold partition rather than from the provided inputs, so the data need
+      // not be re-filtered for each fold
+      if (_foldPartition != null) {
+        _foldPartition.finishWriting();
+      }
+
+      // all the preparers share a single pool bounded by the executor's thread budget
+      int taskCount = _foldPreparers.length + (_newDataPreparer != null ? 1 : 0);
+      ExecutorService threadPool = Executors.newFixedThreadPool(Math.max(1, Math.min(taskCount, _maxThreads)));
 
       try {
         // set up futures that will train the k submodels on each of the different k folds
         for (int i = 0; i < _foldPreparers.length; i++) {
           final int index = i;
-          ObjectReader<Object[]> preparerInputs = inputs == null ? null
-              : inputs.lazyFilter(arr -> index != getFold(arr[arr.length - 1], _foldPreparers.length, _seed))
-                  .lazyMap(arr -> Arrays.copyOf(arr, arr.length - 1));
+          ObjectReader<Object[]> preparerInputs = _foldPartition == null ? null : _foldPartition.readerExcluding(index);
           preparedFoldFutures[index] = threadPool.submit(
               () -> _foldPreparers[index].finishUnsafe(preparerInputs).getPreparedTransformerForNewData());
         }
 
         // future to prepare a transformer using all available data, if retrainForNewData was true
         preparedForNewDataFuture = _newDataPreparer != null ? threadPool.submit(() -> _newDataPreparer.finishUnsafe(
-            inputs == null ? null : inputs.lazyMap(arr -> Arrays.copyOf(arr, arr.length - 1)))
-            .getPreparedTransformerForNewData()) : null;
+            _foldPartition == null ? null : _foldPartition.readerExcluding(-1)).getPreparedTransformerForNewData())
+            : null;
       } finally {
         threadPool.shutdown(); // make sure outstanding threads are eventually terminated
       }
@@ -363,6 +522,10 @@ public class KFoldCrossTrained<R> extends AbstractPreparableTransformerDynamic<R
             .build();
       } catch (InterruptedException | ExecutionException e) {
         throw new RuntimeException(e);
+      } finally {
+        if (_foldPartition != null) {
+          _foldPartition.close();
+        }
       }
     }
   }
@@ -0,0 +1,200 @@
+package com.linkedin.dagli.meta;
+
+import com.linkedin.dagli.util.exception.Exceptions;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * An immutable map whose values are stored in (Java-)serialized form and deserialized only when first retrieved.  This
+ * is used to store large numbers of values (such as per-group prepared transformers) compactly, since the serialized
+ * form of an object graph is typically much smaller than the graph itself, and values that are never retrieved are
+ * never deserialized.
+ *
+ * Once deserialized, a value is retained (and the same instance returned by subsequent retrievals).  Retrieval is
+ * thread-safe.
+ *
+ * Unlike other {@link Map}s, equality and hashing are determined by the keys and the <i>serialized</i> values, so that
+ * comparing or hashing the map (as happens when the transformer holding it is placed in a DAG) does not deserialize
+ * anything.  Consequently, a {@link LazilyDeserializedMap} is only ever equal to another {@link LazilyDeserializedMap}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class LazilyDeserializedMap<K, V> extends AbstractMap<K, V> implements Serializable {
+  private static final long serialVersionUID = 1;
+
+  private final Object2IntOpenHashMap<K> _indices;
+  private final byte[][] _serializedValues;
+
+  // values deserialized so far; null for those not yet retrieved
+  private transient AtomicReferenceArray<V> _values;
+
+  // the cached hash code, computed when first needed
+  private transient volatile boolean _hashCodeComputed = false;
+  private transient int _hashCode;
+
+  /**
+   * Creates a new map from the serialized values of each key.
+   *
+   * @param serializedValues a map from each key to its value serialized by {@link #serialize(Object)}
+   */
+  LazilyDeserializedMap(Map<? extends K, byte[]> serializedValues) {
+    _indices = new Object2IntOpenHashMap<>(serializedValues.size());
+    _indices.defaultReturnValue(-1);
+    _serializedValues = new byte[serializedValues.size()][];
+
+    int index = 0;
+    for (Map.Entry<? extends K, byte[]> entry : serializedValues.entrySet()) {
+      _indices.put(entry.getKey(), index);
+      _serializedValues[index++] = entry.getValue();
+    }
+    _values = new AtomicReferenceArray<>(_serializedValues.length);
+  }
+
+  /**
+   * Serializes a value for storage in a {@link LazilyDeserializedMap}.
+   *
+   * @param value the value to serialize
+   * @return the serialized value
+   */
+  static byte[] serialize(Object value) {
+    try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw Exceptions.asRuntimeException(e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private V getValue(int index) {
+    V value = _values.get(index);
+    if (value == null) {
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(_serializedValues[index]))) {
+        value = (V) in.readObject();
+      } catch (IOException | ClassNotFoundException e) {
+        throw Exceptions.asRuntimeException(e);
+      }
+
+      // if another thread deserialized the value concurrently, use its instance
+      if (!_values.compareAndSet(index, null, value)) {
+        value = _values.get(index);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * @return the number of values that have been deserialized so far
+   */
+  int getDeserializedCount() {
+    int count = 0;
+    for (int i = 0; i < _values.length(); i++) {
+      if (_values.get(i) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LazilyDeserializedMap)) {
+      return false;
+    }
+    LazilyDeserializedMap<?, ?> other = (LazilyDeserializedMap<?, ?>) o;
+    if (_serializedValues.length != other._serializedValues.length || hashCode() != other.hashCode()) {
+      return false;
+    }
+    for (Object2IntMap.Entry<K> entry : _indices.object2IntEntrySet()) {
+      int otherIndex = other._indices.getInt(entry.getKey());
+      if (otherIndex < 0
+          || !Arrays.equals(_serializedValues[entry.getIntValue()], other._serializedValues[otherIndex])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    if (!_hashCodeComputed) {
+      // like Map.hashCode(), the sum of the entries' hashes, which does not depend on the order of the entries
+      int hash = 0;
+      for (Object2IntMap.Entry<K> entry : _indices.object2IntEntrySet()) {
+        hash += Objects.hashCode(entry.getKey()) ^ Arrays.hashCode(_serializedValues[entry.getIntValue()]);
+      }
+      _hashCode = hash;
+      _hashCodeComputed = true;
+    }
+    return _hashCode;
+  }
+
+  @Override
+  public int size() {
+    return _serializedValues.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return _indices.containsKey(key);
+  }
+
+  @Override
+  public V get(Object key) {
+    int index = _indices.getInt(key);
+    return index < 0 ? null : getValue(index);
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        Iterator<Object2IntMap.Entry<K>> indexIterator = _indices.object2IntEntrySet().iterator();
+        return new Iterator<Entry<K, V>>() {
+          @Override
+          public boolean hasNext() {
+            return indexIterator.hasNext();
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            Object2IntMap.Entry<K> next = indexIterator.next();
+            return new SimpleImmutableEntry<>(next.getKey(), getValue(next.getIntValue()));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return _serializedValues.length;
+      }
+    };
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    _values = new AtomicReferenceArray<>(_serializedValues.length);
+  }
+}
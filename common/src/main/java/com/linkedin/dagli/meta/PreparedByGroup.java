@@ -2,10 +2,16 @@ package com.linkedin.dagli.meta;
 
 import com.linkedin.dagli.annotation.equality.IgnoredByValueEquality;
 import com.linkedin.dagli.annotation.equality.ValueEquality;
+import com.linkedin.dagli.dag.DAGExecutor;
+import com.linkedin.dagli.dag.LocalStorage;
+import com.linkedin.dagli.dag.MultithreadedDAGExecutor;
+import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.objectio.ObjectWriter;
 import com.linkedin.dagli.placeholder.Placeholder;
-import com.linkedin.dagli.preparer.AbstractBatchPreparerDynamic;
+import com.linkedin.dagli.preparer.AbstractPreparerDynamic;
 import com.linkedin.dagli.preparer.PreparerContext;
+import com.linkedin.dagli.preparer.PreparerMode;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.preparer.PreparerResultMixed;
 import com.linkedin.dagli.producer.Producer;
@@ -14,14 +20,23 @@ import com.linkedin.dagli.transformer.AbstractPreparedStatefulTransformerDynamic
 import com.linkedin.dagli.transformer.PreparableTransformer;
 import com.linkedin.dagli.transformer.PreparedTransformer;
 import com.linkedin.dagli.transformer.PreparedTransformerDynamic;
-import com.linkedin.dagli.tuple.Tuple2;
+import com.linkedin.dagli.tuple.Tuple3;
 import com.linkedin.dagli.util.collection.Iterables;
+import com.linkedin.dagli.util.invariant.Arguments;
 import com.linkedin.dagli.view.AbstractTransformerView;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -43,6 +58,17 @@ import java.util.stream.IntStream;
  * However, what happens if we see a group that wasn't seen during preparation, for which we've prepared no
  * sub-transformer?  In this case, the outcome is determined by the {@link UnknownGroupPolicy}.
  *
+ * The sub-transformers are prepared in parallel, subject to the thread budget of the DAG executor.  When the wrapped
+ * transformer's preparer is a batch preparer, the preparation examples (as stored by the DAG executor) are read once
+ * the preparation data has been processed and partitioned by group into a number of buckets (see
+ * {@link #withBucketCount(int)}), whose groups' sub-transformers are then prepared in turn.  If the executor stores its
+ * intermediate results on the heap ({@link LocalStorage#MEMORY_HEAP}) the buckets simply reference the executor's
+ * (already in-memory) examples; otherwise, the buckets are written using the executor's {@link LocalStorage} and each
+ * is loaded only while its groups' sub-transformers are being prepared, so that only the examples of the buckets
+ * currently being prepared need be in memory at once.  The sub-transformers of the prepared transformer used for new
+ * data are stored in serialized form and only deserialized when their group is first encountered, which keeps
+ * transformers with very many groups compact.
+ *
  * @param <R> the type of result produced by this transformer
  */
 @ValueEquality
@@ -71,6 +97,9 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
 
   private UnknownGroupPolicy _unknownGroupPolicy = UnknownGroupPolicy.RETURN_NULL;
 
+  private static final int DEFAULT_BUCKET_COUNT = 256;
+  private int _bucketCount = DEFAULT_BUCKET_COUNT;
+
   @Override
   public void validate() {
     super.validate();
@@ -100,6 +129,23 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
     return clone(c -> c._unknownGroupPolicy = policy);
   }
 
+  /**
+   * Sets the number of buckets into which preparation examples are partitioned (by group) when the wrapped transformer
+   * uses a batch preparer.  Buckets are prepared concurrently (up to the executor's thread budget).  When the executor
+   * does not store its intermediate results on the heap, each bucket's examples are loaded into memory only while its
+   * groups' sub-transformers are being prepared, so more buckets reduce peak memory usage at the cost of creating more
+   * (smaller) intermediate stores.  Groups are never split across buckets.
+   *
+   * The default number of buckets is 256.
+   *
+   * @param bucketCount the number of buckets to use; must be at least 1
+   * @return a copy of this instance that will use the specified number of buckets
+   */
+  public PreparedByGroup<R> withBucketCount(int bucketCount) {
+    Arguments.check(bucketCount >= 1, "The number of buckets must be at least 1");
+    return clone(c -> c._bucketCount = bucketCount);
+  }
+
   /**
    * Sets the preparable transformer that will be prepared by group.  Note that this instance will automatically
    * "inherit" all the inputs of this transformer (which will now also be inputs of this instance).
@@ -113,7 +159,7 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
 
   @Override
   protected Preparer<R> getPreparer(PreparerContext context) {
-    return new Preparer<R>(_transformerToPrepareByGroup, _unknownGroupPolicy, context);
+    return new Preparer<R>(_transformerToPrepareByGroup, _unknownGroupPolicy, _bucketCount, context);
   }
 
   @Override
@@ -183,24 +229,59 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
    *
    * @param <R> the type of result produced by the transformer
    */
-  private static class Preparer<R> extends AbstractBatchPreparerDynamic<R, Prepared<R>> {
+  static class Preparer<R> extends AbstractPreparerDynamic<R, Prepared<R>> {
     private final PreparableTransformer<? extends R, ?> _transformerToPrepareByGroup;
     private final UnknownGroupPolicy _unknownGroupPolicy;
     private final HashMap<Object, com.linkedin.dagli.preparer.Preparer<? extends R, ?>> _preparerMap = new HashMap<>();
     private final PreparerContext _context;
+    private final PreparerMode _mode;
+
+    // the preparer created to determine the mode, which is then used for the first group encountered
+    private com.linkedin.dagli.preparer.Preparer<? extends R, ?> _unusedPreparer;
+
+    // the maximum number of group preparers that will be finished concurrently
+    private final int _maxThreads;
+
+    // the storage used for the buckets of examples and the number of buckets; used only when the group preparers are
+    // batch preparers
+    private final LocalStorage _storage;
+    private final int _bucketCount;
+
+    // the number of examples written to bucket writers (for testing)
+    private long _writtenToBucketsCount = 0;
 
     /**
      * Creates a new instance of the preparer.
      *
      * @param transformerToPrepareByGroup the transformer to be prepared by group
      * @param unknownGroupPolicy the {@link UnknownGroupPolicy}
+     * @param bucketCount the number of buckets into which examples are partitioned for batch group preparers
      * @param context the context in which preparation is occurring
      */
     Preparer(PreparableTransformer<? extends R, ?> transformerToPrepareByGroup,
-        UnknownGroupPolicy unknownGroupPolicy, PreparerContext context) {
+        UnknownGroupPolicy unknownGroupPolicy, int bucketCount, PreparerContext context) {
       _transformerToPrepareByGroup = transformerToPrepareByGroup;
       _unknownGroupPolicy = unknownGroupPolicy;
       _context = context.withExampleCountLowerBound(1).withDefaultEstimatedExampleCount();
+
+      // the spec of the dagli.preparer.Preparer interface guarantees that all our group preparers will have the same
+      // mode, so it suffices to check just one of them
+      _unusedPreparer = _transformerToPrepareByGroup.internalAPI().getPreparer(_context);
+      _mode = _unusedPreparer.getMode();
+
+      // respect the thread budget and storage of the DAG executor, if known
+      DAGExecutor executor = context.getExecutor();
+      _maxThreads = executor instanceof MultithreadedDAGExecutor ? ((MultithreadedDAGExecutor) executor).getMaxThreads()
+          : Runtime.getRuntime().availableProcessors();
+      _storage = executor instanceof MultithreadedDAGExecutor ? ((MultithreadedDAGExecutor) executor).getStorage()
+          : LocalStorage.MEMORY_HEAP;
+      _bucketCount = bucketCount;
+    }
+
+    @Override
+    public PreparerMode getMode() {
+      // if the group preparers don't need their inputs in finish(...), neither do we
+      return _mode;
     }
 
     @Override
@@ -209,47 +290,210 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
 
       // get preparer corresponding to the group, creating it if it does not already exist
       com.linkedin.dagli.preparer.Preparer<? extends R, ?> preparer =
-          _preparerMap.computeIfAbsent(group, k -> _transformerToPrepareByGroup.internalAPI().getPreparer(_context));
+          _preparerMap.computeIfAbsent(group, k -> createGroupPreparer());
 
       // pass the inputs (except the first, which is the group input) to the group's preparer
       preparer.processUnsafe(Arrays.copyOfRange(values, 1, values.length));
+
+      // batch preparers will need the examples again, but the executor stores these for us and provides them to
+      // finishUnsafe(...), so there's no need to keep our own copy here
+    }
+
+    /**
+     * @return the number of examples that have been written to bucket writers (for testing)
+     */
+    long getWrittenToBucketsCount() {
+      return _writtenToBucketsCount;
+    }
+
+    private com.linkedin.dagli.preparer.Preparer<? extends R, ?> createGroupPreparer() {
+      if (_unusedPreparer != null) {
+        com.linkedin.dagli.preparer.Preparer<? extends R, ?> preparer = _unusedPreparer;
+        _unusedPreparer = null;
+        return preparer;
+      }
+      return _transformerToPrepareByGroup.internalAPI().getPreparer(_context);
+    }
+
+    /**
+     * Finishes the preparer for a group.
+     *
+     * @param group the group whose preparer should be finished
+     * @param inputs the inputs (without the group) of the group's examples, or null for stream preparers
+     * @param placeholders the placeholders to be used as the inputs of the resulting prepared transformers
+     * @return the group, its prepared transformer for preparation data, and its serialized prepared transformer for new
+     *         data
+     */
+    private Tuple3<Object, PreparedTransformer<? extends R>, byte[]> finishGroup(Object group,
+        ObjectReader<Object[]> inputs, List<Placeholder<Object>> placeholders) {
+      PreparerResultMixed<? extends PreparedTransformer<? extends R>, ? extends PreparedTransformer<? extends R>>
+          result = _preparerMap.get(group).finishUnsafe(inputs);
+
+      PreparedTransformer<? extends R> forPreparationData =
+          result.getPreparedTransformerForPreparationData().internalAPI().withInputsUnsafe(placeholders);
+      PreparedTransformer<? extends R> forNewData =
+          result.getPreparedTransformerForNewData().internalAPI().withInputsUnsafe(placeholders);
+
+      return Tuple3.of(group, forPreparationData, LazilyDeserializedMap.serialize(forNewData));
+    }
+
+    /**
+     * Adds an example (whose first value is its group) to a map from each group to the inputs (without the group) of
+     * that group's examples.
+     *
+     * @param examplesByGroup the map to which the example should be added
+     * @param example the example to add
+     */
+    private static void addToGroup(HashMap<Object, ArrayList<Object[]>> examplesByGroup, Object[] example) {
+      examplesByGroup.computeIfAbsent(example[0], k -> new ArrayList<>())
+          .add(Arrays.copyOfRange(example, 1, example.length));
+    }
+
+    /**
+     * Finishes the preparers of each group in a bucket.
+     *
+     * @param examplesByGroup a map from each of the bucket's groups to the inputs of the group's examples; the entries
+     *                        are cleared as each group's preparer is finished
+     * @param placeholders the placeholders to be used as the inputs of the resulting prepared transformers
+     * @return the results of finishing the bucket's group preparers
+     */
+    private List<Tuple3<Object, PreparedTransformer<? extends R>, byte[]>> finishGroups(
+        HashMap<Object, ArrayList<Object[]>> examplesByGroup, List<Placeholder<Object>> placeholders) {
+      List<Tuple3<Object, PreparedTransformer<? extends R>, byte[]>> results = new ArrayList<>(examplesByGroup.size());
+      for (Map.Entry<Object, ArrayList<Object[]>> entry : examplesByGroup.entrySet()) {
+        results.add(finishGroup(entry.getKey(), ObjectReader.wrap(entry.getValue()), placeholders));
+        entry.setValue(null); // allow the group's examples to be garbage collected
+      }
+      return results;
+    }
+
+    /**
+     * Creates a task that reads the examples of a stored bucket into memory and finishes the preparers of each of its
+     * groups.
+     *
+     * @param bucket the bucket's examples
+     * @param placeholders the placeholders to be used as the inputs of the resulting prepared transformers
+     * @return a task that finishes the bucket's group preparers
+     */
+    private Callable<List<Tuple3<Object, PreparedTransformer<? extends R>, byte[]>>> bucketTask(
+        ObjectReader<Object[]> bucket, List<Placeholder<Object>> placeholders) {
+      return () -> {
+        HashMap<Object, ArrayList<Object[]>> examplesByGroup = new HashMap<>();
+        try (ObjectIterator<Object[]> iterator = bucket.iterator()) {
+          while (iterator.hasNext()) {
+            addToGroup(examplesByGroup, iterator.next());
+          }
+        }
+        bucket.close(); // the stored examples are no longer needed
+        return finishGroups(examplesByGroup, placeholders);
+      };
+    }
+
+    /**
+     * Partitions the examples provided by the executor into buckets (by group) and creates a task for each non-empty
+     * bucket that finishes the preparers of its groups.
+     *
+     * @param inputs the examples (including their groups) provided by the executor
+     * @param placeholders the placeholders to be used as the inputs of the resulting prepared transformers
+     * @return the tasks that finish the group preparers
+     */
+    @SuppressWarnings("unchecked")
+    private List<Callable<List<Tuple3<Object, PreparedTransformer<? extends R>, byte[]>>>> bucketTasks(
+        ObjectReader<Object[]> inputs, List<Placeholder<Object>> placeholders) {
+      List<Callable<List<Tuple3<Object, PreparedTransformer<? extends R>, byte[]>>>> tasks = new ArrayList<>();
+
+      if (_storage == LocalStorage.MEMORY_HEAP) {
+        // the executor already holds the examples on the heap, so the buckets just reference its values rather than
+        // storing another copy of them
+        HashMap<Object, ArrayList<Object[]>>[] buckets = new HashMap[_bucketCount];
+        try (ObjectIterator<Object[]> iterator = inputs.iterator()) {
+          while (iterator.hasNext()) {
+            Object[] example = iterator.next();
+            int bucket = Math.floorMod(Objects.hashCode(example[0]), _bucketCount);
+            if (buckets[bucket] == null) {
+              buckets[bucket] = new HashMap<>();
+            }
+            addToGroup(buckets[bucket], example);
+          }
+        }
+
+        for (HashMap<Object, ArrayList<Object[]>> bucket : buckets) {
+          if (bucket != null) {
+            tasks.add(() -> finishGroups(bucket, placeholders));
+          }
+        }
+      } else {
+        // stream the examples into buckets written using the executor's storage, so that each bucket need only be in
+        // memory while its groups are being prepared
+        ObjectWriter<Object[]>[] buckets = new ObjectWriter[_bucketCount];
+        try (ObjectIterator<Object[]> iterator = inputs.iterator()) {
+          while (iterator.hasNext()) {
+            Object[] example = iterator.next();
+            int bucket = Math.floorMod(Objects.hashCode(example[0]), _bucketCount);
+            if (buckets[bucket] == null) {
+              buckets[bucket] = _storage.createWriter(inputs.size64() / _bucketCount);
+            }
+            buckets[bucket].write(Arrays.copyOf(example, example.length)); // the iterator may reuse its arrays
+            _writtenToBucketsCount++;
+          }
+        }
+
+        for (ObjectWriter<Object[]> bucket : buckets) {
+          if (bucket != null) {
+            bucket.close();
+            tasks.add(bucketTask(bucket.createReader(), placeholders));
+          }
+        }
+      }
+
+      return tasks;
     }
 
     @Override
     public PreparerResult<Prepared<R>> finishUnsafe(ObjectReader<Object[]> inputs) {
-      // finish each per-group preparer to get the prepared subtransformers for each group
-      // TODO: it may be worthwhile to add optional multithreading here
-      Map<Object, PreparerResultMixed<? extends PreparedTransformer<? extends R>, ? extends PreparedTransformer<? extends R>>>
-          preparerResults = _preparerMap.entrySet()
-          .stream()
-          .map(t -> Tuple2.of(t.getKey(), t.getValue()
-              .finishUnsafe(inputs.lazyFilter(arr -> Objects.equals(arr[0], t.getKey()))
-                  .lazyMap(values -> Arrays.copyOfRange(values, 1, values.length)))))
-          .collect(Collectors.toMap(Tuple2::get0, Tuple2::get1));
-
       // create a list of placeholders to act as parents for the prepared transformers so they'll have the correct arity
       List<Placeholder<Object>> placeholders =
           IntStream.range(0, _transformerToPrepareByGroup.internalAPI().getInputList().size())
               .mapToObj(i -> new Placeholder<>())
               .collect(Collectors.toList());
 
-      // create a map from each group to the corresponding prepared transformer for preparation (training) data
-      Map<Object, PreparedTransformer<? extends R>> preparedForPreparationData = preparerResults.entrySet()
-          .stream()
-          .map(r -> Tuple2.of(r.getKey(),
-              r.getValue().getPreparedTransformerForPreparationData().internalAPI().withInputsUnsafe(placeholders)))
-          .collect(Collectors.toMap(Tuple2::get0, Tuple2::get1));
+      // batch group preparers are finished a bucket at a time; stream group preparers need no inputs and are finished
+      // individually
+      List<Callable<List<Tuple3<Object, PreparedTransformer<? extends R>, byte[]>>>> tasks;
+      if (_mode == PreparerMode.BATCH) {
+        tasks = bucketTasks(inputs, placeholders);
+      } else {
+        tasks = new ArrayList<>(_preparerMap.size());
+        for (Object group : _preparerMap.keySet()) {
+          tasks.add(() -> Collections.singletonList(finishGroup(group, null, placeholders)));
+        }
+      }
 
-      // create a map from each group to the corresponding prepared transformer for new data
-      Map<Object, PreparedTransformer<? extends R>> preparedForNewData = preparerResults.entrySet()
-          .stream()
-          .map(r -> Tuple2.of(r.getKey(),
-              r.getValue().getPreparedTransformerForNewData().internalAPI().withInputsUnsafe(placeholders)))
-          .collect(Collectors.toMap(Tuple2::get0, Tuple2::get1));
+      // maps from each group to the corresponding prepared transformer for preparation (training) data and for new data
+      // (the latter stored in serialized form)
+      HashMap<Object, PreparedTransformer<? extends R>> preparedForPreparationData = new HashMap<>(_preparerMap.size());
+      HashMap<Object, byte[]> preparedForNewData = new HashMap<>(_preparerMap.size());
+
+      // all the group preparers share a single pool bounded by the executor's thread budget
+      ExecutorService threadPool = Executors.newFixedThreadPool(Math.max(1, Math.min(tasks.size(), _maxThreads)));
+      try {
+        for (Future<List<Tuple3<Object, PreparedTransformer<? extends R>, byte[]>>> future : threadPool.invokeAll(
+            tasks)) {
+          for (Tuple3<Object, PreparedTransformer<? extends R>, byte[]> result : future.get()) {
+            preparedForPreparationData.put(result.get0(), result.get1());
+            preparedForNewData.put(result.get0(), result.get2());
+          }
+        }
+      } catch (InterruptedException | ExecutionException e) {
+        throw new RuntimeException(e);
+      } finally {
+        threadPool.shutdown(); // make sure outstanding threads are eventually terminated
+      }
 
       return new PreparerResult.Builder<Prepared<R>>()
           .withTransformerForPreparationData(new Prepared<>(preparedForPreparationData, _unknownGroupPolicy))
-          .withTransformerForNewData(new Prepared<>(preparedForNewData, _unknownGroupPolicy))
+          .withTransformerForNewData(
+              new Prepared<>(new LazilyDeserializedMap<>(preparedForNewData), _unknownGroupPolicy))
           .build();
     }
   }
@@ -266,13 +510,37 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
    */
   @ValueEquality
   public static class Prepared<R>
-      extends AbstractPreparedStatefulTransformerDynamic<R, Map<PreparedTransformer<? extends R>, Object>, Prepared<R>> {
+      extends AbstractPreparedStatefulTransformerDynamic<R, Prepared.ExecutionCache, Prepared<R>> {
     // TODO: ideally, this class should be minibatch-aware, although the logic for this is non-trivial
     private static final long serialVersionUID = 1;
 
     private final Map<Object, PreparedTransformer<? extends R>> _subtransformerMap;
     private final UnknownGroupPolicy _unknownGroupPolicy;
 
+    /**
+     * Holds the execution caches of the subtransformers, which are created as each group is first encountered (so that
+     * subtransformers that are stored lazily are not needlessly loaded).
+     */
+    private static class ExecutionCache {
+      // stands in for null groups and null execution caches, neither of which may be stored in a ConcurrentHashMap
+      private static final Object NULL = new Object();
+
+      private final long _exampleCountGuess;
+      private final ConcurrentHashMap<Object, Object> _subtransformerCaches = new ConcurrentHashMap<>();
+
+      ExecutionCache(long exampleCountGuess) {
+        _exampleCountGuess = exampleCountGuess;
+      }
+
+      Object get(Object group, PreparedTransformer<?> subtransformer) {
+        Object cache = _subtransformerCaches.computeIfAbsent(group == null ? NULL : group, k -> {
+          Object created = subtransformer.internalAPI().createExecutionCache(_exampleCountGuess);
+          return created == null ? NULL : created;
+        });
+        return cache == NULL ? null : cache;
+      }
+    }
+
     /**
      * Creates a new instance.
      *
@@ -286,22 +554,26 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
       _subtransformerMap = subtransformerMap;
     }
 
+    /**
+     * @return the map from groups to their corresponding subtransformers
+     */
+    Map<Object, PreparedTransformer<? extends R>> getSubtransformerMap() {
+      return _subtransformerMap;
+    }
+
     @Override
-    protected Map<PreparedTransformer<? extends R>, Object> createExecutionCache(long exampleCountGuess) {
-      HashMap<PreparedTransformer<? extends R>, Object> executionCacheMap = new HashMap<>(_subtransformerMap.size());
-      _subtransformerMap.values()
-          .forEach(prepared -> executionCacheMap.put(prepared,
-              prepared.internalAPI().createExecutionCache(exampleCountGuess)));
-      return executionCacheMap;
+    protected ExecutionCache createExecutionCache(long exampleCountGuess) {
+      return new ExecutionCache(exampleCountGuess);
     }
 
     @Override
-    public R apply(Map<PreparedTransformer<? extends R>, Object> executionCache, List<?> values) {
+    public R apply(ExecutionCache executionCache, List<?> values) {
       // get all the inputs except the first, which is the group value
       Object[] passedValues = values.subList(1, values.size()).toArray();
 
       // find the subtransformer for the provided group
-      PreparedTransformer<? extends R> subtransformer = _subtransformerMap.getOrDefault(values.get(0), null);
+      Object group = values.get(0);
+      PreparedTransformer<? extends R> subtransformer = _subtransformerMap.get(group);
 
       // if no subtransformer is known for the group, behavior depends on the UnknownGroupPolicy
       if (subtransformer == null) {
@@ -309,7 +581,8 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
           case RETURN_NULL:
             return null;
           case USE_ANY:
-            subtransformer = _subtransformerMap.values().iterator().next();
+            group = _subtransformerMap.keySet().iterator().next();
+            subtransformer = _subtransformerMap.get(group);
             break;
           default:
             // this can only happen if there is a bug in this implementation!
@@ -318,7 +591,7 @@ public class PreparedByGroup<R> extends AbstractPreparableTransformerDynamic<R,
         }
       }
 
-      return subtransformer.internalAPI().applyUnsafe(executionCache.get(subtransformer), passedValues);
+      return subtransformer.internalAPI().applyUnsafe(executionCache.get(group, subtransformer), passedValues);
     }
   }
 }
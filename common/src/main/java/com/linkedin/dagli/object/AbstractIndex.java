@@ -2,10 +2,12 @@ package com.linkedin.dagli.object;
 
 import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer1;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.transformer.AbstractPreparableTransformer1WithInput;
 import com.linkedin.dagli.transformer.AbstractPreparedTransformer1;
+import com.linkedin.dagli.util.collection.HeavyHitterSketch;
 import com.linkedin.dagli.util.invariant.Arguments;
 import com.linkedin.dagli.view.AbstractTransformerView;
 import com.linkedin.dagli.view.TransformerView;
@@ -22,6 +24,8 @@ import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 
 /**
@@ -50,6 +54,7 @@ abstract class AbstractIndex<I, T, R, N extends AbstractIndex.Prepared<I, T, R,
 
   private int _maxMappings = Integer.MAX_VALUE;
   private int _maxMappingsDuringPreparation = Integer.MAX_VALUE; // the effective value is always at least maxMappings
+  private int _maxTrackedObjectsDuringApproximatePreparation = 0; // 0 means that preparation counts are exact
   private int _minimumRetentionFrequency = 1;
   private Comparator<? super T> _mappingOrderComparator = null; // must be serializable
   private UnknownItemPolicy _unknownItemPolicy = UnknownItemPolicy.DISTINCT;
@@ -221,6 +226,41 @@ abstract class AbstractIndex<I, T, R, N extends AbstractIndex.Prepared<I, T, R,
     return this.clone(c -> ((AbstractIndex<?, ?, ?, ?, ?>) c)._maxMappingsDuringPreparation = max);
   }
 
+  /**
+   * Gets the maximum number of candidate objects tracked during approximate preparation, or 0 if preparation counts
+   * every distinct object exactly (the default).
+   *
+   * @return the maximum number of objects tracked during approximate preparation, or 0 if approximation is disabled
+   */
+  public int getMaxTrackedObjectsDuringApproximatePreparation() {
+    return _maxTrackedObjectsDuringApproximatePreparation;
+  }
+
+  /**
+   * Returns a copy of this instance that will find the most frequent objects during preparation using a fixed memory
+   * budget, rather than counting every distinct object exactly.  At most {@code maxTracked} candidate objects (and their
+   * counts) are kept in memory at any time, using the Space-Saving algorithm: when a new object is seen and the budget
+   * is exhausted, the least frequent candidate is replaced by the new object, which inherits its count.  This keeps the
+   * objects most likely to be amongst the {@link #withMaxUniqueObjects(int)} most frequent, regardless of the order of
+   * the preparation data, and is recommended when the number of distinct objects is very large.
+   *
+   * The estimated count of an object may exceed its true count, but by no more than
+   * {@code (number of objects seen) / maxTracked}; any object more frequent than this is guaranteed to be kept.  The
+   * greater {@code maxTracked} is relative to the maximum number of unique objects that will be mapped, the more
+   * accurately the most frequent objects will be identified; a budget several times larger is a reasonable choice.  The
+   * observed approximation error is logged when preparation finishes.
+   *
+   * When approximate preparation is enabled, {@link #withMaxUniqueObjectsDuringPreparation(int)} is ignored.
+   *
+   * @param maxTracked the maximum number of candidate objects tracked during preparation, or 0 to count all objects
+   *                   exactly
+   * @return a copy of this instance that will use the specified memory budget during preparation
+   */
+  public S withApproximatePreparation(int maxTracked) {
+    Arguments.check(maxTracked >= 0, "The maximum number of tracked objects cannot be negative");
+    return clone(c -> ((AbstractIndex<?, ?, ?, ?, ?>) c)._maxTrackedObjectsDuringApproximatePreparation = maxTracked);
+  }
+
   /**
    * Returns a copy of this instance that will use the specified comparator to order the indices that are assigned to
    * the mapped items (note that which items are dropped if the map lacks sufficient capacity is still determined by
@@ -316,21 +356,58 @@ abstract class AbstractIndex<I, T, R, N extends AbstractIndex.Prepared<I, T, R,
    * Preparer for the {@link AbstractIndex} transformer.
    */
   static class Preparer<I, T, R, N extends AbstractIndex.Prepared<I, T, R, N>, S extends AbstractIndex<I, T, R, N, S>>
-      extends AbstractStreamPreparer1<I, R, N> {
+      extends AbstractStreamPreparer1<I, R, N> implements MergeablePreparer<R, N, Preparer<I, T, R, N, S>> {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     private final AbstractIndex<I, T, R, N, S> _owner;
     private final long _maxMappingsDuringPreparation;
 
     private Object2LongOpenHashMap<T> _valueCounts;
     private long _unknownCount = 0;
 
+    // used instead of _valueCounts when preparation is approximate
+    private final HeavyHitterSketch<T> _sketch;
+
     Preparer(AbstractIndex<I, T, R, N, S> owner) {
       _owner = owner;
-      _valueCounts = new Object2LongOpenHashMap<>(128); // keep track of value frequency
       _maxMappingsDuringPreparation = owner.getMaxUniqueObjectsDuringPreparation();
+      if (owner._maxTrackedObjectsDuringApproximatePreparation > 0) {
+        _sketch = new HeavyHitterSketch<>(owner._maxTrackedObjectsDuringApproximatePreparation);
+      } else {
+        _sketch = null;
+        _valueCounts = new Object2LongOpenHashMap<>(128); // keep track of value frequency
+      }
+    }
+
+    @Override
+    public Preparer<I, T, R, N, S> createPartial() {
+      return new Preparer<>(_owner);
+    }
+
+    @Override
+    public void merge(Preparer<I, T, R, N, S> partial) {
+      if (_sketch != null) {
+        _sketch.merge(partial._sketch);
+        return;
+      }
+
+      _unknownCount += partial._unknownCount;
+      partial._valueCounts.object2LongEntrySet().fastForEach(entry -> {
+        // as in process(...), new items are not added once the working map size limit has been reached
+        if (_valueCounts.size() < _maxMappingsDuringPreparation || _valueCounts.containsKey(entry.getKey())) {
+          _valueCounts.addTo(entry.getKey(), entry.getLongValue());
+        } else {
+          _unknownCount += entry.getLongValue();
+        }
+      });
     }
 
     @Override
     public PreparerResult<N> finish() {
+      if (_sketch != null) {
+        loadSketchedCounts();
+      }
+
       boolean sawUnknownItems = _unknownCount > 0;
 
       // trim low-count entries
@@ -419,6 +496,25 @@ abstract class AbstractIndex<I, T, R, N extends AbstractIndex.Prepared<I, T, R,
       return new PreparerResult<>(_owner.getPrepared(indexMap));
     }
 
+    /**
+     * Replaces the (approximate) counts in the sketch with a map of estimated counts that can then be processed exactly
+     * as if they had been counted precisely, logging the error of the approximation.
+     */
+    private void loadSketchedCounts() {
+      _valueCounts = new Object2LongOpenHashMap<>(_sketch.size());
+      _sketch.forEach(_valueCounts::put);
+
+      // if any candidates were evicted from the sketch, "unknown" items were seen; only whether _unknownCount is
+      // positive matters
+      long maxError = _sketch.maxError();
+      _unknownCount = maxError > 0 ? 1 : 0;
+
+      LOGGER.info("Approximate preparation of " + _owner.getName() + " tracked " + _sketch.size() + " of a maximum "
+          + _sketch.capacity() + " candidates over " + _sketch.totalCount() + " items; estimated counts exceed true "
+          + "counts by at most " + maxError + ", and untracked items occurred at most " + _sketch.maxUntrackedCount()
+          + " times each");
+    }
+
     private int maxCountIndex(Object2IntOpenHashMap<T> indexMap) {
       return indexMap.object2IntEntrySet()
           .stream()
@@ -442,6 +538,11 @@ abstract class AbstractIndex<I, T, R, N extends AbstractIndex.Prepared<I, T, R,
 
     @Override
     public void process(I items) {
+      if (_sketch != null) {
+        _owner.repeatForEachItem(items, _sketch::add);
+        return;
+      }
+
       _owner.repeatForEachItem(items, item -> {
         // don't increment if a new item would put us over our working map size limit
         if (_valueCounts.size() < _maxMappingsDuringPreparation || _valueCounts.containsKey(item)) {
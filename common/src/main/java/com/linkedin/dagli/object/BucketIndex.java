@@ -2,6 +2,7 @@ package com.linkedin.dagli.object;
 
 import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer1;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.Preparer1;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
@@ -12,9 +13,12 @@ import com.linkedin.dagli.transformer.PreparedTransformer1;
 import com.linkedin.dagli.tuple.Tuple2;
 import com.linkedin.dagli.util.collection.Iterables;
 import com.linkedin.dagli.util.collection.LinkedStack;
+import com.linkedin.dagli.util.collection.QuantileSketch;
 import com.linkedin.dagli.util.invariant.Arguments;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -34,6 +38,10 @@ import java.util.stream.Collectors;
  * Bucket assignment using dynamic programming (in time O(# distinct items * # buckets)) to find an optimal bucketing
  * that minimizes the total squared error: \sum_i (Ceiling((example count) / (bucket count)) - (# items in bucket i))^2
  *
+ * For data with many distinct values (e.g. timestamps or prices), exact preparation may require a great deal of memory
+ * and time; {@link #withApproximateRankError(double)} can be used to instead find the buckets using a fixed-size
+ * quantile sketch of the data.
+ *
  * If you have predefined buckets, use {@link BucketIndex.Prepared} instead.
  */
 @ValueEquality
@@ -42,6 +50,7 @@ public class BucketIndex extends
   private static final long serialVersionUID = 1;
 
   private int _bucketCount = 10;
+  private double _approximateRankError = 0; // 0 == exact preparation
 
   /**
    * Returns a copy of this instance that will use, at most, the specified number of buckets.  The actual number of
@@ -57,6 +66,24 @@ public class BucketIndex extends
     return clone(c -> c._bucketCount = count);
   }
 
+  /**
+   * Returns a copy of this instance that will be prepared approximately, using a {@link QuantileSketch} of the
+   * preparation data rather than counting every distinct value.  The memory required is then independent of the number
+   * of examples and distinct values, and the rank of each bucket boundary (the number of preparation examples that
+   * precede it) will, with high probability, be within {@code maxRankError * (number of examples)} of what it would be
+   * if the buckets were found using the exact counts.
+   *
+   * By default, preparation is exact.
+   *
+   * @param maxRankError the maximum rank error, as a fraction of the number of preparation examples, in the range
+   *                     {@code [0, 1)}; 0 means that preparation will be exact
+   * @return a copy of this instance that will be prepared with the specified maximum rank error
+   */
+  public BucketIndex withApproximateRankError(double maxRankError) {
+    Arguments.check(maxRankError >= 0 && maxRankError < 1, "The maximum rank error must be in the range [0, 1)");
+    return clone(c -> c._approximateRankError = maxRankError);
+  }
+
   /**
    * Returns a copy of this instance that will accept its (comparable) inputs from the provided producer and bucket
    * them according to their natural ordering.
@@ -71,11 +98,15 @@ public class BucketIndex extends
   @Override
   protected Preparer1<Comparable<?>, Integer, PreparedTransformer1<Comparable<?>, Integer>> getPreparer(
       PreparerContext context) {
+    if (_approximateRankError > 0) {
+      return new ApproximatePreparer(_bucketCount, QuantileSketch.kForRankError(_approximateRankError));
+    }
     return new Preparer(_bucketCount);
   }
 
   private static class Preparer<T extends Comparable<? super T>>
-      extends AbstractStreamPreparer1<T, Integer, Prepared<T>> {
+      extends AbstractStreamPreparer1<T, Integer, Prepared<T>>
+      implements MergeablePreparer<Integer, Prepared<T>, Preparer<T>> {
     private final Object2LongOpenHashMap<T> _counts = new Object2LongOpenHashMap<>();
     private final int _bucketCount;
     private long _total = 0;
@@ -84,13 +115,24 @@ public class BucketIndex extends
       _bucketCount = bucketCount;
     }
 
+    @Override
+    public Preparer<T> createPartial() {
+      return new Preparer<>(_bucketCount);
+    }
+
+    @Override
+    public void merge(Preparer<T> partial) {
+      partial._counts.object2LongEntrySet().fastForEach(entry -> _counts.addTo(entry.getKey(), entry.getLongValue()));
+      _total += partial._total;
+    }
+
     @Override
     public void process(T value1) {
       _counts.addTo(value1, 1);
       _total++;
     }
 
-    private Tuple2<LinkedStack<T>, Double> findOptimalBuckets(
+    private static <T> Tuple2<LinkedStack<T>, Double> findOptimalBuckets(
         List<Object2LongMap.Entry<T>> items, long targetBucketSize, int firstRemainingItemIndex,
         int bucketsRemaining, Tuple2<LinkedStack<T>, Double>[][] cache) {
       Tuple2<LinkedStack<T>, Double> result;
@@ -131,16 +173,30 @@ public class BucketIndex extends
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public PreparerResult<Prepared<T>> finish() {
       List<Object2LongMap.Entry<T>> sortedEntries = _counts.object2LongEntrySet()
           .stream()
           .sorted(Map.Entry.comparingByKey())
           .collect(Collectors.toList());
 
+      return new PreparerResult<>(new Prepared<T>().withBucketBounds(findBucketBounds(sortedEntries, _total,
+          _bucketCount)));
+    }
+
+    /**
+     * Finds the optimal bucket bounds for a list of distinct values and their counts.
+     *
+     * @param sortedEntries the distinct values and their counts, sorted by value
+     * @param total the sum of the counts
+     * @param bucketCount the (maximum) number of buckets
+     * @param <T> the type of value being bucketized
+     * @return the (ascending) list of bucket bounds
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> findBucketBounds(List<Object2LongMap.Entry<T>> sortedEntries, long total, int bucketCount) {
       Tuple2<LinkedStack<T>, Double> bestBucketization =
-          findOptimalBuckets(sortedEntries, (_total + _bucketCount - 1) / _bucketCount, 0, _bucketCount,
-              new Tuple2[_bucketCount][sortedEntries.size()]);
+          findOptimalBuckets(sortedEntries, (total + bucketCount - 1) / bucketCount, 0, bucketCount,
+              new Tuple2[bucketCount][sortedEntries.size()]);
 
       final List<T> bucketBounds;
       if (bestBucketization.get0() == null) {
@@ -149,7 +205,50 @@ public class BucketIndex extends
         bucketBounds = bestBucketization.get0().toList();
         Collections.reverse(bucketBounds);
       }
-      return new PreparerResult<>(new Prepared<T>().withBucketBounds(bucketBounds));
+      return bucketBounds;
+    }
+  }
+
+  /**
+   * Preparer that approximates the distribution of values with a {@link QuantileSketch}; the sketch's retained values,
+   * weighted by the number of examples they represent, then stand in for the exact counts when finding the buckets.
+   */
+  private static class ApproximatePreparer<T extends Comparable<? super T>>
+      extends AbstractStreamPreparer1<T, Integer, Prepared<T>>
+      implements MergeablePreparer<Integer, Prepared<T>, ApproximatePreparer<T>> {
+    private final int _bucketCount;
+    private final int _k;
+    private final QuantileSketch<T> _sketch;
+
+    ApproximatePreparer(int bucketCount, int k) {
+      _bucketCount = bucketCount;
+      _k = k;
+      _sketch = new QuantileSketch<>(Comparator.naturalOrder(), k, 0);
+    }
+
+    @Override
+    public ApproximatePreparer<T> createPartial() {
+      return new ApproximatePreparer<>(_bucketCount, _k);
+    }
+
+    @Override
+    public void merge(ApproximatePreparer<T> partial) {
+      _sketch.merge(partial._sketch);
+    }
+
+    @Override
+    public void process(T value1) {
+      _sketch.add(value1);
+    }
+
+    @Override
+    public PreparerResult<Prepared<T>> finish() {
+      List<Object2LongMap.Entry<T>> sortedEntries = new ArrayList<>(_sketch.retainedCount());
+      _sketch.forEachSortedItem(
+          (value, weight) -> sortedEntries.add(new AbstractObject2LongMap.BasicEntry<>(value, weight)));
+
+      return new PreparerResult<>(new Prepared<T>().withBucketBounds(
+          Preparer.findBucketBounds(sortedEntries, _sketch.count(), _bucketCount)));
     }
   }
 
@@ -3,6 +3,7 @@ package com.linkedin.dagli.object;
 import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.map.DictionaryValue;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer1;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.transformer.AbstractPreparableTransformer1WithInput;
@@ -47,9 +48,20 @@ public class Multiplicity
   /**
    * Preparer for {@link Multiplicity} instances.
    */
-  private static class Preparer extends AbstractStreamPreparer1<Object, Long, PreparedTransformer1<Object, Long>> {
+  private static class Preparer extends AbstractStreamPreparer1<Object, Long, PreparedTransformer1<Object, Long>>
+      implements MergeablePreparer<Long, PreparedTransformer1<Object, Long>, Preparer> {
     private final Object2LongOpenHashMap<Object> _counts = new Object2LongOpenHashMap<>();
 
+    @Override
+    public Preparer createPartial() {
+      return new Preparer();
+    }
+
+    @Override
+    public void merge(Preparer partial) {
+      partial._counts.object2LongEntrySet().fastForEach(entry -> _counts.addTo(entry.getKey(), entry.getLongValue()));
+    }
+
     @Override
     public PreparerResult<PreparedTransformer1<Object, Long>> finish() {
       // in case you're wondering why we convert the open hash map with primitive values (lower memory consumption)
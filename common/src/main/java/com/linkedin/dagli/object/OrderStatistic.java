@@ -4,9 +4,16 @@ import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.function.FunctionResult1;
 import com.linkedin.dagli.generator.Constant;
 import com.linkedin.dagli.map.Multiset;
+import com.linkedin.dagli.preparer.AbstractStreamPreparer1;
+import com.linkedin.dagli.preparer.MergeablePreparer;
+import com.linkedin.dagli.preparer.PreparerContext;
+import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.producer.Producer;
+import com.linkedin.dagli.transformer.AbstractPreparableTransformer1WithInput;
 import com.linkedin.dagli.transformer.AbstractPreparedTransformer1WithInput;
 import com.linkedin.dagli.transformer.AbstractPreparedTransformer3;
+import com.linkedin.dagli.transformer.ConstantResultTransformation1;
+import com.linkedin.dagli.util.collection.QuantileSketch;
 import com.linkedin.dagli.util.invariant.Arguments;
 import it.unimi.dsi.fastutil.longs.LongCollection;
 import it.unimi.dsi.fastutil.longs.LongIterator;
@@ -27,7 +34,9 @@ import java.util.Map;
  *
  * This transformer finds the kth order statistic from a (sorted) multiset that associates each value with its count.
  * the order statistic may also be expressed as a percentile (e.g. the median is the 50th percentile).  If you do not
- * have a sorted multiset handy, there are methods that will automatically construct one for you.
+ * have a sorted multiset handy, there are methods that will automatically construct one for you, including
+ * {@link #withApproximateValuesInput(Producer, double)}, which approximates the multiset in a fixed amount of memory
+ * when there are too many distinct values to count them all.
  */
 @ValueEquality
 public class OrderStatistic<T>
@@ -104,6 +113,78 @@ public class OrderStatistic<T>
     }
   }
 
+  /**
+   * Approximates the sorted multiset of all the values seen during preparation with a {@link QuantileSketch}: each
+   * value retained by the sketch is associated with the number of values it stands in for.
+   */
+  @ValueEquality
+  private static class SketchedSortedMultiset<T> extends AbstractPreparableTransformer1WithInput<
+      T,
+      Object2LongSortedMap<T>,
+      ConstantResultTransformation1.Prepared<T, Object2LongSortedMap<T>>,
+      SketchedSortedMultiset<T>> {
+    private static final long serialVersionUID = 1;
+
+    private final Comparator<? super T> _comparator;
+    private final double _maxRankError;
+
+    private SketchedSortedMultiset(Comparator<? super T> comparator, double maxRankError) {
+      _comparator = comparator;
+      _maxRankError = maxRankError;
+    }
+
+    @Override
+    protected boolean hasAlwaysConstantResult() {
+      return true;
+    }
+
+    @Override
+    protected Preparer<T> getPreparer(PreparerContext context) {
+      return new Preparer<>(_comparator, QuantileSketch.kForRankError(_maxRankError));
+    }
+
+    private static class Preparer<T> extends AbstractStreamPreparer1<
+        T,
+        Object2LongSortedMap<T>,
+        ConstantResultTransformation1.Prepared<T, Object2LongSortedMap<T>>>
+        implements MergeablePreparer<
+        Object2LongSortedMap<T>,
+        ConstantResultTransformation1.Prepared<T, Object2LongSortedMap<T>>,
+        Preparer<T>> {
+      private final Comparator<? super T> _comparator;
+      private final int _k;
+      private final QuantileSketch<T> _sketch;
+
+      Preparer(Comparator<? super T> comparator, int k) {
+        _comparator = comparator;
+        _k = k;
+        _sketch = new QuantileSketch<>(comparator, k, 0);
+      }
+
+      @Override
+      public Preparer<T> createPartial() {
+        return new Preparer<>(_comparator, _k);
+      }
+
+      @Override
+      public void merge(Preparer<T> partial) {
+        _sketch.merge(partial._sketch);
+      }
+
+      @Override
+      public void process(T value) {
+        _sketch.add(value);
+      }
+
+      @Override
+      public PreparerResult<ConstantResultTransformation1.Prepared<T, Object2LongSortedMap<T>>> finish() {
+        Object2LongLinkedOpenHashMap<T> result = new Object2LongLinkedOpenHashMap<>(_sketch.retainedCount());
+        _sketch.forEachSortedItem(result::put);
+        return new PreparerResult<>(new ConstantResultTransformation1.Prepared<T, Object2LongSortedMap<T>>(result));
+      }
+    }
+  }
+
   /**
    * Returns a copy of this instance that will find the kth order statistic of the values from the given input, as
    * naturally ordered (i.e. {@link Comparator#naturalOrder()}).
@@ -120,6 +201,31 @@ public class OrderStatistic<T>
     return withMultisetInput(new Multiset<T>().withInput((Producer) input));
   }
 
+  /**
+   * Returns a copy of this instance that will find the approximate kth order statistic of the values from the given
+   * input, as naturally ordered (i.e. {@link Comparator#naturalOrder()}).
+   *
+   * Unlike {@link #withValuesInput(Producer)}, which counts every distinct value, the values are summarized by a
+   * {@link QuantileSketch} whose size does not depend on the number of examples.  With high probability, the rank of
+   * the value found (its position amongst the values from smallest to largest) will be within
+   * {@code maxRankError * (number of values)} of the exact rank sought.
+   *
+   * This method automatically creates a preparable transformer ancestor; a DAG using the returned copy will therefore
+   * be preparable.
+   *
+   * @param input an input that provides the values whose kth order statistics should be calculated
+   * @param maxRankError the maximum rank error, as a fraction of the number of values, in the range {@code (0, 1)}
+   * @return a copy of this instance that will find the approximate kth order statistic of the values from the given
+   *         input
+   */
+  @SuppressWarnings("unchecked") // the values are known to be comparable
+  public OrderStatistic<T> withApproximateValuesInput(Producer<? extends Comparable<T>> input, double maxRankError) {
+    Arguments.check(maxRankError > 0 && maxRankError < 1, "The maximum rank error must be in the range (0, 1)");
+    return withSortedMultisetInput(
+        new SketchedSortedMultiset<T>((Comparator) Comparator.naturalOrder(), maxRankError).withInput(
+            (Producer) input));
+  }
+
   /**
    * Returns a copy of this instance that will find the kth order statistic of the values from the given multiset, as
    * naturally ordered (i.e. {@link Comparator#naturalOrder()}).
@@ -2,12 +2,17 @@ package com.linkedin.dagli.object;
 
 import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer1;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.producer.MissingInput;
 import com.linkedin.dagli.transformer.AbstractPreparableTransformer1WithInput;
 import com.linkedin.dagli.transformer.AbstractPreparedTransformer1WithInput;
+import com.linkedin.dagli.util.collection.QuantileSketch;
+import com.linkedin.dagli.util.invariant.Arguments;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.Object2IntRBTreeMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Objects;
@@ -19,7 +24,8 @@ import java.util.Objects;
  * second-lowest item in this list and thus get rank 1.
  *
  * Note that keeping track of so many items can be expensive.  Use {@link #withLimit(int)} method to restrict the number
- * of items tracked to the top K.
+ * of items tracked to the top K, or {@link #withApproximateRankError(double)} to calculate approximate ranks using a
+ * fixed amount of memory.
  *
  * If a comparator is not specified, the default is natural order.  In this case, a runtime exception will
  * result if the input type does not implementer Comparable (since it won't have a natural order).
@@ -31,6 +37,7 @@ public class Rank extends AbstractPreparableTransformer1WithInput<Object, Intege
   private Comparator<?> _comparator = Comparator.naturalOrder();
   private int _limit = Integer.MAX_VALUE;
   private boolean _ignoreDuplicates = false;
+  private double _approximateRankError = 0; // 0 == exact preparation
 
   /**
    * Sets a limit on the number of objects ranked; only the top [limit] entries seen during preparation will be stored.
@@ -55,6 +62,33 @@ public class Rank extends AbstractPreparableTransformer1WithInput<Object, Intege
     return clone(c -> c._ignoreDuplicates = ignore);
   }
 
+  /**
+   * Returns a copy of this instance that will be prepared approximately, using a {@link QuantileSketch} of the
+   * preparation data rather than remembering every item.  The memory required is then independent of the number of
+   * preparation examples, and, with high probability, the rank returned for any value will be within
+   * {@code maxRankError * (number of examples)} of its exact rank.
+   *
+   * Approximate ranking cannot be used together with {@link #withIgnoreDuplicates(boolean)}, since the sketch does not
+   * track the number of distinct items.
+   *
+   * By default, preparation is exact.
+   *
+   * @param maxRankError the maximum rank error, as a fraction of the number of preparation examples, in the range
+   *                     {@code [0, 1)}; 0 means that preparation will be exact
+   * @return a new Rank preparable with the specified maximum rank error
+   */
+  public Rank withApproximateRankError(double maxRankError) {
+    Arguments.check(maxRankError >= 0 && maxRankError < 1, "The maximum rank error must be in the range [0, 1)");
+    return clone(c -> c._approximateRankError = maxRankError);
+  }
+
+  @Override
+  public void validate() {
+    super.validate();
+    Arguments.check(!_ignoreDuplicates || _approximateRankError == 0,
+        "Approximate ranking (withApproximateRankError(...)) cannot be used when ignoring duplicates");
+  }
+
   /**
    * Sets a comparator to be used to sort and rank the items.  By default, items are ranked in natural order, so the
    * LOWEST value will have the highest rank.  Oftentimes you want to instead rank from highest to lowest, in which case
@@ -208,8 +242,65 @@ public class Rank extends AbstractPreparableTransformer1WithInput<Object, Intege
     }
   }
 
+  /**
+   * Preparer for the {@link Rank} transformer that approximates the ranks using a {@link QuantileSketch}.
+   */
+  private static class ApproximatePreparer extends AbstractStreamPreparer1<Object, Integer, Prepared>
+      implements MergeablePreparer<Integer, Prepared, ApproximatePreparer> {
+    private final int _limit;
+    private final int _k;
+    private final Comparator<Object> _comparator;
+    private final QuantileSketch<Object> _sketch;
+
+    ApproximatePreparer(int limit, int k, Comparator<Object> comparator) {
+      _limit = limit;
+      _k = k;
+      _comparator = comparator;
+      _sketch = new QuantileSketch<>(comparator, k, 0);
+    }
+
+    @Override
+    public ApproximatePreparer createPartial() {
+      return new ApproximatePreparer(_limit, _k, _comparator);
+    }
+
+    @Override
+    public void merge(ApproximatePreparer partial) {
+      _sketch.merge(partial._sketch);
+    }
+
+    @Override
+    public void process(Object value0) {
+      _sketch.add(value0);
+    }
+
+    @Override
+    public PreparerResult<Prepared> finish() {
+      ArrayList<Object> objects = new ArrayList<>(_sketch.retainedCount());
+      IntArrayList ranks = new IntArrayList(_sketch.retainedCount() + 1);
+      ranks.add(0);
+
+      // as in exact preparation, only the items with a rank lower than the limit are kept, and no rank may exceed it
+      long[] nextRank = new long[1];
+      _sketch.forEachSortedItem((item, weight) -> {
+        if (nextRank[0] < _limit) {
+          objects.add(item);
+          nextRank[0] += weight;
+          ranks.add((int) Math.min(nextRank[0], _limit));
+        }
+      });
+
+      return new PreparerResult<>(new Prepared(objects.toArray(), ranks.toIntArray(), _comparator));
+    }
+  }
+
   @Override
-  protected Preparer getPreparer(PreparerContext context) {
+  @SuppressWarnings("unchecked")
+  protected AbstractStreamPreparer1<Object, Integer, Prepared> getPreparer(PreparerContext context) {
+    if (_approximateRankError > 0) {
+      return new ApproximatePreparer(_limit, QuantileSketch.kForRankError(_approximateRankError),
+          (Comparator<Object>) _comparator);
+    }
     return new Preparer(this);
   }
 }
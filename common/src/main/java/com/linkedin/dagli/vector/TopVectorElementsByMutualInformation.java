@@ -5,6 +5,7 @@ import com.linkedin.dagli.input.SparseFeatureVectorInput;
 import com.linkedin.dagli.math.vector.Vector;
 import com.linkedin.dagli.math.vector.VectorElement;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer2;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.producer.MissingInput;
@@ -81,7 +82,8 @@ public class TopVectorElementsByMutualInformation
    * This class is package-private to facilitate testing.
    */
   static class Preparer
-      extends AbstractStreamPreparer2<Object, Vector, Vector, PreparedTransformer2<Object, Vector, Vector>> {
+      extends AbstractStreamPreparer2<Object, Vector, Vector, PreparedTransformer2<Object, Vector, Vector>>
+      implements MergeablePreparer<Vector, PreparedTransformer2<Object, Vector, Vector>, Preparer> {
     private final int _maxElementsToKeep;
 
     // maps from vector element index to a per-label table of how many times that label co-occurred with the event of
@@ -104,6 +106,29 @@ public class TopVectorElementsByMutualInformation
       _maxElementsToKeep = maxElementsToKeep;
     }
 
+    @Override
+    public Preparer createPartial() {
+      return new Preparer(_maxElementsToKeep);
+    }
+
+    @Override
+    public void merge(Preparer partial) {
+      _totalCount += partial._totalCount;
+      partial._labelTotals.object2LongEntrySet()
+          .fastForEach(entry -> _labelTotals.addTo(entry.getKey(), entry.getLongValue()));
+
+      partial._elementIndexToLabelCooccurrenceMap.long2ObjectEntrySet().fastForEach(entry -> {
+        Object2LongOpenHashMap<Object> perLabelCounts = _elementIndexToLabelCooccurrenceMap.get(entry.getLongKey());
+        if (perLabelCounts == null) {
+          _elementIndexToLabelCooccurrenceMap.put(entry.getLongKey(), entry.getValue()); // take ownership
+        } else {
+          entry.getValue()
+              .object2LongEntrySet()
+              .fastForEach(labelCount -> perLabelCounts.addTo(labelCount.getKey(), labelCount.getLongValue()));
+        }
+      });
+    }
+
     // sum all values in a something-to-long map
     private static long sumValues(Object2LongOpenHashMap<?> map) {
       long[] val = new long[1];
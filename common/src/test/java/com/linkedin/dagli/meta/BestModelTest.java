@@ -1,5 +1,6 @@
 package com.linkedin.dagli.meta;
 
+import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.dag.DAG;
 import com.linkedin.dagli.dag.DAG3x1;
 import com.linkedin.dagli.dag.SimpleDAGExecutor;
@@ -7,20 +8,32 @@ import com.linkedin.dagli.evaluation.MultinomialEvaluation;
 import com.linkedin.dagli.function.FunctionResult1;
 import com.linkedin.dagli.function.FunctionResult2;
 import com.linkedin.dagli.placeholder.Placeholder;
+import com.linkedin.dagli.preparer.AbstractStreamPreparer2;
+import com.linkedin.dagli.preparer.PreparerContext;
+import com.linkedin.dagli.preparer.PreparerResult;
+import com.linkedin.dagli.producer.Producer;
 import com.linkedin.dagli.tester.Tester;
+import com.linkedin.dagli.transformer.AbstractPreparableTransformer2;
 import com.linkedin.dagli.transformer.TriviallyPreparable;
 import com.linkedin.dagli.util.function.Function1;
+import com.linkedin.dagli.util.function.Function2;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
 
 public class BestModelTest {
-  private static void getXorData(List<Integer> a, List<Integer> b, List<Integer> r) {
+  private static void getXorData(List<Integer> a, List<Integer> b, List<Integer> r, int count) {
     Random rand = new Random(1337);
-    for (int i = 0; i < 1000; i++) {
+    for (int i = 0; i < count; i++) {
       int ai = rand.nextBoolean() ? 1 : 0;
       int bi = rand.nextBoolean() ? 1 : 0;
       int ri = ai ^ bi;
@@ -42,7 +55,7 @@ public class BestModelTest {
     List<Integer> b = new ArrayList<>();
     List<Integer> r = new ArrayList<>();
 
-    getXorData(a, b, r);
+    getXorData(a, b, r, 1000);
 
     Placeholder<Integer> sa = new Placeholder<>();
     Placeholder<Integer> sb = new Placeholder<>();
@@ -77,4 +90,133 @@ public class BestModelTest {
             .test())
         .test();
   }
+
+  private static int andFunction(int a, int b) {
+    return a & b;
+  }
+
+  private static int firstFunction(int a, int b) {
+    return a;
+  }
+
+  private static int secondFunction(int a, int b) {
+    return b;
+  }
+
+  /**
+   * A candidate that applies a fixed function to its inputs, counting (by name) the examples processed by its
+   * preparers.
+   */
+  @ValueEquality
+  private static class CountingCandidate
+      extends AbstractPreparableTransformer2<Integer, Integer, Integer, FunctionResult2<Integer, Integer, Integer>,
+      CountingCandidate> {
+    private static final long serialVersionUID = 1;
+
+    static final ConcurrentHashMap<String, AtomicLong> PROCESSED_COUNTS = new ConcurrentHashMap<>();
+
+    private final String _name;
+    private final FunctionResult2<Integer, Integer, Integer> _prepared;
+
+    CountingCandidate(String name, Function2.Serializable<Integer, Integer, Integer> function,
+        Producer<? extends Integer> input1, Producer<? extends Integer> input2) {
+      super(input1, input2);
+      _name = name;
+      _prepared = new FunctionResult2<Integer, Integer, Integer>().withFunction(function);
+    }
+
+    static long getProcessedCount(String name) {
+      AtomicLong count = PROCESSED_COUNTS.get(name);
+      return count == null ? 0 : count.get();
+    }
+
+    @Override
+    protected Preparer getPreparer(PreparerContext context) {
+      return new Preparer(PROCESSED_COUNTS.computeIfAbsent(_name, k -> new AtomicLong()), _prepared);
+    }
+
+    private static class Preparer
+        extends AbstractStreamPreparer2<Integer, Integer, Integer, FunctionResult2<Integer, Integer, Integer>> {
+      private final AtomicLong _processedCount;
+      private final FunctionResult2<Integer, Integer, Integer> _prepared;
+
+      Preparer(AtomicLong processedCount, FunctionResult2<Integer, Integer, Integer> prepared) {
+        _processedCount = processedCount;
+        _prepared = prepared;
+      }
+
+      @Override
+      public void process(Integer valueA, Integer valueB) {
+        _processedCount.incrementAndGet();
+      }
+
+      @Override
+      public PreparerResult<FunctionResult2<Integer, Integer, Integer>> finish() {
+        return new PreparerResult<>(_prepared);
+      }
+    }
+  }
+
+  @Test
+  public void testSuccessiveHalving() {
+    List<Integer> a = new ArrayList<>();
+    List<Integer> b = new ArrayList<>();
+    List<Integer> r = new ArrayList<>();
+
+    // enough examples that the first round evaluates the candidates on a sample (a quarter) of the data
+    getXorData(a, b, r, 8000);
+
+    Placeholder<Integer> sa = new Placeholder<>();
+    Placeholder<Integer> sb = new Placeholder<>();
+    Placeholder<Integer> sr = new Placeholder<>();
+
+    // five candidates, processed two at a time, are reduced to three, then two, then the (single) best
+    BestModel<Integer> bestModel = new BestModel<Integer>()
+        .withSplitCount(4)
+        .withSeed(1337)
+        .withMaxConcurrentCandidates(2)
+        .withSuccessiveHalving(2)
+        .withEvaluator(new MultinomialEvaluation().withActualLabelInput(sr)::withPredictedLabelInput)
+        .withCandidates(
+            new CountingCandidate("first", BestModelTest::firstFunction, sa, sb),
+            new CountingCandidate("second", BestModelTest::secondFunction, sa, sb),
+            new CountingCandidate("and", BestModelTest::andFunction, sa, sb),
+            new CountingCandidate("xor", BestModelTest::xorFunction, sa, sb),
+            new CountingCandidate("second again", BestModelTest::secondFunction, sa, sb));
+
+    DAG3x1<Integer, Integer, Integer, Integer> dag =
+        DAG.withPlaceholders(sa, sb, sr).withOutput(bestModel).withExecutor(new SimpleDAGExecutor());
+
+    Tester.of(dag)
+        .allParallelInputs(a, b, r)
+        .preparedTransformerTester(prepared -> Tester.of(prepared)
+            .input(1, 1, null)
+            .output(0)
+            .input(0, 1, null)
+            .output(1)
+            .test())
+        .test();
+
+    // prepare once more, counting the examples each candidate is trained on
+    CountingCandidate.PROCESSED_COUNTS.clear();
+    dag.prepare(a, b, r);
+
+    // the winner and the runner-up are evaluated in every round, including the last, in which each is cross-trained on
+    // all the data (three-quarters of it in each of the four splits); the winner is then also retrained on all of it
+    long andCount = CountingCandidate.getProcessedCount("and");
+    Assertions.assertTrue(andCount > 3 * a.size());
+    Assertions.assertEquals(andCount + a.size(), CountingCandidate.getProcessedCount("xor"));
+
+    // two of the three (equally bad) single-input candidates are dropped after the first round, having been trained
+    // (across all the cross-training splits) on fewer examples than the data contains; the other is dropped after the
+    // second round
+    List<Long> singleInputCounts = Stream.of("first", "second", "second again")
+        .map(CountingCandidate::getProcessedCount)
+        .sorted()
+        .collect(Collectors.toList());
+    Assertions.assertTrue(singleInputCounts.get(0) > 0);
+    Assertions.assertTrue(singleInputCounts.get(1) < a.size());
+    Assertions.assertTrue(singleInputCounts.get(2) > a.size());
+    Assertions.assertTrue(singleInputCounts.get(2) < andCount);
+  }
 }
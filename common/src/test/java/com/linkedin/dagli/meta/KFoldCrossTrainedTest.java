@@ -3,6 +3,8 @@ package com.linkedin.dagli.meta;
 import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.dag.LocalDAGExecutor;
 import com.linkedin.dagli.function.FunctionResult2;
+import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.preparer.AbstractBatchPreparer2;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer2;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
@@ -11,12 +13,15 @@ import com.linkedin.dagli.producer.MissingInput;
 import com.linkedin.dagli.tester.Tester;
 import com.linkedin.dagli.transformer.AbstractPreparableTransformer2;
 import com.linkedin.dagli.transformer.PreparedTransformer;
+import com.linkedin.dagli.tuple.Tuple2;
 import com.linkedin.dagli.util.function.Function2;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 import org.junit.jupiter.api.Test;
@@ -139,4 +144,65 @@ public class KFoldCrossTrainedTest {
     }
   }
 
+  @ValueEquality
+  private static class TestBatchPreparable
+      extends AbstractPreparableTransformer2<Long, Long, Long, FunctionResult2<Long, Long, Long>, TestBatchPreparable> {
+
+    private static final long serialVersionUID = 1;
+
+    public TestBatchPreparable() {
+      super(MissingInput.get(), MissingInput.get());
+    }
+
+    public static class Preparer extends AbstractBatchPreparer2<Long, Long, Long, FunctionResult2<Long, Long, Long>> {
+      // the first values of the inputs provided to each preparer's finish(...) method
+      public static ConcurrentLinkedQueue<List<Long>> _inputs = new ConcurrentLinkedQueue<>();
+
+      @Override
+      public PreparerResult<FunctionResult2<Long, Long, Long>> finish(ObjectReader<Tuple2<Long, Long>> inputs) {
+        ArrayList<Long> firstValues = new ArrayList<>();
+        inputs.forEach(tuple -> firstValues.add(tuple.get0()));
+        assertEquals(inputs.size64(), firstValues.size());
+        _inputs.add(firstValues);
+
+        return new PreparerResult<>(new FunctionResult2<Long, Long, Long>().withFunction(
+            new TestPreparable.Preparer.TrainedIndicator(new HashSet<>(firstValues))));
+      }
+
+      @Override
+      public void process(Long valueA, Long valueB) { }
+    }
+
+    @Override
+    public Preparer getPreparer(PreparerContext context) {
+      return new Preparer();
+    }
+  }
+
+  @Test
+  public void batchTest() {
+    List<Long> values = LongStream.range(0, 100).boxed().collect(Collectors.toList());
+    KFoldCrossTrained<Long> kfold =
+        new KFoldCrossTrained<Long>().withSplitCount(10).withPreparable(new TestBatchPreparable());
+
+    Tester.of(kfold)
+        .allParallelInputs(values, values, values)
+        .allOutputs(values.stream().map(v -> 0L).collect(Collectors.toList())) // all outputs should be 0
+        .test();
+
+    TestBatchPreparable.Preparer._inputs.clear();
+    kfold.internalAPI().prepareUnsafe(new LocalDAGExecutor(), new Collection[]{values, values, values});
+
+    // 10 folds + 1 final preparer on all the data
+    assertEquals(11, TestBatchPreparable.Preparer._inputs.size());
+    HashMap<Long, Integer> counts = new HashMap<>();
+    for (List<Long> inputs : TestBatchPreparable.Preparer._inputs) {
+      // examples should be provided in their original order
+      assertEquals(inputs.stream().sorted().collect(Collectors.toList()), inputs);
+      inputs.forEach(v -> counts.merge(v, 1, Integer::sum));
+    }
+    for (Long v : values) {
+      assertEquals(10, (int) counts.get(v)); // 9 folds + 1 final fold
+    }
+  }
 }
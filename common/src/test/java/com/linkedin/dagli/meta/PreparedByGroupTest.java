@@ -1,14 +1,31 @@
 package com.linkedin.dagli.meta;
 
+import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.dag.DAG;
+import com.linkedin.dagli.dag.DAG2x1;
 import com.linkedin.dagli.dag.DAG2x2;
+import com.linkedin.dagli.dag.LocalStorage;
+import com.linkedin.dagli.dag.MultithreadedDAGExecutor;
+import com.linkedin.dagli.function.FunctionResult1;
 import com.linkedin.dagli.object.Multiplicity;
+import com.linkedin.dagli.objectio.ObjectReader;
 import com.linkedin.dagli.placeholder.Placeholder;
+import com.linkedin.dagli.preparer.AbstractBatchPreparer1;
+import com.linkedin.dagli.preparer.PreparerContext;
+import com.linkedin.dagli.preparer.PreparerResult;
+import com.linkedin.dagli.producer.Producer;
 import com.linkedin.dagli.tester.Tester;
+import com.linkedin.dagli.transformer.AbstractPreparableTransformer1;
 import com.linkedin.dagli.transformer.PreparedTransformer;
 import com.linkedin.dagli.tuple.Tuple2;
+import com.linkedin.dagli.util.function.Function1;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -46,4 +63,169 @@ class PreparedByGroupTest {
           Assertions.assertEquals(result2.get1().get("B"), 3); // three 3s in group B
         }).test();
   }
+
+  /**
+   * Batch-prepared transformer whose result is the sum of the values it was prepared with, plus the input value.
+   */
+  @ValueEquality
+  private static class TestBatchSum
+      extends AbstractPreparableTransformer1<Integer, Long, FunctionResult1<Integer, Long>, TestBatchSum> {
+    private static final long serialVersionUID = 1;
+
+    TestBatchSum(Producer<? extends Integer> input) {
+      super(input);
+    }
+
+    private static class PlusSum implements Function1.Serializable<Integer, Long> {
+      private static final long serialVersionUID = 1;
+      private final long _sum;
+
+      PlusSum(long sum) {
+        _sum = sum;
+      }
+
+      @Override
+      public Long apply(Integer value) {
+        return _sum + value;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        return o instanceof PlusSum && _sum == ((PlusSum) o)._sum;
+      }
+
+      @Override
+      public int hashCode() {
+        return Long.hashCode(_sum);
+      }
+    }
+
+    private static class Preparer extends AbstractBatchPreparer1<Integer, Long, FunctionResult1<Integer, Long>> {
+      private long _processedCount = 0;
+
+      @Override
+      public void process(Integer value) {
+        _processedCount++;
+      }
+
+      @Override
+      public PreparerResult<FunctionResult1<Integer, Long>> finish(ObjectReader<Integer> inputs) {
+        Assertions.assertEquals(_processedCount, inputs.size64());
+        long sum = 0;
+        for (Integer value : inputs) {
+          sum += value;
+        }
+        return new PreparerResult<>(new FunctionResult1<Integer, Long>().withFunction(new PlusSum(sum)));
+      }
+    }
+
+    @Override
+    protected Preparer getPreparer(PreparerContext context) {
+      return new Preparer();
+    }
+  }
+
+  @Test
+  void testManyGroupsInBatchMode() {
+    Placeholder<Integer> group = new Placeholder<>();
+    Placeholder<Integer> values = new Placeholder<>();
+
+    // fewer buckets than groups, so each bucket holds the examples of several groups
+    PreparedByGroup<Long> sumByGroup = new PreparedByGroup<Long>().withGroupInput(group)
+        .withTransformer(new TestBatchSum(values))
+        .withBucketCount(7);
+
+    DAG2x1<Integer, Integer, Long> dag = DAG.withPlaceholders(group, values).withOutput(sumByGroup);
+
+    // 100 groups, each with the values 0, 1, ..., 9
+    List<Integer> groups = IntStream.range(0, 1000).map(i -> i % 100).boxed().collect(Collectors.toList());
+    List<Integer> inputs = IntStream.range(0, 1000).map(i -> i / 100).boxed().collect(Collectors.toList());
+    List<Long> outputs = new ArrayList<>();
+    inputs.forEach(input -> outputs.add(45L + input));
+
+    Tester.of(dag)
+        .allParallelInputs(groups, inputs)
+        .allOutputs(outputs)
+        .preparedTransformerTester(preparedDAG -> {
+          Assertions.assertEquals(45L + 3, (long) preparedDAG.apply(17, 3));
+          Assertions.assertNull(preparedDAG.apply(100, 3)); // unknown group
+        }).test();
+  }
+
+  @Test
+  void testSubtransformersDeserializedLazily() {
+    Placeholder<Integer> group = new Placeholder<>();
+    Placeholder<Integer> values = new Placeholder<>();
+
+    PreparedByGroup<Long> sumByGroup =
+        new PreparedByGroup<Long>().withGroupInput(group).withTransformer(new TestBatchSum(values));
+
+    List<Integer> groups = IntStream.range(0, 100).map(i -> i % 10).boxed().collect(Collectors.toList());
+    List<Integer> inputs = IntStream.range(0, 100).map(i -> i / 10).boxed().collect(Collectors.toList());
+
+    // building the prepared DAG hashes and compares its nodes, which must not deserialize the subtransformers
+    DAG2x1.Prepared<Integer, Integer, Long> preparedDAG =
+        DAG.withPlaceholders(group, values).withOutput(sumByGroup).prepare(groups, inputs);
+
+    PreparedByGroup.Prepared<?> prepared =
+        preparedDAG.producers(PreparedByGroup.Prepared.class).findFirst().get().peek();
+    LazilyDeserializedMap<?, ?> subtransformers = (LazilyDeserializedMap<?, ?>) prepared.getSubtransformerMap();
+    Assertions.assertEquals(10, subtransformers.size());
+    prepared.hashCode();
+    Assertions.assertEquals(0, subtransformers.getDeserializedCount());
+
+    Assertions.assertEquals(45L + 3, (long) preparedDAG.apply(7, 3));
+    Assertions.assertEquals(1, subtransformers.getDeserializedCount());
+  }
+
+  @Test
+  void testExecutorInputsNotStoredTwice() {
+    checkBucketedExampleCount(LocalStorage.MEMORY_HEAP, 0);
+    checkBucketedExampleCount(LocalStorage.DISK_KRYO, 100);
+  }
+
+  private static void checkBucketedExampleCount(LocalStorage storage, long expectedBucketedCount) {
+    PreparedByGroup<Long> sumByGroup = new PreparedByGroup<Long>().withGroupInput(new Placeholder<Integer>())
+        .withTransformer(new TestBatchSum(new Placeholder<>()))
+        .withBucketCount(3);
+
+    PreparerContext context =
+        PreparerContext.builder(100).setExecutor(new MultithreadedDAGExecutor().withStorage(storage)).build();
+    PreparedByGroup.Preparer<Long> preparer =
+        (PreparedByGroup.Preparer<Long>) sumByGroup.internalAPI().getPreparer(context);
+
+    List<Object[]> examples =
+        IntStream.range(0, 100).mapToObj(i -> new Object[]{i % 10, i / 10}).collect(Collectors.toList());
+
+    // nothing is buffered while processing: the executor already stores the examples needed by finishUnsafe(...)
+    examples.forEach(preparer::processUnsafe);
+    Assertions.assertEquals(0, preparer.getWrittenToBucketsCount());
+
+    PreparedByGroup.Prepared<Long> prepared =
+        preparer.finishUnsafe(ObjectReader.wrap(examples)).getPreparedTransformerForNewData();
+    Assertions.assertEquals(expectedBucketedCount, preparer.getWrittenToBucketsCount());
+    Assertions.assertEquals(10, prepared.getSubtransformerMap().size());
+    Assertions.assertEquals(45L + 3,
+        (long) prepared.getSubtransformerMap().get(7).internalAPI().applyUnsafe(null, new Object[]{3}));
+  }
+
+  @Test
+  void testLazilyDeserializedMapEquality() {
+    HashMap<String, byte[]> serialized = new HashMap<>();
+    serialized.put("A", LazilyDeserializedMap.serialize(1));
+    serialized.put("B", LazilyDeserializedMap.serialize(2));
+    LazilyDeserializedMap<String, Integer> map1 = new LazilyDeserializedMap<>(serialized);
+    LazilyDeserializedMap<String, Integer> map2 = new LazilyDeserializedMap<>(serialized);
+
+    serialized.put("B", LazilyDeserializedMap.serialize(3));
+    LazilyDeserializedMap<String, Integer> map3 = new LazilyDeserializedMap<>(serialized);
+
+    Assertions.assertEquals(map1, map2);
+    Assertions.assertEquals(map1.hashCode(), map2.hashCode());
+    Assertions.assertNotEquals(map1, map3);
+    Assertions.assertEquals(0, map1.getDeserializedCount() + map2.getDeserializedCount() + map3.getDeserializedCount());
+
+    Assertions.assertEquals(3, (int) map3.get("B"));
+    Assertions.assertEquals(1, map3.getDeserializedCount());
+  }
 }
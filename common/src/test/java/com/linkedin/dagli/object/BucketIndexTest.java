@@ -1,7 +1,15 @@
 package com.linkedin.dagli.object;
 
+import com.linkedin.dagli.dag.LocalDAGExecutor;
 import com.linkedin.dagli.tester.Tester;
+import com.linkedin.dagli.transformer.PreparedTransformer1;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 
@@ -23,4 +31,34 @@ public class BucketIndexTest {
         .allOutputs(Arrays.asList(0, 0, 0, 0, 0, 0, 0, 0, 0))
         .test();
   }
+
+  @Test
+  public void testApproximate() {
+    // the sketch retains every value when there are few of them, so the result is exact
+    Tester.of(new BucketIndex().withBucketCount(3).withApproximateRankError(0.01))
+        .allParallelInputs(Arrays.asList(2, 2, 2, 1, 1, 3, 3, 3, 3))
+        .allOutputs(Arrays.asList(1, 1, 1, 0, 0, 2, 2, 2, 2))
+        .test();
+
+    // with this many distinct values the sketch must discard most of them; each bucket boundary's rank will then be
+    // within the rank error of its exact rank, so each bucket's size is within twice that of the ideal size
+    int count = 20000;
+    double maxRankError = 0.01;
+    List<Integer> values = IntStream.range(0, count).boxed().collect(Collectors.toList());
+    Collections.shuffle(values, new Random(0));
+
+    PreparedTransformer1<Comparable<?>, Integer> prepared =
+        new BucketIndex().withBucketCount(10).withApproximateRankError(maxRankError)
+            .internalAPI()
+            .prepare(new LocalDAGExecutor().withMaxThreads(1), values)
+            .getPreparedTransformerForNewData();
+
+    int[] bucketSizes = new int[10];
+    for (int value : values) {
+      bucketSizes[prepared.apply(value)]++;
+    }
+    for (int bucketSize : bucketSizes) {
+      Assertions.assertEquals(count / 10, bucketSize, 2 * maxRankError * count);
+    }
+  }
 }
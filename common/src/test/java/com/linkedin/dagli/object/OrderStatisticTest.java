@@ -1,8 +1,17 @@
 package com.linkedin.dagli.object;
 
+import com.linkedin.dagli.dag.DAG;
+import com.linkedin.dagli.dag.DAG1x1;
+import com.linkedin.dagli.dag.LocalDAGExecutor;
+import com.linkedin.dagli.placeholder.Placeholder;
 import com.linkedin.dagli.tester.Tester;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 
@@ -45,4 +54,27 @@ public class OrderStatisticTest {
         .output("A")
         .test();
   }
+
+  @Test
+  public void testApproximate() {
+    int count = 20000;
+    double maxRankError = 0.01;
+    List<Integer> values = IntStream.range(0, count).boxed().collect(Collectors.toList());
+    Collections.shuffle(values, new Random(0));
+
+    Placeholder<Integer> placeholder = new Placeholder<>();
+    for (double percentile : new double[] { 0, 0.1, 0.25, 0.5, 0.9, 1 }) {
+      OrderStatistic<Integer> orderStatistic = new OrderStatistic<Integer>()
+          .withApproximateValuesInput(placeholder, maxRankError)
+          .withPercentile(percentile);
+      DAG1x1.Prepared<Integer, Integer> dag = DAG.withPlaceholder(placeholder)
+          .withOutput(orderStatistic)
+          .withExecutor(new LocalDAGExecutor().withMaxThreads(1))
+          .prepare(values);
+
+      // the kth smallest value is k - 1, so the value found should be within the rank error of k - 1
+      long k = Math.max(1, Math.round(count * percentile));
+      Assertions.assertEquals(k - 1, (int) dag.apply(0), maxRankError * count);
+    }
+  }
 }
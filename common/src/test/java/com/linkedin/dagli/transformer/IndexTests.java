@@ -39,4 +39,17 @@ public class IndexTests {
         .output(0)
         .test();
   }
+
+  @Test
+  public void testApproximatePreparation() {
+    // only 4 candidates are tracked, but the two most frequent items are still found
+    Index<String> preparable = new Index<String>().withMaxUniqueObjects(2)
+        .withApproximatePreparation(4)
+        .withUnknownItemPolicy(UnknownItemPolicy.NEW);
+
+    Tester.of(preparable)
+        .allParallelInputs(Arrays.asList("A", "A", "B", "A", "C", "B", "D", "A", "B", "E"))
+        .allOutputs(Arrays.asList(0, 0, 1, 0, 2, 1, 2, 0, 1, 2))
+        .test();
+  }
 }
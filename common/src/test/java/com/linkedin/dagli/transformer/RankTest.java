@@ -4,7 +4,13 @@ import com.linkedin.dagli.dag.LocalDAGExecutor;
 import com.linkedin.dagli.object.Rank;
 import com.linkedin.dagli.tester.Tester;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -51,4 +57,28 @@ public class RankTest {
     assertEquals((int) prepped.apply(2), 2);
     assertEquals((int) prepped.apply(0), 2);
   }
+
+  @Test
+  public void testApproximate() {
+    int count = 20000;
+    double maxRankError = 0.01;
+    List<Integer> values = IntStream.range(0, count).boxed().collect(Collectors.toList());
+    Collections.shuffle(values, new Random(0));
+
+    Rank.Prepared prepped = new Rank().withApproximateRankError(maxRankError)
+        .internalAPI()
+        .prepare(new LocalDAGExecutor().withMaxThreads(1), values)
+        .getPreparedTransformerForNewData();
+
+    // the exact rank of each value is the value itself
+    HashSet<Integer> distinctRanks = new HashSet<>();
+    for (int value = 0; value < count; value++) {
+      int rank = prepped.apply(value);
+      assertEquals(value, rank, maxRankError * count);
+      distinctRanks.add(rank);
+    }
+
+    // exact ranking would give every value a different rank; the sketch must have discarded most of them
+    assertTrue(distinctRanks.size() < count / 10);
+  }
 }
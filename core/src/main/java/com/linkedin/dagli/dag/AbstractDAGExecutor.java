@@ -17,6 +17,36 @@ abstract class AbstractDAGExecutor<S extends AbstractDAGExecutor<S>> extends Abs
     implements PreparedDAGExecutor {
   private static final long serialVersionUID = 1L;
 
+  // receives measurements taken during execution; null if there is no listener.  Listeners are not serialized and do
+  // not affect the executor's equality.
+  transient DAGExecutionListener _listener = null;
+
+  /**
+   * Returns a copy of this executor that will report measurements taken during execution (such as the time spent by
+   * each node) to the specified listener, e.g. a {@link Log4jExecutionReporter} or {@link JfrExecutionReporter}.
+   *
+   * Measurement adds a small overhead to execution, so by default there is no listener.  Listeners are not serialized
+   * with the executor and are not considered when determining whether two executors are equal.
+   *
+   * @param listener the listener that will receive measurements, or null to remove any existing listener
+   * @return a copy of this executor that will report to the specified listener
+   */
+  public S withListener(DAGExecutionListener listener) {
+    return clone(c -> c._listener = listener);
+  }
+
+  /**
+   * Sets the listener of a newly-constructed copy of this executor to this executor's listener.  Executors that create
+   * their copies via a constructor rather than {@link #clone()} use this to preserve the listener.
+   *
+   * @param copy the new copy of this executor
+   * @return the provided copy
+   */
+  <T extends AbstractDAGExecutor<T>> T withSameListener(T copy) {
+    copy._listener = _listener;
+    return copy;
+  }
+
   @Override
   @SuppressWarnings("unchecked") // S is the derived type of this base class
   public S internalAPI() {
@@ -0,0 +1,249 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.producer.Producer;
+import com.linkedin.dagli.util.invariant.Arguments;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Adaptively chooses the batch size and number of concurrent batches used by a {@link MultithreadedDAGExecutor} for
+ * each DAG it executes.
+ *
+ * While a DAG executes, the time each node takes to process its batches and the number of outstanding tasks (how many
+ * batches are queued or running) are measured.  After execution, these measurements determine the settings for the
+ * next execution of the same DAG:
+ * (1) The batch size is chosen so that the slowest node (per value) takes about the target time to process a batch:
+ *     DAGs of cheap nodes get large batches (less per-batch scheduling overhead) while DAGs with expensive nodes get
+ *     small batches (more opportunities for parallelism).
+ * (2) If the nodes' input buffers filled up while threads were left idle, more batches are allowed to be in flight;
+ *     if far more tasks were outstanding than could be run, fewer are.
+ * (3) The batch size multiplied by the number of concurrent batches (the number of values each node may buffer) is
+ *     kept below the configured ceiling, bounding the executor's memory usage.
+ * The chosen settings are logged so that they can later be pinned via {@link MultithreadedDAGExecutor#withBatchSize}
+ * and {@link MultithreadedDAGExecutor#withConcurrentBatches}.
+ *
+ * The batch boundaries of an execution are fixed when it starts (and the input buffers of connected nodes must have the
+ * same depth), so settings are adapted between executions rather than during them.
+ */
+final class AdaptiveTuner implements Serializable {
+  private static final long serialVersionUID = 1;
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final int MIN_CONCURRENT_BATCHES = 2;
+
+  private final long _targetBatchNanos;
+  private final long _maxBufferedValues;
+
+  // the settings learned for each DAG; weakly keyed so that DAGs that are no longer used may be garbage collected
+  private transient Map<DAGStructure<?>, Settings> _settings = createSettingsMap();
+
+  /**
+   * The batch size and number of concurrent batches to use for an execution.
+   */
+  static final class Settings {
+    final int _batchSize;
+    final int _concurrentBatches;
+
+    // the (smoothed) measured time taken by the slowest node to process a value, or 0 if not yet measured
+    final double _bottleneckNanosPerValue;
+
+    Settings(int batchSize, int concurrentBatches, double bottleneckNanosPerValue) {
+      _batchSize = batchSize;
+      _concurrentBatches = concurrentBatches;
+      _bottleneckNanosPerValue = bottleneckNanosPerValue;
+    }
+  }
+
+  /**
+   * Measurements taken during a single execution.  Instances are thread-safe.
+   */
+  static final class Statistics {
+    private final AtomicLongArray _taskNanos;
+    private final AtomicLongArray _taskValues;
+    private final LongAdder _outstandingTaskSum = new LongAdder();
+    private final LongAdder _outstandingTaskSamples = new LongAdder();
+    private final LongAdder _bufferFullCount = new LongAdder();
+
+    /**
+     * Creates a new, empty set of statistics.
+     *
+     * @param nodeCount the number of nodes in the DAG being executed
+     */
+    Statistics(int nodeCount) {
+      _taskNanos = new AtomicLongArray(nodeCount);
+      _taskValues = new AtomicLongArray(nodeCount);
+    }
+
+    /**
+     * Records the time taken by a node to process a batch.
+     *
+     * @param nodeIndex the index of the node
+     * @param nanos the time taken, in nanoseconds
+     * @param values the number of values in the batch
+     */
+    void recordTask(int nodeIndex, long nanos, long values) {
+      _taskNanos.addAndGet(nodeIndex, nanos);
+      _taskValues.addAndGet(nodeIndex, values);
+    }
+
+    /**
+     * Records the number of outstanding (queued or running) tasks at the time a task is scheduled.
+     *
+     * @param outstandingTasks the number of outstanding tasks
+     */
+    void recordOutstandingTasks(long outstandingTasks) {
+      _outstandingTaskSum.add(outstandingTasks);
+      _outstandingTaskSamples.increment();
+    }
+
+    /**
+     * Records that a batch could not be read because the buffers holding previous batches were full.
+     */
+    void recordBufferFull() {
+      _bufferFullCount.increment();
+    }
+
+    double meanOutstandingTasks() {
+      long samples = _outstandingTaskSamples.sum();
+      return samples == 0 ? 0 : ((double) _outstandingTaskSum.sum()) / samples;
+    }
+  }
+
+  /**
+   * Creates a new tuner.
+   *
+   * @param targetBatchMillis the desired time, in milliseconds, for the slowest node to process a batch
+   * @param maxBufferedValues the maximum number of values (batch size times concurrent batches) buffered by each node
+   */
+  AdaptiveTuner(long targetBatchMillis, long maxBufferedValues) {
+    Arguments.check(targetBatchMillis > 0, "The target batch time must be positive");
+    Arguments.check(maxBufferedValues >= MIN_CONCURRENT_BATCHES,
+        "The maximum number of buffered values must be at least " + MIN_CONCURRENT_BATCHES);
+    _targetBatchNanos = targetBatchMillis * 1000000;
+    _maxBufferedValues = maxBufferedValues;
+  }
+
+  private static Map<DAGStructure<?>, Settings> createSettingsMap() {
+    return Collections.synchronizedMap(new WeakHashMap<>());
+  }
+
+  /**
+   * Gets the settings to use for the next execution of a DAG.
+   *
+   * @param dag the DAG to be executed
+   * @param defaultBatchSize the batch size to use if the DAG has not previously been executed
+   * @param defaultConcurrentBatches the number of concurrent batches to use if the DAG has not previously been executed
+   * @return the settings to use
+   */
+  Settings getSettings(DAGStructure<?> dag, int defaultBatchSize, int defaultConcurrentBatches) {
+    Settings settings = _settings.get(dag);
+    return settings != null ? settings : new Settings(defaultBatchSize, defaultConcurrentBatches, 0);
+  }
+
+  /**
+   * Updates the settings for a DAG using the measurements from its latest execution.
+   *
+   * @param dag the executed DAG
+   * @param used the settings used for the execution
+   * @param statistics the measurements taken during execution
+   * @param maxThreads the maximum number of threads used by the executor
+   */
+  void update(DAGStructure<?> dag, Settings used, Statistics statistics, int maxThreads) {
+    Settings next = nextSettings(used, statistics, maxThreads);
+    if (next == used) {
+      return; // nothing was measured
+    }
+
+    _settings.put(dag, next);
+    if (next._batchSize != used._batchSize || next._concurrentBatches != used._concurrentBatches) {
+      LOGGER.info("Adaptive tuning will use a batch size of " + next._batchSize + " and " + next._concurrentBatches
+          + " concurrent batches for the next execution of the DAG with outputs "
+          + dag._outputs.stream().map(Producer::getName).collect(Collectors.toList())
+          + " (measured bottleneck: " + Math.round(next._bottleneckNanosPerValue) + " ns per value; mean outstanding "
+          + "tasks: " + Math.round(statistics.meanOutstandingTasks()) + "); these settings may be pinned with "
+          + "withBatchSize(" + next._batchSize + ") and withConcurrentBatches(" + next._concurrentBatches + ")");
+    }
+  }
+
+  /**
+   * Calculates the settings for the next execution of a DAG from those used by its latest execution and the
+   * measurements taken during it.
+   *
+   * @param used the settings used for the execution
+   * @param statistics the measurements taken during execution
+   * @param maxThreads the maximum number of threads used by the executor
+   * @return the settings for the next execution, or {@code used} if nothing was measured
+   */
+  Settings nextSettings(Settings used, Statistics statistics, int maxThreads) {
+    double bottleneck = 0;
+    for (int i = 0; i < statistics._taskValues.length(); i++) {
+      long values = statistics._taskValues.get(i);
+      if (values > 0) {
+        bottleneck = Math.max(bottleneck, ((double) statistics._taskNanos.get(i)) / values);
+      }
+    }
+    if (bottleneck == 0) {
+      return used;
+    }
+
+    // smooth the measurement to avoid oscillating between settings due to noise
+    if (used._bottleneckNanosPerValue > 0) {
+      bottleneck = (bottleneck + used._bottleneckNanosPerValue) / 2;
+    }
+
+    long concurrentBatches = used._concurrentBatches;
+    double meanOutstandingTasks = statistics.meanOutstandingTasks();
+    if (statistics._bufferFullCount.sum() > 0 && meanOutstandingTasks < maxThreads) {
+      // the buffers were a bottleneck while threads went idle: allow more batches in flight
+      concurrentBatches = Math.min(4L * maxThreads, 2 * concurrentBatches);
+    } else if (meanOutstandingTasks > 2.0 * maxThreads) {
+      // far more work was queued than could be run; buffer less to save memory
+      concurrentBatches = (3 * concurrentBatches) / 4;
+    }
+    concurrentBatches =
+        Math.max(MIN_CONCURRENT_BATCHES, Math.min(concurrentBatches, _maxBufferedValues / MIN_CONCURRENT_BATCHES));
+
+    long batchSize = Math.round(_targetBatchNanos / bottleneck);
+    batchSize = Math.max(1, Math.min(Math.min(batchSize, _maxBufferedValues / concurrentBatches), Integer.MAX_VALUE));
+
+    return new Settings((int) batchSize, (int) concurrentBatches, bottleneck);
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    _settings = createSettingsMap();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AdaptiveTuner that = (AdaptiveTuner) o;
+    return _targetBatchNanos == that._targetBatchNanos && _maxBufferedValues == that._maxBufferedValues;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_targetBatchNanos, _maxBufferedValues);
+  }
+
+  @Override
+  public String toString() {
+    return "target batch time: " + (_targetBatchNanos / 1000000) + " ms; max buffered values: " + _maxBufferedValues;
+  }
+}
@@ -0,0 +1,99 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.producer.Producer;
+
+
+/**
+ * Receives measurements from a DAG executor as it executes a DAG: how long each node (producer) spends on each kind of
+ * work, how many values it processes, an estimate of the memory it allocates and, for executors that queue work for
+ * their nodes, how many batches are waiting to be processed.  These make it possible to find the bottleneck(s) in a
+ * DAG without attaching a profiler.
+ *
+ * A listener is attached to an executor via the executor's {@code withListener(...)} method, e.g.
+ * {@code new MultithreadedDAGExecutor().withListener(new Log4jExecutionReporter())}.  Two implementations are
+ * provided: {@link Log4jExecutionReporter}, which logs a per-node summary after each execution, and
+ * {@link JfrExecutionReporter}, which emits Java Flight Recorder events.
+ *
+ * Listener methods may be called concurrently by multiple threads and must be thread-safe.  They are called
+ * synchronously by the executor's worker threads, so they should also be cheap.  All methods do nothing by default.
+ */
+public interface DAGExecutionListener {
+  /**
+   * The kinds of work reported for a node.
+   */
+  enum Activity {
+    /**
+     * Reading values from the DAG's inputs or from values previously stored by the executor.
+     */
+    READ,
+
+    /**
+     * Generating values, either by a {@link com.linkedin.dagli.generator.Generator} or by propagating the (constant)
+     * value of a prepared {@link com.linkedin.dagli.view.TransformerView}.
+     */
+    GENERATE,
+
+    /**
+     * Applying a prepared transformer to its inputs.
+     */
+    APPLY,
+
+    /**
+     * Processing preparation data, i.e. the preparer's {@code processUnsafe(...)} method.
+     */
+    PROCESS,
+
+    /**
+     * Finishing preparation, i.e. the preparer's {@code finishUnsafe(...)} method (or the preparation of a
+     * {@link com.linkedin.dagli.view.TransformerView}).
+     */
+    FINISH,
+
+    /**
+     * Storing values (in the executor's {@link LocalStorage}) so that they can be read again later.
+     */
+    STORE
+  }
+
+  /**
+   * Called when the execution of a DAG begins.
+   *
+   * @param exampleCount the number of examples (inputs) the DAG is being executed on
+   */
+  default void onExecutionStarted(long exampleCount) { }
+
+  /**
+   * Called each time a node completes a unit of work.  Depending on the executor, this may be a batch of values, a
+   * minibatch of values, or all values at once.
+   *
+   * @param producer the producer corresponding to the node
+   * @param activity the kind of work done
+   * @param values the number of values processed, or 0 for one-time work (such as {@link Activity#FINISH})
+   * @param nanos the (wall-clock) time taken, in nanoseconds
+   * @param allocatedBytes an estimate of the bytes allocated on the heap by the thread doing the work, or -1 if the
+   *                       JVM does not support measuring per-thread allocation
+   */
+  default void onNodeActivity(Producer<?> producer, Activity activity, long values, long nanos,
+      long allocatedBytes) { }
+
+  /**
+   * Called when a batch of input values is added to a node's input queue, where it waits until the node is able to
+   * process it.  Consistently deep queues indicate that the node is a bottleneck.  Only executors that queue batches
+   * (such as {@link MultithreadedDAGExecutor}) report queue depths.
+   *
+   * @param producer the producer corresponding to the node
+   * @param queuedBatches the number of batches in the node's queue, including the newly-added batch
+   */
+  default void onQueueDepth(Producer<?> producer, int queuedBatches) { }
+
+  /**
+   * Called when the execution of a DAG successfully completes.  Executors that compute their outputs lazily (such as
+   * {@link FastPreparedDAGExecutor} with streaming output) report node activity as the outputs are read and call this
+   * method only once the last value of every output has been read (the first time, if the outputs are read more than
+   * once); if some output is never read to its end, this method is not called.
+   *
+   * @param exampleCount the number of examples (inputs) the DAG was executed on
+   * @param nanos the (wall-clock) time taken by the execution, in nanoseconds
+   */
+  default void onExecutionFinished(long exampleCount, long nanos) { }
+}
@@ -0,0 +1,123 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.generator.Generator;
+import com.linkedin.dagli.transformer.PreparedTransformer;
+import com.linkedin.dagli.tuple.Tuple;
+import com.linkedin.dagli.tuple.TupleGenerator;
+import com.linkedin.dagli.util.invariant.Arguments;
+import java.util.Arrays;
+
+
+/**
+ * A compiled execution plan for applying a prepared DAG to one example at a time with as little overhead as possible.
+ * This is intended for latency-sensitive uses such as online serving, where examples arrive individually and the cost
+ * of the general-purpose {@link DAGExecutor} machinery (wrapping inputs as readers, creating execution states and
+ * allocating buffers on each call) would be significant relative to the work done by the DAG's transformers.
+ *
+ * A session is created once from a prepared DAG and may then be used to apply that DAG any number of times.  Sessions
+ * are thread-safe: each thread that uses a session gets its own preallocated buffers and transformer execution caches,
+ * which are then reused for all of that thread's subsequent calls.  Other than the result itself (a tuple when the DAG
+ * has more than one output), applying the DAG does not allocate any memory beyond what the DAG's transformers
+ * themselves allocate.
+ *
+ * The results of {@link #apply(Object...)} are the same as those of the DAG's own {@code apply(...)} method; in
+ * particular, generators in the DAG will see every example as having index 0.
+ *
+ * @param <R> the type of result produced by the DAG; for DAGs with more than one output, this will be a tuple
+ */
+public final class DAGInferenceSession<R> {
+  private final DAGStructure<R> _dag;
+  private final int _placeholderCount;
+  private final int _generatorEndIndex; // nodes before this index are either placeholders or generators
+  private final TupleGenerator _tupleGenerator; // null if the DAG has a single output
+
+  private final ThreadLocal<ThreadState> _threadState = ThreadLocal.withInitial(ThreadState::new);
+
+  /**
+   * The buffers and execution caches used by a single thread.
+   */
+  private class ThreadState {
+    // one value per node (the values of the placeholders are the inputs)
+    final Object[][] _values = new Object[_dag._nodes.length][1];
+    final Object[][] _argBuffer = new Object[_dag._maxParentCount][];
+    // the session may be used for an unbounded number of examples
+    final Object[] _executionStates = _dag.createExecutionStateArray(Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new inference session for the given prepared DAG.
+   *
+   * @param dag the prepared DAG that will be applied by the session
+   * @param <R> the type of result produced by the DAG
+   * @return a new session that applies the provided DAG
+   */
+  public static <R> DAGInferenceSession<R> of(PreparedDAGTransformer<R, ?> dag) {
+    return new DAGInferenceSession<>(dag.internalAPI().getDAGStructure());
+  }
+
+  private DAGInferenceSession(DAGStructure<R> dag) {
+    Arguments.check(dag._isPrepared, "Inference sessions may only be created from prepared DAGs");
+    _dag = dag;
+    _placeholderCount = dag._placeholders.size();
+    _generatorEndIndex = _placeholderCount + dag._generators.size();
+    _tupleGenerator = dag._outputIndices.length == 1 ? null : Tuple.generator(dag._outputIndices.length);
+  }
+
+  /**
+   * @return the number of inputs that must be passed to {@link #apply(Object...)}
+   */
+  public int getInputArity() {
+    return _placeholderCount;
+  }
+
+  /**
+   * Applies the DAG to a single example.
+   *
+   * @param inputs the inputs to the DAG, one for each of its placeholders (in the same order as the DAG's placeholders)
+   * @return the result of the DAG on the provided inputs; if the DAG has multiple outputs, this will be a tuple
+   */
+  @SuppressWarnings("unchecked")
+  public R apply(Object... inputs) {
+    Arguments.check(inputs.length == _placeholderCount, "The number of inputs does not match the DAG's arity");
+
+    ThreadState state = _threadState.get();
+    Object[][] values = state._values;
+    Object[][] argBuffer = state._argBuffer;
+
+    try {
+      for (int i = 0; i < _placeholderCount; i++) {
+        values[i][0] = inputs[i];
+      }
+
+      for (int i = _placeholderCount; i < _generatorEndIndex; i++) {
+        values[i][0] = ((Generator<?>) _dag._nodes[i]).generate(0);
+      }
+
+      for (int i = _generatorEndIndex; i < values.length; i++) {
+        int[] parents = _dag._parents[i];
+        for (int j = 0; j < parents.length; j++) {
+          argBuffer[j] = values[parents[j]];
+        }
+
+        values[i][0] = ((PreparedTransformer<?>) _dag._nodes[i]).internalAPI()
+            .applyUnsafe(state._executionStates[i], argBuffer, 0);
+      }
+
+      if (_tupleGenerator == null) {
+        return (R) values[_dag._outputIndices[0]][0];
+      }
+
+      Object[] outputs = new Object[_dag._outputIndices.length]; // owned by the returned tuple
+      for (int i = 0; i < outputs.length; i++) {
+        outputs[i] = values[_dag._outputIndices[i]][0];
+      }
+      return (R) _tupleGenerator.fromArray(outputs);
+    } finally {
+      // the buffers live as long as the thread, so they must not keep this example's inputs and values reachable
+      for (Object[] value : values) {
+        value[0] = null;
+      }
+      Arrays.fill(argBuffer, null);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.linkedin.dagli.dag;
 
 import com.linkedin.dagli.generator.Generator;
+import com.linkedin.dagli.objectio.biglist.BigListReader;
 import com.linkedin.dagli.objectio.biglist.BigListWriter;
 import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
@@ -8,14 +9,15 @@ import com.linkedin.dagli.objectio.ObjectWriter;
 import com.linkedin.dagli.producer.Producer;
 import com.linkedin.dagli.transformer.PreparedTransformer;
 import it.unimi.dsi.fastutil.objects.ObjectBigArrayBigList;
+import it.unimi.dsi.fastutil.objects.ObjectBigArrays;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -41,6 +43,7 @@ public final class FastPreparedDAGExecutor extends AbstractDAGExecutor<FastPrepa
   private int _minInputsPerThread = DEFAULT_MIN_INPUTS_PER_THREAD;
   private int _maxMinibatchSize = 1024;
   private boolean _useCommonPool = true;
+  private boolean _streamingOutput = false;
 
   /**
    * Returns a copy that will either use the common thread pool, {@link ForkJoinPool#commonPool()}, or a new pool, when
@@ -98,6 +101,27 @@ public final class FastPreparedDAGExecutor extends AbstractDAGExecutor<FastPrepa
     return clone(c -> c._maxMinibatchSize = maxMinibatchSize);
   }
 
+  /**
+   * Returns a copy of this executor that will (or will not) stream its output.
+   *
+   * Normally, the executor computes all the DAG's outputs before returning them, storing them in memory.  When
+   * streaming output is enabled, the executor instead returns immediately and the outputs are computed lazily, a
+   * minibatch at a time, as they are read (with up to two minibatches per thread computed in advance of the reader when
+   * multithreading).  This bounds the memory required and lets results be consumed while the inputs are still being
+   * processed, which is valuable when applying a DAG to very large numbers of examples.
+   *
+   * However, the DAG is (re)computed each time the results are iterated, and the results of a DAG with multiple outputs
+   * will compute the DAG once for each output.  The inputs must remain readable for as long as the results are used.
+   *
+   * By default, streaming output is disabled.
+   *
+   * @param streamingOutput whether or not the output should be streamed
+   * @return a copy of this executor that will or will not stream its output, as specified
+   */
+  public FastPreparedDAGExecutor withStreamingOutput(boolean streamingOutput) {
+    return clone(c -> c._streamingOutput = streamingOutput);
+  }
+
   /**
    * Creates a new {@link FastPreparedDAGExecutor}.
    */
@@ -117,54 +141,186 @@ public final class FastPreparedDAGExecutor extends AbstractDAGExecutor<FastPrepa
   }
 
   private <R> ObjectReader<?>[] executeUnsafeImpl(DAGStructure<R> dag, ObjectReader<Object>[] inputValueLists) {
+    long startNanos = System.nanoTime();
     long count = inputValueLists[0].size64();
-    Object[] executionStates = dag.createExecutionStateArray(count);
+    if (_listener != null) {
+      _listener.onExecutionStarted(count);
+    }
+
+    ObjectReader<?>[] results = executeUnsafeImpl(dag, inputValueLists, count, startNanos);
+
+    // streamed outputs tell the listener that execution has finished once they have been read
+    if (_listener != null && !_streamingOutput) {
+      _listener.onExecutionFinished(count, System.nanoTime() - startNanos);
+    }
+    return results;
+  }
+
+  private <R> ObjectReader<?>[] executeUnsafeImpl(DAGStructure<R> dag, ObjectReader<Object>[] inputValueLists,
+      long count, long startNanos) {
+    final DAGExecutionListener listener = _listener;
     final int minibatchSize = Math.max(1, Math.min(_maxMinibatchSize, dag._maxMinibatchSize));
     final int threadCount = (int) Math.min(_maxThreads, count / _minInputsPerThread);
-    final ObjectIterator<Object>[] objectIterators =
-        Arrays.stream(inputValueLists).map(ObjectReader::iterator).toArray(ObjectIterator[]::new);
+    if (_streamingOutput) {
+      StreamingDAGOutputReader.Completion completion = listener == null ? null
+          : new StreamingDAGOutputReader.Completion(listener, count, startNanos, dag._outputIndices.length);
+      ObjectReader<?>[] res = new ObjectReader<?>[dag._outputIndices.length];
+      for (int i = 0; i < res.length; i++) {
+        res[i] = new StreamingDAGOutputReader(dag, inputValueLists, i, minibatchSize, threadCount, _useCommonPool,
+            listener, completion);
+      }
+      return res;
+    }
+
+    Object[] executionStates = dag.createExecutionStateArray(count);
     if (threadCount <= 1) {
-      return executeUnsafeImplThread(dag, objectIterators, 0, count, minibatchSize, executionStates);
+      final ObjectIterator<Object>[] objectIterators =
+          Arrays.stream(inputValueLists).map(ObjectReader::iterator).toArray(ObjectIterator[]::new);
+      try {
+        return executeUnsafeImplThread(dag, objectIterators, 0, count, minibatchSize, executionStates, listener);
+      } finally {
+        Arrays.stream(objectIterators).forEach(ObjectIterator::close);
+      }
     } else {
       ForkJoinPool pool = _useCommonPool ? ForkJoinPool.commonPool() : new ForkJoinPool(threadCount);
 
-      ArrayList<Callable<ObjectReader<Object>[]>> callables = new ArrayList<>(threadCount);
-      long inputsPerThread = (count + threadCount - 1) / threadCount;
+      // Each minibatch's results are copied to their position in the output arrays, so the order of the outputs is
+      // deterministic regardless of which thread computes which minibatch.
+      Object[][][] results = new Object[dag._outputIndices.length][][];
+      for (int i = 0; i < results.length; i++) {
+        results[i] = ObjectBigArrays.newBigArray(count);
+      }
+
+      // How the examples are divided between the threads depends on how cheaply the inputs can be read:
+      // (1) if every input can skip elements in constant time, each thread repeatedly claims the next minibatch from a
+      //     shared cursor (so threads that happen to get "cheaper" examples do not sit idle) and reads it directly;
+      // (2) otherwise, if every input can cheaply start reading at an arbitrary position, each thread reads its own
+      //     contiguous range of the examples, so no input element is read (or skipped past) by more than one thread;
+      // (3) otherwise, the threads claim minibatches from sequential iterators over the inputs that they all share.
+      final boolean interleaved = Arrays.stream(inputValueLists).allMatch(ObjectReader::hasConstantTimeSkip);
+      final ObjectIterator<Object>[] sharedIterators =
+          Arrays.stream(inputValueLists).allMatch(ObjectReader::hasEfficientRangeIterators) ? null
+              : Arrays.stream(inputValueLists).map(ObjectReader::iterator).toArray(ObjectIterator[]::new);
+      final AtomicLong sharedCursor = new AtomicLong(0);
+      final long minibatchCount = (count + minibatchSize - 1) / minibatchSize;
+
+      ArrayList<Callable<Void>> callables = new ArrayList<>(threadCount);
       for (int i = 0; i < threadCount; i++) {
-        long offset = i * inputsPerThread;
-        long runCount = (i == threadCount - 1) ? (count - i * inputsPerThread) : inputsPerThread;
-
-        final BigListWriter<Object>[] inputValueAppendables =
-            new BigListWriter[inputValueLists.length];
-        for (int j = 0; j < inputValueAppendables.length; j++) {
-          inputValueAppendables[j] = new BigListWriter<>(new ObjectBigArrayBigList<>(runCount));
-          inputValueAppendables[j].write(objectIterators[j], runCount);
+        final AtomicLong cursor;
+        final long end;
+        if (sharedIterators != null || interleaved) {
+          cursor = sharedCursor;
+          end = count;
+        } else {
+          // ranges are aligned to minibatch boundaries; some threads get empty ranges if there are few minibatches
+          cursor = new AtomicLong(minibatchCount * i / threadCount * minibatchSize);
+          end = Math.min(count, minibatchCount * (i + 1) / threadCount * minibatchSize);
         }
-
-        callables.add(() -> executeUnsafeImplThread(dag, Arrays.stream(inputValueAppendables)
-                .map(ObjectWriter::createReader)
-                .map(ObjectReader::iterator)
-                .toArray(ObjectIterator[]::new), offset,
-            runCount, minibatchSize, executionStates));
+        callables.add(() -> {
+          executeUnsafeImplWorker(dag, inputValueLists, sharedIterators, cursor, end, minibatchSize,
+              executionStates, results, listener);
+          return null;
+        });
       }
 
-      List<Future<ObjectReader<Object>[]>> futures = pool.invokeAll(callables);
-
-      ObjectWriter<Object>[] resultLists = getEmptyResultList(dag, count);
-
       try {
-        for (int i = 0; i < threadCount; i++) {
-          ObjectReader<Object>[] partialResultLists = futures.get(i).get();
-          for (int j = 0; j < resultLists.length; j++) {
-            resultLists[j].write(partialResultLists[j].iterator(), partialResultLists[j].size64());
-          }
+        for (Future<Void> future : pool.invokeAll(callables)) {
+          future.get();
         }
       } catch (InterruptedException | ExecutionException e) {
         // interrupts immediately end execution; there are no retries
         throw new RuntimeException(e);
+      } finally {
+        if (sharedIterators != null) {
+          Arrays.stream(sharedIterators).forEach(ObjectIterator::close);
+        }
+        if (!_useCommonPool) {
+          pool.shutdown();
+        }
       }
 
-      return Arrays.stream(resultLists).map(ObjectWriter::createReader).toArray(ObjectReader[]::new);
+      return Arrays.stream(results)
+          .map(result -> new BigListReader<>(ObjectBigArrayBigList.wrap(result, count)))
+          .toArray(ObjectReader[]::new);
+    }
+  }
+
+  /**
+   * Repeatedly claims and executes the next minibatch of examples until all examples before {@code end} have been
+   * claimed.
+   *
+   * @param dag the DAG being executed
+   * @param inputValueLists the readers providing the DAG's inputs
+   * @param sharedIterators iterators over the inputs shared by all workers (and synchronized on), or null if each worker
+   *                        should read the inputs via its own range iterators
+   * @param cursor the index of the first example not yet claimed; this may be shared with other workers
+   * @param end the (exclusive) index of the last example this worker may claim
+   * @param minibatchSize the maximum number of examples claimed at a time
+   * @param executionStates the execution states of the DAG's nodes
+   * @param results the arrays into which the results for each output will be copied
+   * @param listener the listener that will receive measurements of each node, or null if there is none
+   */
+  private static <R> void executeUnsafeImplWorker(DAGStructure<R> dag, ObjectReader<Object>[] inputValueLists,
+      ObjectIterator<Object>[] sharedIterators, AtomicLong cursor, long end, int minibatchSize,
+      Object[] executionStates, Object[][][] results, DAGExecutionListener listener) {
+    Object[][] argBuffers = new Object[dag._maxParentCount][]; // input position x minibatch index
+    Object[][] resBuffer = new Object[dag._nodes.length][minibatchSize]; // node index x minibatch index
+
+    // when reading via range iterators, the worker's claims are always increasing, so its iterators only move forward
+    // (and, unless the cursor is shared with other workers, never skip at all)
+    ObjectIterator<Object>[] ownIterators = null;
+    long ownPosition = 0;
+
+    try {
+      while (true) {
+        long firstExampleIndex;
+        int currentMinibatchSize;
+        if (sharedIterators != null) {
+          synchronized (sharedIterators) {
+            firstExampleIndex = cursor.get();
+            if (firstExampleIndex >= end) {
+              return;
+            }
+            currentMinibatchSize = (int) Math.min(minibatchSize, end - firstExampleIndex);
+            for (int j = 0; j < sharedIterators.length; j++) {
+              sharedIterators[j].next(resBuffer[j], 0, currentMinibatchSize);
+            }
+            cursor.set(firstExampleIndex + currentMinibatchSize);
+          }
+        } else {
+          firstExampleIndex = cursor.getAndAdd(minibatchSize);
+          if (firstExampleIndex >= end) {
+            return;
+          }
+          currentMinibatchSize = (int) Math.min(minibatchSize, end - firstExampleIndex);
+
+          if (ownIterators == null) {
+            final long start = firstExampleIndex;
+            ownIterators = Arrays.stream(inputValueLists)
+                .map(reader -> reader.iterator(start, end))
+                .toArray(ObjectIterator[]::new);
+          } else if (firstExampleIndex > ownPosition) {
+            for (ObjectIterator<Object> iterator : ownIterators) {
+              iterator.skip(firstExampleIndex - ownPosition);
+            }
+          }
+          for (int j = 0; j < ownIterators.length; j++) {
+            ownIterators[j].next(resBuffer[j], 0, currentMinibatchSize);
+          }
+          ownPosition = firstExampleIndex + currentMinibatchSize;
+        }
+
+        apply(firstExampleIndex, currentMinibatchSize, dag, resBuffer, argBuffers, executionStates, listener);
+
+        for (int j = 0; j < results.length; j++) {
+          ObjectBigArrays.copyToBig(resBuffer[dag._outputIndices[j]], 0, results[j], firstExampleIndex,
+              currentMinibatchSize);
+        }
+      }
+    } finally {
+      if (ownIterators != null) {
+        Arrays.stream(ownIterators).forEach(ObjectIterator::close);
+      }
     }
   }
 
@@ -177,7 +333,8 @@ public final class FastPreparedDAGExecutor extends AbstractDAGExecutor<FastPrepa
   }
 
   private static <R> ObjectReader<Object>[] executeUnsafeImplThread(DAGStructure<R> dag,
-      ObjectIterator<Object>[] inputValueLists, long offset, long count, int minibatchSize, Object[] executionStates) {
+      ObjectIterator<Object>[] inputValueLists, long offset, long count, int minibatchSize, Object[] executionStates,
+      DAGExecutionListener listener) {
     Object[][] argBuffers = new Object[dag._maxParentCount][minibatchSize]; // input position x minibatch index
     Object[][] resBuffer = new Object[dag._nodes.length][minibatchSize]; // node index x minibatch index
 
@@ -190,7 +347,7 @@ public final class FastPreparedDAGExecutor extends AbstractDAGExecutor<FastPrepa
         inputValueLists[j].next(resBuffer[j], 0, currentMinibatchSize);
       }
 
-      apply(firstExampleIndex, currentMinibatchSize, dag, resBuffer, argBuffers, executionStates);
+      apply(firstExampleIndex, currentMinibatchSize, dag, resBuffer, argBuffers, executionStates, listener);
 
       for (int j = 0; j < dag._outputIndices.length; j++) {
         resLists[j].write(resBuffer[dag._outputIndices[j]], 0, currentMinibatchSize);
@@ -202,27 +359,44 @@ public final class FastPreparedDAGExecutor extends AbstractDAGExecutor<FastPrepa
   }
 
   protected static <R> void apply(long firstExampleIndex, int minibatchSize, DAGStructure<R> dag, Object[][] resultBuffer,
-      Object[][] argBuffer, Object[] executionStates) {
+      Object[][] argBuffer, Object[] executionStates, DAGExecutionListener listener) {
     for (int i = dag._placeholders.size(); i < dag._nodes.length; i++) {
-      Producer<?> node = dag._nodes[i];
-      if (node instanceof Generator) {
-        for (int exampleOffset = 0; exampleOffset < minibatchSize; exampleOffset++) {
-          resultBuffer[i][exampleOffset] = ((Generator) node).generate(firstExampleIndex + exampleOffset);
-        }
-      } else if (node instanceof PreparedTransformer) {
-        int[] parents = dag._parents[i];
-        for (int j = 0; j < parents.length; j++) {
-          argBuffer[j] = resultBuffer[parents[j]];
-        }
-
-        ((PreparedTransformer) node).internalAPI()
-            .applyAllUnsafe(executionStates[i], minibatchSize, argBuffer, resultBuffer[i]);
+      if (listener == null) {
+        apply(firstExampleIndex, minibatchSize, dag, i, resultBuffer, argBuffer, executionStates);
       } else {
-        throw new IllegalStateException("DAG is not prepared; this executor only accepts prepared DAGs");
+        long startBytes = ThreadAllocation.currentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        apply(firstExampleIndex, minibatchSize, dag, i, resultBuffer, argBuffer, executionStates);
+        long nanos = System.nanoTime() - startNanos;
+        listener.onNodeActivity(dag._nodes[i],
+            dag._nodes[i] instanceof Generator ? DAGExecutionListener.Activity.GENERATE
+                : DAGExecutionListener.Activity.APPLY, minibatchSize, nanos,
+            ThreadAllocation.allocatedBytesSince(startBytes));
       }
     }
   }
 
+  // computes the values of a single node for a minibatch
+  private static <R> void apply(long firstExampleIndex, int minibatchSize, DAGStructure<R> dag, int nodeIndex,
+      Object[][] resultBuffer, Object[][] argBuffer, Object[] executionStates) {
+    Producer<?> node = dag._nodes[nodeIndex];
+    if (node instanceof Generator) {
+      for (int exampleOffset = 0; exampleOffset < minibatchSize; exampleOffset++) {
+        resultBuffer[nodeIndex][exampleOffset] = ((Generator) node).generate(firstExampleIndex + exampleOffset);
+      }
+    } else if (node instanceof PreparedTransformer) {
+      int[] parents = dag._parents[nodeIndex];
+      for (int j = 0; j < parents.length; j++) {
+        argBuffer[j] = resultBuffer[parents[j]];
+      }
+
+      ((PreparedTransformer) node).internalAPI()
+          .applyAllUnsafe(executionStates[nodeIndex], minibatchSize, argBuffer, resultBuffer[nodeIndex]);
+    } else {
+      throw new IllegalStateException("DAG is not prepared; this executor only accepts prepared DAGs");
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -232,11 +406,12 @@ public final class FastPreparedDAGExecutor extends AbstractDAGExecutor<FastPrepa
       return false;
     }
     FastPreparedDAGExecutor that = (FastPreparedDAGExecutor) o;
-    return _maxThreads == that._maxThreads && _minInputsPerThread == that._minInputsPerThread;
+    return _maxThreads == that._maxThreads && _minInputsPerThread == that._minInputsPerThread
+        && _streamingOutput == that._streamingOutput;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(_maxThreads, _minInputsPerThread);
+    return Objects.hash(_maxThreads, _minInputsPerThread, _streamingOutput);
   }
 }
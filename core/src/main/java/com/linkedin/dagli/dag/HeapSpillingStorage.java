@@ -0,0 +1,169 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.objectio.ObjectWriter;
+import com.linkedin.dagli.util.environment.DagliSystemProperties;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Creates {@link SpillingObjectWriter}s and keeps the (estimated) total heap used by their values within a byte budget:
+ * whenever the total exceeds the budget, the writers least recently written or read are spilled to disk (on a
+ * background thread) until the total is again within the budget.
+ *
+ * The storage tracks its writers via weak references, so writers (and their values) that are no longer used may be
+ * garbage collected as usual.
+ */
+final class HeapSpillingStorage {
+  /**
+   * The storage used by {@link LocalStorage#MEMORY_HEAP_SPILLING_TO_DISK_KRYO}, whose budget is given by
+   * {@link DagliSystemProperties#getHeapStorageBudget()}.
+   */
+  static final HeapSpillingStorage DEFAULT = new HeapSpillingStorage(DagliSystemProperties::getHeapStorageBudget);
+
+  // the growth (in bytes) between checks of the budget is at most this much, or 1/16 of the budget if smaller
+  private static final long MAX_CHECK_INTERVAL_BYTES = 1024 * 1024;
+
+  private static final ExecutorService SPILL_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Dagli storage spiller");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final LongSupplier _budget;
+  private final Set<SpillingObjectWriter<?>> _writers = Collections.synchronizedSet(
+      Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private final AtomicLong _growthSinceCheck = new AtomicLong(0);
+  private final AtomicBoolean _spillScheduled = new AtomicBoolean(false);
+
+  private final LongAdder _spillCount = new LongAdder();
+  private final LongAdder _spilledValues = new LongAdder();
+  private final LongAdder _spilledHeapBytes = new LongAdder();
+
+  /**
+   * Creates a new storage with the specified budget.
+   *
+   * @param budget supplies the approximate number of bytes the values of this storage's writers may occupy on the heap
+   */
+  HeapSpillingStorage(LongSupplier budget) {
+    _budget = budget;
+  }
+
+  /**
+   * Creates a new, empty writer whose values will be kept on the heap until this storage spills them to disk.
+   *
+   * @param expectedSize the approximate number of values expected to be written; used only for preallocation
+   * @param <T> the type of value to be written
+   * @return a new writer
+   */
+  <T> ObjectWriter<T> createWriter(long expectedSize) {
+    SpillingObjectWriter<T> writer = new SpillingObjectWriter<>(this, expectedSize);
+    _writers.add(writer);
+    return writer;
+  }
+
+  /**
+   * Called by a writer after its estimated heap size has grown; periodically checks the total against the budget and,
+   * if it is exceeded, schedules a spill on the background thread.
+   *
+   * @param bytes the growth of the writer's estimated heap size
+   */
+  void onGrowth(long bytes) {
+    long checkInterval = Math.min(MAX_CHECK_INTERVAL_BYTES, _budget.getAsLong() / 16);
+    if (_growthSinceCheck.addAndGet(bytes) < checkInterval) {
+      return;
+    }
+    _growthSinceCheck.set(0);
+
+    if (getEstimatedHeapBytes() > _budget.getAsLong() && _spillScheduled.compareAndSet(false, true)) {
+      SPILL_EXECUTOR.execute(() -> {
+        try {
+          spillIfOverBudget();
+        } finally {
+          _spillScheduled.set(false);
+        }
+      });
+    }
+  }
+
+  private ArrayList<SpillingObjectWriter<?>> getWriters() {
+    synchronized (_writers) {
+      return new ArrayList<>(_writers);
+    }
+  }
+
+  /**
+   * @return the estimated number of bytes of heap currently used by the values of this storage's writers
+   */
+  long getEstimatedHeapBytes() {
+    long total = 0;
+    for (SpillingObjectWriter<?> writer : getWriters()) {
+      total += writer.getEstimatedHeapBytes();
+    }
+    return total;
+  }
+
+  /**
+   * Spills writers, least recently accessed first, until the estimated heap used by the remaining writers is within
+   * the budget (or no writers remain that can be spilled).
+   */
+  void spillIfOverBudget() {
+    // snapshot the access times, which may change while we sort
+    ArrayList<Map.Entry<Long, SpillingObjectWriter<?>>> writers = new ArrayList<>();
+    long total = 0;
+    for (SpillingObjectWriter<?> writer : getWriters()) {
+      writers.add(new AbstractMap.SimpleImmutableEntry<>(writer.getLastAccessNanos(), writer));
+      total += writer.getEstimatedHeapBytes();
+    }
+
+    long budget = _budget.getAsLong();
+    writers.sort(Map.Entry.comparingByKey());
+    for (int i = 0; i < writers.size() && total > budget; i++) {
+      total -= writers.get(i).getValue().spill();
+    }
+  }
+
+  /**
+   * Records that a writer has spilled its values.
+   *
+   * @param values the number of values spilled
+   * @param heapBytes the estimated number of bytes of heap released
+   */
+  void recordSpill(long values, long heapBytes) {
+    _spillCount.increment();
+    _spilledValues.add(values);
+    _spilledHeapBytes.add(heapBytes);
+  }
+
+  /**
+   * @return the number of times a writer has spilled its values to disk
+   */
+  long getSpillCount() {
+    return _spillCount.sum();
+  }
+
+  /**
+   * @return the total number of values spilled to disk
+   */
+  long getSpilledValues() {
+    return _spilledValues.sum();
+  }
+
+  /**
+   * @return the total estimated number of bytes of heap released by spilling
+   */
+  long getSpilledHeapBytes() {
+    return _spilledHeapBytes.sum();
+  }
+}
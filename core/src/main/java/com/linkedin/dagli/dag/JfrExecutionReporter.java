@@ -0,0 +1,173 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.producer.Producer;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * A {@link DAGExecutionListener} that emits Java Flight Recorder (JFR) events, so that the execution of a DAG can be
+ * examined (e.g. in JDK Mission Control) alongside the other events recorded by JFR (garbage collection, lock
+ * contention, I/O, etc.).  Three event types, in the "Dagli" category, are emitted:
+ * (1) {@code com.linkedin.dagli.NodeActivity}: the work done by a node (its name, the kind of work, the number of
+ *     values processed, the time taken and the estimated bytes allocated)
+ * (2) {@code com.linkedin.dagli.QueueDepth}: the number of batches queued for a node
+ * (3) {@code com.linkedin.dagli.Execution}: the number of examples and the time taken by an execution of a DAG
+ * Events are only recorded while a flight recording is active and the event types are enabled.
+ *
+ * Dagli supports Java 9, but the JFR API is only available from Java 11 (in OpenJDK), so this reporter accesses it
+ * reflectively; when the API is unavailable, a warning is logged and the reporter does nothing.
+ */
+public class JfrExecutionReporter implements DAGExecutionListener {
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String CATEGORY = "Dagli";
+
+  // null if JFR is unavailable
+  private static final EventType NODE_ACTIVITY_EVENT;
+  private static final EventType QUEUE_DEPTH_EVENT;
+  private static final EventType EXECUTION_EVENT;
+
+  static {
+    EventType nodeActivity = null;
+    EventType queueDepth = null;
+    EventType execution = null;
+    try {
+      JfrApi api = new JfrApi();
+      nodeActivity = api.createEventType("com.linkedin.dagli.NodeActivity", "Dagli Node Activity",
+          api.field(String.class, "producer", "Producer"),
+          api.field(String.class, "activity", "Activity"),
+          api.field(long.class, "values", "Values"),
+          api.timespanField("time", "Time"),
+          api.dataAmountField("allocated", "Allocated"));
+      queueDepth = api.createEventType("com.linkedin.dagli.QueueDepth", "Dagli Queue Depth",
+          api.field(String.class, "producer", "Producer"),
+          api.field(int.class, "queuedBatches", "Queued Batches"));
+      execution = api.createEventType("com.linkedin.dagli.Execution", "Dagli Execution",
+          api.field(long.class, "examples", "Examples"),
+          api.timespanField("time", "Time"));
+    } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+      LOGGER.warn("Java Flight Recorder events are not available on this JVM (Java 11 or later is required); "
+          + "JfrExecutionReporter will not emit any events", e);
+    }
+    NODE_ACTIVITY_EVENT = nodeActivity;
+    QUEUE_DEPTH_EVENT = queueDepth;
+    EXECUTION_EVENT = execution;
+  }
+
+  /**
+   * Reflective access to the parts of the {@code jdk.jfr} API used to define and emit events.
+   */
+  private static class JfrApi {
+    private final Class<?> _annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+    private final Class<?> _valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+    private final Constructor<?> _annotationElementConstructor =
+        _annotationElementClass.getConstructor(Class.class, Object.class);
+    private final Constructor<?> _valueDescriptorConstructor =
+        _valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+    private final Method _createEventFactory =
+        Class.forName("jdk.jfr.EventFactory").getMethod("create", List.class, List.class);
+
+    JfrApi() throws ReflectiveOperationException { }
+
+    private Object annotation(String annotationClassName, Object value) throws ReflectiveOperationException {
+      return _annotationElementConstructor.newInstance(Class.forName(annotationClassName), value);
+    }
+
+    Object field(Class<?> type, String name, String label, Object... annotations)
+        throws ReflectiveOperationException {
+      List<Object> allAnnotations = new ArrayList<>(Arrays.asList(annotations));
+      allAnnotations.add(annotation("jdk.jfr.Label", label));
+      return _valueDescriptorConstructor.newInstance(type, name, allAnnotations);
+    }
+
+    Object timespanField(String name, String label) throws ReflectiveOperationException {
+      return field(long.class, name, label, annotation("jdk.jfr.Timespan", "NANOSECONDS"));
+    }
+
+    Object dataAmountField(String name, String label) throws ReflectiveOperationException {
+      return field(long.class, name, label, annotation("jdk.jfr.DataAmount", "BYTES"));
+    }
+
+    EventType createEventType(String name, String label, Object... fields) throws ReflectiveOperationException {
+      List<Object> annotations = Arrays.asList(annotation("jdk.jfr.Name", name), annotation("jdk.jfr.Label", label),
+          annotation("jdk.jfr.Category", new String[]{CATEGORY}));
+      Object factory = _createEventFactory.invoke(null, annotations, Arrays.asList(fields));
+      return new EventType(factory);
+    }
+  }
+
+  /**
+   * A (dynamically-defined) type of JFR event.
+   */
+  private static class EventType {
+    private final Object _factory;
+    private final Method _newEvent;
+    private final Method _set;
+    private final Method _shouldCommit;
+    private final Method _commit;
+
+    EventType(Object factory) throws ReflectiveOperationException {
+      Class<?> eventClass = Class.forName("jdk.jfr.Event");
+      _factory = factory;
+      _newEvent = factory.getClass().getMethod("newEvent");
+      _set = eventClass.getMethod("set", int.class, Object.class);
+      _shouldCommit = eventClass.getMethod("shouldCommit");
+      _commit = eventClass.getMethod("commit");
+    }
+
+    /**
+     * Emits an event of this type (if it is enabled in an active recording).
+     *
+     * @param fieldValues the values of each of the event's fields, in the order they were defined
+     */
+    void emit(Object... fieldValues) {
+      try {
+        Object event = _newEvent.invoke(_factory);
+        if (!((Boolean) _shouldCommit.invoke(event))) {
+          return;
+        }
+        for (int i = 0; i < fieldValues.length; i++) {
+          _set.invoke(event, i, fieldValues[i]);
+        }
+        _commit.invoke(event);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Failed to emit a Java Flight Recorder event", e);
+      }
+    }
+  }
+
+  /**
+   * @return true if Java Flight Recorder events are available (and can thus be emitted by this reporter), false
+   *         otherwise
+   */
+  public static boolean isAvailable() {
+    return NODE_ACTIVITY_EVENT != null;
+  }
+
+  @Override
+  public void onNodeActivity(Producer<?> producer, Activity activity, long values, long nanos, long allocatedBytes) {
+    if (NODE_ACTIVITY_EVENT != null) {
+      NODE_ACTIVITY_EVENT.emit(producer.getName(), activity.name(), values, nanos, allocatedBytes);
+    }
+  }
+
+  @Override
+  public void onQueueDepth(Producer<?> producer, int queuedBatches) {
+    if (QUEUE_DEPTH_EVENT != null) {
+      QUEUE_DEPTH_EVENT.emit(producer.getName(), queuedBatches);
+    }
+  }
+
+  @Override
+  public void onExecutionFinished(long exampleCount, long nanos) {
+    if (EXECUTION_EVENT != null) {
+      EXECUTION_EVENT.emit(exampleCount, nanos);
+    }
+  }
+}
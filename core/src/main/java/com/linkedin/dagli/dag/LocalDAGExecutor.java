@@ -44,6 +44,13 @@ public class LocalDAGExecutor extends AbstractDAGExecutor<LocalDAGExecutor> impl
     return new LocalDAGExecutor(_multithreadedDAGExecutor.withStorage(storage), _fastPreparedDAGExecutor);
   }
 
+  // the listener is held (and preserved across copies) by the underlying executors that actually do the work
+  @Override
+  public LocalDAGExecutor withListener(DAGExecutionListener listener) {
+    return new LocalDAGExecutor(_multithreadedDAGExecutor.withListener(listener),
+        _fastPreparedDAGExecutor.withListener(listener));
+  }
+
   public LocalDAGExecutor() {
     this(new MultithreadedDAGExecutor()
             .withBatchSize(MultithreadedDAGExecutor.DEFAULT_BATCH_SIZE)
@@ -1,9 +1,8 @@
 package com.linkedin.dagli.dag;
 
-import com.linkedin.dagli.objectio.biglist.BigListWriter;
+import com.linkedin.dagli.objectio.biglist.PrimitiveBigListWriter;
 import com.linkedin.dagli.objectio.ObjectWriter;
 import com.linkedin.dagli.util.kryo.KryoWriters;
-import it.unimi.dsi.fastutil.objects.ObjectBigArrayBigList;
 import java.util.function.LongFunction;
 
 /**
@@ -12,9 +11,11 @@ import java.util.function.LongFunction;
 public enum LocalStorage {
   /**
    * Values are stored on the JVM's heap.  This consumes the most RAM, but provides the fastest storage and retrieval
-   * times (the same as any other Java objects)
+   * times (the same as any other Java objects).  Values of a node that are all {@link Boolean}s, {@link Integer}s,
+   * {@link Long}s, {@link Float}s or {@link Double}s are stored as primitives rather than boxed objects (see
+   * {@link PrimitiveBigListWriter}), which uses several times less memory.
    */
-  MEMORY_HEAP(c -> new BigListWriter<>(new ObjectBigArrayBigList<>(c))),
+  MEMORY_HEAP(PrimitiveBigListWriter::new),
 
   /**
    * Values are written and read from files in the dagli.tmpdir directory in Kryo format.
@@ -42,11 +43,45 @@ public enum LocalStorage {
    * All data will be encrypted, which will likely slow writing and reading.
    * Please note that Kryo is a fast way to serialize values, but may not be compatible with all objects.
    */
-  DISK_KRYO_ENCRYPTED(c -> KryoWriters.kryoFrom(null, false, true));
+  DISK_KRYO_ENCRYPTED(c -> KryoWriters.kryoFrom(null, false, true)),
+
+  /**
+   * Values are written to files in the dagli.tmpdir directory in Kryo format together with a block offset index, and
+   * are read back via memory-mapping.  Skipping values and reading disjoint ranges of values in parallel are much
+   * cheaper than with {@link #DISK_KRYO}, which must deserialize every value preceding those being read; this is
+   * helpful when large intermediate results are read repeatedly or sampled (e.g. for cross-training folds).
+   * Please note that Kryo is a fast way to serialize values, but may not be compatible with all objects.
+   */
+  DISK_KRYO_INDEXED(c -> KryoWriters.kryoIndexed()),
+
+  /**
+   * Values are stored on the JVM's heap until the (estimated) total heap used by the values stored this way exceeds a
+   * budget, at which point the least recently used intermediate results are spilled (on a background thread) to files
+   * in the dagli.tmpdir directory in Kryo format and transparently read from there.  This is as fast as
+   * {@link #MEMORY_HEAP} when everything fits within the budget, while avoiding running out of memory when it does
+   * not.  The budget is shared by all executors in the JVM and is set by the dagli.heapstoragebudget system property
+   * (see {@link com.linkedin.dagli.util.environment.DagliSystemProperties#setHeapStorageBudget(Long)}); it defaults to
+   * 1/4 of the maximum heap size.  Each spill is logged at the INFO level.
+   * Please note that Kryo is a fast way to serialize values, but may not be compatible with all objects; values that
+   * cannot be serialized remain on the heap.
+   */
+  MEMORY_HEAP_SPILLING_TO_DISK_KRYO(c -> HeapSpillingStorage.DEFAULT.createWriter(c));
 
   final LongFunction<ObjectWriter<Object>> _objectWriterGenerator;
 
   LocalStorage(LongFunction<ObjectWriter<Object>> generator) {
     _objectWriterGenerator = generator;
   }
+
+  /**
+   * Creates a new, empty writer that stores values using this storage method.  This allows components other than DAG
+   * executors (e.g. preparers that need to store and re-read their inputs) to use the same storage as the executor.
+   *
+   * @param expectedSize the approximate number of values expected to be written; used only for preallocation
+   * @param <T> the type of value to be written
+   * @return a new writer using this storage method
+   */
+  public <T> ObjectWriter<T> createWriter(long expectedSize) {
+    return ObjectWriter.cast(_objectWriterGenerator.apply(expectedSize));
+  }
 }
@@ -0,0 +1,139 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.producer.Producer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * A {@link DAGExecutionListener} that accumulates the measurements for each node during an execution and, when the
+ * execution finishes, logs a summary (at the INFO level) listing, for each node, the time spent on each kind of work,
+ * the throughput, the (estimated) memory allocated and the deepest its input queue became.  Nodes are listed from most
+ * to least time spent, so the bottleneck(s) of the DAG are listed first.  A node's times are summed across all the
+ * threads executing it, and so may exceed the wall-clock time of the execution.
+ *
+ * Measurements are accumulated until an execution finishes, so a reporter should not be shared by executors running
+ * concurrently (their measurements would be combined).
+ */
+public class Log4jExecutionReporter implements DAGExecutionListener {
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static final DAGExecutionListener.Activity[] ACTIVITIES = DAGExecutionListener.Activity.values();
+
+  private final int _maxReportedNodes;
+  private final ConcurrentHashMap<Producer<?>, NodeStatistics> _statistics = new ConcurrentHashMap<>();
+
+  /**
+   * The measurements accumulated for a single node.
+   */
+  private static class NodeStatistics {
+    final LongAdder[] _values = newAdders();
+    final LongAdder[] _nanos = newAdders();
+    final LongAdder[] _allocatedBytes = newAdders();
+    final AtomicInteger _maxQueuedBatches = new AtomicInteger(0);
+
+    private static LongAdder[] newAdders() {
+      LongAdder[] adders = new LongAdder[ACTIVITIES.length];
+      for (int i = 0; i < adders.length; i++) {
+        adders[i] = new LongAdder();
+      }
+      return adders;
+    }
+
+    long totalNanos() {
+      long total = 0;
+      for (LongAdder nanos : _nanos) {
+        total += nanos.sum();
+      }
+      return total;
+    }
+  }
+
+  /**
+   * Creates a new reporter that will report every node.
+   */
+  public Log4jExecutionReporter() {
+    this(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new reporter that will report (at most) the specified number of nodes (those that spent the most time).
+   *
+   * @param maxReportedNodes the maximum number of nodes that will be included in each summary
+   */
+  public Log4jExecutionReporter(int maxReportedNodes) {
+    _maxReportedNodes = maxReportedNodes;
+  }
+
+  private NodeStatistics getStatistics(Producer<?> producer) {
+    return _statistics.computeIfAbsent(producer, p -> new NodeStatistics());
+  }
+
+  @Override
+  public void onNodeActivity(Producer<?> producer, Activity activity, long values, long nanos, long allocatedBytes) {
+    NodeStatistics statistics = getStatistics(producer);
+    statistics._values[activity.ordinal()].add(values);
+    statistics._nanos[activity.ordinal()].add(nanos);
+    if (allocatedBytes > 0) {
+      statistics._allocatedBytes[activity.ordinal()].add(allocatedBytes);
+    }
+  }
+
+  @Override
+  public void onQueueDepth(Producer<?> producer, int queuedBatches) {
+    getStatistics(producer)._maxQueuedBatches.accumulateAndGet(queuedBatches, Math::max);
+  }
+
+  @Override
+  public void onExecutionFinished(long exampleCount, long nanos) {
+    ArrayList<Map.Entry<Producer<?>, NodeStatistics>> entries = new ArrayList<>(_statistics.entrySet());
+    _statistics.clear();
+    entries.sort(Comparator.comparingLong(
+        (Map.Entry<Producer<?>, NodeStatistics> entry) -> entry.getValue().totalNanos()).reversed());
+
+    StringBuilder report = new StringBuilder();
+    report.append("Executed DAG on ").append(exampleCount).append(" examples in ").append(formatNanos(nanos));
+    for (int i = 0; i < Math.min(entries.size(), _maxReportedNodes); i++) {
+      appendNode(report, entries.get(i).getKey(), entries.get(i).getValue());
+    }
+    if (entries.size() > _maxReportedNodes) {
+      report.append("\n  (").append(entries.size() - _maxReportedNodes).append(" more nodes not shown)");
+    }
+
+    LOGGER.info(report.toString());
+  }
+
+  private static void appendNode(StringBuilder report, Producer<?> producer, NodeStatistics statistics) {
+    report.append("\n  ").append(producer.getName()).append(": ").append(formatNanos(statistics.totalNanos()));
+    for (DAGExecutionListener.Activity activity : ACTIVITIES) {
+      long nanos = statistics._nanos[activity.ordinal()].sum();
+      if (nanos == 0) {
+        continue;
+      }
+
+      report.append("; ").append(activity).append(' ').append(formatNanos(nanos));
+      long values = statistics._values[activity.ordinal()].sum();
+      if (values > 0) {
+        report.append(" (").append(Math.round(values * 1e9 / nanos)).append(" values/s)");
+      }
+      long allocatedBytes = statistics._allocatedBytes[activity.ordinal()].sum();
+      if (allocatedBytes > 0) {
+        report.append(", allocated ").append(allocatedBytes / 1024).append(" KiB");
+      }
+    }
+
+    int maxQueuedBatches = statistics._maxQueuedBatches.get();
+    if (maxQueuedBatches > 0) {
+      report.append("; max queued batches ").append(maxQueuedBatches);
+    }
+  }
+
+  private static String formatNanos(long nanos) {
+    return String.format("%.1f ms", nanos / 1e6);
+  }
+}
@@ -11,6 +11,7 @@ import com.linkedin.dagli.objectio.ConcatenatedReader;
 import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
 import com.linkedin.dagli.objectio.ObjectWriter;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.Preparer;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerMode;
@@ -82,6 +83,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
   private final int _maxConcurrentBatches;
   private final int _maxThreadCount;
   private final LocalStorage _localStorage;
+  private final AdaptiveTuner _adaptiveTuner; // null if adaptive tuning is disabled
 
   /**
    * Sets the batch size.  Larger batches reduce the per-batch overhead, but also reduce opportunities for
@@ -91,7 +93,8 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
    * @return a copy of this executor with the specified batch size
    */
   public MultithreadedDAGExecutor withBatchSize(int batchSize) {
-    return new MultithreadedDAGExecutor(batchSize, _maxConcurrentBatches, _maxThreadCount, _localStorage);
+    return withSameListener(new MultithreadedDAGExecutor(batchSize, _maxConcurrentBatches, _maxThreadCount,
+        _localStorage, _adaptiveTuner));
   }
 
   /**
@@ -103,7 +106,8 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
    * @return a copy of this executor that will use the specified number of concurrent batches
    */
   public MultithreadedDAGExecutor withConcurrentBatches(int maxConcurrentBatches) {
-    return new MultithreadedDAGExecutor(_batchSize, maxConcurrentBatches, _maxThreadCount, _localStorage);
+    return withSameListener(new MultithreadedDAGExecutor(_batchSize, maxConcurrentBatches, _maxThreadCount,
+        _localStorage, _adaptiveTuner));
   }
 
   /**
@@ -122,7 +126,8 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
    * @return a copy of this executor that will use the specified maximum number of threads
    */
   public MultithreadedDAGExecutor withMaxThreads(int maxThreadCount) {
-    return new MultithreadedDAGExecutor(_batchSize, _maxConcurrentBatches, maxThreadCount, _localStorage);
+    return withSameListener(new MultithreadedDAGExecutor(_batchSize, _maxConcurrentBatches, maxThreadCount,
+        _localStorage, _adaptiveTuner));
   }
 
   /**
@@ -141,7 +146,50 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
    * @return a copy of this executor that will use the specified storage method
    */
   public MultithreadedDAGExecutor withStorage(LocalStorage storage) {
-    return new MultithreadedDAGExecutor(_batchSize, _maxConcurrentBatches, _maxThreadCount, storage);
+    return withSameListener(
+        new MultithreadedDAGExecutor(_batchSize, _maxConcurrentBatches, _maxThreadCount, storage, _adaptiveTuner));
+  }
+
+  /**
+   * Enables adaptive tuning of the batch size and the number of concurrent batches.  While a DAG executes, the time each
+   * node takes to process its batches and the number of tasks waiting to run are measured; these measurements are then
+   * used to choose the settings for the next execution of the same DAG (by this executor or its copies), such that:
+   * (1) the slowest node in the DAG takes roughly {@code targetBatchMillis} to process each batch, so that cheap DAGs
+   *     use large batches (less scheduling overhead) and expensive DAGs use small batches (more parallelism)
+   * (2) the number of concurrent batches increases if nodes' input buffers fill while threads are idle, and decreases if
+   *     far more tasks are waiting than can be run
+   * (3) no node buffers more than {@code maxBufferedValues} values (batch size times concurrent batches) at once,
+   *     limiting memory usage
+   *
+   * The batch size and concurrent batches configured on this executor are used for the first execution of each DAG.
+   * Whenever new settings are chosen they are logged (at the INFO level) so that they may later be pinned by
+   * {@link #withBatchSize(int)} and {@link #withConcurrentBatches(int)} (without adaptive tuning).
+   *
+   * Adaptive tuning is most useful when the same DAG is executed repeatedly, e.g. when a prepared DAG is applied to
+   * successive chunks of data or when a meta-transformer evaluates a DAG multiple times.
+   *
+   * @param targetBatchMillis the desired time, in milliseconds, for the slowest node to process a single batch
+   * @param maxBufferedValues the maximum number of values each node may buffer (its batch size times the number of
+   *                          concurrent batches)
+   * @return a copy of this executor that will adaptively tune its batch size and concurrent batches
+   */
+  public MultithreadedDAGExecutor withAdaptiveTuning(long targetBatchMillis, long maxBufferedValues) {
+    return withSameListener(new MultithreadedDAGExecutor(_batchSize, _maxConcurrentBatches, _maxThreadCount,
+        _localStorage, new AdaptiveTuner(targetBatchMillis, maxBufferedValues)));
+  }
+
+  /**
+   * @return the maximum number of threads used by the executor to process nodes in the DAG
+   */
+  public int getMaxThreads() {
+    return _maxThreadCount;
+  }
+
+  /**
+   * @return the storage used by the executor to store intermediate values and results
+   */
+  public LocalStorage getStorage() {
+    return _localStorage == null ? LocalStorage.MEMORY_HEAP : _localStorage;
   }
 
   private LongFunction<ObjectWriter<Object>> getAppendableGenerator() {
@@ -154,21 +202,23 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
    * storage mechanism for intermediate and output values.
    */
   public MultithreadedDAGExecutor() {
-    this(DEFAULT_BATCH_SIZE, DEFAULT_MAX_CONCURRENT_BATCHES, DEFAULT_THREAD_COUNT, LocalStorage.MEMORY_HEAP);
+    this(DEFAULT_BATCH_SIZE, DEFAULT_MAX_CONCURRENT_BATCHES, DEFAULT_THREAD_COUNT, LocalStorage.MEMORY_HEAP, null);
   }
 
   @Override
   public String toString() {
     return "MultithreadedDAGExecutor (batch size: " + _batchSize + "; concurrent batches: " + _maxConcurrentBatches
-        + "; max threads: " + _maxThreadCount + ")";
+        + "; max threads: " + _maxThreadCount + (_adaptiveTuner == null ? "" : "; adaptive tuning: " + _adaptiveTuner)
+        + ")";
   }
 
   private MultithreadedDAGExecutor(int batchSize, int maxConcurrentBatches, int maxThreadCount,
-      LocalStorage storage) {
+      LocalStorage storage, AdaptiveTuner adaptiveTuner) {
     _batchSize = batchSize;
     _maxConcurrentBatches = maxConcurrentBatches;
     _maxThreadCount = maxThreadCount;
     _localStorage = storage;
+    _adaptiveTuner = adaptiveTuner;
   }
 
   /**
@@ -191,8 +241,15 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     public final DAGStructure<?> _dag;
     public final long _count;
     public final int _batchSize;
+    public final int _maxConcurrentBatches;
     public final long _batchCount;
 
+    // measurements for adaptive tuning; null if adaptive tuning is disabled
+    public final AdaptiveTuner.Statistics _statistics;
+
+    // receives measurements of each task; null if the executor has no listener
+    public final DAGExecutionListener _listener;
+
     private Object _threadExceptionMutex = new Object();
     private Exception _threadException = null;
 
@@ -217,8 +274,11 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     private final Producer<?>[] _preparedForPreparationDataProducers;
 
     public Scheduler(ExecutorService threadPool, MultithreadedDAGExecutor executor, DAGStructure<?> dag, long count,
-        boolean shouldApply) {
-      _batchSize = executor._batchSize;
+        boolean shouldApply, int batchSize, int maxConcurrentBatches, AdaptiveTuner.Statistics statistics) {
+      _batchSize = batchSize;
+      _maxConcurrentBatches = maxConcurrentBatches;
+      _statistics = statistics;
+      _listener = executor._listener;
       _batchCount = Math.max(1, (count + _batchSize - 1) / _batchSize);
       _count = count;
       _dag = dag;
@@ -320,13 +380,21 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
         LOGGER.trace(() -> "Scheduling task " + task.toString() + " (node " + task._node._nodeIndex + ") for batch "
             + task._batchIndex + "; " + _pendingTaskSemaphore.availablePermits() + " permits available");
         assert _pendingTaskSemaphore.availablePermits() <= 0;
+
+        if (_statistics != null) {
+          _statistics.recordOutstandingTasks(-_pendingTaskSemaphore.availablePermits());
+        }
       }
 
       _threadPool.execute(() -> {
         try {
           LOGGER.trace(() -> "Starting task " + task.toString() + " (node " + task._node._nodeIndex + ") for batch "
               + task._batchIndex);
-          task.run();
+          if (_listener == null && (_statistics == null || !task.processesBatch())) {
+            task.run();
+          } else {
+            runMeasured(task);
+          }
         } catch (Exception e) {
           synchronized (_threadExceptionMutex) {
             if (_threadException != null) {
@@ -349,6 +417,35 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
         }
       });
     }
+
+    private void runMeasured(Task<?> task) {
+      long startBytes = _listener == null ? -1 : ThreadAllocation.currentThreadAllocatedBytes();
+      long startNanos = System.nanoTime();
+      task.run();
+      long nanos = System.nanoTime() - startNanos;
+
+      long values = task.processesBatch() ? Math.min(_batchSize, _count - _batchSize * task._batchIndex) : 0;
+      if (_statistics != null && task.processesBatch()) {
+        _statistics.recordTask(task._node._nodeIndex, nanos, values);
+      }
+      if (_listener != null) {
+        _listener.onNodeActivity(_dag._nodes[task._node._nodeIndex], task.getActivity(), values, nanos,
+            ThreadAllocation.allocatedBytesSince(startBytes));
+      }
+    }
+
+    /**
+     * Reports the number of input batches queued for a node to the listener (if any).  Should not be called while
+     * holding a lock.
+     *
+     * @param nodeIndex the index of the node
+     * @param queuedBatches the number of queued batches
+     */
+    public void reportQueueDepth(int nodeIndex, int queuedBatches) {
+      if (_listener != null) {
+        _listener.onQueueDepth(_dag._nodes[nodeIndex], queuedBatches);
+      }
+    }
   }
 
   private static abstract class Task<N extends Node<N>> implements Runnable {
@@ -370,6 +467,19 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     }
 
     protected abstract void onRun();
+
+    /**
+     * @return true if this task processes a single batch of values (and thus its execution time is proportional to the
+     *         batch size), false if it is a one-time task such as finishing preparation
+     */
+    protected boolean processesBatch() {
+      return true;
+    }
+
+    /**
+     * @return the kind of work done by this task, as reported to a {@link DAGExecutionListener}
+     */
+    protected abstract DAGExecutionListener.Activity getActivity();
   }
 
   private static abstract class Node<S extends Node<S>> {
@@ -477,7 +587,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
           _childInputIndices[i] = indexOfNthMatch(_scheduler._dag._parents[child._nodeIndex], _nodeIndex, n);
         }
       }
-      _outputPendingCount = new UnsafeCircularIntegerBuffer(_scheduler._executor._maxConcurrentBatches, children.length);
+      _outputPendingCount = new UnsafeCircularIntegerBuffer(_scheduler._maxConcurrentBatches, children.length);
     }
   }
 
@@ -514,16 +624,16 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
 
     public ChildNode(Scheduler scheduler, int nodeIndex, ChildNode<?>[] children, int parentCount, int prerequisites, boolean hasOtherDependents) {
       super(scheduler, nodeIndex, children, hasOtherDependents);
-      _pendingInputCount = new UnsafeCircularIntegerBuffer(_scheduler._executor._maxConcurrentBatches, parentCount);
+      _pendingInputCount = new UnsafeCircularIntegerBuffer(_scheduler._maxConcurrentBatches, parentCount);
       _pendingInputs =
-          new UnsafeCircularReferenceBuffer<>(_scheduler._executor._maxConcurrentBatches, () -> new Object[parentCount][]);
+          new UnsafeCircularReferenceBuffer<>(_scheduler._maxConcurrentBatches, () -> new Object[parentCount][]);
       _parents = new AtomicWriteOnceReference[parentCount];
       for (int i = 0; i < _parents.length; i++) {
         _parents[i] = new AtomicWriteOnceReference<>();
       }
 
       if (prerequisites > 0) {
-        for (int i = 0; i < _scheduler._executor._maxConcurrentBatches; i++) {
+        for (int i = 0; i < _scheduler._maxConcurrentBatches; i++) {
           _pendingInputCount.getAndAdd(i, prerequisites);
         }
       }
@@ -553,7 +663,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     }
 
     public void satisfiedPrerequisite() {
-      for (int i = 0; i < _scheduler._executor._maxConcurrentBatches; i++) {
+      for (int i = 0; i < _scheduler._maxConcurrentBatches; i++) {
         updatePendingInput(i, _pendingInputs.get(i));
       }
     }
@@ -601,6 +711,11 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       _batch = batch;
     }
 
+    @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.APPLY;
+    }
+
     @Override
     protected void onRun() {
       Object[] results = new Object[_batch[0].length];
@@ -694,7 +809,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
 
     @Override
     protected void onRandomInput(long batchIndex, Object[][] inputBatches) {
-      if (batchIndex < _scheduler._executor._maxConcurrentBatches && _preparedTransformerAndExecutionCache.get() == null) {
+      if (batchIndex < _scheduler._maxConcurrentBatches && _preparedTransformerAndExecutionCache.get() == null) {
         // we know that batchIndex cannot be greater than maxConcurrentBatches until this method has successfully
         // returned at least once; this greatly reduces checks of the volatile
         assert !isPreparable(_scheduler._dag, _nodeIndex);
@@ -751,20 +866,32 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
 
   private static class PreparationTask extends Task<PreparableTransformerNode> {
     private final Object[][] _batch;
-    public PreparationTask(Object[][] batch, PreparableTransformerNode owner, long batchIndex) {
+    private final int _preparerIndex;
+
+    public PreparationTask(Object[][] batch, PreparableTransformerNode owner, long batchIndex, int preparerIndex) {
       super(owner, batchIndex);
       _batch = batch;
+      _preparerIndex = preparerIndex;
+    }
+
+    @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.PROCESS;
     }
 
     @Override
     protected void onRun() {
       Object[] buffer = new Object[_batch.length];
+      Preparer<?, ?> preparer = _node._preparers[_preparerIndex];
 
       for (int i = 0; i < _batch[0].length; i++) {
         fillInputBuffer(_batch, buffer, i);
-        _node._preparer.processUnsafe(buffer);
+        preparer.processUnsafe(buffer);
       }
-      if (_batchIndex == _node._scheduler._batchCount - 1) {
+
+      // batches may be processed concurrently (by different preparers), so the last batch is not necessarily the last
+      // to finish
+      if (_node._processedBatchCount.incrementAndGet() == _node._scheduler._batchCount) {
         _node.onReadyToFinish();
       }
     }
@@ -785,7 +912,24 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     }
 
     @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.FINISH;
+    }
+
+    @Override
+    protected boolean processesBatch() {
+      return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
     protected void onRun() {
+      // merge any partial preparers back into the original, always in the same order
+      for (int i = 1; i < _node._preparers.length; i++) {
+        ((MergeablePreparer) _node._preparer).merge((MergeablePreparer) _node._preparers[i]);
+        _node._preparers[i] = null; // no longer needed
+      }
+
       // for streamPrepared nodes, we can pass a null to finishUnsafe; otherwise, we need to pass a reader that can
       // make a second pass over the data
       PreparerResultMixed<? extends PreparedTransformer<?>, ? extends PreparedTransformer<?>> prepared =
@@ -819,7 +963,14 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     private final TransformerViewNode[] _transformerViewNodes;
     public final PreparedTransformerNode _preparedTransformerNode;
 
-    private boolean _taskPending = false;
+    // The preparers that process the batches.  If the preparer is a MergeablePreparer, this is the original preparer
+    // followed by partial preparers created from it, and batch i is processed by preparer (i % _preparers.length), which
+    // allows up to _preparers.length batches to be processed concurrently.  Otherwise, this contains only the original
+    // preparer and batches are processed one at a time.
+    private final Preparer<?, ?>[] _preparers;
+    private final boolean[] _preparerBusy;
+    private final AtomicLong _processedBatchCount = new AtomicLong(0);
+
     private long _nextBatchIndex = 0;
     private ReentrantLock _schedulerLock = new ReentrantLock();
 
@@ -861,10 +1012,13 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
         TransformerViewNode[] views, PreparedTransformerNode preparedTransformerNode, boolean hasOtherDependents) {
       super(scheduler, nodeIndex, nonViewChildren, scheduler._dag._parents[nodeIndex].length, 0,
           views.length > 0 || hasOtherDependents);
-      _inputQueue = new ArrayDeque<>(_scheduler._executor._maxConcurrentBatches);
+      _inputQueue = new ArrayDeque<>(_scheduler._maxConcurrentBatches);
       _preparedTransformerNode = preparedTransformerNode;
       _preparer = ((PreparableTransformer<?, ?>) _scheduler._dag._nodes[nodeIndex]).internalAPI().getPreparer(
           PreparerContext.builder(_scheduler._count).setExecutor(_scheduler._executor).build());
+      _preparers = createPreparers(_preparer, (int) Math.min(_scheduler._batchCount,
+          Math.min(_scheduler._executor._maxThreadCount, _scheduler._maxConcurrentBatches)));
+      _preparerBusy = new boolean[_preparers.length];
       _transformerViewNodes = views;
 
       if (isStreamPrepared()) {
@@ -879,6 +1033,26 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       assert _preparedTransformerNode != null || nonViewChildren.length == 0;
     }
 
+    /**
+     * Creates the preparers that will process the batches of preparation data.
+     *
+     * @param preparer the original preparer
+     * @param maxPreparers the maximum number of preparers to use
+     * @return an array containing the original preparer, followed by any partial preparers created from it
+     */
+    private static Preparer<?, ?>[] createPreparers(Preparer<?, ?> preparer, int maxPreparers) {
+      if (!(preparer instanceof MergeablePreparer) || maxPreparers <= 1) {
+        return new Preparer<?, ?>[] { preparer };
+      }
+
+      Preparer<?, ?>[] preparers = new Preparer<?, ?>[maxPreparers];
+      preparers[0] = preparer;
+      for (int i = 1; i < preparers.length; i++) {
+        preparers[i] = ((MergeablePreparer<?, ?, ?>) preparer).createPartial();
+      }
+      return preparers;
+    }
+
     // PreparableTransformerNodes can run in the phase prior to when their resultant PreparedTransformerNodes run
     @Override
     protected int getEffectivePhase() {
@@ -891,35 +1065,47 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
         return; // we're done
       }
 
-      tryStartTask(null);
+      try {
+        _schedulerLock.lock();
+        _preparerBusy[((PreparationTask) task)._preparerIndex] = false;
+      } finally {
+        _schedulerLock.unlock();
+      }
+      tryStartTasks();
 
       // tell our parents that the input buffer we're consuming is now released (well, about to be, anyway)
       releaseParentsOutput(task._batchIndex);
     }
 
-    private void tryStartTask(Object[][] newInputBatch) {
-      Object[][] val;
-      long batchIndex;
-      try {
-        _schedulerLock.lock();
-        if (newInputBatch != null) {
-          _inputQueue.add(newInputBatch);
-        } else {
-          _taskPending = false;
-        }
+    /**
+     * Schedules preparation tasks for as many queued input batches as possible.  Batches are always started in order;
+     * the batch at the head of the queue is started once the preparer responsible for it is no longer busy.
+     */
+    private void tryStartTasks() {
+      while (true) {
+        Object[][] val;
+        long batchIndex;
+        int preparerIndex;
+        try {
+          _schedulerLock.lock();
+          if (_inputQueue.isEmpty()) {
+            return; // nothing to schedule
+          }
+
+          preparerIndex = (int) (_nextBatchIndex % _preparers.length);
+          if (_preparerBusy[preparerIndex]) {
+            return; // can't schedule now
+          }
 
-        if (_taskPending || _inputQueue.isEmpty()) {
-          return; // can't schedule now
+          val = _inputQueue.removeFirst();
+          _preparerBusy[preparerIndex] = true;
+          batchIndex = _nextBatchIndex++;
+        } finally {
+          _schedulerLock.unlock();
         }
-        val = _inputQueue.removeFirst();
-        _taskPending = true;
-        batchIndex = _nextBatchIndex++;
-      } finally {
-        _schedulerLock.unlock();
-      }
 
-      _scheduler.schedule(
-          new PreparationTask(val, this, batchIndex));
+        _scheduler.schedule(new PreparationTask(val, this, batchIndex, preparerIndex));
+      }
     }
 
     @Override
@@ -931,7 +1117,16 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     protected void onSequentialInput(long batchIndex, Object[][] inputBatches) {
       assert inputBatches.length == _parents.length;
 
-      tryStartTask(inputBatches);
+      int queuedBatches;
+      try {
+        _schedulerLock.lock();
+        _inputQueue.add(inputBatches);
+        queuedBatches = _inputQueue.size();
+      } finally {
+        _schedulerLock.unlock();
+      }
+      _scheduler.reportQueueDepth(_nodeIndex, queuedBatches);
+      tryStartTasks();
     }
 
     @Override
@@ -949,6 +1144,11 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       _batch = batch;
     }
 
+    @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.STORE;
+    }
+
     @Override
     protected void onRun() {
       LOGGER.trace(
@@ -968,7 +1168,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
         PreparableTransformerNode[] subscribers, ObjectWriter<Object> batchAppendable) {
       super(scheduler, nodeIndex, children, 1, 0, subscribers.length > 0);
       assert children.length > 0 || subscribers.length > 0 || scheduler._dag.isOutput(nodeIndex);
-      _inputQueue = new ArrayDeque<>(_scheduler._executor._maxConcurrentBatches);
+      _inputQueue = new ArrayDeque<>(_scheduler._maxConcurrentBatches);
       _batchAppendable = batchAppendable;
       _uniqueSubscribers = Arrays.stream(subscribers).distinct().toArray(PreparableTransformerNode[]::new);
     }
@@ -1011,28 +1211,33 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     }
 
     private void tryStartTask(Object[] newInputBatch) {
-      Object[] val;
-      long batchIndex;
+      Object[] val = null; // remains null if we can't schedule now
+      long batchIndex = -1;
+      int queuedBatches = -1; // remains -1 if no new batch was queued
       try {
         _schedulerLock.lock();
         if (newInputBatch != null) {
           _inputQueue.add(newInputBatch);
+          queuedBatches = _inputQueue.size();
         } else {
           _taskPending = false;
         }
 
-        if (_taskPending || _inputQueue.isEmpty()) {
-          return; // can't schedule now
+        if (!_taskPending && !_inputQueue.isEmpty()) {
+          val = _inputQueue.removeFirst();
+          _taskPending = true;
+          batchIndex = _nextBatchIndex++;
         }
-        val = _inputQueue.removeFirst();
-        _taskPending = true;
-        batchIndex = _nextBatchIndex++;
       } finally {
         _schedulerLock.unlock();
       }
 
-      _scheduler.schedule(
-          new BatchAppendTask(val, this, batchIndex));
+      if (queuedBatches >= 0) {
+        _scheduler.reportQueueDepth(_nodeIndex, queuedBatches);
+      }
+      if (val != null) {
+        _scheduler.schedule(new BatchAppendTask(val, this, batchIndex));
+      }
     }
 
     @Override
@@ -1115,6 +1320,11 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       _batchIterator = batchIterator;
     }
 
+    @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.READ;
+    }
+
     @Override
     protected void onRun() {
       long remaining = _node._scheduler._count - _node._scheduler._batchSize * _batchIndex;
@@ -1168,6 +1378,9 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       assert _lock.isHeldByCurrentThread();
 
       if (_pendingOutputs >= _outputPendingCount.length() || _activeTask || _nextBatchIndex >= _scheduler._batchCount) {
+        if (_pendingOutputs >= _outputPendingCount.length() && _scheduler._statistics != null) {
+          _scheduler._statistics.recordBufferFull();
+        }
         return -1;
       }
 
@@ -1224,6 +1437,11 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       super(node, batchIndex);
     }
 
+    @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.GENERATE;
+    }
+
     @Override
     protected void onRun() {
       long batchOffset = _batchIndex * _node._scheduler._batchSize;
@@ -1250,7 +1468,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
 
     @Override
     protected void onOutputReleased(long batchIndex) {
-      long nextBatchIndex = batchIndex + _scheduler._executor._maxConcurrentBatches;
+      long nextBatchIndex = batchIndex + _scheduler._maxConcurrentBatches;
       if (nextBatchIndex < _scheduler._batchCount) {
         _scheduler.schedule(new GenerationTask(this, nextBatchIndex));
       }
@@ -1258,7 +1476,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
 
     @Override
     protected void onStart() {
-      int limit = Math.toIntExact(Math.min(_scheduler._executor._maxConcurrentBatches, _scheduler._batchCount));
+      int limit = Math.toIntExact(Math.min(_scheduler._maxConcurrentBatches, _scheduler._batchCount));
       for (int i = 0; i < limit; i++) {
         _scheduler.schedule(new GenerationTask(this, i));
       }
@@ -1272,6 +1490,11 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       _value = value;
     }
 
+    @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.GENERATE;
+    }
+
     @Override
     protected void onRun() {
       long batchOffset = _batchIndex * _node._scheduler._batchSize;
@@ -1287,6 +1510,16 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       super(node, batchIndex);
     }
 
+    @Override
+    protected DAGExecutionListener.Activity getActivity() {
+      return DAGExecutionListener.Activity.FINISH;
+    }
+
+    @Override
+    protected boolean processesBatch() {
+      return false;
+    }
+
     @Override
     protected void onRun() {
       int parentIndex = _node._scheduler._dag._parents[_node._nodeIndex][0];
@@ -1318,7 +1551,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
       if (_children.length > 0) {
         // ^ it's possible for us to have no children if we're being prepared without applying the prepared DAG to the
         // training data and we're in the last phase, in which case we should schedule any generation tasks
-        int limit = Math.toIntExact(Math.min(_scheduler._executor._maxConcurrentBatches, _scheduler._batchCount));
+        int limit = Math.toIntExact(Math.min(_scheduler._maxConcurrentBatches, _scheduler._batchCount));
         for (int i = 0; i < limit; i++) {
           _scheduler.schedule(new TransformerViewGenerationTask(this, i, _value.get()));
         }
@@ -1330,7 +1563,7 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
 
     @Override
     protected void onOutputReleased(long batchIndex) {
-      long nextBatchIndex = batchIndex + _scheduler._executor._maxConcurrentBatches;
+      long nextBatchIndex = batchIndex + _scheduler._maxConcurrentBatches;
       if (nextBatchIndex < _scheduler._batchCount) {
         _scheduler.schedule(new TransformerViewGenerationTask(this, nextBatchIndex, _value.get()));
       }
@@ -1509,7 +1742,20 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     long count = inputValueLists[0].size64();
     DAGStructure<R> dagStructure = dag.internalAPI().getDAGStructure();
 
-    Scheduler scheduler = new Scheduler(Executors.newFixedThreadPool(_maxThreadCount), this, dagStructure, count, shouldApply);
+    // with adaptive tuning, the batch size and concurrent batches are chosen based on previous executions of the DAG
+    AdaptiveTuner.Settings settings =
+        _adaptiveTuner == null ? null : _adaptiveTuner.getSettings(dagStructure, _batchSize, _maxConcurrentBatches);
+    AdaptiveTuner.Statistics statistics =
+        settings == null ? null : new AdaptiveTuner.Statistics(dagStructure._nodes.length);
+
+    long startNanos = System.nanoTime();
+    if (_listener != null) {
+      _listener.onExecutionStarted(count);
+    }
+
+    Scheduler scheduler = new Scheduler(Executors.newFixedThreadPool(_maxThreadCount), this, dagStructure, count,
+        shouldApply, settings == null ? _batchSize : settings._batchSize,
+        settings == null ? _maxConcurrentBatches : settings._concurrentBatches, statistics);
 
     int effectiveNodeCount = shouldApply ? dagStructure._nodes.length : dagStructure.firstPreparedTransformerInPhase(dagStructure.getLastPhase());
     Node<?>[] earlyPhaseNodeArray = new Node<?>[effectiveNodeCount];
@@ -1546,6 +1792,13 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
             scheduler._threadException);
       }
 
+      if (statistics != null) {
+        _adaptiveTuner.update(dagStructure, settings, statistics, _maxThreadCount);
+      }
+      if (_listener != null) {
+        _listener.onExecutionFinished(count, System.nanoTime() - startNanos);
+      }
+
       // if !shouldApply, we ignored any prepared transformers in the final phase--we need to configure those now:
       for (int nodeIndex = effectiveNodeCount; nodeIndex < dagStructure._nodes.length; nodeIndex++) {
         PreparedTransformerNode.setPreparedTransformerWithNewParentsOnScheduler(scheduler, nodeIndex);
@@ -1594,11 +1847,12 @@ public class MultithreadedDAGExecutor extends AbstractDAGExecutor<MultithreadedD
     }
     MultithreadedDAGExecutor that = (MultithreadedDAGExecutor) o;
     return _batchSize == that._batchSize && _maxConcurrentBatches == that._maxConcurrentBatches
-        && _maxThreadCount == that._maxThreadCount && _localStorage == that._localStorage;
+        && _maxThreadCount == that._maxThreadCount && _localStorage == that._localStorage
+        && Objects.equals(_adaptiveTuner, that._adaptiveTuner);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(_batchSize, _maxConcurrentBatches, _maxThreadCount, _localStorage);
+    return Objects.hash(_batchSize, _maxConcurrentBatches, _maxThreadCount, _localStorage, _adaptiveTuner);
   }
 }
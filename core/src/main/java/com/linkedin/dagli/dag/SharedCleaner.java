@@ -0,0 +1,15 @@
+package com.linkedin.dagli.dag;
+
+import java.lang.ref.Cleaner;
+
+
+/**
+ * Holds the {@link Cleaner} shared by the classes of this package that must release resources (such as thread pools or
+ * temporary files) once the objects owning them become unreachable.  A single instance is used so that only one
+ * cleaning thread is created.
+ */
+final class SharedCleaner {
+  static final Cleaner INSTANCE = Cleaner.create();
+
+  private SharedCleaner() { }
+}
@@ -73,6 +73,20 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
     return bbal.createReader();
   }
 
+  // gets the bytes allocated by the current thread so far if there is a listener to report them to, or -1 otherwise
+  private long currentThreadAllocatedBytes() {
+    return _listener == null ? -1 : ThreadAllocation.currentThreadAllocatedBytes();
+  }
+
+  // reports the work done by a node to the listener, if there is one
+  private void reportActivity(Producer<?> producer, DAGExecutionListener.Activity activity, long values,
+      long startNanos, long startBytes) {
+    if (_listener != null) {
+      _listener.onNodeActivity(producer, activity, values, System.nanoTime() - startNanos,
+          ThreadAllocation.allocatedBytesSince(startBytes));
+    }
+  }
+
   private <T> PreparedTransformer<?> transformerWithNewInputs(List<? extends Producer<?>> transformerInputs,
       PreparedTransformer<T> preparedTransformer, HashMap<Producer<?>, Producer<?>> producerMap) {
 
@@ -111,8 +125,12 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
     HashMap<Producer<?>, Producer<?>> preparedForNewDataProducerMap = new HashMap<>();
     HashMap<Producer<?>, Producer<?>> preparedForPreparationDataProducerMap = new HashMap<>();
 
+    long executionStartNanos = System.nanoTime();
     long inputSize = inputValueLists[0].size64();
     DAGStructure<R> dagStructure = dag.internalAPI().getDAGStructure();
+    if (_listener != null) {
+      _listener.onExecutionStarted(inputSize);
+    }
 
     for (int i = 0; i < inputValueLists.length; i++) {
       Arguments.check(inputValueLists[i].size64() == inputSize);
@@ -138,7 +156,10 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
         preparedForPreparationDataProducerMap.put(generator, generator);
 
         // and their values can be generated immediately
+        long startBytes = currentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
         cache.put(generator, generateIterable(inputSize, generator));
+        reportActivity(generator, DAGExecutionListener.Activity.GENERATE, inputSize, startNanos, startBytes);
       } else if (producer instanceof ChildProducer<?>) {
         ChildProducer<?> child = (ChildProducer<?>) producer;
         Set<ChildProducer<?>> dependencies = child.internalAPI().getInputList()
@@ -180,6 +201,8 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
           Preparer<?, ?> transformerPreparer = preparableTransformer.internalAPI()
               .getPreparer(PreparerContext.builder(inputSize).setExecutor(this).build());
 
+          long startBytes = currentThreadAllocatedBytes();
+          long startNanos = System.nanoTime();
           ObjectIterator<?>[] iterators = args.stream().map(ObjectReader::iterator).toArray(ObjectIterator[]::new);
           for (long i = 0; i < inputSize; i++) {
             Object[] objs = new Object[args.size()];
@@ -188,10 +211,14 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
             }
             transformerPreparer.processUnsafe(objs);
           }
+          reportActivity(producer, DAGExecutionListener.Activity.PROCESS, inputSize, startNanos, startBytes);
 
+          startBytes = currentThreadAllocatedBytes();
+          startNanos = System.nanoTime();
           PreparerResultMixed<? extends PreparedTransformer<?>, ? extends PreparedTransformer<?>> preparerResult =
               transformerPreparer.finishUnsafe(
                   new ConcatenatedReader<>(Object[]::new, args.toArray(new ObjectReader[0])));
+          reportActivity(producer, DAGExecutionListener.Activity.FINISH, 0, startNanos, startBytes);
 
           List<Producer<?>> preparedInputsForNewData =
               parents.stream().map(preparedForNewDataProducerMap::get).collect(Collectors.toList());
@@ -218,6 +245,8 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
           throw new IllegalArgumentException("Unknown transformer type");
         }
 
+        long startBytes = currentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
         ObjectWriter<Object> resultsAccumulator = new BigListWriter<>(inputSize);
 
         ObjectIterator<Object>[] iterators = args.stream().map(ObjectReader::iterator).toArray(ObjectIterator[]::new);
@@ -242,6 +271,7 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
         }
 
         results = resultsAccumulator.createReader();
+        reportActivity(producer, DAGExecutionListener.Activity.APPLY, inputSize, startNanos, startBytes);
 
         // check all ancestors for unprepared transformers
         if (LogManager.getLogger().getLevel().equals(Level.TRACE)) {
@@ -271,6 +301,8 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
       } else if (producer instanceof TransformerView<?, ?>) {
         TransformerView view = (TransformerView<?, ?>) producer;
         assert parents.size() == 1;
+        long startBytes = currentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
         PreparedTransformer<?> parentPreparedForNewData =
             (PreparedTransformer<?>) preparedForNewDataProducerMap.get(parents.get(0));
         PreparedTransformer<?> parentPreparedForPreparationData =
@@ -281,6 +313,7 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
         preparedForNewDataProducerMap.put(view, new Constant<>(valueForNewData));
         preparedForPreparationDataProducerMap.put(view, new Constant<>(valueForPreparationData));
         results = new ConstantReader<Object>(valueForPreparationData, inputSize);
+        reportActivity(view, DAGExecutionListener.Activity.FINISH, 0, startNanos, startBytes);
       } else {
         throw new IllegalArgumentException("Unknown ChildProducer type");
       }
@@ -310,6 +343,9 @@ public final class SimpleDAGExecutor extends AbstractDAGExecutor<SimpleDAGExecut
     }
 
     ObjectReader<?>[] resList = dagStructure._outputs.stream().map(cache::get).toArray(ObjectReader[]::new);
+    if (_listener != null) {
+      _listener.onExecutionFinished(inputSize, System.nanoTime() - executionStartNanos);
+    }
     return new DAGExecutionResult(
         new PreparerResult.Builder<>().withTransformerForNewData(preparedForNewDataDAG)
             .withTransformerForPreparationData(preparedForPreparationDataDAG)
@@ -0,0 +1,315 @@
+package com.linkedin.dagli.dag;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.io.Output;
+import com.linkedin.dagli.objectio.ObjectIterator;
+import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.objectio.ObjectWriter;
+import com.linkedin.dagli.objectio.biglist.BigListReader;
+import com.linkedin.dagli.objectio.kryo.KryoFileWriter;
+import com.linkedin.dagli.util.environment.DagliSystemProperties;
+import com.linkedin.dagli.util.kryo.KryoWriters;
+import it.unimi.dsi.fastutil.BigArrays;
+import it.unimi.dsi.fastutil.objects.ObjectBigArrayBigList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * An {@link ObjectWriter} that keeps its values on the heap until its {@link HeapSpillingStorage} asks it to spill
+ * them to a (Kryo) temporary file, after which all values (those previously written and any written subsequently) are
+ * stored in that file.  Readers created by this writer always read from wherever the values currently reside, so
+ * spilling is transparent to the writer's clients.
+ *
+ * As with the other disk-backed storage, once a writer has spilled, its values can only be read after the writer has
+ * been closed.  The temporary file is deleted once the writer (and thus all its readers) becomes unreachable.
+ *
+ * @param <T> the type of value written
+ */
+final class SpillingObjectWriter<T> implements ObjectWriter<T> {
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  // the first values written are always measured to estimate the heap size of the values; after that, one in
+  // SAMPLE_PERIOD values are measured
+  private static final int INITIAL_SAMPLES = 16;
+  private static final int SAMPLE_PERIOD = 256;
+
+  // rough estimates of the heap size of a value from its serialized size: a reference from the list and an object
+  // header, plus the serialized size scaled to account for the (typically) larger in-memory representation
+  private static final int PER_VALUE_OVERHEAD_BYTES = 8 + 16;
+  private static final int HEAP_EXPANSION_FACTOR = 2;
+
+  // the size assumed for a value that cannot be serialized (and thus also cannot be spilled)
+  private static final int UNSERIALIZABLE_VALUE_BYTES = 64;
+
+  private static final ThreadLocal<Sizer> SIZER = ThreadLocal.withInitial(Sizer::new);
+
+  /**
+   * Measures the serialized size of values.
+   */
+  private static class Sizer {
+    final Kryo _kryo = new Kryo();
+    final Output _output = new Output(1024, -1);
+
+    Sizer() {
+      _kryo.setRegistrationRequired(false);
+      _kryo.setReferences(true);
+    }
+
+    long estimateHeapBytes(Object value) {
+      _output.reset();
+      try {
+        _kryo.writeClassAndObject(_output, value);
+        return PER_VALUE_OVERHEAD_BYTES + HEAP_EXPANSION_FACTOR * _output.position();
+      } catch (RuntimeException e) {
+        return UNSERIALIZABLE_VALUE_BYTES;
+      } finally {
+        _kryo.reset();
+      }
+    }
+  }
+
+  /**
+   * Deletes a spill file.  This is registered with a {@link java.lang.ref.Cleaner} when a writer spills, and so must
+   * not reference the writer itself.
+   */
+  private static class SpillFileDeletion implements Runnable {
+    private final Path _path;
+
+    SpillFileDeletion(Path path) {
+      _path = path;
+    }
+
+    @Override
+    public void run() {
+      try {
+        Files.deleteIfExists(_path);
+      } catch (IOException e) {
+        LOGGER.warn("Failed to delete spill file " + _path, e);
+      }
+    }
+  }
+
+  private final HeapSpillingStorage _storage;
+
+  // null once the values have been spilled
+  private ObjectBigArrayBigList<T> _heapValues;
+  // null until the values have been spilled
+  private KryoFileWriter<T> _fileWriter = null;
+
+  private boolean _closed = false;
+  private boolean _spillable = true;
+
+  private long _sampledCount = 0;
+  private long _sampledBytes = 0;
+
+  // read without synchronization by the storage when deciding which writers to spill
+  private volatile long _estimatedHeapBytes = 0;
+  private volatile long _lastAccessNanos = System.nanoTime();
+
+  /**
+   * Creates a new writer.  The writer should be registered with its storage (which is done by
+   * {@link HeapSpillingStorage#createWriter(long)}).
+   *
+   * @param storage the storage that manages this writer's heap budget
+   * @param initialCapacity the initial capacity of the list storing the values on the heap
+   */
+  SpillingObjectWriter(HeapSpillingStorage storage, long initialCapacity) {
+    _storage = storage;
+    _heapValues = new ObjectBigArrayBigList<>(initialCapacity);
+  }
+
+  /**
+   * @return the estimated number of bytes of heap used by the values currently stored on the heap
+   */
+  long getEstimatedHeapBytes() {
+    return _estimatedHeapBytes;
+  }
+
+  /**
+   * @return the {@link System#nanoTime()} when this writer was last written to, or when a reader last began to read
+   *         its values
+   */
+  long getLastAccessNanos() {
+    return _lastAccessNanos;
+  }
+
+  /**
+   * @return whether this writer's values have been spilled to disk
+   */
+  synchronized boolean isSpilled() {
+    return _fileWriter != null;
+  }
+
+  private void touch() {
+    _lastAccessNanos = System.nanoTime();
+  }
+
+  /**
+   * Updates the estimated heap size after values have been appended to the heap list.
+   *
+   * @param firstIndex the index of the first appended value
+   * @return the increase in the estimated heap size
+   */
+  private long updateEstimate(long firstIndex) {
+    long size = _heapValues.size64();
+    Sizer sizer = SIZER.get();
+    for (long i = firstIndex; i < size; i++) {
+      if (i < INITIAL_SAMPLES || i % SAMPLE_PERIOD == 0) {
+        _sampledBytes += sizer.estimateHeapBytes(_heapValues.get(i));
+        _sampledCount++;
+      }
+    }
+
+    long previous = _estimatedHeapBytes;
+    _estimatedHeapBytes = _sampledCount == 0 ? 0 : (long) (size * ((double) _sampledBytes / _sampledCount));
+    return _estimatedHeapBytes - previous;
+  }
+
+  @Override
+  public void write(T appended) {
+    long growth;
+    synchronized (this) {
+      touch();
+      if (_heapValues == null) {
+        _fileWriter.write(appended);
+        return;
+      }
+      _heapValues.add(appended);
+      growth = updateEstimate(_heapValues.size64() - 1);
+    }
+    _storage.onGrowth(growth);
+  }
+
+  @Override
+  public void write(T[] appended, int offset, int count) {
+    long growth;
+    synchronized (this) {
+      touch();
+      if (_heapValues == null) {
+        _fileWriter.write(appended, offset, count);
+        return;
+      }
+      long firstIndex = _heapValues.size64();
+      _heapValues.addElements(firstIndex, BigArrays.wrap(appended), offset, count);
+      growth = updateEstimate(firstIndex);
+    }
+    _storage.onGrowth(growth);
+  }
+
+  @Override
+  public synchronized long size64() {
+    return _heapValues == null ? _fileWriter.size64() : _heapValues.size64();
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!_closed) {
+      _closed = true;
+      if (_fileWriter != null) {
+        _fileWriter.close();
+      }
+    }
+  }
+
+  @Override
+  public ObjectReader<T> createReader() {
+    touch();
+    return new Reader();
+  }
+
+  /**
+   * Spills the values currently on the heap to a temporary file.  Does nothing if the values have already been spilled
+   * or a previous attempt to spill failed (e.g. because the values cannot be serialized by Kryo).
+   *
+   * @return the estimated number of heap bytes released, or 0 if nothing was spilled
+   */
+  synchronized long spill() {
+    if (_heapValues == null || !_spillable || _heapValues.isEmpty()) {
+      return 0;
+    }
+
+    Path path = null;
+    KryoFileWriter<T> fileWriter = null;
+    try {
+      path = Files.createTempFile(Paths.get(DagliSystemProperties.getTempDirectory()), "SpilledObjectWriter", ".dat");
+      fileWriter = KryoWriters.kryoFromPath(path, false, false);
+      fileWriter.writeAll(_heapValues);
+      if (_closed) {
+        fileWriter.close();
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Failed to spill " + _heapValues.size64() + " values to disk; they will be kept on the heap", e);
+      _spillable = false;
+      if (fileWriter != null) {
+        fileWriter.close();
+      }
+      if (path != null) {
+        path.toFile().delete();
+      }
+      return 0;
+    }
+
+    // the readers of this writer reference it, so the file is no longer needed once the writer is unreachable (any
+    // iterators still open at that time hold open streams over the file, which remain readable on POSIX systems)
+    SharedCleaner.INSTANCE.register(this, new SpillFileDeletion(path));
+
+    long released = _estimatedHeapBytes;
+    long count = _heapValues.size64();
+    _heapValues = null;
+    _fileWriter = fileWriter;
+    _estimatedHeapBytes = 0;
+
+    _storage.recordSpill(count, released);
+    LOGGER.info("Spilled " + count + " values (an estimated " + (released / 1024) + " KiB of heap) to " + path
+        + (_closed ? " (" + (path.toFile().length() / 1024) + " KiB)" : ""));
+    return released;
+  }
+
+  /**
+   * @return a reader for the values in their current location
+   */
+  private synchronized ObjectReader<T> currentReader() {
+    touch();
+    return _heapValues == null ? _fileWriter.createReader() : new BigListReader<>(_heapValues);
+  }
+
+  /**
+   * Reads the values of this writer from wherever they currently reside.  Iterators already created continue to read
+   * from the location at the time of their creation (a spilled heap list remains reachable until such iterators are
+   * closed or discarded).
+   */
+  private class Reader implements ObjectReader<T> {
+    @Override
+    public long size64() {
+      return SpillingObjectWriter.this.size64();
+    }
+
+    @Override
+    public ObjectIterator<T> iterator() {
+      return currentReader().iterator();
+    }
+
+    @Override
+    public ObjectIterator<T> iterator(long startIndex, long endIndex) {
+      return currentReader().iterator(startIndex, endIndex);
+    }
+
+    @Override
+    public boolean hasEfficientRangeIterators() {
+      return currentReader().hasEfficientRangeIterators();
+    }
+
+    @Override
+    public boolean hasConstantTimeSkip() {
+      return currentReader().hasConstantTimeSkip();
+    }
+
+    @Override
+    public void close() { }
+  }
+}
@@ -0,0 +1,336 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.objectio.ObjectIterator;
+import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.util.array.ArraysEx;
+import java.lang.ref.Cleaner;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+
+/**
+ * A reader over one of the outputs of a prepared DAG whose values are computed lazily, a minibatch at a time, as they
+ * are iterated.  Used by {@link FastPreparedDAGExecutor} when streaming output is enabled.
+ *
+ * When more than one thread is used, up to twice as many minibatches as there are threads are computed ahead of the
+ * consumer; the values are always returned in the same order as the inputs.  No more than this bounded number of
+ * minibatches is held in memory at any time.
+ *
+ * Each iterator (re)computes the DAG on its inputs independently of any other iterator, including those of the readers
+ * for the DAG's other outputs.  An iterator releases its thread pool (if it created one) and its input iterators once
+ * its last value has been read or it is closed; an iterator that is simply abandoned will have its pending minibatches
+ * cancelled and its pool released once it becomes unreachable.
+ */
+class StreamingDAGOutputReader implements ObjectReader<Object> {
+  private final DAGStructure<?> _dag;
+  private final ObjectReader<Object>[] _inputs;
+  private final int _outputIndex;
+  private final int _minibatchSize;
+  private final int _threadCount;
+  private final boolean _useCommonPool;
+  private final DAGExecutionListener _listener;
+  private final Completion _completion;
+
+  /**
+   * Tracks which of the outputs of a single (streamed) execution have been read to their end, telling the listener
+   * that the execution has finished once all of them have.
+   */
+  static class Completion {
+    private final DAGExecutionListener _listener;
+    private final long _exampleCount;
+    private final long _startNanos;
+    private final boolean[] _completedOutputs;
+    private int _remainingOutputs;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param listener the listener to notify
+     * @param exampleCount the number of examples the DAG is being executed on
+     * @param startNanos the {@link System#nanoTime()} at which the execution started
+     * @param outputCount the number of outputs of the DAG
+     */
+    Completion(DAGExecutionListener listener, long exampleCount, long startNanos, int outputCount) {
+      _listener = listener;
+      _exampleCount = exampleCount;
+      _startNanos = startNanos;
+      _completedOutputs = new boolean[outputCount];
+      _remainingOutputs = outputCount;
+    }
+
+    /**
+     * Records that the last value of an output has been read.
+     *
+     * @param outputIndex the index of the output
+     */
+    void outputCompleted(int outputIndex) {
+      synchronized (this) {
+        if (_completedOutputs[outputIndex]) {
+          return;
+        }
+        _completedOutputs[outputIndex] = true;
+        if (--_remainingOutputs > 0) {
+          return;
+        }
+      }
+      _listener.onExecutionFinished(_exampleCount, System.nanoTime() - _startNanos);
+    }
+  }
+
+  /**
+   * Cancels the pending minibatch computations of an iterator and shuts down its thread pool (if the iterator created
+   * it).  This is registered with a {@link Cleaner} so that it also runs for iterators that are abandoned without being
+   * read to their end or closed; it must therefore not reference the iterator itself.
+   */
+  private static class PoolRelease implements Runnable {
+    private final ForkJoinPool _pool;
+    private final ArrayDeque<Future<Object[]>> _pending;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param pool the pool to shut down, or null if the pool is shared and should not be shut down
+     * @param pending the pending computations to cancel
+     */
+    PoolRelease(ForkJoinPool pool, ArrayDeque<Future<Object[]>> pending) {
+      _pool = pool;
+      _pending = pending;
+    }
+
+    @Override
+    public void run() {
+      _pending.forEach(future -> future.cancel(false));
+      _pending.clear();
+      if (_pool != null) {
+        _pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param dag the DAG that will be applied
+   * @param inputs readers providing the values for each of the DAG's placeholders
+   * @param outputIndex the index of the DAG output whose values will be read
+   * @param minibatchSize the number of examples per minibatch
+   * @param threadCount the number of threads to use; if 1, values are computed in the iterating thread
+   * @param useCommonPool whether to use the common thread pool (if more than one thread is used)
+   * @param listener the listener that will receive measurements of the computation, or null if there is none
+   * @param completion tracks the outputs read to their end on behalf of the listener, or null if there is no listener
+   */
+  StreamingDAGOutputReader(DAGStructure<?> dag, ObjectReader<Object>[] inputs, int outputIndex, int minibatchSize,
+      int threadCount, boolean useCommonPool, DAGExecutionListener listener, Completion completion) {
+    _dag = dag;
+    _inputs = inputs;
+    _outputIndex = outputIndex;
+    _minibatchSize = minibatchSize;
+    _threadCount = threadCount;
+    _useCommonPool = useCommonPool;
+    _listener = listener;
+    _completion = completion;
+  }
+
+  @Override
+  public long size64() {
+    return _inputs[0].size64();
+  }
+
+  @Override
+  public ObjectIterator<Object> iterator() {
+    return new Iterator();
+  }
+
+  @Override
+  public void close() { }
+
+  /**
+   * Iterates over the output values, computing them a minibatch at a time.
+   */
+  private class Iterator implements ObjectIterator<Object> {
+    private final ObjectIterator<Object>[] _inputIterators =
+        Arrays.stream(_inputs).map(ObjectReader::iterator).toArray(ObjectIterator[]::new);
+    private final long _count = size64();
+    private final Object[] _executionStates = _dag.createExecutionStateArray(_count);
+
+    // used when values are computed in the iterating thread
+    private final Object[][] _argBuffer;
+    private final Object[][] _resultBuffer;
+
+    // used when values are computed in a thread pool
+    private final ForkJoinPool _pool;
+    private final ArrayDeque<Future<Object[]>> _pending = new ArrayDeque<>();
+    private final Cleaner.Cleanable _poolRelease; // null if values are computed in the iterating thread
+
+    private long _nextExampleIndex = 0; // the index of the first example not yet read from the inputs
+    private long _batchStartIndex = 0; // the index of the first example of the next minibatch to be loaded
+    private Object[] _batch = ArraysEx.EMPTY_OBJECT_ARRAY;
+    private int _batchSize = 0;
+    private int _batchPosition = 0;
+    private boolean _released = false;
+    private boolean _completed = false;
+
+    Iterator() {
+      if (_threadCount <= 1) {
+        _argBuffer = new Object[_dag._maxParentCount][_minibatchSize];
+        _resultBuffer = new Object[_dag._nodes.length][_minibatchSize];
+        _pool = null;
+        _poolRelease = null;
+      } else {
+        _argBuffer = null;
+        _resultBuffer = null;
+        _pool = _useCommonPool ? ForkJoinPool.commonPool() : new ForkJoinPool(_threadCount);
+        _poolRelease = SharedCleaner.INSTANCE.register(this, new PoolRelease(_useCommonPool ? null : _pool, _pending));
+      }
+    }
+
+    /**
+     * Reads the next minibatch of inputs into the placeholders' rows of the given result buffer.
+     *
+     * @param resultBuffer the buffer to read into
+     * @return the number of examples read
+     */
+    private int readInputs(Object[][] resultBuffer) {
+      int size = (int) Math.min(_minibatchSize, _count - _nextExampleIndex);
+      for (int j = 0; j < _inputIterators.length; j++) {
+        _inputIterators[j].next(resultBuffer[j], 0, size);
+      }
+      return size;
+    }
+
+    /**
+     * Loads the next minibatch of output values, computing it (or waiting for its computation) as necessary.
+     *
+     * @return false if there are no more values
+     */
+    private boolean nextBatch() {
+      if (_pool == null) {
+        if (_nextExampleIndex >= _count) {
+          return false;
+        }
+        int size = readInputs(_resultBuffer);
+        FastPreparedDAGExecutor.apply(_nextExampleIndex, size, _dag, _resultBuffer, _argBuffer, _executionStates,
+            _listener);
+        _nextExampleIndex += size;
+        _batch = _resultBuffer[_dag._outputIndices[_outputIndex]];
+        _batchSize = size;
+      } else {
+        while (_pending.size() < 2 * _threadCount && _nextExampleIndex < _count) {
+          Object[][] resultBuffer = new Object[_dag._nodes.length][_minibatchSize];
+          long firstExampleIndex = _nextExampleIndex;
+          int size = readInputs(resultBuffer);
+          _nextExampleIndex += size;
+          // the task must not reference this iterator (even implicitly, via the fields of the enclosing reader) so
+          // that an abandoned iterator can still become unreachable and be cleaned
+          DAGStructure<?> dag = _dag;
+          DAGExecutionListener listener = _listener;
+          int outputNodeIndex = _dag._outputIndices[_outputIndex];
+          Object[] executionStates = _executionStates;
+          _pending.add(_pool.submit(() -> {
+            FastPreparedDAGExecutor.apply(firstExampleIndex, size, dag, resultBuffer,
+                new Object[dag._maxParentCount][], executionStates, listener);
+            return resultBuffer[outputNodeIndex];
+          }));
+        }
+
+        if (_pending.isEmpty()) {
+          return false;
+        }
+
+        try {
+          _batch = _pending.remove().get();
+        } catch (InterruptedException | ExecutionException e) {
+          // interrupts immediately end execution; there are no retries
+          throw new RuntimeException(e);
+        }
+        // only the last minibatch may be smaller than the minibatch size
+        _batchSize = (int) Math.min(_minibatchSize, _count - _batchStartIndex);
+      }
+
+      _batchStartIndex += _batchSize;
+      _batchPosition = 0;
+      return true;
+    }
+
+    /**
+     * Releases the iterator's resources and records the completion of its output once its last value has been read.
+     */
+    private void completeIfExhausted() {
+      if (_batchPosition < _batchSize || _batchStartIndex < _count || _completed) {
+        return;
+      }
+      _completed = true;
+      release();
+      if (_completion != null) {
+        _completion.outputCompleted(_outputIndex);
+      }
+    }
+
+    /**
+     * Cancels any pending computations, shuts down the thread pool (if this iterator created it) and closes the input
+     * iterators.
+     */
+    private void release() {
+      if (!_released) {
+        _released = true;
+        if (_poolRelease != null) {
+          _poolRelease.clean();
+        }
+        Arrays.stream(_inputIterators).forEach(ObjectIterator::close);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (_batchPosition < _batchSize || nextBatch()) {
+        return true;
+      }
+      completeIfExhausted();
+      return false;
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Object value = _batch[_batchPosition++];
+      completeIfExhausted();
+      return value;
+    }
+
+    @Override
+    public int next(Object[] destination, int offset, int count) {
+      int copied = 0;
+      while (copied < count && hasNext()) {
+        int toCopy = Math.min(count - copied, _batchSize - _batchPosition);
+        System.arraycopy(_batch, _batchPosition, destination, offset + copied, toCopy);
+        _batchPosition += toCopy;
+        copied += toCopy;
+      }
+      completeIfExhausted();
+      return copied;
+    }
+
+    @Override
+    public int nextAvailable(Object[] destination, int offset, int count) {
+      if (!hasNext()) {
+        return 0;
+      }
+      int toCopy = Math.min(count, _batchSize - _batchPosition);
+      System.arraycopy(_batch, _batchPosition, destination, offset, toCopy);
+      _batchPosition += toCopy;
+      completeIfExhausted();
+      return toCopy;
+    }
+
+    @Override
+    public void close() {
+      release();
+    }
+  }
+}
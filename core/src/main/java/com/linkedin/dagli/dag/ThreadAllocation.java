@@ -0,0 +1,49 @@
+package com.linkedin.dagli.dag;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+
+/**
+ * Measures the number of bytes allocated on the heap by the current thread, used to estimate the memory allocated by
+ * each node reported to a {@link DAGExecutionListener}.
+ */
+final class ThreadAllocation {
+  private ThreadAllocation() { }
+
+  // null if the JVM cannot measure per-thread allocation
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+  private static com.sun.management.ThreadMXBean getThreadMXBean() {
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+          return sunBean;
+        }
+      }
+    } catch (LinkageError | SecurityException e) {
+      // the com.sun.management API is not available on this JVM
+    }
+    return null;
+  }
+
+  /**
+   * @return the total number of bytes allocated on the heap by the current thread so far, or -1 if this cannot be
+   *         measured
+   */
+  static long currentThreadAllocatedBytes() {
+    return THREAD_MX_BEAN == null ? -1 : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Gets the number of bytes allocated by the current thread since an earlier measurement.
+   *
+   * @param startBytes an earlier result of {@link #currentThreadAllocatedBytes()} on the same thread
+   * @return the number of bytes allocated since {@code startBytes} was measured, or -1 if this cannot be measured
+   */
+  static long allocatedBytesSince(long startBytes) {
+    return startBytes < 0 ? -1 : currentThreadAllocatedBytes() - startBytes;
+  }
+}
@@ -0,0 +1,45 @@
+package com.linkedin.dagli.preparer;
+
+import com.linkedin.dagli.transformer.PreparedTransformer;
+
+
+/**
+ * A {@link Preparer} whose work can be divided among several "partial" preparers that each process a disjoint subset of
+ * the preparation data and are later merged back together.  This is typically possible for preparers that only count
+ * or otherwise aggregate their inputs (e.g. tallying the frequency of each distinct value).
+ *
+ * {@link com.linkedin.dagli.dag.DAGExecutor}s may take advantage of this to process the preparation data concurrently
+ * on multiple threads:
+ * (1) {@link #createPartial()} is called on the original preparer to create some number of additional partial
+ *     preparers
+ * (2) each example is passed to {@link #processUnsafe(Object[])} of exactly one of the preparers (the original or one of
+ *     its partials); different preparers may be processing examples concurrently, but, as usual, no single preparer
+ *     will be invoked concurrently
+ * (3) each partial is passed to {@link #merge(MergeablePreparer)} on the original preparer (in a consistent order)
+ * (4) the original preparer's {@code finish(...)} method is called as usual
+ *
+ * Implementing this interface is optional; executors are free to ignore it and prepare the transformer using a single
+ * preparer.  The result of merging should therefore be the same (or, where a preparer's result depends on the order in
+ * which it sees the examples, equally valid) as that of a single preparer processing all the examples.
+ *
+ * @param <R> the type of result the prepared transformers will return
+ * @param <N> the type of the prepared transformer that will be returned for use with new data
+ * @param <S> the type of the derived preparer
+ */
+public interface MergeablePreparer<R, N extends PreparedTransformer<? extends R>, S extends MergeablePreparer<R, N, S>>
+    extends Preparer<R, N> {
+  /**
+   * Creates a new partial preparer that has the same configuration as this one but has not yet processed any examples.
+   *
+   * @return a new partial preparer
+   */
+  S createPartial();
+
+  /**
+   * Merges the state of a partial preparer previously created by {@link #createPartial()} into this one.  The partial
+   * preparer will not be used again afterwards (and so its state may be freely taken by this instance.)
+   *
+   * @param partial the partial preparer to merge into this instance
+   */
+  void merge(S partial);
+}
@@ -0,0 +1,42 @@
+package com.linkedin.dagli.dag;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class AdaptiveTunerTest {
+  @Test
+  public void testNextSettings() {
+    // target: 10ms for the slowest node to process a batch, and at most 100,000 buffered values per node
+    AdaptiveTuner tuner = new AdaptiveTuner(10, 100000);
+    AdaptiveTuner.Settings initial = new AdaptiveTuner.Settings(5000, 8, 0);
+
+    // nothing measured: settings are unchanged
+    Assertions.assertSame(initial, tuner.nextSettings(initial, new AdaptiveTuner.Statistics(3), 4));
+
+    // the slowest node takes 10us per value, so batches of 1000 values should take 10ms
+    AdaptiveTuner.Statistics expensive = new AdaptiveTuner.Statistics(3);
+    expensive.recordTask(1, 1000000, 1000);
+    expensive.recordTask(2, 10000000, 1000);
+    expensive.recordOutstandingTasks(4);
+    AdaptiveTuner.Settings next = tuner.nextSettings(initial, expensive, 4);
+    Assertions.assertEquals(1000, next._batchSize);
+    Assertions.assertEquals(8, next._concurrentBatches);
+
+    // cheap nodes with full buffers and idle threads: bigger batches and more of them, up to the memory ceiling
+    AdaptiveTuner.Statistics cheap = new AdaptiveTuner.Statistics(3);
+    cheap.recordTask(0, 1000, 1000);
+    cheap.recordOutstandingTasks(1);
+    cheap.recordBufferFull();
+    next = tuner.nextSettings(new AdaptiveTuner.Settings(5000, 4, 1), cheap, 4);
+    Assertions.assertEquals(8, next._concurrentBatches);
+    Assertions.assertEquals(100000 / 8, next._batchSize);
+
+    // far more outstanding tasks than threads: fewer concurrent batches
+    AdaptiveTuner.Statistics saturated = new AdaptiveTuner.Statistics(3);
+    saturated.recordTask(0, 10000000, 1000);
+    saturated.recordOutstandingTasks(100);
+    next = tuner.nextSettings(initial, saturated, 4);
+    Assertions.assertEquals(6, next._concurrentBatches);
+  }
+}
@@ -4,26 +4,38 @@ import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.function.FunctionResult2;
 import com.linkedin.dagli.generator.Constant;
 import com.linkedin.dagli.generator.ExampleIndex;
+import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.objectio.biglist.BigListReader;
 import com.linkedin.dagli.objectio.biglist.BigListWriter;
 import com.linkedin.dagli.placeholder.Placeholder;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer1;
+import com.linkedin.dagli.preparer.MergeablePreparer;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.producer.MissingInput;
 import com.linkedin.dagli.producer.Producer;
 import com.linkedin.dagli.transformer.AbstractPreparableTransformer1;
 import com.linkedin.dagli.transformer.AbstractPreparedTransformer1;
+import com.linkedin.dagli.transformer.AbstractPreparedStatefulTransformer2;
 import com.linkedin.dagli.transformer.AbstractPreparedTransformer2;
 import com.linkedin.dagli.tuple.Tuple2;
 import com.linkedin.dagli.tuple.Tuple3;
 import com.linkedin.dagli.tuple.Tuple4;
 import com.linkedin.dagli.util.array.ArraysEx;
+import it.unimi.dsi.fastutil.objects.ObjectBigArrayBigList;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.junit.jupiter.api.Assertions;
@@ -55,11 +67,15 @@ public class DAGTest {
     int[] minInputsPerThreads = RUN_ALL_TESTS ? new int[]{1, 2, 3, 4, 8, 16} : new int[]{4};
     int[] maxThreads = RUN_ALL_TESTS ? new int[]{1, 2, 3, 4, 5, 8, 16} : new int[]{5};
 
-    PreparedDAGExecutor[] res = new PreparedDAGExecutor[minInputsPerThreads.length * maxThreads.length];
+    PreparedDAGExecutor[] res = new PreparedDAGExecutor[minInputsPerThreads.length * maxThreads.length * 2];
     int nextIndex = 0;
     for (int minPerThread : minInputsPerThreads) {
       for (int maxThread : maxThreads) {
-        res[nextIndex++] = new FastPreparedDAGExecutor().withMinInputsPerThread(minPerThread).withMaxThreads(maxThread);
+        for (boolean streamingOutput : new boolean[] { false, true }) {
+          res[nextIndex++] = new FastPreparedDAGExecutor().withMinInputsPerThread(minPerThread)
+              .withMaxThreads(maxThread)
+              .withStreamingOutput(streamingOutput);
+        }
       }
     }
 
@@ -73,7 +89,7 @@ public class DAGTest {
     LocalStorage[] cachings = LocalStorage.values(); // try them all!
 
     DAGExecutor[] executors =
-        new DAGExecutor[batchSizes.length * maxConcurrentBatches.length * maxThreadCounts.length * cachings.length];
+        new DAGExecutor[batchSizes.length * maxConcurrentBatches.length * maxThreadCounts.length * cachings.length + 1];
 
     int nextIndex = 0;
     for (int batchSize : batchSizes) {
@@ -90,6 +106,9 @@ public class DAGTest {
       }
     }
 
+    // the settings of an adaptively-tuned executor change as the same DAGs are executed repeatedly
+    executors[nextIndex] = new MultithreadedDAGExecutor().withBatchSize(3).withAdaptiveTuning(1, 20);
+
     return executors;
   }
 
@@ -157,6 +176,66 @@ public class DAGTest {
     }
   }
 
+  /**
+   * Sums its inputs during preparation (possibly using several partial preparers); the prepared transformer always
+   * returns the total.
+   */
+  @ValueEquality
+  static class MergeableSumTransformer
+      extends AbstractPreparableTransformer1<Integer, Long, MergeableSumTransformer.Prepared, MergeableSumTransformer> {
+    private static final long serialVersionUID = 1;
+
+    MergeableSumTransformer(Producer<? extends Integer> input1) {
+      super(input1);
+    }
+
+    @ValueEquality
+    static class Prepared extends AbstractPreparedTransformer1<Integer, Long, Prepared> {
+      private static final long serialVersionUID = 1;
+      private final long _total;
+
+      Prepared(long total) {
+        super(MissingInput.get());
+        _total = total;
+      }
+
+      @Override
+      public Long apply(Integer value) {
+        return _total;
+      }
+    }
+
+    static class Preparer extends AbstractStreamPreparer1<Integer, Long, Prepared>
+        implements MergeablePreparer<Long, Prepared, Preparer> {
+      private long _total = 0;
+
+      @Override
+      public Preparer createPartial() {
+        return new Preparer();
+      }
+
+      @Override
+      public void merge(Preparer partial) {
+        _total += partial._total;
+      }
+
+      @Override
+      public PreparerResult<Prepared> finish() {
+        return new PreparerResult<>(new Prepared(_total));
+      }
+
+      @Override
+      public void process(Integer value) {
+        _total += value;
+      }
+    }
+
+    @Override
+    protected Preparer getPreparer(PreparerContext context) {
+      return new Preparer();
+    }
+  }
+
   @ParameterizedTest
   @MethodSource("preparedExecutors")
   public void testBasicPrepared(PreparedDAGExecutor executor) {
@@ -214,6 +293,135 @@ public class DAGTest {
         Arrays.asList(null, null, 3, 4, null, null));
   }
 
+  @ParameterizedTest
+  @MethodSource("preparableExecutors")
+  public void testMergeablePreparer(DAGExecutor executor) {
+    Placeholder<Integer> intPlaceholder = new Placeholder<>();
+    MergeableSumTransformer sum = new MergeableSumTransformer(intPlaceholder);
+
+    DAG1x1<Integer, Long> dag = DAG.withPlaceholder(intPlaceholder).withOutput(sum).withExecutor(executor);
+
+    List<Integer> preparationInput = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      preparationInput.add(i);
+    }
+
+    DAG1x1.Result<Integer, Long> res = dag.prepareAndApply(preparationInput);
+    assertTrue(res.toList().stream().allMatch(total -> total == 5050));
+    assertEquals(5050, (long) res.getPreparedDAG().apply(-1));
+  }
+
+  /**
+   * Totals the measurements reported by an executor.
+   */
+  private static class TotalingListener implements DAGExecutionListener {
+    final AtomicInteger _startedCount = new AtomicInteger(0);
+    final AtomicInteger _finishedCount = new AtomicInteger(0);
+    final LongAdder[] _values = newAdders();
+    final LongAdder[] _reports = newAdders();
+
+    private static LongAdder[] newAdders() {
+      return Stream.generate(LongAdder::new).limit(Activity.values().length).toArray(LongAdder[]::new);
+    }
+
+    @Override
+    public void onExecutionStarted(long exampleCount) {
+      _startedCount.incrementAndGet();
+    }
+
+    @Override
+    public void onNodeActivity(Producer<?> producer, Activity activity, long values, long nanos, long allocatedBytes) {
+      assertTrue(nanos >= 0);
+      _values[activity.ordinal()].add(values);
+      _reports[activity.ordinal()].increment();
+    }
+
+    @Override
+    public void onExecutionFinished(long exampleCount, long nanos) {
+      _finishedCount.incrementAndGet();
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("preparableExecutors")
+  public void testExecutionListener(DAGExecutor executor) {
+    TotalingListener listener = new TotalingListener();
+    Placeholder<Integer> intPlaceholder = new Placeholder<>();
+    MergeableSumTransformer sum = new MergeableSumTransformer(intPlaceholder);
+
+    DAG1x1<Integer, Long> dag = DAG.withPlaceholder(intPlaceholder)
+        .withOutput(sum)
+        .withExecutor((DAGExecutor) ((AbstractDAGExecutor<?>) executor).withListener(listener));
+
+    List<Integer> preparationInput = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      preparationInput.add(i);
+    }
+
+    DAG1x1.Result<Integer, Long> res = dag.prepareAndApply(preparationInput);
+    assertTrue(res.toList().stream().allMatch(total -> total == 5050));
+
+    assertEquals(1, listener._startedCount.get());
+    assertEquals(1, listener._finishedCount.get());
+    // every example is processed by the preparer, which is then finished exactly once
+    assertEquals(100, listener._values[DAGExecutionListener.Activity.PROCESS.ordinal()].sum());
+    assertEquals(1, listener._reports[DAGExecutionListener.Activity.FINISH.ordinal()].sum());
+  }
+
+  @ParameterizedTest
+  @MethodSource("preparedExecutors")
+  public void testPreparedExecutionListener(PreparedDAGExecutor executor) {
+    TotalingListener listener = new TotalingListener();
+    Placeholder<Integer> intPlaceholder = new Placeholder<>();
+    TestAddAsDoublesTransformer adder = new TestAddAsDoublesTransformer(intPlaceholder, new ExampleIndex());
+
+    DAG1x1.Prepared<Integer, Double> dag = DAG.Prepared.withPlaceholder(intPlaceholder)
+        .withOutput(adder)
+        .withExecutor((PreparedDAGExecutor) ((AbstractDAGExecutor<?>) executor).withListener(listener));
+
+    assertEquals(Arrays.asList(1.0, 3.0, 5.0, 7.0), dag.applyAll(Arrays.asList(1, 2, 3, 4)).toList());
+
+    assertEquals(1, listener._finishedCount.get());
+    // the example indices are generated and added to the inputs (possibly more than once, if the outputs are streamed)
+    assertTrue(listener._values[DAGExecutionListener.Activity.GENERATE.ordinal()].sum() >= 4);
+    assertTrue(listener._values[DAGExecutionListener.Activity.APPLY.ordinal()].sum() >= 4);
+  }
+
+  @Test
+  public void testStreamingExecutionListener() {
+    Placeholder<Integer> intPlaceholder = new Placeholder<>();
+    TestAddAsDoublesTransformer adder = new TestAddAsDoublesTransformer(intPlaceholder, new ExampleIndex());
+
+    for (int maxThreads : new int[] { 1, 4 }) {
+      TotalingListener listener = new TotalingListener();
+      DAG1x1.Prepared<Integer, Double> dag = DAG.Prepared.withPlaceholder(intPlaceholder)
+          .withOutput(adder)
+          .withExecutor(new FastPreparedDAGExecutor().withStreamingOutput(true)
+              .withMaxThreads(maxThreads)
+              .withMinInputsPerThread(1)
+              .withCommonThreadPool(false)
+              .withListener(listener));
+
+      DAG1x1.Prepared.Result<Double> result = dag.applyAll(Arrays.asList(1, 2, 3, 4));
+      try (ObjectIterator<Double> iterator = result.iterator()) {
+        for (double expected : new double[] { 1, 3, 5 }) {
+          assertEquals(expected, iterator.next());
+        }
+        // execution has not finished until the last value has been read
+        assertEquals(1, listener._startedCount.get());
+        assertEquals(0, listener._finishedCount.get());
+
+        assertEquals(7.0, iterator.next());
+        assertEquals(1, listener._finishedCount.get());
+        assertFalse(iterator.hasNext());
+      }
+
+      // reading the output again does not finish the execution again
+      assertEquals(Arrays.asList(1.0, 3.0, 5.0, 7.0), result.toList());
+      assertEquals(1, listener._finishedCount.get());
+    }
+  }
+
   @ParameterizedTest
   @MethodSource("preparableExecutors")
   public void testPreparableDAG(DAGExecutor executor) {
@@ -542,6 +750,102 @@ public class DAGTest {
     assertEquals((long) prepared.toList().get(3).get2(), 8);
   }
 
+  @Test
+  public void testInferenceSession() {
+    Placeholder<Integer> intPlaceholder = new Placeholder<>();
+    Placeholder<Double> doublePlaceholder = new Placeholder<>();
+    TestAddAsDoublesTransformer intDoubleAdder = new TestAddAsDoublesTransformer(intPlaceholder, doublePlaceholder);
+    TestAddAsDoublesTransformer indexAdder = new TestAddAsDoublesTransformer(intDoubleAdder, new ExampleIndex());
+
+    DAG2x2.Prepared<Integer, Double, Double, Double> dag =
+        DAG.Prepared.withPlaceholders(intPlaceholder, doublePlaceholder).withOutputs(intDoubleAdder, indexAdder);
+    DAGInferenceSession<Tuple2<Double, Double>> session = DAGInferenceSession.of(dag);
+    Assertions.assertEquals(2, session.getInputArity());
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(dag.apply(i, 1.5), session.apply(i, 1.5));
+    }
+
+    DAG2x1.Prepared<Integer, Double, Double> singleOutputDAG =
+        DAG.Prepared.withPlaceholders(intPlaceholder, doublePlaceholder).withOutput(intDoubleAdder);
+    DAGInferenceSession<Double> singleOutputSession = DAGInferenceSession.of(singleOutputDAG);
+    assertEquals(3.5, (double) singleOutputSession.apply(2, 1.5));
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> singleOutputSession.apply(2));
+  }
+
+  @ValueEquality
+  static class MinibatchedAddTransformer
+      extends AbstractPreparedStatefulTransformer2<Number, Number, Double, Void, MinibatchedAddTransformer> {
+    private static final long serialVersionUID = 1;
+
+    MinibatchedAddTransformer(Producer<? extends Number> input1, Producer<? extends Number> input2) {
+      super(input1, input2);
+    }
+
+    @Override
+    protected Double apply(Void executionCache, Number val1, Number val2) {
+      return val1.doubleValue() + val2.doubleValue();
+    }
+
+    @Override
+    protected int getPreferredMinibatchSize() {
+      return 8;
+    }
+  }
+
+  // a random-access list that counts how many times its elements are read
+  private static class CountingList extends AbstractList<Integer> implements RandomAccess {
+    private final List<Integer> _values;
+    private final AtomicInteger _readCount = new AtomicInteger(0);
+
+    CountingList(List<Integer> values) {
+      _values = values;
+    }
+
+    @Override
+    public Integer get(int index) {
+      _readCount.incrementAndGet();
+      return _values.get(index);
+    }
+
+    @Override
+    public int size() {
+      return _values.size();
+    }
+  }
+
+  @Test
+  public void testFastPreparedExecutorInputReading() {
+    Placeholder<Integer> intPlaceholder = new Placeholder<>();
+    MinibatchedAddTransformer adder = new MinibatchedAddTransformer(intPlaceholder, new ExampleIndex());
+
+    // 20 examples form 3 minibatches, far fewer than the number of threads
+    FastPreparedDAGExecutor executor =
+        new FastPreparedDAGExecutor().withMaxThreads(20).withMinInputsPerThread(1).withCommonThreadPool(false);
+    DAG1x1.Prepared<Integer, Double> dag =
+        DAG.Prepared.withPlaceholder(intPlaceholder).withOutput(adder).withExecutor(executor);
+
+    List<Integer> values = new ArrayList<>();
+    List<Double> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      values.add(10 * i);
+      expected.add(11.0 * i);
+    }
+
+    // range iterators that must skip sequentially: each thread reads a contiguous range, reading each value once
+    CountingList countingList = new CountingList(values);
+    assertEquals(expected, dag.applyAll(countingList).toList());
+    assertEquals(values.size(), countingList._readCount.get());
+
+    // no range iterators: the threads share iterators over the inputs
+    assertEquals(expected, dag.applyAll(new LinkedList<>(values)).toList());
+
+    // constant-time skipping: the threads interleave their minibatches
+    assertEquals(expected,
+        dag.applyAll(new BigListReader<>(new ObjectBigArrayBigList<>(values.iterator()))).toList());
+  }
+
   @Test
   public void testWithInputs() {
     // make sure withInputs() doesn't replace the original placeholders unnecessarily when used instead of withPlaceholders()
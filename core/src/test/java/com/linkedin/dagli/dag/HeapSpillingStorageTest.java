@@ -0,0 +1,72 @@
+package com.linkedin.dagli.dag;
+
+import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.objectio.ObjectWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class HeapSpillingStorageTest {
+  private static List<String> values(int start, int count) {
+    ArrayList<String> result = new ArrayList<>(count);
+    for (int i = start; i < start + count; i++) {
+      result.add("value " + i);
+    }
+    return result;
+  }
+
+  @Test
+  public void testSpilling() {
+    // the budget is only lowered once the values have been written so that no spills happen in the background
+    long[] budget = new long[] { Long.MAX_VALUE };
+    HeapSpillingStorage storage = new HeapSpillingStorage(() -> budget[0]);
+
+    ObjectWriter<String> cold = storage.createWriter(0);
+    cold.writeAll(values(0, 1000));
+    cold.close();
+    ObjectReader<String> coldReader = cold.createReader();
+
+    ObjectWriter<String> hot = storage.createWriter(0);
+    hot.writeAll(values(0, 10));
+
+    Assertions.assertTrue(storage.getEstimatedHeapBytes() > 10000);
+    budget[0] = 10000;
+    storage.spillIfOverBudget();
+
+    // only the least recently used writer needs to be spilled to get within the budget
+    Assertions.assertTrue(((SpillingObjectWriter<String>) cold).isSpilled());
+    Assertions.assertFalse(((SpillingObjectWriter<String>) hot).isSpilled());
+    Assertions.assertTrue(storage.getEstimatedHeapBytes() <= 10000);
+    Assertions.assertEquals(1, storage.getSpillCount());
+    Assertions.assertEquals(1000, storage.getSpilledValues());
+    Assertions.assertTrue(storage.getSpilledHeapBytes() > 0);
+
+    // readers created before the spill read the spilled values transparently
+    Assertions.assertEquals(values(0, 1000), coldReader.toList());
+    Assertions.assertEquals(values(0, 1000), cold.createReader().toList());
+
+    // values written after a spill are appended to the spilled values
+    hot.writeAll(values(10, 1000));
+    storage.spillIfOverBudget();
+    Assertions.assertTrue(((SpillingObjectWriter<String>) hot).isSpilled());
+    hot.writeAll(values(1010, 10));
+    hot.close();
+    Assertions.assertEquals(1020, hot.size64());
+    Assertions.assertEquals(values(0, 1020), hot.createReader().toList());
+  }
+
+  @Test
+  public void testWithinBudget() {
+    HeapSpillingStorage storage = new HeapSpillingStorage(() -> Long.MAX_VALUE);
+    ObjectWriter<String> writer = storage.createWriter(0);
+    writer.writeAll(values(0, 100));
+    writer.close();
+    storage.spillIfOverBudget();
+
+    Assertions.assertFalse(((SpillingObjectWriter<String>) writer).isSpilled());
+    Assertions.assertEquals(0, storage.getSpillCount());
+    Assertions.assertEquals(values(0, 100), writer.createReader().toList());
+  }
+}
@@ -3,6 +3,7 @@ package com.linkedin.dagli.data.dsv;
 import com.concurrentli.Singleton;
 import com.linkedin.dagli.data.schema.RowSchema;
 import com.linkedin.dagli.util.cloneable.AbstractCloneable;
+import com.linkedin.dagli.util.invariant.Arguments;
 import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
 import java.io.IOException;
@@ -240,8 +241,20 @@ public class DSVReader<T> extends AbstractCloneable<DSVReader<T>> implements Obj
 
     private final ArrayList<BiConsumer<CSVRecord, Object>> _consumers;
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public Iterator(DSVReader<T> owner) {
+      this(owner, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new iterator over the rows in the range {@code [startIndex, endIndex)}.  The rows preceding
+     * {@code startIndex} must still be parsed, but are not read via the schema.
+     *
+     * @param owner the reader whose rows will be iterated
+     * @param startIndex the index of the first row to be iterated (inclusive)
+     * @param endIndex the index of the end of the range (exclusive)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Iterator(DSVReader<T> owner, long startIndex, long endIndex) {
       if (owner._rowSchema == null) {
         throw new NullPointerException("No row schema has been provided for this DSVReader instance.  Please obtain a "
             + "DSVReader instance with a schema by calling .withSchema(...).  Common schemas can be obtained from "
@@ -255,7 +268,7 @@ public class DSVReader<T> extends AbstractCloneable<DSVReader<T>> implements Obj
       _schema = (RowSchema) owner._rowSchema;
 
       // if user set a size < true size we might need to stop early
-      _size = owner.sizeLimit();
+      _size = Math.min(owner.sizeLimit(), endIndex);
 
       try {
         _parser = owner._format.parse(owner._readerSupplier.get());
@@ -345,6 +358,8 @@ public class DSVReader<T> extends AbstractCloneable<DSVReader<T>> implements Obj
           throw new IllegalArgumentException("Unknown type of field: " + field);
         }
       }
+
+      skip(startIndex);
     }
 
     private static String[] recordToStringArray(CSVRecord record) {
@@ -364,6 +379,18 @@ public class DSVReader<T> extends AbstractCloneable<DSVReader<T>> implements Obj
       return _iterator.hasNext();
     }
 
+    @Override
+    public long skip(long toSkip) {
+      // skipped records are parsed but not read via the schema
+      long skipped = 0;
+      while (skipped < toSkip && hasNext()) {
+        _iterator.next();
+        _readSoFar++;
+        skipped++;
+      }
+      return skipped;
+    }
+
     @Override
     public T next() {
       if (_readSoFar >= _size) {
@@ -395,6 +422,12 @@ public class DSVReader<T> extends AbstractCloneable<DSVReader<T>> implements Obj
     return new Iterator<>(this);
   }
 
+  @Override
+  public ObjectIterator<T> iterator(long startIndex, long endIndex) {
+    Arguments.check(0 <= startIndex && startIndex <= endIndex, "Invalid iteration range");
+    return new Iterator<>(this, startIndex, endIndex);
+  }
+
   @Override
   public void close() { }
 }
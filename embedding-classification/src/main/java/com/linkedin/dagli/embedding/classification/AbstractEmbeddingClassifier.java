@@ -4,18 +4,16 @@ import com.linkedin.dagli.math.distribution.DiscreteDistributions;
 import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
 import com.linkedin.dagli.util.cloneable.AbstractCloneable;
 import com.linkedin.dagli.math.distribution.DiscreteDistribution;
-import com.linkedin.dagli.math.distribution.LabelProbability;
 import com.linkedin.dagli.math.distribution.ArrayDiscreteDistribution;
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -26,6 +24,10 @@ import java.util.stream.StreamSupport;
  *
  * To implement an averaged embedding classifier, one simply extends this class and overrides the abstract methods.
  *
+ * The label embeddings are stored as the rows of a single, contiguous row-major matrix.  Examples are scored in small
+ * batches, with the label embeddings visited in blocks small enough to remain in the CPU cache while each example in
+ * the batch is scored against them, and the most likely labels are then found with a primitive min-heap.
+ *
  * @param <T> the type of thing that is a "feature" in the model
  * @param <L> the type of thing that is a label in the model
  */
@@ -33,15 +35,28 @@ public abstract class AbstractEmbeddingClassifier<L extends Serializable, T>
     extends AbstractCloneable<AbstractEmbeddingClassifier<L, T>> implements Serializable {
   private static final long serialVersionUID = 1;
 
+  // the maximum number of examples scored together; the raw scores of each example in the batch are kept in memory
+  private static final int SCORING_BATCH_SIZE = 16;
+
+  // the (approximate) maximum size of the block of label embeddings against which each example in a batch is scored
+  // before moving on to the next block; this should comfortably fit within the L1 or L2 cache
+  private static final int LABEL_BLOCK_BYTES = 32 * 1024;
+
   private final L[] _labels;
-  private final DenseFloatArrayVector[] _labelEmbeddings;
+  private float[] _labelEmbeddingMatrix; // row-major, with one row per label
   private final int _labelEmbeddingDimensions;
-  private transient HashMap<L, DenseFloatArrayVector> _labelEmbeddingMap;
-  private transient ThreadLocal<float[]> _rawScores;
+
+  // models serialized by earlier versions store a separate vector for each label embedding in this field, which is
+  // converted to the matrix above when such a model is deserialized (and is otherwise null)
+  private DenseFloatArrayVector[] _labelEmbeddings;
+
+  private transient Object2IntOpenHashMap<L> _labelIndexMap;
+  private transient ThreadLocal<float[][]> _rawScores;
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(_labels) + Arrays.hashCode(_labelEmbeddings) + Integer.hashCode(_labelEmbeddingDimensions);
+    return Arrays.hashCode(_labels) + Arrays.hashCode(_labelEmbeddingMatrix)
+        + Integer.hashCode(_labelEmbeddingDimensions);
   }
 
   @Override
@@ -51,7 +66,8 @@ public abstract class AbstractEmbeddingClassifier<L extends Serializable, T>
     }
 
     AbstractEmbeddingClassifier<?, ?> other = (AbstractEmbeddingClassifier<?, ?>) obj;
-    return Arrays.equals(this._labels, other._labels) && Arrays.equals(this._labelEmbeddings, other._labelEmbeddings)
+    return Arrays.equals(this._labels, other._labels)
+        && Arrays.equals(this._labelEmbeddingMatrix, other._labelEmbeddingMatrix)
         && this._labelEmbeddingDimensions == other._labelEmbeddingDimensions;
   }
 
@@ -63,8 +79,14 @@ public abstract class AbstractEmbeddingClassifier<L extends Serializable, T>
     return _labels;
   }
 
-  protected DenseFloatArrayVector[] getLabelEmbeddings() {
-    return _labelEmbeddings;
+  /**
+   * Gets the label embeddings as a row-major matrix with one row (of {@link #getLabelEmbeddingDimensions()} elements)
+   * for each label, in the same order as {@link #getLabels()}.  The returned array must not be modified.
+   *
+   * @return the label embedding matrix
+   */
+  protected float[] getLabelEmbeddingMatrix() {
+    return _labelEmbeddingMatrix;
   }
 
   protected class FeaturesEmbeddingResult {
@@ -105,87 +127,245 @@ public abstract class AbstractEmbeddingClassifier<L extends Serializable, T>
   protected abstract void distributionalize(float[] labelProbabilities);
 
   public AbstractEmbeddingClassifier(L[] labels, DenseFloatArrayVector[] labelEmbeddings) {
+    this(labels, toMatrix(labelEmbeddings, labelEmbeddings[0].getArray().length),
+        labelEmbeddings[0].getArray().length);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param labels the labels
+   * @param labelEmbeddingMatrix the label embeddings, as a row-major matrix with one row for each label; this array is
+   *                             used directly (not copied) and must not be subsequently modified
+   * @param labelEmbeddingDimensions the number of dimensions of each label embedding
+   */
+  protected AbstractEmbeddingClassifier(L[] labels, float[] labelEmbeddingMatrix, int labelEmbeddingDimensions) {
+    if (labelEmbeddingMatrix.length != (long) labels.length * labelEmbeddingDimensions) {
+      throw new IllegalArgumentException("The label embedding matrix must have exactly one row per label");
+    }
     _labels = labels;
-    _labelEmbeddings = labelEmbeddings;
-    _labelEmbeddingDimensions = labelEmbeddings[0].getArray().length;
+    _labelEmbeddingMatrix = labelEmbeddingMatrix;
+    _labelEmbeddingDimensions = labelEmbeddingDimensions;
+    initializeTransientState();
+  }
 
-    _labelEmbeddingMap = buildLabelEmbeddingMap(labels, labelEmbeddings);
-     _rawScores = ThreadLocal.withInitial(() -> new float[_labels.length]);
+  private static float[] toMatrix(DenseFloatArrayVector[] labelEmbeddings, int labelEmbeddingDimensions) {
+    float[] matrix = new float[Math.multiplyExact(labelEmbeddings.length, labelEmbeddingDimensions)];
+    for (int i = 0; i < labelEmbeddings.length; i++) {
+      float[] values = labelEmbeddings[i].getArray();
+      System.arraycopy(values, 0, matrix, i * labelEmbeddingDimensions,
+          Math.min(values.length, labelEmbeddingDimensions));
+    }
+    return matrix;
   }
 
   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
     in.defaultReadObject();
-    _labelEmbeddingMap = buildLabelEmbeddingMap(_labels, _labelEmbeddings);
-    _rawScores = ThreadLocal.withInitial(() -> new float[_labels.length]);
+    if (_labelEmbeddingMatrix == null) {
+      _labelEmbeddingMatrix = toMatrix(_labelEmbeddings, _labelEmbeddingDimensions);
+      _labelEmbeddings = null;
+    }
+    initializeTransientState();
   }
 
-  private static <L> HashMap<L, DenseFloatArrayVector> buildLabelEmbeddingMap(L[] labels, DenseFloatArrayVector[] labelEmbeddings) {
-    return new HashMap<>(new Object2ObjectArrayMap<>(labels, labelEmbeddings));
+  private void initializeTransientState() {
+    _labelIndexMap = new Object2IntOpenHashMap<>(_labels.length);
+    _labelIndexMap.defaultReturnValue(-1);
+    for (int i = 0; i < _labels.length; i++) {
+      _labelIndexMap.put(_labels[i], i);
+    }
+    // the score arrays for each position in the batch are allocated only when needed
+    _rawScores = ThreadLocal.withInitial(() -> new float[SCORING_BATCH_SIZE][]);
   }
 
   public DenseFloatArrayVector embedLabel(L label) {
-    return _labelEmbeddingMap.get(label);
+    int index = _labelIndexMap.getInt(label);
+    if (index < 0) {
+      return null;
+    }
+    int offset = index * _labelEmbeddingDimensions;
+    return DenseFloatArrayVector.wrap(
+        Arrays.copyOfRange(_labelEmbeddingMatrix, offset, offset + _labelEmbeddingDimensions));
   }
 
-  private static class ScoredLabel implements Comparable<ScoredLabel> {
-    int _labelIndex;
-    float _score;
+  /**
+   * Calculates the raw score (the dot product of the features' embedding with each label's embedding) of every label
+   * for a batch of examples.
+   *
+   * The label embedding matrix is traversed in blocks of rows; each block is scored against every example in the
+   * batch before moving on to the next, so that the block is read from memory once per batch rather than once per
+   * example.  Within a block, each example's embedding is multiplied with four label embeddings at a time.
+   *
+   * @param featuresEmbeddings the features embeddings of the examples in the batch
+   * @param count the number of examples in the batch
+   * @param targetRawScores the arrays that will receive the raw scores of each example in the batch
+   */
+  private void rawScores(float[][] featuresEmbeddings, int count, float[][] targetRawScores) {
+    final int dims = _labelEmbeddingDimensions;
+    final float[] matrix = _labelEmbeddingMatrix;
+    final int labelBlockSize = Math.max(4, LABEL_BLOCK_BYTES / (Float.BYTES * Math.max(1, dims)));
+
+    for (int blockStart = 0; blockStart < _labels.length; blockStart += labelBlockSize) {
+      int blockEnd = Math.min(_labels.length, blockStart + labelBlockSize);
+      for (int e = 0; e < count; e++) {
+        float[] embedding = featuresEmbeddings[e];
+        float[] scores = targetRawScores[e];
+        int length = Math.min(dims, embedding.length);
+
+        int label = blockStart;
+        for (; label + 4 <= blockEnd; label += 4) {
+          int offset0 = label * dims;
+          int offset1 = offset0 + dims;
+          int offset2 = offset1 + dims;
+          int offset3 = offset2 + dims;
+          float sum0 = 0;
+          float sum1 = 0;
+          float sum2 = 0;
+          float sum3 = 0;
+          for (int j = 0; j < length; j++) {
+            float value = embedding[j];
+            sum0 += value * matrix[offset0 + j];
+            sum1 += value * matrix[offset1 + j];
+            sum2 += value * matrix[offset2 + j];
+            sum3 += value * matrix[offset3 + j];
+          }
+          scores[label] = sum0;
+          scores[label + 1] = sum1;
+          scores[label + 2] = sum2;
+          scores[label + 3] = sum3;
+        }
+        for (; label < blockEnd; label++) {
+          int offset = label * dims;
+          float sum = 0;
+          for (int j = 0; j < length; j++) {
+            sum += embedding[j] * matrix[offset + j];
+          }
+          scores[label] = sum;
+        }
+      }
+    }
+  }
 
-    public ScoredLabel(float score, int labelIndex) {
-      _score = score;
-      _labelIndex = labelIndex;
+  /**
+   * Finds the (up to) k highest-scoring labels.  A min-heap of the best labels seen so far is kept in parallel
+   * primitive arrays of label indices and scores, so no objects are allocated per label.
+   *
+   * @param scores the score of each label
+   * @param k the maximum number of labels to find
+   * @return the distribution over the highest-scoring labels
+   */
+  @SuppressWarnings("unchecked") // a Serializable[] masquerading as an L[] is safe for ArrayDiscreteDistribution.wrap
+  private DiscreteDistribution<L> topK(float[] scores, int k) {
+    int size = Math.min(k, _labels.length);
+    int[] heapIndices = new int[size];
+    float[] heapScores = new float[size];
+
+    for (int i = 0; i < size; i++) {
+      // sift the new entry up from the bottom of the heap
+      float score = scores[i];
+      int position = i;
+      while (position > 0) {
+        int parent = (position - 1) >>> 1;
+        if (heapScores[parent] <= score) {
+          break;
+        }
+        heapScores[position] = heapScores[parent];
+        heapIndices[position] = heapIndices[parent];
+        position = parent;
+      }
+      heapScores[position] = score;
+      heapIndices[position] = i;
     }
 
-    @Override
-    public int compareTo(ScoredLabel o) {
-      return (int) Math.signum(this._score - o._score);
+    for (int i = size; i < _labels.length; i++) {
+      float score = scores[i];
+      if (score > heapScores[0]) {
+        // replace the lowest-scoring entry (at the root) and sift the new entry down
+        int position = 0;
+        while (true) {
+          int child = 2 * position + 1;
+          if (child >= size) {
+            break;
+          }
+          if (child + 1 < size && heapScores[child + 1] < heapScores[child]) {
+            child++;
+          }
+          if (heapScores[child] >= score) {
+            break;
+          }
+          heapScores[position] = heapScores[child];
+          heapIndices[position] = heapIndices[child];
+          position = child;
+        }
+        heapScores[position] = score;
+        heapIndices[position] = i;
+      }
     }
-  }
 
-  private void rawScores(DenseFloatArrayVector embedding, float[] targetRawScores) {
-    for (int i = 0; i < _labelEmbeddings.length; i++) {
-      targetRawScores[i] = (float) embedding.dotProduct(_labelEmbeddings[i]);
+    Serializable[] labels = new Serializable[size];
+    double[] probabilities = new double[size];
+    for (int i = 0; i < size; i++) {
+      labels[i] = _labels[heapIndices[i]];
+      probabilities[i] = heapScores[i];
     }
+    return ArrayDiscreteDistribution.wrap((L[]) labels, probabilities);
   }
 
-  private PriorityQueue<ScoredLabel> topK(float[] probabilities, int k) {
-    PriorityQueue<ScoredLabel> topK = new PriorityQueue<>(k);
+  public EmbeddingClassification<L> createResult(Iterable<? extends T> features, int topK,
+      Iterable<? extends L> trueLabels) {
+    return createResults(Collections.singletonList(features), topK, Collections.singletonList(trueLabels)).get(0);
+  }
 
-    for (int i = 0; i < _labelEmbeddings.length; i++) {
-      float score = probabilities[i];
-      if (topK.size() < k) {
-        topK.add(new ScoredLabel(score, i));
-      } else if (score > topK.peek()._score) {
-        // optimization: reuse ScoredLabel instance
-        ScoredLabel instance = topK.poll();
-        instance._labelIndex = i;
-        instance._score = score;
-        topK.add(instance);
+  /**
+   * Creates the {@link EmbeddingClassification}s for a minibatch of examples.  This is more efficient than calling
+   * {@link #createResult(Iterable, int, Iterable)} for each example, as the label embeddings are scored against several
+   * examples at once.
+   *
+   * @param features the features of each example
+   * @param topK the maximum number of labels to predict for each example
+   * @param trueLabels the true labels of each example (elements may be null if the true labels are unavailable)
+   * @return the result for each example
+   */
+  public List<EmbeddingClassification<L>> createResults(List<? extends Iterable<? extends T>> features, int topK,
+      List<? extends Iterable<? extends L>> trueLabels) {
+    ArrayList<EmbeddingClassification<L>> results = new ArrayList<>(features.size());
+    ArrayList<FeaturesEmbeddingResult> feResults = new ArrayList<>(SCORING_BATCH_SIZE);
+    float[][] featuresEmbeddings = new float[SCORING_BATCH_SIZE][];
+    float[][] rawScores = _rawScores.get();
+
+    for (int start = 0; start < features.size(); start += SCORING_BATCH_SIZE) {
+      int count = Math.min(SCORING_BATCH_SIZE, features.size() - start);
+      feResults.clear();
+      for (int i = 0; i < count; i++) {
+        feResults.add(embedFeatures(features.get(start + i)));
+        featuresEmbeddings[i] = feResults.get(i).getFeaturesEmbedding().getArray();
+        if (rawScores[i] == null) {
+          rawScores[i] = new float[_labels.length];
+        }
       }
-    }
 
-    return topK;
-  }
+      if (topK > 0) {
+        rawScores(featuresEmbeddings, count, rawScores);
+      }
 
-  private DiscreteDistribution<L> predict(DenseFloatArrayVector featuresEmbedding, int k) {
-    if (k == 0) {
-      return DiscreteDistributions.empty();
+      for (int i = 0; i < count; i++) {
+        final DiscreteDistribution<L> prediction;
+        if (topK > 0) {
+          distributionalize(rawScores[i]);
+          prediction = topK(rawScores[i], topK);
+        } else {
+          prediction = DiscreteDistributions.empty();
+        }
+        results.add(buildResult(feResults.get(i), prediction, trueLabels.get(start + i)));
+      }
     }
 
-    float[] rawScores = _rawScores.get();
-    rawScores(featuresEmbedding, rawScores);
-    distributionalize(rawScores);
-
-    return topK(rawScores, k).stream()
-        .map(sl -> new LabelProbability<>(_labels[sl._labelIndex], sl._score))
-        .collect(ArrayDiscreteDistribution.collector());
+    return results;
   }
 
-  public EmbeddingClassification<L> createResult(Iterable<? extends T> features, int topK,
+  private EmbeddingClassification<L> buildResult(FeaturesEmbeddingResult feResult, DiscreteDistribution<L> prediction,
       Iterable<? extends L> trueLabels) {
-    FeaturesEmbeddingResult feResult = embedFeatures(features);
     DenseFloatArrayVector featuresEmbedding = feResult.getFeaturesEmbedding();
-    DiscreteDistribution<L> prediction = predict(featuresEmbedding, topK);
     List<DenseFloatArrayVector> predictedLabelEmbeddings =
         prediction.stream().map(lp -> embedLabel(lp.getLabel())).collect(Collectors.toList());
     List<DenseFloatArrayVector> trueLabelEmbeddings = trueLabels == null ? null
@@ -4,6 +4,7 @@ import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.function.FunctionResult1;
 import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
 import com.linkedin.dagli.producer.Producer;
+import com.linkedin.dagli.transformer.AbstractPreparedStatefulTransformer2;
 import com.linkedin.dagli.transformer.AbstractPreparedTransformer2;
 import com.linkedin.dagli.math.distribution.DiscreteDistribution;
 import java.io.Serializable;
@@ -21,13 +22,17 @@ public class Embedded {
    * PreparedTransformer that applies an AbstractEmbeddingClassifier classifier to its input.
    * This class should be specialized for each model type.
    *
+   * Inputs are processed in minibatches so that the classifier can score several examples against its label embeddings
+   * at once.
+   *
    * @param <L> the type of label that the classifier accepts.
    * @param <T> the type of "feature" that the classifier accepts as input
    * @param <R> the type of thing returned by the classifier
    */
   private abstract static class Abstract<L extends Serializable, T, R, S extends Abstract<L, T, R, S>>
-      extends AbstractPreparedTransformer2<Iterable<? extends L>, Iterable<? extends T>, R, S> {
+      extends AbstractPreparedStatefulTransformer2<Iterable<? extends L>, Iterable<? extends T>, R, Void, S> {
     private static final long serialVersionUID = 1;
+    private static final int PREFERRED_MINIBATCH_SIZE = 64;
 
     private final AbstractEmbeddingClassifier<L, T> _classifier;
     private final int _topK;
@@ -54,6 +59,11 @@ public class Embedded {
     public int getPredictionLimit() {
       return _topK;
     }
+
+    @Override
+    protected int getPreferredMinibatchSize() {
+      return PREFERRED_MINIBATCH_SIZE;
+    }
   }
 
   abstract static class Result<L extends Serializable, T, S>
@@ -72,9 +82,16 @@ public class Embedded {
      * @return an inferred {@link EmbeddingClassification} for the example
      */
     @Override
-    public EmbeddingClassification<L> apply(Iterable<? extends L> labels, Iterable<? extends T> features) {
+    protected EmbeddingClassification<L> apply(Void executionCache, Iterable<? extends L> labels,
+        Iterable<? extends T> features) {
       return getModel().createResult(features, getPredictionLimit(), labels);
     }
+
+    @Override
+    protected void applyAll(Void executionCache, List<? extends Iterable<? extends L>> labels,
+        List<? extends Iterable<? extends T>> features, List<? super EmbeddingClassification<L>> results) {
+      results.addAll(getModel().createResults(features, getPredictionLimit(), labels));
+    }
   }
 
   /**
@@ -106,9 +123,18 @@ public class Embedded {
      * @return an inferred {@link EmbeddingClassification} for the example
      */
     @Override
-    public DiscreteDistribution<L> apply(Iterable<? extends L> labels, Iterable<? extends T> features) {
+    protected DiscreteDistribution<L> apply(Void executionCache, Iterable<? extends L> labels,
+        Iterable<? extends T> features) {
       return getModel().createResult(features, getPredictionLimit(), labels).getClassification();
     }
+
+    @Override
+    protected void applyAll(Void executionCache, List<? extends Iterable<? extends L>> labels,
+        List<? extends Iterable<? extends T>> features, List<? super DiscreteDistribution<L>> results) {
+      for (EmbeddingClassification<L> result : getModel().createResults(features, getPredictionLimit(), labels)) {
+        results.add(result.getClassification());
+      }
+    }
   }
 
   /**
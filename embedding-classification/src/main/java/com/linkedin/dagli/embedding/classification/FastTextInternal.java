@@ -1,8 +1,11 @@
 package com.linkedin.dagli.embedding.classification;
 
 import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
@@ -83,6 +86,318 @@ public abstract class FastTextInternal {
     }
   }
 
+  /**
+   * A table of embeddings, one per row, that may be summed into dense vectors.
+   */
+  public interface EmbeddingTable extends Serializable {
+    /**
+     * @return the number of rows (embeddings) in this table
+     */
+    int getRowCount();
+
+    /**
+     * @return the number of columns (the embedding dimensions) of this table
+     */
+    int getColumnCount();
+
+    /**
+     * Adds a scaled row of this table to the target array: target += scale * row.
+     *
+     * @param row the row to add
+     * @param target the array to which the row is added, whose length must be at least the number of columns
+     * @param scale the multiplier applied to the row
+     */
+    void addRowTo(int row, float[] target, float scale);
+  }
+
+  /**
+   * A dense matrix of float embeddings, one per row, stored row-major in a few large arrays ("chunks") rather than one
+   * array per row.  This avoids the per-array object overhead of millions of rows, keeps the rows contiguous in memory
+   * and greatly reduces the number of objects the garbage collector must trace.  No row spans more than one chunk, so
+   * every row may be read and updated as a contiguous range of a single array.
+   *
+   * Reads and updates are not synchronized; concurrent (hogwild) updates are permitted but may be lost.
+   */
+  public static final class EmbeddingMatrix implements EmbeddingTable {
+    private static final long serialVersionUID = 1;
+
+    // the maximum number of elements in a single chunk
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+
+    private final int _rowCount;
+    private final int _columnCount;
+    private final int _rowsPerChunk;
+    private final float[][] _chunks;
+
+    /**
+     * Creates a new matrix with all elements initialized to 0.
+     *
+     * @param rowCount the number of rows
+     * @param columnCount the number of columns (the embedding dimensions)
+     */
+    public EmbeddingMatrix(int rowCount, int columnCount) {
+      if (rowCount < 0 || columnCount <= 0) {
+        throw new IllegalArgumentException("Invalid matrix dimensions: " + rowCount + " x " + columnCount);
+      }
+      _rowCount = rowCount;
+      _columnCount = columnCount;
+      _rowsPerChunk = Math.max(1, MAX_CHUNK_SIZE / columnCount);
+
+      int chunkCount = (int) ((rowCount + (long) _rowsPerChunk - 1) / _rowsPerChunk);
+      _chunks = new float[chunkCount][];
+      for (int i = 0; i < chunkCount; i++) {
+        int rows = Math.min(_rowsPerChunk, rowCount - i * _rowsPerChunk);
+        _chunks[i] = new float[rows * columnCount];
+      }
+    }
+
+    @Override
+    public int getRowCount() {
+      return _rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+      return _columnCount;
+    }
+
+    /**
+     * @return the arrays storing the elements of this matrix in row-major order; every chunk holds a whole number of
+     *         rows
+     */
+    public float[][] getChunks() {
+      return _chunks;
+    }
+
+    /**
+     * Gets the array holding the specified row, which begins at index {@link #getRowOffset(int)}.
+     *
+     * @param row the row
+     * @return the array (chunk) containing the row
+     */
+    public float[] getRowChunk(int row) {
+      return _chunks[row / _rowsPerChunk];
+    }
+
+    /**
+     * @param row the row
+     * @return the index of the row's first element in the array returned by {@link #getRowChunk(int)}
+     */
+    public int getRowOffset(int row) {
+      return (row % _rowsPerChunk) * _columnCount;
+    }
+
+    public float get(int row, int column) {
+      return getRowChunk(row)[getRowOffset(row) + column];
+    }
+
+    public void set(int row, int column, float value) {
+      getRowChunk(row)[getRowOffset(row) + column] = value;
+    }
+
+    @Override
+    public void addRowTo(int row, float[] target, float scale) {
+      float[] chunk = getRowChunk(row);
+      int offset = getRowOffset(row);
+      for (int j = 0; j < _columnCount; j++) {
+        target[j] += scale * chunk[offset + j];
+      }
+    }
+
+    /**
+     * Adds a scaled vector to a row of this matrix: row += scale * vector.
+     *
+     * @param row the row to which the vector is added
+     * @param vector the vector, whose length must be at least the number of columns
+     * @param scale the multiplier applied to the vector
+     */
+    public void addToRow(int row, float[] vector, float scale) {
+      float[] chunk = getRowChunk(row);
+      int offset = getRowOffset(row);
+      for (int j = 0; j < _columnCount; j++) {
+        chunk[offset + j] += scale * vector[j];
+      }
+    }
+
+    /**
+     * Calculates the dot product of a row of this matrix with a vector.
+     *
+     * @param row the row
+     * @param vector the vector, whose length must be at least the number of columns
+     * @return the dot product
+     */
+    public float dotRow(int row, float[] vector) {
+      float[] chunk = getRowChunk(row);
+      int offset = getRowOffset(row);
+      float sum = 0;
+      for (int j = 0; j < _columnCount; j++) {
+        sum += chunk[offset + j] * vector[j];
+      }
+      return sum;
+    }
+
+    /**
+     * @param row the row to copy
+     * @return a new array containing a copy of the row
+     */
+    public float[] copyRow(int row) {
+      int offset = getRowOffset(row);
+      return Arrays.copyOfRange(getRowChunk(row), offset, offset + _columnCount);
+    }
+
+    /**
+     * Copies a row from an array into this matrix.
+     *
+     * @param row the row to set
+     * @param values the values of the row, whose length must be at least the number of columns
+     */
+    public void setRow(int row, float[] values) {
+      System.arraycopy(values, 0, getRowChunk(row), getRowOffset(row), _columnCount);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof EmbeddingMatrix)) {
+        return false;
+      }
+      EmbeddingMatrix other = (EmbeddingMatrix) o;
+      return _rowCount == other._rowCount && _columnCount == other._columnCount && Arrays.deepEquals(_chunks,
+          other._chunks);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * Integer.hashCode(_rowCount) + Integer.hashCode(_columnCount)) + Arrays.deepHashCode(_chunks);
+    }
+  }
+
+  /**
+   * An {@link EmbeddingMatrix} quantized to 8 bits per element: each row stores one unsigned byte code per element
+   * together with the row's minimum value and step size, with an element's approximate value being
+   * {@code minimum + code * step}.  This uses roughly a quarter of the memory of the original matrix, and the error of
+   * each element is at most half a step, 1/510th of the range of the values in its row.
+   *
+   * Rows are added to dense vectors directly from their codes without first being decoded.
+   */
+  public static final class QuantizedEmbeddingMatrix implements EmbeddingTable {
+    private static final long serialVersionUID = 1;
+
+    // the maximum number of elements in a single chunk
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+    private static final int MAX_CODE = 255;
+
+    private final int _rowCount;
+    private final int _columnCount;
+    private final int _rowsPerChunk;
+    private final byte[][] _chunks;
+    private final float[] _rowMinimums;
+    private final float[] _rowSteps;
+
+    /**
+     * Creates a new quantized matrix from the given full-precision matrix.
+     *
+     * @param matrix the matrix to quantize
+     */
+    public QuantizedEmbeddingMatrix(EmbeddingMatrix matrix) {
+      _rowCount = matrix.getRowCount();
+      _columnCount = matrix.getColumnCount();
+      _rowsPerChunk = Math.max(1, MAX_CHUNK_SIZE / _columnCount);
+      _rowMinimums = new float[_rowCount];
+      _rowSteps = new float[_rowCount];
+
+      int chunkCount = (int) ((_rowCount + (long) _rowsPerChunk - 1) / _rowsPerChunk);
+      _chunks = new byte[chunkCount][];
+      for (int i = 0; i < chunkCount; i++) {
+        int rows = Math.min(_rowsPerChunk, _rowCount - i * _rowsPerChunk);
+        _chunks[i] = new byte[rows * _columnCount];
+      }
+
+      for (int row = 0; row < _rowCount; row++) {
+        float[] source = matrix.getRowChunk(row);
+        int sourceOffset = matrix.getRowOffset(row);
+
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int j = 0; j < _columnCount; j++) {
+          min = Math.min(min, source[sourceOffset + j]);
+          max = Math.max(max, source[sourceOffset + j]);
+        }
+        float step = (max - min) / MAX_CODE;
+        _rowMinimums[row] = min;
+        _rowSteps[row] = step;
+
+        byte[] codes = getRowChunk(row);
+        int offset = getRowOffset(row);
+        for (int j = 0; j < _columnCount; j++) {
+          int code = step > 0 ? Math.round((source[sourceOffset + j] - min) / step) : 0;
+          codes[offset + j] = (byte) Math.min(MAX_CODE, Math.max(0, code));
+        }
+      }
+    }
+
+    private byte[] getRowChunk(int row) {
+      return _chunks[row / _rowsPerChunk];
+    }
+
+    private int getRowOffset(int row) {
+      return (row % _rowsPerChunk) * _columnCount;
+    }
+
+    @Override
+    public int getRowCount() {
+      return _rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+      return _columnCount;
+    }
+
+    /**
+     * Gets the (approximate) value of an element of this matrix.
+     *
+     * @param row the row of the element
+     * @param column the column of the element
+     * @return the value of the element, decoded from its quantized code
+     */
+    public float get(int row, int column) {
+      return _rowMinimums[row] + _rowSteps[row] * (getRowChunk(row)[getRowOffset(row) + column] & 0xFF);
+    }
+
+    @Override
+    public void addRowTo(int row, float[] target, float scale) {
+      byte[] codes = getRowChunk(row);
+      int offset = getRowOffset(row);
+      float step = scale * _rowSteps[row];
+      float min = scale * _rowMinimums[row];
+      for (int j = 0; j < _columnCount; j++) {
+        target[j] += min + step * (codes[offset + j] & 0xFF);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof QuantizedEmbeddingMatrix)) {
+        return false;
+      }
+      QuantizedEmbeddingMatrix other = (QuantizedEmbeddingMatrix) o;
+      return _rowCount == other._rowCount && _columnCount == other._columnCount && Arrays.equals(_rowMinimums,
+          other._rowMinimums) && Arrays.equals(_rowSteps, other._rowSteps) && Arrays.deepEquals(_chunks, other._chunks);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_rowCount, _columnCount, Arrays.hashCode(_rowMinimums), Arrays.hashCode(_rowSteps),
+          Arrays.deepHashCode(_chunks));
+    }
+  }
+
   /**
    * Represents a FastText model.
    *
@@ -91,12 +406,22 @@ public abstract class FastTextInternal {
   public static class Model<L extends Serializable> extends AbstractEmbeddingClassifier<L, CharSequence> {
     private static final long serialVersionUID = 1;
 
-    private final Long2ObjectOpenHashMap<DenseFloatArrayVector> _wordEmbeddings;
-    private final DenseFloatArrayVector[] _ngramBucketEmbeddings;
+    // the word and n-gram bucket embeddings; the rows of the words are given by _wordRows, and the n-gram bucket
+    // embeddings are the rows starting at _ngramBucketOffset
+    private EmbeddingTable _inputEmbeddings;
+    private Long2IntOpenHashMap _wordRows;
+    private int _ngramBucketOffset;
+    private int _eosRow;
+
     private final boolean _multilabel;
-    private final DenseFloatArrayVector _eosEmbedding;
     private final int _maxNgramSize;
 
+    // models serialized by earlier versions store a separate array for each embedding in these fields, which are
+    // converted to the representation above when such a model is deserialized (and are otherwise null)
+    private Long2ObjectOpenHashMap<DenseFloatArrayVector> _wordEmbeddings;
+    private DenseFloatArrayVector[] _ngramBucketEmbeddings;
+    private DenseFloatArrayVector _eosEmbedding;
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -109,31 +434,123 @@ public abstract class FastTextInternal {
         return false;
       }
       Model<?> model = (Model<?>) o;
-      return _multilabel == model._multilabel && _maxNgramSize == model._maxNgramSize && Objects.equals(_wordEmbeddings,
-          model._wordEmbeddings) && Arrays.equals(_ngramBucketEmbeddings, model._ngramBucketEmbeddings)
-          && Objects.equals(_eosEmbedding, model._eosEmbedding);
+      return _multilabel == model._multilabel && _maxNgramSize == model._maxNgramSize
+          && _ngramBucketOffset == model._ngramBucketOffset && Objects.equals(_wordRows, model._wordRows)
+          && Objects.equals(_inputEmbeddings, model._inputEmbeddings);
     }
 
     @Override
     public int hashCode() {
-      int result = Objects.hash(super.hashCode(), _wordEmbeddings, _multilabel, _eosEmbedding, _maxNgramSize);
-      result = 31 * result + Arrays.hashCode(_ngramBucketEmbeddings);
-      return result;
+      return Objects.hash(super.hashCode(), _wordRows, _inputEmbeddings, _ngramBucketOffset, _multilabel,
+          _maxNgramSize);
+    }
+
+    /**
+     * Creates a new model.
+     *
+     * @param labels the labels
+     * @param labelEmbeddingMatrix the embeddings of the labels, as a row-major matrix with one row per label (with as
+     *                             many columns as {@code inputEmbeddings})
+     * @param wordRows a map from word hashes to the rows of their embeddings in {@code inputEmbeddings}; the map's
+     *                 default return value must be negative
+     * @param inputEmbeddings the word and n-gram bucket embeddings (either full-precision or quantized)
+     * @param ngramBucketOffset the first row of {@code inputEmbeddings} that is an n-gram bucket embedding; all rows
+     *                          from this row onwards are n-gram bucket embeddings
+     * @param multilabel whether the model is multilabel (as opposed to multinomial)
+     * @param maxNgramSize the maximum length of the word n-grams
+     */
+    public Model(L[] labels, float[] labelEmbeddingMatrix, Long2IntOpenHashMap wordRows,
+        EmbeddingTable inputEmbeddings, int ngramBucketOffset, boolean multilabel, int maxNgramSize) {
+      super(labels, labelEmbeddingMatrix, inputEmbeddings.getColumnCount());
+      if (wordRows.defaultReturnValue() >= 0) {
+        throw new IllegalArgumentException("The default return value of the word row map must be negative");
+      }
+      _wordRows = wordRows;
+      _inputEmbeddings = inputEmbeddings;
+      _ngramBucketOffset = ngramBucketOffset;
+      _multilabel = multilabel;
+      _maxNgramSize = maxNgramSize;
+      _eosRow = _wordRows.get(Util.EOS_HASH);
     }
 
     public Model(L[] labels, DenseFloatArrayVector[] labelEmbeddings, Long2ObjectOpenHashMap<DenseFloatArrayVector> wordEmbeddings,
         DenseFloatArrayVector[] ngramBucketEmbeddings, boolean multilabel, int maxNgramSize) {
       super(labels, labelEmbeddings);
-      _wordEmbeddings = wordEmbeddings;
-      _ngramBucketEmbeddings = ngramBucketEmbeddings;
       _multilabel = multilabel;
       _maxNgramSize = maxNgramSize;
-      _eosEmbedding = _wordEmbeddings.get(Util.EOS_HASH);
+      setInputEmbeddings(wordEmbeddings, ngramBucketEmbeddings);
+    }
+
+    /**
+     * Copies separately stored word and n-gram bucket embeddings into this model's (contiguous) input embeddings.
+     *
+     * @param wordEmbeddings a map from word hashes to their embeddings
+     * @param ngramBucketEmbeddings the n-gram bucket embeddings
+     */
+    private void setInputEmbeddings(Long2ObjectOpenHashMap<DenseFloatArrayVector> wordEmbeddings,
+        DenseFloatArrayVector[] ngramBucketEmbeddings) {
+      _wordRows = new Long2IntOpenHashMap(wordEmbeddings.size());
+      _wordRows.defaultReturnValue(-1);
+      _ngramBucketOffset = wordEmbeddings.size();
+      EmbeddingMatrix inputEmbeddings =
+          new EmbeddingMatrix(wordEmbeddings.size() + ngramBucketEmbeddings.length, getLabelEmbeddingDimensions());
+
+      wordEmbeddings.long2ObjectEntrySet().fastForEach(entry -> {
+        int row = _wordRows.size();
+        _wordRows.put(entry.getLongKey(), row);
+        setRow(inputEmbeddings, row, entry.getValue());
+      });
+      for (int i = 0; i < ngramBucketEmbeddings.length; i++) {
+        setRow(inputEmbeddings, _ngramBucketOffset + i, ngramBucketEmbeddings[i]);
+      }
+      _inputEmbeddings = inputEmbeddings;
+      _eosRow = _wordRows.get(Util.EOS_HASH);
+    }
+
+    private static void setRow(EmbeddingMatrix matrix, int row, DenseFloatArrayVector embedding) {
+      float[] values = embedding.getArray();
+      for (int j = 0; j < Math.min(values.length, matrix.getColumnCount()); j++) {
+        matrix.set(row, j, values[j]);
+      }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      if (_inputEmbeddings == null) {
+        setInputEmbeddings(_wordEmbeddings, _ngramBucketEmbeddings);
+        _wordEmbeddings = null;
+        _ngramBucketEmbeddings = null;
+        _eosEmbedding = null;
+      }
+    }
+
+    /**
+     * @return true if this model's word and n-gram bucket embeddings are quantized
+     */
+    public boolean isQuantized() {
+      return _inputEmbeddings instanceof QuantizedEmbeddingMatrix;
+    }
+
+    /**
+     * Creates a copy of this model whose word and n-gram bucket embeddings (which comprise nearly all of a typical
+     * model's size) are quantized to 8 bits per element, reducing the memory used by the model and the time needed to
+     * load it by a factor of almost 4.  The label embeddings are not quantized.  Predictions made by the quantized
+     * model are computed directly from the quantized embeddings and will differ slightly from those of the original.
+     *
+     * @return a quantized copy of this model, or this model if it is already quantized
+     */
+    public Model<L> quantize() {
+      if (isQuantized()) {
+        return this;
+      }
+      return new Model<>(getLabels(), getLabelEmbeddingMatrix(), _wordRows,
+          new QuantizedEmbeddingMatrix((EmbeddingMatrix) _inputEmbeddings), _ngramBucketOffset, _multilabel,
+          _maxNgramSize);
     }
 
     public <M extends Serializable> Model<M> remapLabels(Function<L, M> remapper) {
       return new Model<>((M[]) Arrays.stream(getLabels()).map(remapper).toArray(Serializable[]::new),
-          getLabelEmbeddings(), _wordEmbeddings, _ngramBucketEmbeddings, _multilabel, _maxNgramSize);
+          getLabelEmbeddingMatrix(), _wordRows, _inputEmbeddings, _ngramBucketOffset, _multilabel, _maxNgramSize);
     }
 
     /**
@@ -145,16 +562,17 @@ public abstract class FastTextInternal {
      *
      * @return the number of embeddings that were added to the target
      */
-    int addBucketedNgrams(DenseFloatArrayVector target, LongArrayList tokenHashes, int maxNgramSize) {
+    int addBucketedNgrams(float[] target, LongArrayList tokenHashes, int maxNgramSize) {
       if (maxNgramSize <= 1) {
         return 0; // no-op; we only care about bigrams and larger
       }
+      int bucketCount = _inputEmbeddings.getRowCount() - _ngramBucketOffset;
       int count = 0;
       for (int i = 0; i < tokenHashes.size(); i++) {
         long ngramHash = tokenHashes.getLong(i);
         for (int j = i + 1; j < tokenHashes.size() && j < i + maxNgramSize; j++) {
           ngramHash = Util.hash(ngramHash, tokenHashes.getLong(j));
-          target.addInPlace(_ngramBucketEmbeddings[(int) (Math.abs(ngramHash) % _ngramBucketEmbeddings.length)]);
+          _inputEmbeddings.addRowTo(_ngramBucketOffset + (int) (Math.abs(ngramHash) % bucketCount), target, 1);
           count++;
         }
       }
@@ -164,7 +582,7 @@ public abstract class FastTextInternal {
 
     @Override
     protected FeaturesEmbeddingResult embedFeatures(Iterable<? extends CharSequence> features) {
-      DenseFloatArrayVector res = DenseFloatArrayVector.wrap(new float[getLabelEmbeddingDimensions()]);
+      float[] res = new float[getLabelEmbeddingDimensions()];
 
       LongArrayList tokenHashes;
 
@@ -177,27 +595,28 @@ public abstract class FastTextInternal {
       for (CharSequence rawToken : features) {
         String token = FastTextInternal.Util.formatToken(rawToken);
         long wordHash = Util.hash(token);
-        DenseFloatArrayVector tokenEmbedding = _wordEmbeddings.get(wordHash);
-        if (tokenEmbedding != null) {
+        int row = _wordRows.get(wordHash);
+        if (row >= 0) {
           // note: this results in [word1] [unk word] [word 2] essentially becoming [word1] [word2];
           // discarding unknown words and finding ngrams over what remains is intentional, if questionable
-          res.addInPlace(tokenEmbedding);
+          _inputEmbeddings.addRowTo(row, res, 1);
           tokenHashes.add(wordHash);
         }
       }
 
       int featuresInVocabulary = tokenHashes.size(); // keep track of how many words were in vocabulary
 
-      if (_eosEmbedding != null) { // there are perverse corner cases where no EOS embedding exists
-        res.addInPlace(_eosEmbedding);
+      if (_eosRow >= 0) { // there are perverse corner cases where no EOS embedding exists
+        _inputEmbeddings.addRowTo(_eosRow, res, 1);
         tokenHashes.add(Util.EOS_HASH);
       }
 
       int summedEmbeddingCount = tokenHashes.size();
       summedEmbeddingCount += addBucketedNgrams(res, tokenHashes, _maxNgramSize);
 
-      res.multiplyInPlace(1.0 / summedEmbeddingCount);
-      return new FeaturesEmbeddingResult(res, featuresInVocabulary);
+      DenseFloatArrayVector embedding = DenseFloatArrayVector.wrap(res);
+      embedding.multiplyInPlace(1.0 / summedEmbeddingCount);
+      return new FeaturesEmbeddingResult(embedding, featuresInVocabulary);
     }
 
     private static double sigmoid(double x) {
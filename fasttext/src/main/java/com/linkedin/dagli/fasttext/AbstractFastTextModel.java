@@ -85,6 +85,8 @@ abstract class AbstractFastTextModel<
   protected int _threads = -1;
   protected boolean _isMultilabel = false;
   protected boolean _synchronizedTrainingStart = false;
+  protected boolean _pretokenizedTraining = true;
+  protected boolean _embeddingQuantization = false;
 
   protected SerializableTempFile _pretrainedEmbeddings = null;
 
@@ -126,6 +128,62 @@ abstract class AbstractFastTextModel<
     return clone(c -> c._synchronizedTrainingStart = synchronizedStart);
   }
 
+  /**
+   * Whether or not the training examples will be converted into their (integer) label, word and n-gram IDs once, before
+   * training, with the training threads then reading these IDs from a compact, memory-mapped binary file in each
+   * epoch.  If false, each thread instead re-reads and re-tokenizes the text of the examples in every epoch.
+   *
+   * This option is true by default.
+   *
+   * @return whether or not pre-tokenized training is enabled
+   */
+  public boolean getPretokenizedTraining() {
+    return _pretokenizedTraining;
+  }
+
+  /**
+   * Determines whether or not the training examples will be converted into their (integer) label, word and n-gram IDs
+   * once, before training, with the training threads then reading these IDs from a compact, memory-mapped binary file
+   * in each epoch.  If false, each thread instead re-reads and re-tokenizes the text of the examples in every epoch.
+   *
+   * Pre-tokenization requires one additional pass over the training data (and temporary disk space for the binary
+   * file, which is typically smaller than the text) but avoids the cost of tokenizing and hashing every example in
+   * every epoch, which usually dominates the time spent training.  This option is true by default.
+   *
+   * @param pretokenized whether or not to pre-tokenize the training data
+   * @return a copy of this instance with the pre-tokenized training option set as specified
+   */
+  public S withPretokenizedTraining(boolean pretokenized) {
+    return clone(c -> c._pretokenizedTraining = pretokenized);
+  }
+
+  /**
+   * Whether or not the word and n-gram embeddings of the trained model will be quantized to 8 bits per element.
+   *
+   * This option is false by default.
+   *
+   * @return whether or not embedding quantization is enabled
+   */
+  public boolean getEmbeddingQuantization() {
+    return _embeddingQuantization;
+  }
+
+  /**
+   * Determines whether or not the word and n-gram embeddings of the trained model will be quantized to 8 bits per
+   * element after training.  These embeddings are nearly all of a typical model's size, so quantization reduces the
+   * memory used by the prepared model (and the time needed to load it) by a factor of almost 4.  Predictions are made
+   * directly from the quantized embeddings and will differ slightly from those of the full-precision model; the error
+   * of each embedding element is at most 1/510th of the range of the values in its embedding.
+   *
+   * This option is false by default.
+   *
+   * @param quantization whether or not to quantize the word and n-gram embeddings
+   * @return a copy of this instance with the embedding quantization option set as specified
+   */
+  public S withEmbeddingQuantization(boolean quantization) {
+    return clone(c -> c._embeddingQuantization = quantization);
+  }
+
   /**
    * @return the maximum number of predictions returned by the model
    */
@@ -712,10 +770,16 @@ abstract class AbstractFastTextModel<
             .setMultilabel(_owner._isMultilabel)
             .setExampleCount(_exampleCount)
             .setSynchronizedStart(_owner._synchronizedTrainingStart)
+            .setPretokenizedCorpus(_owner._pretokenizedTraining)
             .build();
 
-        return fastText.train(options)
-            .remapLabels(stringLabel -> (T) inverseLabelMap[FastTextInternal.Util.integerFromLabelString(stringLabel)]);
+        FastTextInternal.Model<String> model = fastText.train(options);
+        if (_owner._embeddingQuantization) {
+          model = model.quantize();
+        }
+
+        return model.remapLabels(
+            stringLabel -> (T) inverseLabelMap[FastTextInternal.Util.integerFromLabelString(stringLabel)]);
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
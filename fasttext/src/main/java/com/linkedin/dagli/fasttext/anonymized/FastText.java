@@ -2,10 +2,9 @@ package com.linkedin.dagli.fasttext.anonymized;
 
 import com.linkedin.dagli.fasttext.anonymized.io.BufferedLineReader;
 import com.linkedin.dagli.fasttext.anonymized.io.LineReader;
-import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
 import com.linkedin.dagli.embedding.classification.FastTextInternal;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import java.io.BufferedReader;
 import java.io.File;
@@ -13,7 +12,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicLong;
@@ -78,9 +76,15 @@ public class FastText {
 			Exception catchedException = null;
 			LineReader lineReader = null;
 			try {
-				lineReader = lineReaderClass_.getConstructor(String.class, String.class).newInstance(args_.input,
-						charsetName_);
-				lineReader.skipLine(_threadId * threadFileSize / args_.thread);
+				// read the pre-tokenized corpus if one was built, otherwise the text of the input file
+				PretokenizedCorpus.Reader corpusReader = null;
+				if (corpus_ != null) {
+					corpusReader = corpus_.reader(_threadId);
+				} else {
+					lineReader = lineReaderClass_.getConstructor(String.class, String.class).newInstance(args_.input,
+							charsetName_);
+					lineReader.skipLine(_threadId * threadFileSize / args_.thread);
+				}
 
 				Model model = new Model(input_, output_, args_, _threadId);
 				if (args_.model == Args.model_name.sup) {
@@ -95,16 +99,19 @@ public class FastText {
 				LongArrayList wordHashes = new LongArrayList(16);
 				IntArrayList wordIDs = new IntArrayList(16);
 				IntArrayList labelIDs = new IntArrayList(16);
+				IntArrayList ngramRowIDs = new IntArrayList(16);
 
 				// wait for everyone to get set up before training commences
 				if (_startBarrier != null) {
 					_startBarrier.await();
 				}
 
-				String[] lineTokens;
+				String[] lineTokens = null;
+				int lineTokenCount = 0;
 				while (tokenCount_.get() < args_.epoch * ntokens) {
-					lineTokens = lineReader.readLineTokens();
-					if (lineTokens == null) {
+					if (corpusReader != null) {
+						lineTokenCount = corpusReader.next(labelIDs, wordIDs, ngramRowIDs);
+					} else if ((lineTokens = lineReader.readLineTokens()) == null) {
 						try {
 							lineReader.rewind();
 							if (args_.verbose > 2) {
@@ -122,12 +129,17 @@ public class FastText {
 						break; // unlearning things is bad
 					}
 
-					localTokenCount += dict_.getLine(lineTokens, wordHashes, wordIDs, labelIDs);
+					if (corpusReader == null) {
+						lineTokenCount = dict_.getLine(lineTokens, wordHashes, wordIDs, labelIDs);
+					}
+					localTokenCount += lineTokenCount;
 					if (labelIDs.isEmpty() || wordIDs.isEmpty()) {
 						continue;
 					}
 
-					IntArrayList ngramRowIDs = dict_.getNgramRowIDs(wordHashes, args_.wordNgrams, dict_.distinctWordCount(), args_.bucket);
+					if (corpusReader == null) {
+						ngramRowIDs = dict_.getNgramRowIDs(wordHashes, args_.wordNgrams, dict_.distinctWordCount(), args_.bucket);
+					}
 					supervised(model, lr, wordIDs, ngramRowIDs, labelIDs);
 
 					if (localTokenCount > args_.lrUpdateRate) {
@@ -197,7 +209,7 @@ public class FastText {
 				lineParts = line.split(" ");
 				String word = lineParts[0];
 				for (int j = 1; j <= dim; j++) {
-					mat.data_[i][j - 1] = Float.parseFloat(lineParts[j]);
+					mat.set(i, j - 1, Float.parseFloat(lineParts[j]));
 				}
 				words.add(word);
 				dict_.addWord(word);
@@ -211,7 +223,7 @@ public class FastText {
 				if (idx < 0 || idx >= dict_.distinctWordCount())
 					continue;
 				for (int j = 0; j < dim; j++) {
-					input_.data_[idx][j] = mat.data_[i][j];
+					input_.set(idx, j, mat.get(i, j));
 				}
 			}
 
@@ -238,6 +250,7 @@ public class FastText {
 
 	int threadCount;
 	long threadFileSize;
+	private PretokenizedCorpus corpus_ = null;
 
 	public FastTextInternal.Model<String> train(FastTextOptions options)
 			throws IOException, InterruptedException {
@@ -257,7 +270,7 @@ public class FastText {
 
 		if (args_.verbose > 0) {
 			System.err.println("Reading " + options.getExampleCount() + " examples from file " + args_.input);
-			if (options.getSynchronizedStart()) {
+			if (options.getSynchronizedStart() && !options.getPretokenizedCorpus()) {
 				System.err.println("Synchronized start has been selected.  There will be a delay after the first pass over "
 						+ "the data while the threads find their start positions in the input data file.");
 			}
@@ -265,6 +278,10 @@ public class FastText {
 		dict_.readFromFile(args_.input);
 		threadFileSize = options.getExampleCount(); // previously Utils.sizeLine(args_.input);
 
+		if (options.getPretokenizedCorpus()) {
+			corpus_ = buildPretokenizedCorpus();
+		}
+
 		if (!Utils.isEmpty(args_.pretrainedVectors)) {
 			loadVectors(args_.pretrainedVectors);
 		} else {
@@ -293,8 +310,15 @@ public class FastText {
 			threads.add(t);
 		}
 
-		for (Thread t : threads) {
-			t.join();
+		try {
+			for (Thread t : threads) {
+				t.join();
+			}
+		} finally {
+			if (corpus_ != null) {
+				corpus_.close();
+				corpus_ = null;
+			}
 		}
 
 		if (threadCount != 0) {
@@ -312,19 +336,32 @@ public class FastText {
 			throw new IllegalArgumentException();
 		}
 
-		Long2ObjectOpenHashMap<DenseFloatArrayVector> wordEmbeddings = new Long2ObjectOpenHashMap<>(dict_.distinctWordCount());
+		// the prepared model shares the (contiguous) input matrix rather than copying each word and n-gram embedding
+		Long2IntOpenHashMap wordRows = new Long2IntOpenHashMap(dict_.distinctWordCount());
+		wordRows.defaultReturnValue(-1);
 
 		dict_.getWordIDMap()
 				.long2IntEntrySet()
-				.fastForEach(wordToID -> wordEmbeddings.put(wordToID.getLongKey(),
-						DenseFloatArrayVector.wrap(model_.getInputEmbedding(embeddingRowIndexForWordID(wordToID.getIntValue())))));
-
-		return new FastTextInternal.Model<>(dict_.getLabels(), Arrays.stream(model_.getLabelEmbeddings())
-				.map(labelEmbedding -> DenseFloatArrayVector.wrap(labelEmbedding))
-				.toArray(DenseFloatArrayVector[]::new), wordEmbeddings,
-				Arrays.stream(model_.getInputEmbeddingsStartingAtRow(dict_.distinctWordCount()))
-						.map(embedding -> DenseFloatArrayVector.wrap(embedding))
-						.toArray(DenseFloatArrayVector[]::new), options.getMultilabel(), args_.wordNgrams);
+				.fastForEach(wordToID -> wordRows.put(wordToID.getLongKey(),
+						embeddingRowIndexForWordID(wordToID.getIntValue())));
+
+		return new FastTextInternal.Model<>(dict_.getLabels(), model_.getLabelEmbeddingMatrix(), wordRows,
+				model_.getInputEmbeddings(), dict_.distinctWordCount(), options.getMultilabel(), args_.wordNgrams);
+	}
+
+	/**
+	 * Makes a single pass over the input file to convert its examples into the label, word and n-gram row IDs that the
+	 * training threads will then read in every epoch (rather than repeatedly re-parsing the text).
+	 *
+	 * @return the pre-tokenized corpus, sharded so that each thread starts at the same example it would in the text
+	 */
+	private PretokenizedCorpus buildPretokenizedCorpus() throws IOException {
+		try (LineReader lineReader = lineReaderClass_.getConstructor(String.class, String.class)
+				.newInstance(args_.input, charsetName_)) {
+			return PretokenizedCorpus.build(lineReader, dict_, args_, threadFileSize, args_.thread);
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException("FastText encountered an error while trying to create its line reader", e);
+		}
 	}
 
 	protected Thread.UncaughtExceptionHandler trainThreadExceptionHandler = new Thread.UncaughtExceptionHandler() {
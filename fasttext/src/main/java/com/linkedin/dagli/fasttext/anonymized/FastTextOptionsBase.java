@@ -32,4 +32,11 @@ abstract class FastTextOptionsBase implements Serializable {
    * being more frequently considered than others (depending on their position in that file).
    */
   boolean _synchronizedStart;
+
+  /**
+   * Controls whether the examples are converted into their label, word and n-gram IDs once, before training, and
+   * stored in a (memory-mapped) binary corpus that is then read by the training threads; if false, the threads will
+   * instead re-read and re-tokenize the text of each example in every epoch.
+   */
+  boolean _pretokenizedCorpus;
 }
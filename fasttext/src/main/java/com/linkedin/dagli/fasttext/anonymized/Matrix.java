@@ -1,32 +1,42 @@
 package com.linkedin.dagli.fasttext.anonymized;
 
+import com.linkedin.dagli.embedding.classification.FastTextInternal;
+import java.util.Arrays;
 import java.util.Random;
 
 
 public class Matrix {
-	public float[][] data_ = null;
+	// rows are stored contiguously in a few large arrays rather than one array per row
+	public FastTextInternal.EmbeddingMatrix data_ = null;
 	public int m_ = 0; // vocabSize
 	public int n_ = 0; // layer1Size
 
 	public Matrix(int m, int n) {
 		m_ = m;
 		n_ = n;
-		data_ = new float[m][n];
+		data_ = new FastTextInternal.EmbeddingMatrix(m, n);
+	}
+
+	public float get(int i, int j) {
+		return data_.get(i, j);
+	}
+
+	public void set(int i, int j, float value) {
+		data_.set(i, j, value);
 	}
 
 	public void zero() {
-		for (int i = 0; i < m_; i++) {
-			for (int j = 0; j < n_; j++) {
-				data_[i][j] = 0.0f;
-			}
+		for (float[] chunk : data_.getChunks()) {
+			Arrays.fill(chunk, 0.0f);
 		}
 	}
 
 	public void uniform(float a) {
 		Random random = new Random(1l);
-		for (int i = 0; i < m_; i++) {
-			for (int j = 0; j < n_; j++) {
-				data_[i][j] = Utils.randomFloat(random, -a, a);
+		// chunks store the rows in order, so the values are drawn in the same (row-major) order as before
+		for (float[] chunk : data_.getChunks()) {
+			for (int k = 0; k < chunk.length; k++) {
+				chunk[k] = Utils.randomFloat(random, -a, a);
 			}
 		}
 	}
@@ -35,20 +45,14 @@ public class Matrix {
 		Utils.checkArgument(i >= 0);
 		Utils.checkArgument(i < m_);
 		Utils.checkArgument(vec.m_ == n_);
-		for (int j = 0; j < n_; j++) {
-			data_[i][j] += a * vec.data_[j];
-		}
+		data_.addToRow(i, vec.data_, a);
 	}
 
 	public float dotRow(final Vector vec, int i) {
 		Utils.checkArgument(i >= 0);
 		Utils.checkArgument(i < m_);
 		Utils.checkArgument(vec.m_ == n_);
-		float d = 0.0f;
-		for (int j = 0; j < n_; j++) {
-			d += data_[i][j] * vec.data_[j];
-		}
-		return d;
+		return data_.dotRow(i, vec.data_);
 	}
 
 	@Override
@@ -59,7 +63,7 @@ public class Matrix {
 			builder.append("[");
 			for (int i = 0; i < m_ && i < 10; i++) {
 				for (int j = 0; j < n_ && j < 10; j++) {
-					builder.append(data_[i][j]).append(",");
+					builder.append(data_.get(i, j)).append(",");
 				}
 			}
 			builder.setLength(builder.length() - 1);
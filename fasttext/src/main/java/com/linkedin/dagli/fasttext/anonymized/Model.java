@@ -1,9 +1,9 @@
 package com.linkedin.dagli.fasttext.anonymized;
 
+import com.linkedin.dagli.embedding.classification.FastTextInternal;
 import com.linkedin.dagli.math.distribution.AliasSampler;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
@@ -68,20 +68,24 @@ public class Model {
 		initLog();
 	}
 
-	public float[][] getLabelEmbeddings() {
-		return wo_.data_;
+	public float[] getLabelEmbeddingMatrix() {
+		float[] result = new float[Math.multiplyExact(wo_.m_, wo_.n_)];
+		for (int i = 0; i < wo_.m_; i++) {
+			System.arraycopy(wo_.data_.copyRow(i), 0, result, i * wo_.n_, wo_.n_);
+		}
+		return result;
 	}
 
 	public float[] getLabelEmbedding(int id) {
-		return wo_.data_[id];
+		return wo_.data_.copyRow(id);
 	}
 
 	public float[] getInputEmbedding(int row) {
-		return wi_.data_[row];
+		return wi_.data_.copyRow(row);
 	}
 
-	public float[][] getInputEmbeddingsStartingAtRow(int row) {
-		return Arrays.copyOfRange(wi_.data_, row, wi_.data_.length);
+	public FastTextInternal.EmbeddingMatrix getInputEmbeddings() {
+		return wi_.data_;
 	}
 
 	public float binaryLogistic(int target, boolean label, float lr) {
@@ -0,0 +1,223 @@
+package com.linkedin.dagli.fasttext.anonymized;
+
+import com.linkedin.dagli.fasttext.anonymized.io.LineReader;
+import com.linkedin.dagli.util.environment.DagliSystemProperties;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+
+/**
+ * A training corpus whose examples have already been converted into label IDs, word IDs and word n-gram row IDs,
+ * stored as packed ints in memory-mapped temporary files.  Building the corpus requires a single pass over the (text)
+ * training data once the dictionary has been built; afterwards, training threads read the IDs directly rather than
+ * re-reading, splitting and hashing the text of every example in every epoch.
+ *
+ * The corpus is divided into shards, one per training thread, each starting at the same example at which the thread
+ * would start reading the text file.  Each thread starts reading at the beginning of its shard and continues through
+ * the subsequent shards, wrapping around to the first, just as it would when reading the text file.  Shards are stored
+ * in one or more segment files, none larger than {@link #MAX_SEGMENT_BYTES} so that each can be memory-mapped.
+ *
+ * Each example is stored as its token count, label count, word count and n-gram count followed by its label IDs, word
+ * IDs and n-gram row IDs.
+ */
+class PretokenizedCorpus implements Closeable {
+  private static final long MAX_SEGMENT_BYTES = 1L << 30; // must be less than 2^31 to be mapped as a single buffer
+  private static final int HEADER_INTS = 4;
+
+  private final Path[] _paths;
+  private final IntBuffer[] _segments;
+  private final int[] _shardStartSegments;
+
+  private PretokenizedCorpus(Path[] paths, IntBuffer[] segments, int[] shardStartSegments) {
+    _paths = paths;
+    _segments = segments;
+    _shardStartSegments = shardStartSegments;
+  }
+
+  /**
+   * Writes a segment file.
+   */
+  private static class SegmentWriter implements Closeable {
+    final Path _path;
+    final DataOutputStream _output;
+    long _bytes = 0;
+
+    SegmentWriter() throws IOException {
+      _path = Files.createTempFile(Paths.get(DagliSystemProperties.getTempDirectory()), "FastTextCorpus", ".dat");
+      _path.toFile().deleteOnExit();
+      _output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(_path)));
+    }
+
+    void write(IntArrayList ids) throws IOException {
+      for (int i = 0; i < ids.size(); i++) {
+        _output.writeInt(ids.getInt(i));
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      _output.close();
+    }
+  }
+
+  /**
+   * Builds a corpus from the examples read from the given line reader, using the given (already built) dictionary.
+   *
+   * @param lineReader the reader of the text training data
+   * @param dictionary the dictionary mapping words and labels to their IDs
+   * @param args the arguments for training; the word n-gram length and bucket count are used to find the n-gram rows
+   * @param exampleCount the number of examples in the training data
+   * @param shardCount the number of shards (training threads)
+   * @return a new corpus
+   * @throws IOException if an error occurs while reading the text or writing the corpus
+   */
+  static PretokenizedCorpus build(LineReader lineReader, Dictionary dictionary, Args args, long exampleCount,
+      int shardCount) throws IOException {
+    ArrayList<Path> paths = new ArrayList<>();
+    int[] shardStartSegments = new int[shardCount];
+    int nextShard = 0;
+
+    LongArrayList wordHashes = new LongArrayList(16);
+    IntArrayList wordIDs = new IntArrayList(16);
+    IntArrayList labelIDs = new IntArrayList(16);
+    IntArrayList header = new IntArrayList(HEADER_INTS);
+
+    SegmentWriter segmentWriter = null;
+    boolean newSegmentRequested = true;
+    try {
+      String[] lineTokens;
+      for (long example = 0; (lineTokens = lineReader.readLineTokens()) != null; example++) {
+        while (nextShard < shardCount && example >= nextShard * exampleCount / shardCount) {
+          newSegmentRequested = true;
+          shardStartSegments[nextShard++] = paths.size();
+        }
+
+        int tokenCount = dictionary.getLine(lineTokens, wordHashes, wordIDs, labelIDs);
+        IntArrayList ngramRowIDs =
+            dictionary.getNgramRowIDs(wordHashes, args.wordNgrams, dictionary.distinctWordCount(), args.bucket);
+
+        long bytes = (long) Integer.BYTES * (HEADER_INTS + labelIDs.size() + wordIDs.size() + ngramRowIDs.size());
+        if (newSegmentRequested || segmentWriter._bytes + bytes > MAX_SEGMENT_BYTES) {
+          if (segmentWriter != null) {
+            segmentWriter.close();
+          }
+          segmentWriter = new SegmentWriter();
+          paths.add(segmentWriter._path);
+          newSegmentRequested = false;
+        }
+
+        header.clear();
+        header.add(tokenCount);
+        header.add(labelIDs.size());
+        header.add(wordIDs.size());
+        header.add(ngramRowIDs.size());
+        segmentWriter.write(header);
+        segmentWriter.write(labelIDs);
+        segmentWriter.write(wordIDs);
+        segmentWriter.write(ngramRowIDs);
+        segmentWriter._bytes += bytes;
+      }
+    } finally {
+      if (segmentWriter != null) {
+        segmentWriter.close();
+      }
+    }
+
+    if (paths.isEmpty()) {
+      throw new IllegalStateException("The FastText training data contains no examples");
+    }
+
+    // shards starting beyond the last example read (possible if some lines were skipped) start at the beginning
+    for (int i = nextShard; i < shardCount; i++) {
+      shardStartSegments[i] = 0;
+    }
+
+    IntBuffer[] segments = new IntBuffer[paths.size()];
+    for (int i = 0; i < segments.length; i++) {
+      try (FileChannel channel = FileChannel.open(paths.get(i), StandardOpenOption.READ)) {
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asIntBuffer();
+      }
+    }
+
+    return new PretokenizedCorpus(paths.toArray(new Path[0]), segments, shardStartSegments);
+  }
+
+  /**
+   * Creates a reader that will start reading at the beginning of the specified shard and cycle through the corpus
+   * indefinitely.  Readers are not thread-safe, but any number of readers may read the corpus concurrently.
+   *
+   * @param shard the shard at which to start
+   * @return a new reader
+   */
+  Reader reader(int shard) {
+    return new Reader(_shardStartSegments[shard]);
+  }
+
+  /**
+   * Reads examples from the corpus.
+   */
+  class Reader {
+    private int _segment;
+    private int _position = 0;
+
+    private Reader(int segment) {
+      _segment = segment;
+    }
+
+    /**
+     * Reads the next example, wrapping around to the beginning of the corpus after the last example.
+     *
+     * @param labelIDs will be cleared and filled with the example's label IDs
+     * @param wordIDs will be cleared and filled with the example's word IDs
+     * @param ngramRowIDs will be cleared and filled with the example's word n-gram row IDs
+     * @return the number of tokens in the example (as counted by {@link Dictionary#getLine})
+     */
+    int next(IntArrayList labelIDs, IntArrayList wordIDs, IntArrayList ngramRowIDs) {
+      if (_position >= _segments[_segment].limit()) {
+        _segment = (_segment + 1) % _segments.length;
+        _position = 0;
+      }
+
+      IntBuffer segment = _segments[_segment];
+      int tokenCount = segment.get(_position);
+      int labelCount = segment.get(_position + 1);
+      int wordCount = segment.get(_position + 2);
+      int ngramCount = segment.get(_position + 3);
+      _position += HEADER_INTS;
+
+      _position = read(segment, _position, labelCount, labelIDs);
+      _position = read(segment, _position, wordCount, wordIDs);
+      _position = read(segment, _position, ngramCount, ngramRowIDs);
+      return tokenCount;
+    }
+  }
+
+  private static int read(IntBuffer segment, int position, int count, IntArrayList destination) {
+    destination.size(count);
+    for (int i = 0; i < count; i++) {
+      destination.set(i, segment.get(position + i));
+    }
+    return position + count;
+  }
+
+  /**
+   * Deletes the corpus's temporary files.  Readers must not be used after the corpus is closed.
+   */
+  @Override
+  public void close() {
+    for (Path path : _paths) {
+      path.toFile().delete();
+    }
+  }
+}
@@ -30,28 +30,21 @@ public class Vector {
 		Utils.checkArgument(i >= 0);
 		Utils.checkArgument(i < A.m_);
 		Utils.checkArgument(m_ == A.n_);
-		for (int j = 0; j < A.n_; j++) { // layer size
-			data_[j] += A.data_[i][j];
-		}
+		A.data_.addRowTo(i, data_, 1.0f);
 	}
 
 	public void addRow(final Matrix A, int i, float a) {
 		Utils.checkArgument(i >= 0);
 		Utils.checkArgument(i < A.m_);
 		Utils.checkArgument(m_ == A.n_);
-		for (int j = 0; j < A.n_; j++) {
-			data_[j] += a * A.data_[i][j];
-		}
+		A.data_.addRowTo(i, data_, a);
 	}
 
 	public void mul(final Matrix A, final Vector vec) {
 		Utils.checkArgument(A.m_ == m_);
 		Utils.checkArgument(A.n_ == vec.m_);
 		for (int i = 0; i < m_; i++) {
-			data_[i] = 0.0f;
-			for (int j = 0; j < A.n_; j++) {
-				data_[i] += A.data_[i][j] * vec.data_[j];
-			}
+			data_[i] = A.data_.dotRow(i, vec.data_);
 		}
 	}
 
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.function.UnaryOperator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -191,7 +192,58 @@ public class FastTextClassifierTest {
         lossType == FastTextLoss.HEIRARCHICAL_SOFTMAX ? 0.5 : 0.9);
   }
 
+  @Test
+  public void testClassificationWithoutPretokenization() {
+    testClassification(FastTextDataSerializationMode.NORMAL, FastTextLoss.NEGATIVE_SAMPLING, 0.9,
+        ftc -> ftc.withPretokenizedTraining(false));
+  }
+
+  @Test
+  public void testQuantizedClassification() {
+    testClassification(FastTextDataSerializationMode.NORMAL, FastTextLoss.NEGATIVE_SAMPLING, 0.9,
+        ftc -> ftc.withEmbeddingQuantization(true));
+  }
+
+  @Test
+  public void testManyLabelPrediction() {
+    final int labelCount = 50;
+    final int maxPredictionCount = 3;
+
+    // each example has a distinctive token for its label, along with a few tokens shared by all examples
+    ArrayList<List<Integer>> labels = new ArrayList<>();
+    ArrayList<List<String>> tokens = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      int label = i % labelCount;
+      labels.add(Collections.singletonList(label));
+      tokens.add(Arrays.asList("the", "label", "is", "L" + label));
+    }
+
+    FastTextClassification<Integer> ftc = new FastTextClassification<Integer>()
+        .withMinTokenCount(1)
+        .withBucketCount(100)
+        .withEmbeddingLength(16)
+        .withMaxPredictionCount(maxPredictionCount)
+        .withSynchronizedTrainingStart(true);
+
+    // the tester also checks that minibatched predictions match those made for each example individually
+    Tester.of(ftc).allParallelInputs(labels, tokens).preparedTransformerInputLimit(100).test();
+
+    PreparedFastTextClassification<Integer> prepared =
+        ftc.internalAPI().prepare(new SimpleDAGExecutor(), labels, tokens).getPreparedTransformerForNewData();
+
+    for (int label = 0; label < labelCount; label++) {
+      DiscreteDistribution<Integer> dist = prepared.apply(null, Arrays.asList("the", "label", "is", "L" + label));
+      assertTrue(dist.size64() <= maxPredictionCount);
+      assertEquals(label, dist.max().get().getLabel().intValue());
+    }
+  }
+
   public void testClassification(FastTextDataSerializationMode dataSerializationMode, FastTextLoss lossType, double minCorrectProportion) {
+    testClassification(dataSerializationMode, lossType, minCorrectProportion, UnaryOperator.identity());
+  }
+
+  public void testClassification(FastTextDataSerializationMode dataSerializationMode, FastTextLoss lossType,
+      double minCorrectProportion, UnaryOperator<FastTextClassification<Integer>> configurer) {
     final int ngramCount = 100;
     final int trainingExamples = 100000;
     final int evaluationExamples = 10000;
@@ -241,11 +293,12 @@ public class FastTextClassifierTest {
       labels.add(Collections.singletonList(label));
     }
 
-    FastTextClassification<Integer> ftr = new FastTextClassification<Integer>().withMaxWordNgramLength(3)
+    FastTextClassification<Integer> ftr = configurer.apply(new FastTextClassification<Integer>()
+        .withMaxWordNgramLength(3)
         .withDataSerializationMode(dataSerializationMode)
         .withLossType(lossType)
         .withSynchronizedTrainingStart(true)
-        .withBucketCount(100); // (greatly) speeds up serialization and deserialization when the tester runs below
+        .withBucketCount(100)); // (greatly) speeds up serialization and deserialization when the tester runs below
 
     Tester.of(ftr).allParallelInputs(labels, tokens).preparedTransformerInputLimit(100).test();
 
@@ -283,6 +336,8 @@ public class FastTextClassifierTest {
         .withMultilabel(true)
         .withSampledNegativeCount(11)
         .withThreadCount(14)
+        .withPretokenizedTraining(false)
+        .withEmbeddingQuantization(true)
         .withVerbosity(2);
 
     Assertions.assertNotEquals(MissingInput.get(), ftc.getLabelsInput());
@@ -298,6 +353,8 @@ public class FastTextClassifierTest {
     Assertions.assertTrue(ftc.isMultilabel());
     Assertions.assertEquals(11, ftc.getSampledNegativeCount());
     Assertions.assertEquals(14, ftc.getThreadCount());
+    Assertions.assertFalse(ftc.getPretokenizedTraining());
+    Assertions.assertTrue(ftc.getEmbeddingQuantization());
     Assertions.assertEquals(2, ftc.getVerbosity());
   }
 }
@@ -1,5 +1,7 @@
 package com.linkedin.dagli.fasttext.anonymized;
 
+import com.linkedin.dagli.embedding.classification.FastTextInternal;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 
@@ -11,4 +13,62 @@ public class MatrixTest {
     // make sure toString doesn't throw
     m.toString();
   }
+
+  @Test
+  public void testRowOperations() {
+    Matrix m = new Matrix(3, 2);
+    m.uniform(1.0f);
+    m.zero();
+    m.set(1, 0, 2f);
+    m.set(1, 1, 3f);
+
+    Vector v = new Vector(2);
+    v.set(0, 1);
+    v.set(1, -1);
+
+    Assertions.assertEquals(-1f, m.dotRow(v, 1));
+    Assertions.assertEquals(0f, m.dotRow(v, 2));
+
+    m.addRow(v, 2, 0.5f);
+    Assertions.assertEquals(0.5f, m.get(2, 0));
+    Assertions.assertEquals(-0.5f, m.get(2, 1));
+    Assertions.assertEquals(0f, m.get(0, 0));
+
+    Vector sum = new Vector(2);
+    sum.addRow(m, 1);
+    sum.addRow(m, 2, 2f);
+    Assertions.assertEquals(3f, sum.get(0));
+    Assertions.assertEquals(2f, sum.get(1));
+
+    Vector product = new Vector(3);
+    product.mul(m, v);
+    Assertions.assertEquals(0f, product.get(0));
+    Assertions.assertEquals(-1f, product.get(1));
+    Assertions.assertEquals(1f, product.get(2));
+  }
+
+  @Test
+  public void testQuantization() {
+    Matrix m = new Matrix(10, 20);
+    m.uniform(1.0f);
+    m.set(3, 5, 7f); // widen the range of one row
+    FastTextInternal.QuantizedEmbeddingMatrix quantized = new FastTextInternal.QuantizedEmbeddingMatrix(m.data_);
+
+    for (int i = 0; i < m.m_; i++) {
+      float min = Float.POSITIVE_INFINITY;
+      float max = Float.NEGATIVE_INFINITY;
+      for (int j = 0; j < m.n_; j++) {
+        min = Math.min(min, m.get(i, j));
+        max = Math.max(max, m.get(i, j));
+      }
+      float maxError = (max - min) / 510 * 1.001f;
+
+      float[] sum = new float[m.n_];
+      quantized.addRowTo(i, sum, 2);
+      for (int j = 0; j < m.n_; j++) {
+        Assertions.assertEquals(m.get(i, j), quantized.get(i, j), maxError);
+        Assertions.assertEquals(2 * m.get(i, j), sum[j], 2 * maxError);
+      }
+    }
+  }
 }
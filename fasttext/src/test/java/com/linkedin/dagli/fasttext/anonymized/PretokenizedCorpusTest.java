@@ -0,0 +1,72 @@
+package com.linkedin.dagli.fasttext.anonymized;
+
+import com.linkedin.dagli.fasttext.anonymized.io.BufferedLineReader;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class PretokenizedCorpusTest {
+  @Test
+  public void testCorpus() throws IOException {
+    ArrayList<String> lines = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      lines.add("__label__" + (i % 3) + " word" + (i % 4) + " word" + (i % 5) + " unique" + i);
+    }
+
+    Path path = Files.createTempFile("PretokenizedCorpusTest", ".txt");
+    try {
+      Files.write(path, lines, StandardCharsets.UTF_8);
+
+      Args args = new Args();
+      args.minCount = 1;
+      args.wordNgrams = 2;
+      args.bucket = 100;
+      args.verbose = 0;
+      Dictionary dictionary = new Dictionary(args);
+      dictionary.readFromFile(path.toString());
+
+      try (BufferedLineReader lineReader = new BufferedLineReader(path.toString(), "UTF-8");
+          PretokenizedCorpus corpus = PretokenizedCorpus.build(lineReader, dictionary, args, lines.size(), 3)) {
+        IntArrayList labelIDs = new IntArrayList();
+        IntArrayList wordIDs = new IntArrayList();
+        IntArrayList ngramRowIDs = new IntArrayList();
+
+        // shards start at examples 0, 3 and 6; each reader wraps around to the start of the corpus
+        int[] shardStarts = new int[] { 0, 3, 6 };
+        for (int shard = 0; shard < shardStarts.length; shard++) {
+          PretokenizedCorpus.Reader reader = corpus.reader(shard);
+          for (int i = 0; i < 2 * lines.size(); i++) {
+            String[] tokens = BufferedLineReader.splitLine(lines.get((shardStarts[shard] + i) % lines.size()));
+            List<IntArrayList> expected = expected(dictionary, args, tokens);
+
+            int tokenCount = reader.next(labelIDs, wordIDs, ngramRowIDs);
+            Assertions.assertEquals(expected.get(0).getInt(0), tokenCount);
+            Assertions.assertEquals(expected.get(1), labelIDs);
+            Assertions.assertEquals(expected.get(2), wordIDs);
+            Assertions.assertEquals(expected.get(3), ngramRowIDs);
+          }
+        }
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  private static List<IntArrayList> expected(Dictionary dictionary, Args args, String[] tokens) {
+    LongArrayList wordHashes = new LongArrayList();
+    IntArrayList wordIDs = new IntArrayList();
+    IntArrayList labelIDs = new IntArrayList();
+    int tokenCount = dictionary.getLine(tokens, wordHashes, wordIDs, labelIDs);
+    IntArrayList ngramRowIDs =
+        dictionary.getNgramRowIDs(wordHashes, args.wordNgrams, dictionary.distinctWordCount(), args.bucket);
+    return List.of(IntArrayList.wrap(new int[] { tokenCount }), labelIDs, wordIDs, new IntArrayList(ngramRowIDs));
+  }
+}
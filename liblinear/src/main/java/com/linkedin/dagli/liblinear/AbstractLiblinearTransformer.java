@@ -10,7 +10,7 @@ import com.linkedin.dagli.math.vector.Vector;
 import com.linkedin.dagli.producer.MissingInput;
 import com.linkedin.dagli.producer.Producer;
 import com.linkedin.dagli.transformer.AbstractPreparableTransformer3;
-import com.linkedin.dagli.transformer.AbstractPreparedTransformer3;
+import com.linkedin.dagli.transformer.AbstractPreparedStatefulTransformer3;
 import com.linkedin.dagli.transformer.PreparedTransformer3;
 import com.linkedin.dagli.vector.DensifiedVector;
 import java.util.function.Supplier;
@@ -201,7 +201,7 @@ abstract class AbstractLiblinearTransformer<
    */
   @ValueEquality
   protected static abstract class Prepared<L, R, S extends Prepared<L, R, S>>
-      extends AbstractPreparedTransformer3<Number, L, DenseVector, R, Prepared<L, R, S>> {
+      extends AbstractPreparedStatefulTransformer3<Number, L, DenseVector, R, Void, Prepared<L, R, S>> {
 
     private static final long serialVersionUID = 1;
 
@@ -8,6 +8,7 @@ import com.jeffreypasternack.liblinear.Parameter;
 import com.jeffreypasternack.liblinear.Problem;
 import com.jeffreypasternack.liblinear.SolverType;
 import com.linkedin.dagli.annotation.equality.DeepArrayValueEquality;
+import com.linkedin.dagli.annotation.equality.IgnoredByValueEquality;
 import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.math.distribution.ArrayDiscreteDistribution;
 import com.linkedin.dagli.math.distribution.BinaryDistribution;
@@ -15,12 +16,15 @@ import com.linkedin.dagli.math.distribution.DiscreteDistribution;
 import com.linkedin.dagli.math.vector.DenseDoubleArrayVector;
 import com.linkedin.dagli.math.vector.DenseVector;
 import com.linkedin.dagli.math.vector.Vector;
+import com.linkedin.dagli.math.vector.VectorElementConsumer;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer3;
 import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.util.invariant.Arguments;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -61,11 +65,23 @@ public class LiblinearClassification<L> extends
     private final Problem _problem = new Problem();
     private final Object2IntOpenHashMap<L> _labelIDMap;
     private final LiblinearClassification<L> _owner;
-    private static final FeatureNode BIAS_PLACEHOLDER_FEATURE = new FeatureNode(Integer.MAX_VALUE, 0);
 
-    private final List<Feature[]> _exampleFeatures; // will be copied to problem.x
+    // The training examples are stored compactly as chunks of primitives, rather than as a FeatureNode object per
+    // element, and only converted to liblinear's representation in finish().  The features of all examples are
+    // concatenated; _exampleFeatureCounts records how many belong to each example.  Chunks start small and double in
+    // size up to MAX_CHUNK_SIZE; each is released as soon as it has been converted, so the packed examples and their
+    // liblinear representation are never both held in memory in their entirety.
+    private static final int INITIAL_CHUNK_SIZE = 1024;
+    private static final int MAX_CHUNK_SIZE = 1 << 20;
+    private final ArrayList<int[]> _featureIndexChunks = new ArrayList<>(); // 1-based, as liblinear expects
+    private final ArrayList<double[]> _featureValueChunks = new ArrayList<>();
+    private int _chunkPosition = 0; // the number of features stored in the last chunk
+    private long _featureCount = 0;
+    private final IntList _exampleFeatureCounts;
     private final DoubleList _exampleLabels; // will be copied to problem.y
 
+    private final VectorElementConsumer _featureAppender = this::appendFeature;
+
     private int _maxFeatureIndex = 0; // keep track of the highest observed feature index
 
     public Preparer(PreparerContext context, LiblinearClassification<L> owner) {
@@ -75,33 +91,39 @@ public class LiblinearClassification<L> extends
       // can't accommodate more than ~2 billion examples, but move forward under the assumption that there will be fewer
       // than estimated:
       int estimatedExampleCount = (int) Math.min(Integer.MAX_VALUE, context.getEstimatedExampleCount());
-      _exampleFeatures = new ArrayList<>(estimatedExampleCount);
+      _exampleFeatureCounts = new IntArrayList(estimatedExampleCount);
       _exampleLabels = new DoubleArrayList(estimatedExampleCount);
 
       _problem.bias = -1; // don't use built-in bias...it's broken!
       _owner = owner;
     }
 
-    @Override
-    public void process(Number weight, L label, DenseVector featureVector) {
-      Feature[] features;
-      long featureVectorSize = featureVector.size64();
-      if (_owner.getBias() >= 0) {
-        features = new Feature[Math.toIntExact(featureVectorSize + 1)];
-        features[features.length - 1] = BIAS_PLACEHOLDER_FEATURE;
-      } else {
-        features = new Feature[Math.toIntExact(featureVectorSize)];
+    private void appendFeature(long elementIndex, double value) {
+      // liblinear for Java doesn't like 0 index features due to bug, hence the "+ 1"
+      int featureIndex = Math.toIntExact(elementIndex + 1);
+
+      int lastChunk = _featureIndexChunks.size() - 1;
+      if (lastChunk < 0 || _chunkPosition == _featureIndexChunks.get(lastChunk).length) {
+        int chunkSize = lastChunk < 0 ? INITIAL_CHUNK_SIZE
+            : Math.min(MAX_CHUNK_SIZE, 2 * _featureIndexChunks.get(lastChunk).length);
+        _featureIndexChunks.add(new int[chunkSize]);
+        _featureValueChunks.add(new double[chunkSize]);
+        _chunkPosition = 0;
+        lastChunk++;
       }
 
-      int[] i = new int[1]; // boxed integer
-      featureVector.forEach((elementIndex, value) -> {
-        // liblinear for Java doesn't like 0 index features due to bug, hence the "+ 1"
-        features[i[0]++] = new FeatureNode(Math.toIntExact(elementIndex + 1), value);
-      });
+      _featureIndexChunks.get(lastChunk)[_chunkPosition] = featureIndex;
+      _featureValueChunks.get(lastChunk)[_chunkPosition] = value;
+      _chunkPosition++;
+      _featureCount++;
+      _maxFeatureIndex = Math.max(_maxFeatureIndex, featureIndex);
+    }
 
-      if (featureVectorSize > 0) {
-        _maxFeatureIndex = Math.max(_maxFeatureIndex, features[Math.toIntExact(featureVectorSize - 1)].getIndex());
-      }
+    @Override
+    public void process(Number weight, L label, DenseVector featureVector) {
+      long previousFeatureCount = _featureCount;
+      featureVector.forEach(_featureAppender);
+      _exampleFeatureCounts.add(Math.toIntExact(_featureCount - previousFeatureCount));
 
       int labelID = _labelIDMap.getInt(label);
       if (labelID < 0) { // marker value for "not there"
@@ -109,25 +131,81 @@ public class LiblinearClassification<L> extends
         _labelIDMap.put(label, labelID);
       }
 
-      _exampleFeatures.add(features);
       _exampleLabels.add(labelID);
     }
 
+    /**
+     * Converts the stored examples to liblinear's representation, releasing each chunk of primitives once all of its
+     * features have been converted.
+     *
+     * Liblinear does not modify the features of the problem it trains on, which allows us to share a single
+     * {@link FeatureNode} for all features with a given index and a value of 1 (common, e.g. for indicator features)
+     * rather than creating a new one each time; the bias feature is likewise shared by all examples.
+     *
+     * @return the features of each example
+     */
+    Feature[][] createProblemFeatures() {
+      final boolean hasBias = _owner.getBias() >= 0;
+      final Feature biasFeature = hasBias ? new FeatureNode(_maxFeatureIndex + 1, _owner.getBias()) : null;
+      final FeatureNode[] unitFeatures = new FeatureNode[_maxFeatureIndex + 1];
+
+      Feature[][] result = new Feature[_exampleFeatureCounts.size()][];
+      int chunk = -1;
+      int[] indices = null;
+      double[] values = null;
+      int position = 0;
+      for (int i = 0; i < result.length; i++) {
+        int featureCount = _exampleFeatureCounts.getInt(i);
+        Feature[] features = new Feature[featureCount + (hasBias ? 1 : 0)];
+
+        for (int j = 0; j < featureCount; j++, position++) {
+          if (indices == null || position == indices.length) {
+            // move to the next chunk, releasing the one we've finished with
+            if (chunk >= 0) {
+              _featureIndexChunks.set(chunk, null);
+              _featureValueChunks.set(chunk, null);
+            }
+            chunk++;
+            indices = _featureIndexChunks.get(chunk);
+            values = _featureValueChunks.get(chunk);
+            position = 0;
+          }
+
+          int index = indices[position];
+          double value = values[position];
+          if (value == 1) {
+            if (unitFeatures[index] == null) {
+              unitFeatures[index] = new FeatureNode(index, 1);
+            }
+            features[j] = unitFeatures[index];
+          } else {
+            features[j] = new FeatureNode(index, value);
+          }
+        }
+
+        if (hasBias) {
+          features[featureCount] = biasFeature;
+        }
+        result[i] = features;
+      }
+
+      // release the last chunk (and any others) before training
+      _featureIndexChunks.clear();
+      _featureValueChunks.clear();
+      _chunkPosition = 0;
+      _featureCount = 0;
+
+      return result;
+    }
+
     @Override
     public PreparerResult<Prepared<L>> finish() {
-      _problem.l = _exampleFeatures.size(); // number of examples
+      _problem.l = _exampleLabels.size(); // number of examples
       _problem.n = _maxFeatureIndex + (_owner.getBias() >= 0 ? 1 : 0); // note that feature indices are 1-based
 
-      _problem.x = _exampleFeatures.toArray(new Feature[0][]);
+      _problem.x = createProblemFeatures();
       _problem.y = _exampleLabels.toDoubleArray();
 
-      if (_owner.getBias() >= 0) {
-        Feature biasFeature = new FeatureNode(_maxFeatureIndex + 1, _owner.getBias());
-        for (Feature[] features : _problem.x) {
-          features[features.length - 1] = biasFeature;
-        }
-      }
-
       Parameter parameter =
           new Parameter(_owner.getSolverType(), _owner.getLikelihoodVersusRegularizationLossMultiplier(),
               _owner.getEpsilon(), _owner.getSVREpsilonLoss());
@@ -155,6 +233,9 @@ public class LiblinearClassification<L> extends
     private final L[] _labels; // Object[] masquerading as L[]: the "naked" array must not leak from this class
     private final boolean _isBinary;
 
+    @IgnoredByValueEquality
+    private transient volatile double[] _decisionWeights = null;
+
     /**
      * Gets the weights associated with a particular label.  Note that, for binary problems (two labels), the weights
      * for one label are simply the negative values of the weights for the other.
@@ -306,28 +387,142 @@ public class LiblinearClassification<L> extends
       }
     }
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public DiscreteDistribution<L> apply(Number weight, L unused, DenseVector featureVector) {
-      ArrayList<Feature> features = new ArrayList<>(Math.toIntExact(featureVector.size64() + (_bias >= 0 ? 1 : 0)));
-      featureVector.forEach((elementIndex, value) -> {
-        long featureID = elementIndex + 1;
-        if (featureID <= _featureCount) {
-          features.add(new FeatureNode(Math.toIntExact(featureID), value));
+    /**
+     * Gets the model's weights as a flat array laid out in the same way as liblinear's own: the weight of the
+     * (1-based) feature {@code f} for decision value {@code d} is at index {@code (f - 1) * decisionValueCount + d}.
+     * The array is extracted from the model the first time it's needed.
+     *
+     * @return the weights used to calculate the model's decision values
+     */
+    private double[] getDecisionWeights() {
+      if (_decisionWeights == null) {
+        synchronized (this) {
+          if (_decisionWeights == null) {
+            int decisionValueCount = getDecisionValueCount();
+            int weightedFeatureCount = _featureCount + (_bias >= 0 ? 1 : 0); // the bias is the last feature
+            double[] decisionWeights = new double[weightedFeatureCount * decisionValueCount];
+            for (int i = 0; i < weightedFeatureCount; i++) {
+              for (int j = 0; j < decisionValueCount; j++) {
+                decisionWeights[i * decisionValueCount + j] = _model.getDecfunCoef(i + 1, j);
+              }
+            }
+            _decisionWeights = decisionWeights;
+          }
+        }
+      }
+      return _decisionWeights;
+    }
+
+    /**
+     * @return the number of decision values calculated by the model for each example (one for binary models, otherwise
+     *         one per class)
+     */
+    private int getDecisionValueCount() {
+      return _model.getNrClass() == 2 ? 1 : _model.getNrClass();
+    }
+
+    /**
+     * Accumulates the decision values for an example as the elements of its feature vector are visited.  An instance is
+     * kept for each thread so that neither this consumer nor its scratch buffer needs to be allocated per example.
+     */
+    private static class DecisionValueAccumulator implements VectorElementConsumer {
+      // used to store the decision values of binary models, which require no new array for their result
+      final double[] _binaryScratch = new double[2];
+
+      private double[] _decisionWeights;
+      private int _decisionValueCount;
+      private int _featureCount;
+      private double[] _decisionValues;
+
+      void reset(double[] decisionWeights, int decisionValueCount, int featureCount, double[] decisionValues) {
+        _decisionWeights = decisionWeights;
+        _decisionValueCount = decisionValueCount;
+        _featureCount = featureCount;
+        _decisionValues = decisionValues;
+        Arrays.fill(decisionValues, 0, decisionValueCount, 0);
+      }
+
+      @Override
+      public void consume(long index, double value) {
+        // liblinear feature IDs are 1-based; features not seen during training have no weights and are ignored
+        if (index < _featureCount) {
+          int offset = (int) index * _decisionValueCount;
+          for (int i = 0; i < _decisionValueCount; i++) {
+            _decisionValues[i] += _decisionWeights[offset + i] * value;
+          }
         }
-      });
+      }
+    }
+
+    private static final ThreadLocal<DecisionValueAccumulator> DECISION_VALUE_ACCUMULATOR =
+        ThreadLocal.withInitial(DecisionValueAccumulator::new);
+
+    /**
+     * Calculates the predicted distribution for an example.  This produces exactly the same probabilities as
+     * {@link Linear#predictProbability(Model, Feature[], double[])}, but computes the dot products directly from the
+     * model's weights and the feature vector's elements, without allocating liblinear {@link Feature}s.
+     *
+     * @param accumulator the (thread-local) accumulator to use
+     * @param decisionWeights the model's weights, as returned by {@link #getDecisionWeights()}
+     * @param featureVector the features of the example
+     * @return the predicted distribution
+     */
+    @SuppressWarnings("unchecked")
+    private DiscreteDistribution<L> predict(DecisionValueAccumulator accumulator, double[] decisionWeights,
+        DenseVector featureVector) {
+      final int classCount = _model.getNrClass();
+      final int decisionValueCount = getDecisionValueCount();
+
+      // the probabilities array needs room for at least two values for binary models
+      final double[] probabilities =
+          _isBinary ? accumulator._binaryScratch : new double[Math.max(_labels.length, decisionValueCount)];
+
+      accumulator.reset(decisionWeights, decisionValueCount, _featureCount, probabilities);
+      featureVector.forEach(accumulator);
       if (_bias >= 0) {
-        features.add(new FeatureNode(_featureCount + 1, _bias));
+        int offset = _featureCount * decisionValueCount;
+        for (int i = 0; i < decisionValueCount; i++) {
+          probabilities[i] += decisionWeights[offset + i] * _bias;
+        }
       }
 
-      double[] probabilities = new double[_labels.length];
-      Linear.predictProbability(_model, features.toArray(new Feature[0]), probabilities);
+      // logistic function, followed by normalization, exactly as per liblinear
+      for (int i = 0; i < decisionValueCount; i++) {
+        probabilities[i] = 1 / (1 + Math.exp(-probabilities[i]));
+      }
+      if (classCount == 2) {
+        probabilities[1] = 1. - probabilities[0];
+      } else {
+        double sum = 0;
+        for (int i = 0; i < classCount; i++) {
+          sum += probabilities[i];
+        }
+        for (int i = 0; i < classCount; i++) {
+          probabilities[i] = probabilities[i] / sum;
+        }
+      }
 
       if (_isBinary) {
         return (DiscreteDistribution<L>) new BinaryDistribution(
             _labels[0].equals(Boolean.TRUE) ? probabilities[0] : 1 - probabilities[0]);
       } else {
-        return new ArrayDiscreteDistribution<>(_labels, probabilities);
+        return ArrayDiscreteDistribution.wrap(_labels.clone(),
+            probabilities.length == _labels.length ? probabilities : Arrays.copyOf(probabilities, _labels.length));
+      }
+    }
+
+    @Override
+    protected DiscreteDistribution<L> apply(Void executionCache, Number weight, L unused, DenseVector featureVector) {
+      return predict(DECISION_VALUE_ACCUMULATOR.get(), getDecisionWeights(), featureVector);
+    }
+
+    @Override
+    protected void applyAll(Void executionCache, List<? extends Number> weights, List<? extends L> labels,
+        List<? extends DenseVector> featureVectors, List<? super DiscreteDistribution<L>> results) {
+      DecisionValueAccumulator accumulator = DECISION_VALUE_ACCUMULATOR.get();
+      double[] decisionWeights = getDecisionWeights();
+      for (int i = 0; i < featureVectors.size(); i++) {
+        results.add(predict(accumulator, decisionWeights, featureVectors.get(i)));
       }
     }
   }
@@ -1,12 +1,18 @@
 package com.linkedin.dagli.liblinear;
 
+import com.jeffreypasternack.liblinear.Feature;
+import com.jeffreypasternack.liblinear.FeatureNode;
+import com.jeffreypasternack.liblinear.Linear;
 import com.linkedin.dagli.dag.LocalDAGExecutor;
+import com.linkedin.dagli.math.distribution.DiscreteDistribution;
 import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
 import com.linkedin.dagli.math.vector.Vector;
 import com.linkedin.dagli.placeholder.Placeholder;
+import com.linkedin.dagli.preparer.PreparerContext;
 import com.linkedin.dagli.tester.Tester;
 import com.linkedin.dagli.tuple.Tuple2;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
@@ -104,6 +110,103 @@ public class LiblinearClassifierTest {
       assertEquals(pair.get0(), prepared.apply(1, pair.get0(), pair.get1()).max().get().getLabel());
     }
 
+    // check that our predictions (both for individual examples and in minibatches) match liblinear's own
+    List<DiscreteDistribution<Integer>> batchResults = new ArrayList<>(evalData.size());
+    prepared.internalAPI()
+        .applyAllUnsafe(null, evalData.size(),
+            Arrays.asList(evalData.stream().map(whatever -> 1).collect(Collectors.toList()),
+                evalData.stream().map(Tuple2::get0).collect(Collectors.toList()),
+                evalData.stream().map(Tuple2::get1).collect(Collectors.toList())), batchResults);
+
+    for (int i = 0; i < evalData.size(); i++) {
+      DenseFloatArrayVector vector = evalData.get(i).get1();
+      double[] expected = predictWithLiblinear(prepared, vector);
+      DiscreteDistribution<Integer> result = prepared.apply(1, null, vector);
+      for (int j = 0; j < prepared.getLabels().size(); j++) {
+        assertEquals(expected[j], result.get(prepared.getLabels().get(j)), 1e-12);
+        assertEquals(expected[j], batchResults.get(i).get(prepared.getLabels().get(j)), 1e-12);
+      }
+    }
+
     return prepared;
   }
+
+  // converts the packed examples stored by the preparer back into liblinear's representation
+  private static Feature[][] packAndUnpack(double bias, List<DenseFloatArrayVector> vectors) {
+    LiblinearClassification.Preparer<Integer> preparer = new LiblinearClassification.Preparer<>(
+        PreparerContext.builder(vectors.size()).setExecutor(new LocalDAGExecutor()).build(),
+        new LiblinearClassification<Integer>().withBias(bias));
+    for (DenseFloatArrayVector vector : vectors) {
+      preparer.process(1, 0, vector);
+    }
+    return preparer.createProblemFeatures();
+  }
+
+  private static void assertFeatures(Feature[] features, double... indicesAndValues) {
+    assertEquals(indicesAndValues.length / 2, features.length);
+    for (int i = 0; i < features.length; i++) {
+      assertEquals((int) indicesAndValues[2 * i], features[i].getIndex());
+      assertEquals(indicesAndValues[2 * i + 1], features[i].getValue());
+    }
+  }
+
+  @Test
+  public void testPackedExamples() {
+    List<DenseFloatArrayVector> vectors = Arrays.asList(
+        DenseFloatArrayVector.wrap(0, 0, 0), // no features
+        DenseFloatArrayVector.wrap(1, 0, 2.5f),
+        DenseFloatArrayVector.wrap(0, 1, 0));
+
+    // with a bias, the bias feature follows the highest feature index (3, since liblinear's indices are 1-based)
+    Feature[][] withBias = packAndUnpack(2, vectors);
+    assertEquals(3, withBias.length);
+    assertFeatures(withBias[0], 4, 2);
+    assertFeatures(withBias[1], 1, 1, 3, 2.5, 4, 2);
+    assertFeatures(withBias[2], 2, 1, 4, 2);
+
+    Feature[][] withoutBias = packAndUnpack(-1, vectors);
+    assertFeatures(withoutBias[0]);
+    assertFeatures(withoutBias[1], 1, 1, 3, 2.5);
+    assertFeatures(withoutBias[2], 2, 1);
+  }
+
+  @Test
+  public void testPackedExamplesAcrossChunks() {
+    // enough features to span several chunks, with examples that straddle the chunk boundaries
+    Random random = new Random(0);
+    List<DenseFloatArrayVector> vectors = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      float[] values = new float[10];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = random.nextInt(3) == 0 ? 0 : random.nextInt(4);
+      }
+      vectors.add(DenseFloatArrayVector.wrap(values));
+    }
+
+    Feature[][] features = packAndUnpack(-1, vectors);
+    assertEquals(vectors.size(), features.length);
+    for (int i = 0; i < vectors.size(); i++) {
+      ArrayList<Double> expected = new ArrayList<>();
+      vectors.get(i).forEach((index, value) -> {
+        expected.add(index + 1.0);
+        expected.add(value);
+      });
+      assertFeatures(features[i], expected.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+  }
+
+  private static double[] predictWithLiblinear(LiblinearClassification.Prepared<Integer> prepared,
+      DenseFloatArrayVector vector) {
+    ArrayList<Feature> features = new ArrayList<>();
+    vector.forEach((index, value) -> {
+      if (index < prepared._featureCount) {
+        features.add(new FeatureNode(Math.toIntExact(index + 1), value));
+      }
+    });
+    features.add(new FeatureNode(prepared._featureCount + 1, prepared._bias));
+
+    double[] probabilities = new double[Math.max(2, prepared.getLabels().size())];
+    Linear.predictProbability(prepared.getModel(), features.toArray(new Feature[0]), probabilities);
+    return probabilities;
+  }
 }
@@ -1,7 +1,9 @@
 package com.linkedin.dagli.objectio.avro;
 
+import com.linkedin.dagli.objectio.LimitedIterator;
 import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.util.invariant.Arguments;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
@@ -32,6 +34,7 @@ public class AvroReader<T> implements ObjectReader<T> {
 
   private final List<Path> _paths;
   private long _count = -1; // the cached number of records available, or -1 meaning "not yet known"
+  private long[] _fileCounts = null; // the cached number of records in each file, or null if not yet known
   private final DatumReader<T> _datumReader;
 
   /**
@@ -93,31 +96,53 @@ public class AvroReader<T> implements ObjectReader<T> {
    */
   long size64(boolean useCountMetadataOnly, long defaultIfNoMetadata) {
     if (_count < 0) {
-      _count = _paths.stream().mapToLong(path -> {
-        try {
-          DataFileReader<T> dataFileReader = new DataFileReader<T>(path.toFile(), _datumReader);
-          String countString = dataFileReader.getMetaString(COUNT_FIELD);
-          if (countString != null) {
-            return Long.parseLong(countString);
-          } else if (useCountMetadataOnly) {
-            // no metadata is available, so assume a size of defaultIfNoMetadata for this file
-            return defaultIfNoMetadata;
-          }
-
-          long size = 0;
-          while (dataFileReader.hasNext()) {
-            size += dataFileReader.getBlockCount();
-            dataFileReader.nextBlock();
-          }
-          return size;
-        } catch (IOException e) {
-          throw new UncheckedIOException(e);
-        }
-      }).sum();
+      _count = _paths.stream().mapToLong(path -> fileSize64(path, useCountMetadataOnly, defaultIfNoMetadata)).sum();
     }
     return _count;
   }
 
+  /**
+   * Calculates the number of records in a single Avro file.
+   *
+   * @param path the path of the file
+   * @param useCountMetadataOnly if true, only the "count" metadata field is used to compute the result
+   * @param defaultIfNoMetadata if useCountMetadataOnly is true and the file has no "count" metadata field, the number
+   *                            of records that will be assumed
+   * @return the number of records in the file (or an approximation, depending on useCountMetadataOnly)
+   */
+  private long fileSize64(Path path, boolean useCountMetadataOnly, long defaultIfNoMetadata) {
+    try (DataFileReader<T> dataFileReader = new DataFileReader<T>(path.toFile(), _datumReader)) {
+      String countString = dataFileReader.getMetaString(COUNT_FIELD);
+      if (countString != null) {
+        return Long.parseLong(countString);
+      } else if (useCountMetadataOnly) {
+        // no metadata is available, so assume a size of defaultIfNoMetadata for this file
+        return defaultIfNoMetadata;
+      }
+
+      long size = 0;
+      while (dataFileReader.hasNext()) {
+        size += dataFileReader.getBlockCount();
+        dataFileReader.nextBlock();
+      }
+      return size;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Gets the (exact) number of records in each file, calculating and caching these counts if needed.
+   *
+   * @return the number of records in each file, in the same order as the files are read
+   */
+  private synchronized long[] getFileCounts() {
+    if (_fileCounts == null) {
+      _fileCounts = _paths.stream().mapToLong(path -> fileSize64(path, false, 0)).toArray();
+    }
+    return _fileCounts;
+  }
+
   /**
    * Iterates over the records in one or more Avro files.
    *
@@ -127,6 +152,7 @@ public class AvroReader<T> implements ObjectReader<T> {
     final Iterator<Path> _pathIterator;
     final DatumReader<T> _datumReader;
     DataFileReader<T> _dataFileReader = null;
+    long _blockRemaining = 0; // the number of records remaining in the current block of the current file
 
     /**
      * Advances to the next file in the set of files backing this iterator.
@@ -137,6 +163,7 @@ public class AvroReader<T> implements ObjectReader<T> {
           _dataFileReader.close();
         }
         _dataFileReader = new DataFileReader<T>(_pathIterator.next().toFile(), _datumReader);
+        _blockRemaining = 0;
       } catch (IOException e) {
         throw new UncheckedIOException(e);
       }
@@ -175,9 +202,40 @@ public class AvroReader<T> implements ObjectReader<T> {
       if (!hasNext()) {
         throw new NoSuchElementException();
       }
+      startBlockIfNeeded();
+      _blockRemaining--;
       return _dataFileReader.next();
     }
 
+    /**
+     * If the previous block has been exhausted, notes the number of records in the (newly-loaded) current block.  Must
+     * be called after {@link #hasNext()} has returned true.
+     */
+    private void startBlockIfNeeded() {
+      if (_blockRemaining == 0) {
+        _blockRemaining = _dataFileReader.getBlockCount();
+      }
+    }
+
+    @Override
+    public long skip(long toSkip) {
+      long skipped = 0;
+      while (skipped < toSkip && hasNext()) {
+        startBlockIfNeeded();
+        if (_blockRemaining == _dataFileReader.getBlockCount() && _blockRemaining <= toSkip - skipped) {
+          // skip the entire block without decoding its records
+          _dataFileReader.nextBlock();
+          skipped += _blockRemaining;
+          _blockRemaining = 0;
+        } else {
+          _dataFileReader.next();
+          _blockRemaining--;
+          skipped++;
+        }
+      }
+      return skipped;
+    }
+
     @Override
     public void close() {
       try {
@@ -199,6 +257,40 @@ public class AvroReader<T> implements ObjectReader<T> {
     return new AvroIterator<>(_paths.iterator(), _datumReader);
   }
 
+  /**
+   * Returns an iterator over the records in the range {@code [startIndex, endIndex)}.  Files preceding the one
+   * containing {@code startIndex} are not read at all (if their record counts are not stored in their metadata, they
+   * will be counted once and the counts cached), and whole blocks of records within that file are skipped without
+   * being decoded.
+   *
+   * @param startIndex the index of the first record to be iterated (inclusive)
+   * @param endIndex the index of the end of the range (exclusive)
+   * @return an iterator over the specified range of records
+   */
+  @Override
+  public ObjectIterator<T> iterator(long startIndex, long endIndex) {
+    Arguments.check(0 <= startIndex && startIndex <= endIndex, "Invalid iteration range");
+    if (startIndex == endIndex) {
+      return ObjectIterator.empty();
+    }
+
+    long[] fileCounts = getFileCounts();
+    int firstFile = 0;
+    long offset = startIndex;
+    while (firstFile < fileCounts.length - 1 && offset >= fileCounts[firstFile]) {
+      offset -= fileCounts[firstFile++];
+    }
+
+    AvroIterator<T> iterator = new AvroIterator<>(_paths.subList(firstFile, _paths.size()).iterator(), _datumReader);
+    iterator.skip(offset);
+    return new LimitedIterator<>(iterator, endIndex - startIndex);
+  }
+
+  @Override
+  public boolean hasEfficientRangeIterators() {
+    return true;
+  }
+
   @Override
   public void close() { }
 }
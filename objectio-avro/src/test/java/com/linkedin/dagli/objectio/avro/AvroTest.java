@@ -142,6 +142,16 @@ public class AvroTest {
         }
         Assertions.assertFalse(iter.hasNext());
       }
+
+      // iterate over a range spanning two files, starting partway through a file
+      long rangeStart = 2 * RECORDS_PER_FILE_AT_SCALE + 12345;
+      long rangeEnd = 3 * RECORDS_PER_FILE_AT_SCALE + 100;
+      try (ObjectIterator<TestAvroSchema> iter = reader.iterator(rangeStart, rangeEnd)) {
+        for (long i = rangeStart; i < rangeEnd; i++) {
+          Assertions.assertEquals(i, iter.next().created);
+        }
+        Assertions.assertFalse(iter.hasNext());
+      }
     }
 
     // cleanup temp files/directory (I don't trust deleteOnExit where directories are concerned)
@@ -2,6 +2,7 @@ package com.linkedin.dagli.objectio.biglist;
 
 import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.util.invariant.Arguments;
 import it.unimi.dsi.fastutil.BigArrays;
 import it.unimi.dsi.fastutil.BigList;
 import it.unimi.dsi.fastutil.objects.ObjectBigList;
@@ -32,7 +33,8 @@ public class BigListReader<T> implements ObjectReader<T> {
    * @param <T> the type of element to iterate upon
    */
   public static class Iterator<T> implements ObjectIterator<T> {
-    private long _position = 0;
+    private long _position;
+    private final long _end; // the (exclusive) end of the iterated range, or -1 to iterate to the end of the list
     private final BigList<T> _list;
 
     /**
@@ -41,19 +43,40 @@ public class BigListReader<T> implements ObjectReader<T> {
      * @param list the BigList whose elements are to be iterated
      */
     public Iterator(BigList<T> list) {
+      this(list, 0, -1);
+    }
+
+    /**
+     * Creates a new instance that will iterate over a range of the list's elements.
+     *
+     * @param list the BigList whose elements are to be iterated
+     * @param startIndex the index of the first element to be iterated (inclusive)
+     * @param endIndex the index of the end of the range (exclusive), or -1 to iterate to the end of the list (as it
+     *                 exists at the time of iteration)
+     */
+    public Iterator(BigList<T> list, long startIndex, long endIndex) {
       _list = list;
+      _position = startIndex;
+      _end = endIndex;
+    }
+
+    /**
+     * @return the (exclusive) index at which iteration ends
+     */
+    private long end() {
+      return _end < 0 ? _list.size64() : _end;
     }
 
     @Override
     public long skip(long toSkip) {
-      toSkip = Math.min(toSkip, _list.size64() - this._position);
+      toSkip = Math.min(toSkip, end() - this._position);
       this._position += toSkip;
       return toSkip;
     }
 
     @Override
     public boolean hasNext() {
-      return this._position < _list.size64();
+      return this._position < end();
     }
 
     @Override
@@ -73,7 +96,7 @@ public class BigListReader<T> implements ObjectReader<T> {
 
     @Override
     public int next(Object[] destination, int offset, int count) {
-      count = (int) Math.min(_list.size64() - _position, count);
+      count = (int) Math.min(end() - _position, count);
 
       if (destination.length <= BigArrays.SEGMENT_SIZE && _list instanceof ObjectBigList) {
         ((ObjectBigList) _list).getElements(_position, BigArrays.wrap(destination), offset, count);
@@ -100,6 +123,22 @@ public class BigListReader<T> implements ObjectReader<T> {
     return new Iterator<>(_list);
   }
 
+  @Override
+  public ObjectIterator<T> iterator(long startIndex, long endIndex) {
+    Arguments.check(0 <= startIndex && startIndex <= endIndex && endIndex <= _list.size64(), "Invalid iteration range");
+    return new Iterator<>(_list, startIndex, endIndex);
+  }
+
+  @Override
+  public boolean hasEfficientRangeIterators() {
+    return true;
+  }
+
+  @Override
+  public boolean hasConstantTimeSkip() {
+    return true;
+  }
+
   @Override
   public void close() { }
 
@@ -1,7 +1,9 @@
 package com.linkedin.dagli.objectio.biglist;
 
+import com.linkedin.dagli.objectio.ObjectIterator;
 import com.linkedin.dagli.objectio.testing.Tester;
 import it.unimi.dsi.fastutil.BigList;
+import it.unimi.dsi.fastutil.doubles.DoubleBigList;
 import it.unimi.dsi.fastutil.objects.ObjectBigArrayBigList;
 import it.unimi.dsi.fastutil.objects.ObjectBigLists;
 import java.util.Arrays;
@@ -23,4 +25,39 @@ public class BigListTest {
     Assertions.assertEquals(biglist.size64(), 1);
     Assertions.assertEquals(biglist.get(0), "yolo");
   }
+
+  @Test
+  public void testRangeIterator() {
+    BigListReader<Integer> reader =
+        new BigListReader<>(new ObjectBigArrayBigList<>(Arrays.asList(0, 1, 2, 3, 4, 5).iterator()));
+    Assertions.assertTrue(reader.hasEfficientRangeIterators());
+    Assertions.assertTrue(reader.hasConstantTimeSkip());
+
+    try (ObjectIterator<Integer> iterator = reader.iterator(2, 5)) {
+      Integer[] buffer = new Integer[4];
+      Assertions.assertEquals(3, iterator.next(buffer, 0, 4));
+      Assertions.assertArrayEquals(new Integer[] { 2, 3, 4, null }, buffer);
+      Assertions.assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testPrimitiveBigListWriter() {
+    Tester.testWriter(new PrimitiveBigListWriter<>());
+    Tester.testWriter(new PrimitiveBigListWriter<>(10), Arrays.asList(1.0, 2.0, 3.0, 4.0, 5.0));
+    Tester.testWriter(new PrimitiveBigListWriter<>(), Arrays.asList(true, false, true));
+
+    // doubles are stored as primitives until a value of another type is written
+    PrimitiveBigListWriter<Object> writer = new PrimitiveBigListWriter<>();
+    writer.writeAll(new Object[] { 1.0, 2.0 });
+    writer.write(3.0);
+    Assertions.assertTrue((Object) writer.createReader().toBigList() instanceof DoubleBigList);
+    writer.write("four");
+    writer.writeAll(new Object[] { null, 5.0 });
+    Assertions.assertFalse((Object) writer.createReader().toBigList() instanceof DoubleBigList);
+    Tester.testReader(writer.createReader(), Arrays.asList(1.0, 2.0, 3.0, "four", null, 5.0));
+
+    // a mix of numeric types is stored as objects
+    Tester.testWriter(new PrimitiveBigListWriter<>(), Arrays.asList(1, 2L, 3, 4L));
+  }
 }
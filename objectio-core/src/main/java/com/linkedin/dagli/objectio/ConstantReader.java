@@ -1,5 +1,6 @@
 package com.linkedin.dagli.objectio;
 
+import com.linkedin.dagli.util.invariant.Arguments;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 
@@ -36,6 +37,22 @@ public class ConstantReader<T> implements ObjectReader<T> {
     return new Iterator<>(_obj, _count);
   }
 
+  @Override
+  public ObjectIterator<T> iterator(long startIndex, long endIndex) {
+    Arguments.check(0 <= startIndex && startIndex <= endIndex && endIndex <= _count, "Invalid iteration range");
+    return new Iterator<>(_obj, endIndex - startIndex);
+  }
+
+  @Override
+  public boolean hasEfficientRangeIterators() {
+    return true;
+  }
+
+  @Override
+  public boolean hasConstantTimeSkip() {
+    return true;
+  }
+
   @Override
   public void close() {
     _obj = null;
@@ -2,6 +2,8 @@ package com.linkedin.dagli.objectio;
 
 import com.linkedin.dagli.util.closeable.Closeables;
 import com.linkedin.dagli.util.collection.Iterables;
+import java.util.List;
+import java.util.RandomAccess;
 
 
 /**
@@ -54,6 +56,28 @@ public class IterableReader<T> implements ObjectReader<T> {
     return new Iterator<T>(_iterable.iterator());
   }
 
+  /**
+   * If the wrapped iterable is a {@link RandomAccess} {@link List}, returns an iterator over the corresponding sublist;
+   * otherwise, the default (skipping) implementation is used.
+   *
+   * @param startIndex the index of the first element to be iterated (inclusive)
+   * @param endIndex the index of the end of the range (exclusive)
+   * @return an iterator over the specified range of elements
+   */
+  @Override
+  public ObjectIterator<T> iterator(long startIndex, long endIndex) {
+    if (hasEfficientRangeIterators()) {
+      return new Iterator<T>(
+          ((List<? extends T>) _iterable).subList(Math.toIntExact(startIndex), Math.toIntExact(endIndex)).iterator());
+    }
+    return ObjectReader.super.iterator(startIndex, endIndex);
+  }
+
+  @Override
+  public boolean hasEfficientRangeIterators() {
+    return _iterable instanceof List && _iterable instanceof RandomAccess;
+  }
+
   /**
    * Closing has no effect on the underlying collection.
    */
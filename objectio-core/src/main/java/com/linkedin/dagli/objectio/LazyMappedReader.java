@@ -43,10 +43,19 @@ class LazyMappedReader<T> implements ObjectReader<T> {
    * An {@link ObjectIterator} that transforms the elements of another, wrapped iterator.
    */
   private class Iterator implements ObjectIterator<T> {
-    @SuppressWarnings("unchecked") // safe because the iterator is "read only"--we only pull values out of it
-    private final ObjectIterator<Object> _wrappedIterator = (ObjectIterator<Object>) _wrapped.iterator();
+    private final ObjectIterator<Object> _wrappedIterator;
     private Object[] _buffer = ArraysEx.EMPTY_OBJECT_ARRAY; // expanded as needed
 
+    /**
+     * Creates a new instance that will transform the elements of the provided iterator.
+     *
+     * @param wrappedIterator an iterator over (some of) the elements of the wrapped reader
+     */
+    @SuppressWarnings("unchecked") // safe because the iterator is "read only"--we only pull values out of it
+    Iterator(ObjectIterator<?> wrappedIterator) {
+      _wrappedIterator = (ObjectIterator<Object>) wrappedIterator;
+    }
+
     @Override
     public long skip(long toSkip) {
       return _wrappedIterator.skip(toSkip);
@@ -104,7 +113,22 @@ class LazyMappedReader<T> implements ObjectReader<T> {
 
   @Override
   public ObjectIterator<T> iterator() {
-    return new Iterator();
+    return new Iterator(_wrapped.iterator());
+  }
+
+  @Override
+  public ObjectIterator<T> iterator(long startIndex, long endIndex) {
+    return new Iterator(_wrapped.iterator(startIndex, endIndex));
+  }
+
+  @Override
+  public boolean hasEfficientRangeIterators() {
+    return _wrapped.hasEfficientRangeIterators();
+  }
+
+  @Override
+  public boolean hasConstantTimeSkip() {
+    return _wrapped.hasConstantTimeSkip();
   }
 
   @Override
@@ -0,0 +1,79 @@
+package com.linkedin.dagli.objectio;
+
+import java.util.NoSuchElementException;
+
+
+/**
+ * An {@link ObjectIterator} that returns no more than a fixed number of elements from a wrapped iterator.
+ *
+ * @param <T> the type of element iterated
+ */
+public class LimitedIterator<T> implements ObjectIterator<T> {
+  private final ObjectIterator<T> _wrapped;
+  private long _remaining;
+
+  /**
+   * Creates a new instance that will return at most {@code limit} elements from the wrapped iterator.  Closing this
+   * instance also closes the wrapped iterator.
+   *
+   * @param wrapped the iterator to wrap
+   * @param limit the maximum number of elements to return
+   */
+  public LimitedIterator(ObjectIterator<T> wrapped, long limit) {
+    _wrapped = wrapped;
+    _remaining = limit;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return _remaining > 0 && _wrapped.hasNext();
+  }
+
+  @Override
+  public T next() {
+    if (_remaining <= 0) {
+      throw new NoSuchElementException();
+    }
+    T res = _wrapped.next();
+    _remaining--;
+    return res;
+  }
+
+  @Override
+  public long skip(long toSkip) {
+    long skipped = _wrapped.skip(Math.min(toSkip, _remaining));
+    _remaining -= skipped;
+    return skipped;
+  }
+
+  @Override
+  public int tryNextAvailable(Object[] destination, int offset, int count) {
+    if (_remaining <= 0) {
+      return -1;
+    }
+    int read = _wrapped.tryNextAvailable(destination, offset, (int) Math.min(count, _remaining));
+    if (read > 0) {
+      _remaining -= read;
+    }
+    return read;
+  }
+
+  @Override
+  public int nextAvailable(Object[] destination, int offset, int count) {
+    int read = _remaining <= 0 ? 0 : _wrapped.nextAvailable(destination, offset, (int) Math.min(count, _remaining));
+    _remaining -= read;
+    return read;
+  }
+
+  @Override
+  public int next(Object[] destination, int offset, int count) {
+    int read = _remaining <= 0 ? 0 : _wrapped.next(destination, offset, (int) Math.min(count, _remaining));
+    _remaining -= read;
+    return read;
+  }
+
+  @Override
+  public void close() {
+    _wrapped.close();
+  }
+}
@@ -50,6 +50,48 @@ public interface ObjectReader<T> extends Iterable<T>, AutoCloseable, Size64 {
   @Override
   ObjectIterator<T> iterator();
 
+  /**
+   * Gets an iterator over the elements of this reader in the range {@code [startIndex, endIndex)}.  Iterators over
+   * disjoint ranges are independent of one another and may be used to read a reader's elements in parallel.
+   *
+   * The default implementation obtains a new {@link #iterator()}, skips the first {@code startIndex} elements, and then
+   * limits the iterator to {@code endIndex - startIndex} elements; readers able to start iterating at an arbitrary
+   * position more cheaply should override this method (and {@link #hasEfficientRangeIterators()}).
+   *
+   * @param startIndex the index of the first element to be iterated (inclusive)
+   * @param endIndex the index of the end of the range (exclusive); must not exceed {@link #size64()}
+   * @return an iterator over the specified range of elements
+   */
+  default ObjectIterator<T> iterator(long startIndex, long endIndex) {
+    Arguments.check(0 <= startIndex && startIndex <= endIndex, "Invalid iteration range");
+    ObjectIterator<T> iterator = iterator();
+    iterator.skip(startIndex);
+    return new LimitedIterator<>(iterator, endIndex - startIndex);
+  }
+
+  /**
+   * Returns true if {@link #iterator(long, long)} can begin iterating at its starting index without reading (or at
+   * least without deserializing) all the preceding elements, such that reading disjoint ranges in parallel is cheaper
+   * than reading them sequentially.  The default implementation returns false.
+   *
+   * @return whether this reader provides efficient range iterators
+   */
+  default boolean hasEfficientRangeIterators() {
+    return false;
+  }
+
+  /**
+   * Returns true if the iterators returned by {@link #iterator(long, long)} can {@link ObjectIterator#skip(long)} any
+   * number of elements in constant time (e.g. because the elements are held in memory in a random-access list), such
+   * that a single iterator may cheaply read non-contiguous parts of its range.  The default implementation returns
+   * false.
+   *
+   * @return whether the range iterators of this reader skip elements in constant time
+   */
+  default boolean hasConstantTimeSkip() {
+    return false;
+  }
+
   // Override this method to ensure iterator is closed
   @Override
   default void forEach(Consumer<? super T> action) {
@@ -2,6 +2,8 @@ package com.linkedin.dagli.objectio;
 
 import com.linkedin.dagli.util.closeable.Closeables;
 import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -37,6 +39,39 @@ public class ObjectReadersTest {
     Assertions.assertEquals(2, splitReaders[1].iterator().next());
   }
 
+  @Test
+  public void rangeIteratorTest() {
+    List<Integer> values = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    ObjectReader<Integer> arrayListReader = new IterableReader<>(values);
+    ObjectReader<Integer> linkedListReader = new IterableReader<>(new LinkedList<>(values));
+    Assertions.assertTrue(arrayListReader.hasEfficientRangeIterators());
+    Assertions.assertFalse(linkedListReader.hasEfficientRangeIterators());
+    Assertions.assertTrue(arrayListReader.lazyMap(i -> i * 2).hasEfficientRangeIterators());
+    Assertions.assertFalse(arrayListReader.hasConstantTimeSkip());
+    Assertions.assertTrue(new ConstantReader<>(1, 10).lazyMap(i -> i * 2).hasConstantTimeSkip());
+
+    for (ObjectReader<Integer> reader : Arrays.asList(arrayListReader, linkedListReader)) {
+      try (ObjectIterator<Integer> iterator = reader.iterator(3, 7)) {
+        for (int i = 3; i < 7; i++) {
+          Assertions.assertEquals(i, iterator.next());
+        }
+        Assertions.assertFalse(iterator.hasNext());
+      }
+      try (ObjectIterator<Integer> iterator = reader.lazyMap(i -> i * 2).iterator(7, 10)) {
+        Assertions.assertEquals(14, iterator.next());
+        Assertions.assertEquals(2, iterator.skip(5));
+        Assertions.assertFalse(iterator.hasNext());
+      }
+      Assertions.assertFalse(reader.iterator(5, 5).hasNext());
+    }
+
+    try (ObjectIterator<Integer> iterator = new ConstantReader<>(4, 10).iterator(2, 5)) {
+      Integer[] buffer = new Integer[5];
+      Assertions.assertEquals(3, iterator.next(buffer, 0, 5));
+      Assertions.assertFalse(iterator.hasNext());
+    }
+  }
+
   @Test
   public void testEmpty() {
     Closeables.tryClose(ObjectReader.empty());
@@ -246,6 +246,13 @@ abstract class AbstractKryoWriter<T> implements ObjectWriter<T> {
     }
   }
 
+  /**
+   * @return whether this writer has been closed
+   */
+  protected boolean isClosed() {
+    return _isClosed;
+  }
+
   @Override
   public long size64() {
     return _appendedCount;
@@ -0,0 +1,322 @@
+package com.linkedin.dagli.objectio.kryo;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.io.ByteBufferInput;
+import com.esotericsoftware.kryo.kryo5.unsafe.UnsafeByteBufferInput;
+import com.linkedin.dagli.objectio.ObjectIterator;
+import com.linkedin.dagli.objectio.ObjectReader;
+import com.linkedin.dagli.util.invariant.Arguments;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Reads Kryo-serialized objects from a file previously written by {@link KryoIndexedFileWriter}.
+ *
+ * The file is memory-mapped rather than streamed: the header and block index are read directly from the mapped pages,
+ * and iterators deserialize objects straight from the mapped data without intermediate copying.  Because the file
+ * contains an index of block offsets, iterators may start at (or skip to) any record in constant time, deserializing
+ * at most one block's worth of preceding records; many iterators over disjoint ranges may be used concurrently (e.g.
+ * by different threads), each reading only its own part of the file.
+ *
+ * Files larger than 2GB are mapped as multiple segments, each containing a whole number of blocks.
+ *
+ * <strong>You must trust the data that you are reading.</strong>  Using data of uncertain provenance (e.g. supplied
+ * by users) will create a security hole, since deserializing such data can allow for arbitrary code execution.
+ *
+ * @param <T> the type of element to read
+ */
+public class KryoIndexedFileReader<T> implements ObjectReader<T> {
+  private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+  private final Path _path;
+  private final long _count;
+  private final int _blockSize;
+  private final boolean _unsafeIO;
+  private final long _indexOffset;
+  private final LongBuffer _blockOffsets; // mapped directly from the file
+
+  private final long[] _segmentFirstBlocks; // the first block in each mapped segment
+  private final MappedByteBuffer[] _segments; // lazily mapped
+
+  /**
+   * Creates a new instance that will read from the specified path.
+   *
+   * @param path the place where items will be read from
+   */
+  public KryoIndexedFileReader(Path path) {
+    this(path, MAX_SEGMENT_SIZE);
+  }
+
+  /**
+   * Creates a new instance that will read from the specified path.
+   *
+   * @param path the place where items will be read from
+   * @param maxSegmentSize the maximum size, in bytes, of each memory-mapped segment of the file; a single block may not
+   *                       exceed this size
+   */
+  KryoIndexedFileReader(Path path, long maxSegmentSize) {
+    Arguments.check(maxSegmentSize > 0 && maxSegmentSize <= MAX_SEGMENT_SIZE, "Invalid maximum segment size");
+    _path = path;
+
+    ByteBuffer header = map(0, KryoIndexedFileWriter.HEADER_SIZE);
+    _count = header.getLong();
+    _blockSize = header.getInt();
+    _unsafeIO = header.get() != 0;
+    _indexOffset = header.getLong();
+
+    long blockCount = (_count + _blockSize - 1) / _blockSize;
+    Arguments.check(blockCount * Long.BYTES <= MAX_SEGMENT_SIZE, "The block index of " + path + " is too large");
+    _blockOffsets = map(_indexOffset, blockCount * Long.BYTES).asLongBuffer();
+
+    // group the blocks into segments that are each small enough to be mapped
+    LongArrayList segmentFirstBlocks = new LongArrayList();
+    for (int block = 0; block < blockCount; block++) {
+      Arguments.check(blockEnd(block) - blockStart(block) <= maxSegmentSize,
+          () -> "Block in " + path + " is larger than the maximum segment size");
+      if (segmentFirstBlocks.isEmpty()
+          || blockEnd(block) - blockStart((int) segmentFirstBlocks.topLong()) > maxSegmentSize) {
+        segmentFirstBlocks.add(block);
+      }
+    }
+    _segmentFirstBlocks = segmentFirstBlocks.toLongArray();
+    _segments = new MappedByteBuffer[_segmentFirstBlocks.length];
+  }
+
+  /**
+   * Maps a region of the file into memory as a read-only buffer.  The mapping remains valid after the channel used to
+   * create it is closed.
+   *
+   * @param offset the offset of the region within the file
+   * @param size the size of the region
+   * @return a buffer mapped to the requested region
+   */
+  private MappedByteBuffer map(long offset, long size) {
+    try (FileChannel channel = FileChannel.open(_path, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private long blockStart(int block) {
+    return _blockOffsets.get(block);
+  }
+
+  private long blockEnd(int block) {
+    return block + 1 < _blockOffsets.limit() ? _blockOffsets.get(block + 1) : _indexOffset;
+  }
+
+  /**
+   * Gets the index of the segment containing a given block.
+   *
+   * @param block the block whose segment should be found
+   * @return the index of the segment containing the block
+   */
+  private int segmentOf(long block) {
+    int res = Arrays.binarySearch(_segmentFirstBlocks, block);
+    return res >= 0 ? res : -res - 2;
+  }
+
+  /**
+   * Gets the (lazily mapped) buffer for a segment.  The returned buffer is shared and should not be modified.
+   *
+   * @param segment the index of the segment
+   * @return a buffer containing the bytes of the segment
+   */
+  private synchronized MappedByteBuffer getSegment(int segment) {
+    if (_segments[segment] == null) {
+      int lastBlock = segment + 1 < _segmentFirstBlocks.length ? (int) _segmentFirstBlocks[segment + 1] - 1
+          : _blockOffsets.limit() - 1;
+      long start = blockStart((int) _segmentFirstBlocks[segment]);
+      _segments[segment] = map(start, blockEnd(lastBlock) - start);
+    }
+    return _segments[segment];
+  }
+
+  @Override
+  public long size64() {
+    return _count;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return iterator(0, _count);
+  }
+
+  /**
+   * Returns an iterator over the records in the range {@code [startIndex, endIndex)}.  The iterator will begin reading
+   * at the block containing {@code startIndex} without deserializing any earlier blocks.  Iterators are independent of
+   * one another and may be used concurrently from different threads.
+   *
+   * @param startIndex the index of the first record to be iterated (inclusive)
+   * @param endIndex the index of the end of the range (exclusive)
+   * @return an iterator over the specified range of records
+   */
+  @Override
+  public Iterator<T> iterator(long startIndex, long endIndex) {
+    Arguments.check(0 <= startIndex && startIndex <= endIndex && endIndex <= _count,
+        () -> "Invalid range [" + startIndex + ", " + endIndex + ") for a reader with " + _count + " records");
+    return new Iterator<>(this, startIndex, endIndex);
+  }
+
+  @Override
+  public boolean hasEfficientRangeIterators() {
+    return true;
+  }
+
+  @Override
+  public void close() { }
+
+  /**
+   * An iterator over a range of the Kryo-serialized objects in an indexed file.
+   *
+   * @param <T> the type of objects to be read
+   */
+  public static class Iterator<T> implements ObjectIterator<T> {
+    private final KryoIndexedFileReader<T> _owner;
+    private final long _endIndex;
+    private final Kryo _kryo;
+
+    private ByteBufferInput _input = null;
+    private long _segmentEndBlock = -1; // the (exclusive) last block of the currently-mapped segment
+    private long _position;
+
+    /**
+     * Creates a new iterator over a range of records in the provided reader.
+     *
+     * @param owner the reader to be iterated over
+     * @param startIndex the index of the first record to be iterated (inclusive)
+     * @param endIndex the index of the end of the range (exclusive)
+     */
+    Iterator(KryoIndexedFileReader<T> owner, long startIndex, long endIndex) {
+      _owner = owner;
+      _endIndex = endIndex;
+
+      _kryo = new Kryo();
+      _kryo.setRegistrationRequired(false);
+      _kryo.setReferences(true);
+      _kryo.setAutoReset(false);
+
+      _position = startIndex;
+      if (startIndex < endIndex) {
+        seek(startIndex);
+      }
+    }
+
+    /**
+     * Positions the input at the start of the given block, mapping its segment as necessary.
+     *
+     * @param block the block to position the input at
+     */
+    private void openBlock(long block) {
+      int segment = _owner.segmentOf(block);
+      long segmentFirstBlock = _owner._segmentFirstBlocks[segment];
+      _segmentEndBlock = segment + 1 < _owner._segmentFirstBlocks.length ? _owner._segmentFirstBlocks[segment + 1]
+          : _owner._blockOffsets.limit();
+
+      ByteBuffer buffer = _owner.getSegment(segment).duplicate();
+      buffer.position(
+          Math.toIntExact(_owner.blockStart((int) block) - _owner.blockStart((int) segmentFirstBlock)));
+
+      if (_input == null) {
+        _input = _owner._unsafeIO ? new UnsafeByteBufferInput(buffer) : new ByteBufferInput(buffer);
+      } else {
+        _input.setBuffer(buffer);
+      }
+    }
+
+    /**
+     * Moves this iterator to the specified record by jumping to its block and then reading through the records that
+     * precede it within that block.
+     *
+     * @param index the index of the record to move to
+     */
+    private void seek(long index) {
+      long block = index / _owner._blockSize;
+      openBlock(block);
+      _position = block * _owner._blockSize;
+      while (_position < index) {
+        readObject();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _position < _endIndex;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      return readObject();
+    }
+
+    /**
+     * @return the next object deserialized from the input
+     */
+    private T readObject() {
+      if (_position % _owner._blockSize == 0) {
+        // each block is serialized independently of the previous blocks
+        long block = _position / _owner._blockSize;
+        if (block >= _segmentEndBlock) {
+          openBlock(block);
+        }
+        _kryo.reset();
+      }
+
+      @SuppressWarnings("unchecked")
+      T res = (T) _kryo.readClassAndObject(_input);
+      _position++;
+      return res;
+    }
+
+    @Override
+    public int next(Object[] destination, int offset, int count) {
+      count = (int) Math.min(count, _endIndex - _position);
+
+      for (int i = offset; i < offset + count; i++) {
+        destination[i] = readObject();
+      }
+
+      return count;
+    }
+
+    @Override
+    public long skip(long toSkip) {
+      long skipped = Math.min(toSkip, _endIndex - _position);
+      long target = _position + skipped;
+
+      if (target == _endIndex) {
+        _position = target; // nothing more will be read
+      } else if (target / _owner._blockSize != _position / _owner._blockSize) {
+        seek(target);
+      } else {
+        while (_position < target) {
+          readObject();
+        }
+      }
+
+      return skipped;
+    }
+
+    @Override
+    public void close() {
+      if (_input != null) {
+        _input.close();
+      }
+    }
+  }
+}
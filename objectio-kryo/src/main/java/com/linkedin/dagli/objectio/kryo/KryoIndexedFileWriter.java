@@ -0,0 +1,140 @@
+package com.linkedin.dagli.objectio.kryo;
+
+import com.linkedin.dagli.util.invariant.Arguments;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Writes objects to a file using Kryo serialization, together with a block offset index that allows the resulting file
+ * to be read with random access by {@link KryoIndexedFileReader}.
+ *
+ * Objects are written in blocks of {@link Config#getCacheHorizon()} records; because Kryo's reference cache is reset
+ * at the start of every block, each block can be deserialized independently of those preceding it.  The file offset of
+ * each block is recorded in an index that is appended to the file when the writer is closed.
+ *
+ * Unlike {@link KryoFileWriter}, this writer does not support {@link StreamTransformer}s (compressed or encrypted
+ * streams cannot be randomly accessed) and does not append to existing files: any existing file at the provided path
+ * will be overwritten.
+ *
+ * @param <T> the type of object to be written
+ */
+public class KryoIndexedFileWriter<T> extends AbstractKryoWriter<T> {
+  /**
+   * The number of bytes in the file header: the record count (long), block size (int), unsafe IO flag (boolean) and
+   * the offset of the block index (long).
+   */
+  static final int HEADER_SIZE = 21;
+
+  private final Path _path;
+  private final LongArrayList _blockOffsets = new LongArrayList();
+
+  /**
+   * Creates a new instance using the specified file as a backing store.  If the file already exists it will be
+   * overwritten.
+   *
+   * @param path the place where items will be stored
+   */
+  public KryoIndexedFileWriter(Path path) {
+    this(path, new Config());
+  }
+
+  /**
+   * Creates a new instance using the specified file as a backing store.  If the file already exists it will be
+   * overwritten.
+   *
+   * @param path the place where items will be stored
+   * @param config a configuration to use; its cache horizon also determines the number of records in each indexed
+   *               block, and its stream transformer must be {@link StreamTransformer#IDENTITY}
+   */
+  public KryoIndexedFileWriter(Path path, Config config) {
+    super(checkConfig(config), createOutputStream(path), 0);
+    _path = path;
+  }
+
+  /**
+   * Checks that the provided configuration is supported by this writer and returns a defensive copy.
+   *
+   * @param config the configuration to check
+   * @return a copy of the configuration
+   */
+  private static Config checkConfig(Config config) {
+    Arguments.check(config.getStreamTransformer() == StreamTransformer.IDENTITY,
+        "Indexed Kryo files do not support stream transformers");
+    Arguments.check(config.getCacheHorizon() > 0, "The cache horizon (block size) must be positive");
+    return config.clone();
+  }
+
+  /**
+   * Creates (or truncates) the file at the given path, writes a placeholder header, and returns a stream positioned
+   * at the start of the data section.
+   *
+   * @param path the path of the file to create
+   * @return an output stream that will write serialized objects to the file
+   */
+  private static OutputStream createOutputStream(Path path) {
+    try {
+      OutputStream res = Channels.newOutputStream(
+          Files.newByteChannel(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE));
+      res.write(new byte[HEADER_SIZE]);
+      return res;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void write(T obj) {
+    if (size64() % _config.getCacheHorizon() == 0) {
+      _blockOffsets.add(HEADER_SIZE + _output.total());
+    }
+    super.write(obj);
+  }
+
+  @Override
+  protected void writeCount(long count) {
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(_path.toFile(), "rw")) {
+      // append the block index after the serialized objects
+      long indexOffset = randomAccessFile.length();
+      ByteBuffer index = ByteBuffer.allocate(_blockOffsets.size() * Long.BYTES);
+      index.asLongBuffer().put(_blockOffsets.elements(), 0, _blockOffsets.size());
+      FileChannel channel = randomAccessFile.getChannel();
+      while (index.hasRemaining()) {
+        channel.write(index, indexOffset + index.position());
+      }
+
+      randomAccessFile.seek(0);
+      randomAccessFile.writeLong(count);
+      randomAccessFile.writeInt(_config.getCacheHorizon());
+      randomAccessFile.writeBoolean(_config.isUnsafeIO());
+      randomAccessFile.writeLong(indexOffset);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Creates a reader for the objects written to this writer.  Because the header and block index of the file are only
+   * written when the writer is closed, the writer must be closed before a reader can be created.
+   *
+   * @return a reader for the objects written to this writer
+   * @throws IllegalStateException if the writer has not yet been closed
+   */
+  @Override
+  public KryoIndexedFileReader<T> createReader() {
+    if (!isClosed()) {
+      throw new IllegalStateException("An indexed Kryo file writer must be closed before a reader can be created");
+    }
+    return new KryoIndexedFileReader<>(_path);
+  }
+}
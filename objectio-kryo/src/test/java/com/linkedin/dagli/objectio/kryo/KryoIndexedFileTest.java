@@ -0,0 +1,95 @@
+package com.linkedin.dagli.objectio.kryo;
+
+import com.linkedin.dagli.objectio.ObjectIterator;
+import com.linkedin.dagli.objectio.testing.Tester;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class KryoIndexedFileTest {
+  @Test
+  public void testBasic() throws IOException {
+    Path tempFile = Files.createTempFile("KryoIndexedFileTest", ".tmp");
+    Tester.testWriter(new KryoIndexedFileWriter<>(tempFile));
+
+    KryoFileWriter.Config config = new KryoFileWriter.Config();
+    config.setCacheHorizon(3);
+    Tester.testWriter(new KryoIndexedFileWriter<>(tempFile, config));
+
+    config.setUnsafeIO(false);
+    Tester.testWriter(new KryoIndexedFileWriter<>(tempFile, config));
+    Files.delete(tempFile);
+  }
+
+  @Test
+  public void testRandomAccess() throws IOException {
+    Path tempFile = Files.createTempFile("KryoIndexedFileTest", ".tmp");
+    KryoFileWriter.Config config = new KryoFileWriter.Config();
+    config.setCacheHorizon(7);
+
+    try (KryoIndexedFileWriter<String> writer = new KryoIndexedFileWriter<>(tempFile, config)) {
+      for (int i = 0; i < 100; i++) {
+        writer.write(i % 2 == 0 ? Integer.toString(i) : "odd"); // repeated strings are written as back-references
+      }
+    }
+
+    // map the file as many small segments to exercise moving between them
+    for (long maxSegmentSize : new long[] { Integer.MAX_VALUE, 64 }) {
+      try (KryoIndexedFileReader<String> reader = new KryoIndexedFileReader<>(tempFile, maxSegmentSize)) {
+        Assertions.assertEquals(100, reader.size64());
+
+        try (ObjectIterator<String> iterator = reader.iterator()) {
+          Assertions.assertEquals(10, iterator.skip(10));
+          Assertions.assertEquals("10", iterator.next());
+          Assertions.assertEquals(2, iterator.skip(2));
+          Assertions.assertEquals("odd", iterator.next());
+          Assertions.assertEquals(60, iterator.skip(60));
+          Assertions.assertEquals("74", iterator.next());
+          Assertions.assertEquals(25, iterator.skip(1000));
+          Assertions.assertFalse(iterator.hasNext());
+        }
+
+        for (int start = 0; start < 100; start += 13) {
+          int end = Math.min(100, start + 29);
+          try (ObjectIterator<String> iterator = reader.iterator(start, end)) {
+            for (int i = start; i < end; i++) {
+              Assertions.assertEquals(i % 2 == 0 ? Integer.toString(i) : "odd", iterator.next());
+            }
+            Assertions.assertFalse(iterator.hasNext());
+          }
+        }
+      }
+    }
+
+    Files.delete(tempFile);
+  }
+
+  @Test
+  public void testCreateReaderBeforeClose() throws IOException {
+    Path tempFile = Files.createTempFile("KryoIndexedFileTest", ".tmp");
+    KryoIndexedFileWriter<String> writer = new KryoIndexedFileWriter<>(tempFile);
+    writer.write("a");
+    Assertions.assertThrows(IllegalStateException.class, writer::createReader);
+
+    writer.close();
+    try (KryoIndexedFileReader<String> reader = writer.createReader()) {
+      Assertions.assertEquals(1, reader.size64());
+    }
+    Files.delete(tempFile);
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    Path tempFile = Files.createTempFile("KryoIndexedFileTest", ".tmp");
+    new KryoIndexedFileWriter<>(tempFile).close();
+    try (KryoIndexedFileReader<Object> reader = new KryoIndexedFileReader<>(tempFile);
+        ObjectIterator<Object> iterator = reader.iterator()) {
+      Assertions.assertEquals(0, reader.size64());
+      Assertions.assertFalse(iterator.hasNext());
+    }
+    Files.delete(tempFile);
+  }
+}
@@ -0,0 +1,279 @@
+package com.linkedin.dagli.util.collection;
+
+import com.linkedin.dagli.util.invariant.Arguments;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+
+/**
+ * Approximately counts the most frequent items in a stream using a bounded amount of memory.
+ *
+ * This is an implementation of the Space-Saving algorithm (Metwally, Agrawal and El Abbadi, "Efficient Computation of
+ * Frequent and Top-k Elements in Data Streams", 2005).  At most {@code capacity} items are tracked at once; when a new
+ * item is seen and the sketch is full, the tracked item with the lowest count is evicted and the new item inherits its
+ * count (which is then recorded as the new item's maximum possible overestimate, its "error").  Consequently:
+ * (1) every tracked item's estimated count is at least its true count, and exceeds it by no more than its error
+ * (2) no error, and thus no overestimate, is greater than {@code (total count) / capacity}
+ * (3) any item whose true count exceeds {@code (total count) / capacity} is guaranteed to be tracked
+ *
+ * Sketches may be combined with {@link #merge(HeavyHitterSketch)} (following Agarwal et al., "Mergeable Summaries",
+ * 2012), allowing different parts of a stream to be counted independently (e.g. by different threads.)
+ *
+ * Instances are not thread-safe.
+ *
+ * @param <T> the type of item counted
+ */
+public class HeavyHitterSketch<T> {
+  private static final int INITIAL_ARRAY_SIZE = 16;
+
+  private final int _capacity;
+  private final Object2IntOpenHashMap<T> _slots; // maps each tracked item to its slot
+
+  // per-slot data
+  private Object[] _items;
+  private long[] _counts;
+  private long[] _errors;
+  private int[] _heapPositions; // the position of each slot in the heap
+
+  // a binary min-heap of slots, ordered by their counts
+  private int[] _heap;
+
+  private int _size = 0;
+  private long _totalCount = 0;
+
+  /**
+   * Creates a new, empty sketch.
+   *
+   * @param capacity the maximum number of distinct items that will be tracked at any one time
+   */
+  public HeavyHitterSketch(int capacity) {
+    Arguments.check(capacity >= 1, "Capacity must be at least 1");
+    _capacity = capacity;
+    _slots = new Object2IntOpenHashMap<>(Math.min(capacity, INITIAL_ARRAY_SIZE));
+    _slots.defaultReturnValue(-1);
+    allocate(Math.min(capacity, INITIAL_ARRAY_SIZE));
+  }
+
+  private void allocate(int arraySize) {
+    _items = new Object[arraySize];
+    _counts = new long[arraySize];
+    _errors = new long[arraySize];
+    _heapPositions = new int[arraySize];
+    _heap = new int[arraySize];
+  }
+
+  private void ensureArraySize(int minSize) {
+    if (_items.length < minSize) {
+      int newSize = (int) Math.min(_capacity, Math.max(minSize, 2L * _items.length));
+      _items = Arrays.copyOf(_items, newSize);
+      _counts = Arrays.copyOf(_counts, newSize);
+      _errors = Arrays.copyOf(_errors, newSize);
+      _heapPositions = Arrays.copyOf(_heapPositions, newSize);
+      _heap = Arrays.copyOf(_heap, newSize);
+    }
+  }
+
+  /**
+   * @return the maximum number of distinct items that may be tracked at one time
+   */
+  public int capacity() {
+    return _capacity;
+  }
+
+  /**
+   * @return the number of distinct items presently tracked
+   */
+  public int size() {
+    return _size;
+  }
+
+  /**
+   * @return the total count of all items added to this sketch (including those merged into it)
+   */
+  public long totalCount() {
+    return _totalCount;
+  }
+
+  /**
+   * Gets the largest amount by which the estimated count of any tracked item may exceed its true count.  This will be
+   * 0 if no item has ever been evicted (in which case all counts are exact), and will never exceed
+   * {@code totalCount() / capacity()}.
+   *
+   * @return the maximum overestimate of any tracked item's count
+   */
+  public long maxError() {
+    long max = 0;
+    for (int i = 0; i < _size; i++) {
+      max = Math.max(max, _errors[i]);
+    }
+    return max;
+  }
+
+  /**
+   * Gets the lowest count amongst the tracked items if the sketch is full, or 0 otherwise.  An untracked item cannot
+   * have occurred more often than this.
+   *
+   * @return the maximum possible count of any untracked item
+   */
+  public long maxUntrackedCount() {
+    return _size == _capacity ? _counts[_heap[0]] : 0;
+  }
+
+  /**
+   * Adds an item to the sketch.
+   *
+   * @param item the item to add
+   */
+  public void add(T item) {
+    add(item, 1);
+  }
+
+  /**
+   * Adds an item to the sketch with the given count.
+   *
+   * @param item the item to add
+   * @param count the number of times the item occurred; must be positive
+   */
+  @SuppressWarnings("unchecked")
+  public void add(T item, long count) {
+    _totalCount += count;
+
+    int slot = _slots.getInt(item);
+    if (slot >= 0) {
+      _counts[slot] += count;
+      siftDown(_heapPositions[slot]);
+    } else if (_size < _capacity) {
+      ensureArraySize(_size + 1);
+      slot = _size++;
+      _items[slot] = item;
+      _counts[slot] = count;
+      _errors[slot] = 0;
+      _slots.put(item, slot);
+      _heap[slot] = slot;
+      _heapPositions[slot] = slot;
+      siftUp(slot);
+    } else {
+      // replace the item with the lowest count
+      slot = _heap[0];
+      _slots.removeInt((T) _items[slot]);
+      long minCount = _counts[slot];
+      _items[slot] = item;
+      _counts[slot] = minCount + count;
+      _errors[slot] = minCount;
+      _slots.put(item, slot);
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Merges another sketch into this one.  The other sketch is not modified.
+   *
+   * @param other the sketch to merge
+   */
+  @SuppressWarnings("unchecked")
+  public void merge(HeavyHitterSketch<? extends T> other) {
+    // an item untracked by one sketch may have occurred up to that sketch's minimum count times
+    long thisMaxUntracked = maxUntrackedCount();
+    long otherMaxUntracked = other.maxUntrackedCount();
+
+    int combinedSize = _size;
+    Object[] items = Arrays.copyOf(_items, _size + other._size);
+    long[] counts = Arrays.copyOf(_counts, _size + other._size);
+    long[] errors = Arrays.copyOf(_errors, _size + other._size);
+
+    for (int i = 0; i < _size; i++) {
+      int otherSlot = other._slots.getInt(items[i]);
+      counts[i] += otherSlot >= 0 ? other._counts[otherSlot] : otherMaxUntracked;
+      errors[i] += otherSlot >= 0 ? other._errors[otherSlot] : otherMaxUntracked;
+    }
+    for (int i = 0; i < other._size; i++) {
+      if (!_slots.containsKey(other._items[i])) {
+        items[combinedSize] = other._items[i];
+        counts[combinedSize] = other._counts[i] + thisMaxUntracked;
+        errors[combinedSize++] = other._errors[i] + thisMaxUntracked;
+      }
+    }
+
+    // keep only the items with the highest counts
+    int[] order = new int[combinedSize];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    if (combinedSize > _capacity) {
+      IntArrays.quickSort(order, (a, b) -> Long.compare(counts[b], counts[a]));
+    }
+
+    long totalCount = _totalCount + other._totalCount;
+    _slots.clear();
+    _size = 0;
+    ensureArraySize(Math.min(_capacity, combinedSize));
+    for (int i = 0; i < Math.min(_capacity, combinedSize); i++) {
+      int source = order[i];
+      _items[i] = items[source];
+      _counts[i] = counts[source];
+      _errors[i] = errors[source];
+      _slots.put((T) items[source], i);
+      _heap[i] = i;
+      _heapPositions[i] = i;
+      _size++;
+    }
+    for (int i = _size / 2 - 1; i >= 0; i--) {
+      siftDown(i);
+    }
+    _totalCount = totalCount;
+  }
+
+  /**
+   * Provides each tracked item and its estimated count (which may exceed the true count by up to
+   * {@link #maxError()}) to a consumer, in no particular order.
+   *
+   * @param consumer the consumer that will receive the items and their estimated counts
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(ObjLongConsumer<? super T> consumer) {
+    for (int i = 0; i < _size; i++) {
+      consumer.accept((T) _items[i], _counts[i]);
+    }
+  }
+
+  private void swap(int heapPosition1, int heapPosition2) {
+    int slot1 = _heap[heapPosition1];
+    int slot2 = _heap[heapPosition2];
+    _heap[heapPosition1] = slot2;
+    _heap[heapPosition2] = slot1;
+    _heapPositions[slot2] = heapPosition1;
+    _heapPositions[slot1] = heapPosition2;
+  }
+
+  private void siftUp(int heapPosition) {
+    while (heapPosition > 0) {
+      int parent = (heapPosition - 1) / 2;
+      if (_counts[_heap[parent]] <= _counts[_heap[heapPosition]]) {
+        return;
+      }
+      swap(parent, heapPosition);
+      heapPosition = parent;
+    }
+  }
+
+  private void siftDown(int heapPosition) {
+    while (true) {
+      int smallest = heapPosition;
+      int left = 2 * heapPosition + 1;
+      int right = left + 1;
+      if (left < _size && _counts[_heap[left]] < _counts[_heap[smallest]]) {
+        smallest = left;
+      }
+      if (right < _size && _counts[_heap[right]] < _counts[_heap[smallest]]) {
+        smallest = right;
+      }
+      if (smallest == heapPosition) {
+        return;
+      }
+      swap(heapPosition, smallest);
+      heapPosition = smallest;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package com.linkedin.dagli.util.collection;
+
+import com.linkedin.dagli.util.invariant.Arguments;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.ObjLongConsumer;
+
+
+/**
+ * A mergeable sketch that summarizes a stream of (comparable) items using a bounded amount of memory, allowing the
+ * approximate rank of any item (the number of items in the stream that are less than it) to be found later.
+ *
+ * This is an implementation of the KLL sketch (Karnin, Lang and Liberty, "Optimal Quantile Approximation in Streams",
+ * 2016).  Items are kept in a hierarchy of "compactors": an item at level {@code h} stands in for {@code 2^h} items of
+ * the original stream.  When a level is full, its items are sorted and every other item (starting at a random offset)
+ * is promoted to the next level, while the rest are discarded.  The number of items retained is
+ * {@code O(k + log(n))} for a stream of {@code n} items, and, with high probability, the estimated rank of any item
+ * will be within {@code n * e} of its true rank, where the error {@code e} is roughly proportional to {@code 1/k}
+ * (see {@link #kForRankError(double)}).
+ *
+ * Two sketches with the same comparator may be combined with {@link #merge(QuantileSketch)}; the result has the same
+ * accuracy guarantees as a single sketch of the combined streams.
+ *
+ * Instances are not thread-safe.
+ *
+ * @param <T> the type of item summarized by the sketch
+ */
+public class QuantileSketch<T> {
+  private static final double CAPACITY_DECAY = 2.0 / 3; // each level is this fraction of the size of the next
+  private static final int MIN_LEVEL_CAPACITY = 2;
+  private static final int MIN_K = 8;
+
+  private final Comparator<? super T> _comparator;
+  private final int _k;
+  private final Random _random;
+
+  private final ArrayList<ArrayList<T>> _levels = new ArrayList<>(); // items at level h have a weight of 2^h
+  private int _capacity = 0; // the total number of items that may be retained by the current levels
+  private int _retainedCount = 0;
+  private long _count = 0;
+
+  /**
+   * Gets the value of the {@code k} parameter needed for a sketch to have (approximately, and with high probability) a
+   * given maximum rank error.
+   *
+   * @param rankError the desired maximum rank error, as a fraction of the number of items in the stream; must be in
+   *                  the range (0, 1)
+   * @return a value for {@code k} that should achieve the desired rank error
+   */
+  public static int kForRankError(double rankError) {
+    Arguments.check(rankError > 0 && rankError < 1, "The rank error must be in the range (0, 1)");
+    // empirically, a KLL sketch's rank error is comfortably below 2.3 / k
+    return (int) Math.max(MIN_K, Math.min(Integer.MAX_VALUE / 4, Math.ceil(2.3 / rankError)));
+  }
+
+  /**
+   * Creates a new, empty sketch.
+   *
+   * @param comparator the comparator used to order the items
+   * @param k the accuracy parameter determining the size of the sketch; larger values use more memory but provide more
+   *          accurate results.  Must be at least 8.
+   * @param seed the seed for the random number generator used to decide which items are retained when compacting
+   */
+  public QuantileSketch(Comparator<? super T> comparator, int k, long seed) {
+    Arguments.check(k >= MIN_K, () -> "k must be at least " + MIN_K);
+    _comparator = comparator;
+    _k = k;
+    _random = new Random(seed);
+    addLevel();
+  }
+
+  /**
+   * @return the number of items added to this sketch (including those added to sketches merged into this one)
+   */
+  public long count() {
+    return _count;
+  }
+
+  /**
+   * @return the number of items presently retained by the sketch
+   */
+  public int retainedCount() {
+    return _retainedCount;
+  }
+
+  private int levelCapacity(int level) {
+    int depth = _levels.size() - 1 - level;
+    return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(_k * Math.pow(CAPACITY_DECAY, depth)));
+  }
+
+  private void addLevel() {
+    _levels.add(new ArrayList<>());
+    _capacity = 0;
+    for (int level = 0; level < _levels.size(); level++) {
+      _capacity += levelCapacity(level);
+    }
+  }
+
+  /**
+   * Adds an item to the sketch.
+   *
+   * @param item the item to add
+   */
+  public void add(T item) {
+    _levels.get(0).add(item);
+    _retainedCount++;
+    _count++;
+    compress();
+  }
+
+  /**
+   * Merges another sketch into this one.  The other sketch is not modified.
+   *
+   * @param other the sketch to merge into this one; it must use the same comparator
+   */
+  public void merge(QuantileSketch<? extends T> other) {
+    while (_levels.size() < other._levels.size()) {
+      addLevel();
+    }
+    for (int level = 0; level < other._levels.size(); level++) {
+      _levels.get(level).addAll(other._levels.get(level));
+    }
+    _retainedCount += other._retainedCount;
+    _count += other._count;
+    compress();
+  }
+
+  /**
+   * Compacts levels until the number of retained items is within the sketch's capacity.
+   */
+  private void compress() {
+    while (_retainedCount > _capacity) {
+      for (int level = 0; level < _levels.size(); level++) {
+        if (_levels.get(level).size() >= levelCapacity(level)) {
+          compact(level);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Promotes half of the items at a level to the next level and discards the others.
+   *
+   * @param level the level to compact
+   */
+  private void compact(int level) {
+    if (level + 1 == _levels.size()) {
+      addLevel();
+    }
+
+    ArrayList<T> items = _levels.get(level);
+    ArrayList<T> nextLevel = _levels.get(level + 1);
+    items.sort(_comparator);
+
+    // if the number of items is odd, the smallest stays where it is
+    int first = items.size() % 2;
+    int offset = _random.nextBoolean() ? 1 : 0;
+    int promoted = 0;
+    for (int i = first + offset; i < items.size(); i += 2) {
+      nextLevel.add(items.get(i));
+      promoted++;
+    }
+
+    int removed = items.size() - first;
+    items.subList(first, items.size()).clear();
+    _retainedCount -= removed - promoted;
+  }
+
+  /**
+   * Estimates the rank of an item: the number of items in the stream that are less than it.
+   *
+   * @param item the item whose rank is sought
+   * @return the approximate number of items less than the given item
+   */
+  public long rank(T item) {
+    long rank = 0;
+    for (int level = 0; level < _levels.size(); level++) {
+      for (T retained : _levels.get(level)) {
+        if (_comparator.compare(retained, item) < 0) {
+          rank += 1L << level;
+        }
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Provides the distinct items retained by this sketch, in ascending order, to a consumer together with their weights
+   * (the number of items in the stream that each retained item represents).  The weights sum to {@link #count()}.
+   *
+   * @param consumer the consumer that will receive each distinct retained item and its weight
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachSortedItem(ObjLongConsumer<? super T> consumer) {
+    Object[] items = new Object[_retainedCount];
+    long[] weights = new long[_retainedCount];
+
+    int next = 0;
+    for (int level = 0; level < _levels.size(); level++) {
+      for (T item : _levels.get(level)) {
+        items[next] = item;
+        weights[next++] = 1L << level;
+      }
+    }
+
+    it.unimi.dsi.fastutil.Arrays.quickSort(0, items.length,
+        (a, b) -> _comparator.compare((T) items[a], (T) items[b]), (a, b) -> {
+          Object item = items[a];
+          items[a] = items[b];
+          items[b] = item;
+          long weight = weights[a];
+          weights[a] = weights[b];
+          weights[b] = weight;
+        });
+
+    int runStart = 0;
+    while (runStart < items.length) {
+      long weight = weights[runStart];
+      int runEnd = runStart + 1;
+      while (runEnd < items.length && _comparator.compare((T) items[runStart], (T) items[runEnd]) == 0) {
+        weight += weights[runEnd++];
+      }
+      consumer.accept((T) items[runStart], weight);
+      runStart = runEnd;
+    }
+  }
+}
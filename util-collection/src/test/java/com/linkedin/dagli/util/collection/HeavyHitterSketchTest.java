@@ -0,0 +1,64 @@
+package com.linkedin.dagli.util.collection;
+
+import java.util.HashMap;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class HeavyHitterSketchTest {
+  @Test
+  public void testSmall() {
+    HeavyHitterSketch<String> sketch = new HeavyHitterSketch<>(2);
+    for (String item : new String[] { "A", "B", "A", "C", "A" }) {
+      sketch.add(item);
+    }
+
+    // "C" replaces "B" (the least frequent item), inheriting its count
+    HashMap<String, Long> counts = new HashMap<>();
+    sketch.forEach(counts::put);
+    Assertions.assertEquals(2, counts.size());
+    Assertions.assertEquals(3, (long) counts.get("A"));
+    Assertions.assertEquals(2, (long) counts.get("C"));
+    Assertions.assertEquals(5, sketch.totalCount());
+    Assertions.assertEquals(1, sketch.maxError());
+    Assertions.assertEquals(2, sketch.maxUntrackedCount());
+  }
+
+  @Test
+  public void testAccuracy() {
+    int capacity = 200;
+    HeavyHitterSketch<Integer> sketch1 = new HeavyHitterSketch<>(capacity);
+    HeavyHitterSketch<Integer> sketch2 = new HeavyHitterSketch<>(capacity);
+    HashMap<Integer, Long> exactCounts = new HashMap<>();
+
+    // a heavy-tailed distribution over 100,000 distinct items
+    Random random = new Random(0);
+    int itemCount = 200000;
+    for (int i = 0; i < itemCount; i++) {
+      int item = (int) Math.floor(Math.pow(100000, random.nextDouble()));
+      exactCounts.merge(item, 1L, Long::sum);
+      (i % 3 == 0 ? sketch1 : sketch2).add(item);
+    }
+    sketch1.merge(sketch2);
+
+    Assertions.assertEquals(itemCount, sketch1.totalCount());
+    Assertions.assertEquals(capacity, sketch1.size());
+    Assertions.assertTrue(sketch1.maxError() <= 2 * itemCount / capacity);
+
+    // every estimate is an upper bound on the true count within the maximum error
+    sketch1.forEach((item, count) -> {
+      Assertions.assertTrue(count >= exactCounts.get(item));
+      Assertions.assertTrue(count - exactCounts.get(item) <= sketch1.maxError());
+    });
+
+    // any sufficiently frequent item must be tracked
+    HashMap<Integer, Long> tracked = new HashMap<>();
+    sketch1.forEach(tracked::put);
+    exactCounts.forEach((item, count) -> {
+      if (count > 2 * itemCount / capacity) {
+        Assertions.assertTrue(tracked.containsKey(item));
+      }
+    });
+  }
+}
@@ -0,0 +1,60 @@
+package com.linkedin.dagli.util.collection;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class QuantileSketchTest {
+  @Test
+  public void testSmall() {
+    QuantileSketch<Integer> sketch = new QuantileSketch<>(Comparator.naturalOrder(), 100, 0);
+    for (int value : new int[] { 3, 1, 2, 3, 3 }) {
+      sketch.add(value);
+    }
+
+    // nothing is discarded until the sketch is full
+    Assertions.assertEquals(5, sketch.count());
+    Assertions.assertEquals(0, sketch.rank(1));
+    Assertions.assertEquals(2, sketch.rank(3));
+    Assertions.assertEquals(5, sketch.rank(4));
+
+    StringBuilder items = new StringBuilder();
+    sketch.forEachSortedItem((item, weight) -> items.append(item).append('x').append(weight).append(' '));
+    Assertions.assertEquals("1x1 2x1 3x3 ", items.toString());
+  }
+
+  @Test
+  public void testAccuracy() {
+    double rankError = 0.01;
+    int k = QuantileSketch.kForRankError(rankError);
+    QuantileSketch<Integer> sketch1 = new QuantileSketch<>(Comparator.naturalOrder(), k, 1);
+    QuantileSketch<Integer> sketch2 = new QuantileSketch<>(Comparator.naturalOrder(), k, 2);
+
+    Random random = new Random(0);
+    int[] values = new int[200000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(1000000);
+      (i % 3 == 0 ? sketch1 : sketch2).add(values[i]);
+    }
+    sketch1.merge(sketch2);
+
+    Assertions.assertEquals(values.length, sketch1.count());
+    Assertions.assertTrue(sketch1.retainedCount() < 10 * k);
+
+    long[] totalWeight = new long[1];
+    sketch1.forEachSortedItem((item, weight) -> totalWeight[0] += weight);
+    Assertions.assertEquals(values.length, totalWeight[0]);
+
+    Arrays.sort(values);
+    for (int i = 0; i < values.length; i += values.length / 50) {
+      int exactRank = i;
+      while (exactRank > 0 && values[exactRank - 1] == values[i]) {
+        exactRank--;
+      }
+      Assertions.assertEquals(exactRank, sketch1.rank(values[i]), rankError * values.length);
+    }
+  }
+}
@@ -19,10 +19,14 @@ import com.linkedin.dagli.util.cryptography.DefaultCryptographyProvider;
  * dagli.tmpdir: the temporary directory Dagli should use (defaults to java.io.tmpdir)
  * dagli.cryptoprovider: the class name of the {@link com.linkedin.dagli.util.cryptography.CryptographyProvider} Dagli
  *                       should use to implement {@link com.linkedin.dagli.util.cryptography.Cryptography}.
+ * dagli.heapstoragebudget: the approximate number of bytes of intermediate results that may be kept on the heap by
+ *                          storage that spills to disk when this budget is exceeded (defaults to 1/4 of the maximum
+ *                          heap size)
  */
 public class DagliSystemProperties {
   private static final String TEMP_DIRECTORY_PROPERTY = "dagli.tmpdir";
   private static final String CRYPTO_PROVIDER_PROPERTY = "dagli.crypoprovider";
+  private static final String HEAP_STORAGE_BUDGET_PROPERTY = "dagli.heapstoragebudget";
 
   private DagliSystemProperties() { }
 
@@ -78,4 +82,37 @@ public class DagliSystemProperties {
       return System.setProperty(TEMP_DIRECTORY_PROPERTY, tempDirectory);
     }
   }
+
+  /**
+   * Gets the approximate number of bytes that storage spilling to disk (e.g. the
+   * {@code MEMORY_HEAP_SPILLING_TO_DISK_KRYO} local storage used by DAG executors) may keep on the heap, across all
+   * stored intermediate results, before it begins to spill them to disk.  This may be set with the system property
+   * dagli.heapstoragebudget; if no budget is set, this defaults to 1/4 of the maximum heap size.
+   *
+   * @return the heap storage budget, in bytes
+   */
+  public static long getHeapStorageBudget() {
+    String result = System.getProperty(HEAP_STORAGE_BUDGET_PROPERTY);
+    if (result == null) {
+      return Runtime.getRuntime().maxMemory() / 4;
+    } else {
+      return Long.parseLong(result);
+    }
+  }
+
+  /**
+   * Sets the approximate number of bytes that storage spilling to disk may keep on the heap before it begins to spill
+   * to disk.  This sets the system property dagli.heapstoragebudget; if no budget is set, it defaults to 1/4 of the
+   * maximum heap size.
+   *
+   * @param bytes the heap storage budget, in bytes, or null to clear any explicitly set budget
+   * @return the previous value of dagli.heapstoragebudget, or null if there was none explicitly set.
+   */
+  public static String setHeapStorageBudget(Long bytes) {
+    if (bytes == null) {
+      return System.clearProperty(HEAP_STORAGE_BUDGET_PROPERTY);
+    } else {
+      return System.setProperty(HEAP_STORAGE_BUDGET_PROPERTY, bytes.toString());
+    }
+  }
 }
@@ -2,6 +2,7 @@ package com.linkedin.dagli.util.kryo;
 
 import com.linkedin.dagli.objectio.ObjectReader;
 import com.linkedin.dagli.objectio.kryo.KryoFileWriter;
+import com.linkedin.dagli.objectio.kryo.KryoIndexedFileWriter;
 import com.linkedin.dagli.objectio.kryo.StreamTransformer;
 import com.linkedin.dagli.util.cryptography.Cryptography;
 import com.linkedin.dagli.util.environment.DagliSystemProperties;
@@ -158,4 +159,24 @@ public class KryoWriters {
 
     return new KryoFileWriter<>(path, config);
   }
+
+  /**
+   * Creates an instance of {@link KryoIndexedFileWriter} that will store its data in a temporary file together with a
+   * block offset index.  The resulting file is read via memory-mapping and supports seeking to arbitrary records in
+   * constant time, but cannot be compressed or encrypted.
+   *
+   * @param <T> the type of object that will be stored in the {@link KryoIndexedFileWriter}
+   * @return a new {@link KryoIndexedFileWriter} that will store its collection of values in a temporary file
+   */
+  public static <T> KryoIndexedFileWriter<T> kryoIndexed() {
+    try {
+      Path tempPath =
+          Files.createTempFile(Paths.get(DagliSystemProperties.getTempDirectory()), "ObjectWriterKryoIndexed", ".dat");
+      tempPath.toFile().deleteOnExit();
+
+      return new KryoIndexedFileWriter<>(tempPath);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 }
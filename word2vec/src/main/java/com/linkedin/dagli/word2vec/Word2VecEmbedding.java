@@ -14,6 +14,8 @@ import java.nio.FloatBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -31,7 +33,8 @@ import java.util.zip.GZIPInputStream;
  * of whether they were trained using Word2Vec) so long as they have the same file format.
  *
  * Note that Google's embeddings are fairly substantial in size and will be expensive to read in full (and store in
- * memory).
+ * memory).  To avoid this cost, the embeddings may instead be preprocessed once into an embedding store file (see
+ * {@link #writeEmbeddingStore(Path)}) that is then memory-mapped (see {@link #withEmbeddingStore(Path)}).
  */
 @ValueEquality
 public class Word2VecEmbedding
@@ -40,8 +43,8 @@ public class Word2VecEmbedding
 
   private static final int MAX_STRING_LENGTH = 1000; // this is just a conservative overestimate
   private static final int BUFFER_SIZE = 8 * 1024 * 1024; // 8MB
-  private static final int MISSING_VECTOR_INDEX = -1;
-  private static final int MARKER_VECTOR_INDEX = -2;
+  static final int MISSING_VECTOR_INDEX = -1;
+  static final int MARKER_VECTOR_INDEX = -2;
 
   @IgnoredByValueEquality
   private transient Long2IntOpenHashMap _embeddingIndex = null;
@@ -55,8 +58,12 @@ public class Word2VecEmbedding
   @IgnoredByValueEquality
   private transient FloatBuffer[] _floatBuffers = null;
 
+  @IgnoredByValueEquality
+  private transient Word2VecEmbeddingStore _embeddingStore = null;
+
   protected String _embeddingResourcePath = "GoogleNews-vectors-negative300.bin.gz";
   protected boolean _isEmbeddingResourceFileGZipped = true;
+  protected String _embeddingStorePath = null;
 
   protected int _maxDictionarySize = 100000;
   protected CaseSensitivity _caseSensitivity = CaseSensitivity.FALLBACK_TO_LOWER_CASE;
@@ -112,6 +119,7 @@ public class Word2VecEmbedding
     _vectorLength = 0;
     _vectorsPerBuffer = 0;
     _floatBuffers = null;
+    _embeddingStore = null;
   }
 
   /**
@@ -133,6 +141,44 @@ public class Word2VecEmbedding
     });
   }
 
+  /**
+   * Returns a copy of this instance that will memory-map its embeddings from the specified embedding store file, as
+   * previously written by {@link #writeEmbeddingStore(Path)}, rather than reading them from the resource file.
+   *
+   * Mapping the store is nearly instantaneous, the embeddings are paged in from disk only as needed, and all processes
+   * on the host that use the same store share a single copy of it in the operating system's page cache.  The vectors
+   * returned by {@link #apply(List)} are read-only views of the mapped file.
+   *
+   * The maximum dictionary size is ignored when using an embedding store (the store contains whichever embeddings were
+   * included when it was written), and the case sensitivity must match that used when writing the store with respect
+   * to whether or not case is ignored.
+   *
+   * @param path the path of the embedding store file, or null to read the embeddings from the resource file
+   * @return a copy of this instance that will use the specified embedding store
+   */
+  public Word2VecEmbedding withEmbeddingStore(Path path) {
+    return clone(c -> {
+      c.clearTransientState();
+      c._embeddingStorePath = path == null ? null : path.toAbsolutePath().toString();
+    });
+  }
+
+  /**
+   * Reads the embeddings from the resource file (as configured by {@link #withResourcePath(String, boolean)},
+   * {@link #withMaxDictionarySize(int)} and {@link #withCaseSensitivity(CaseSensitivity)}) and writes them to an
+   * embedding store file that may subsequently be memory-mapped via {@link #withEmbeddingStore(Path)}.  This only needs
+   * to be done once (e.g. as part of deploying the embeddings), not in every process using them.
+   *
+   * @param path the path of the embedding store file to write; any existing file will be replaced
+   * @throws IOException if the store cannot be written
+   */
+  public void writeEmbeddingStore(Path path) throws IOException {
+    Word2VecEmbedding source = withEmbeddingStore(null);
+    source.readEmbeddings();
+    Word2VecEmbeddingStore.write(path, source._embeddingIndex, source._floatBuffers, source._vectorsPerBuffer,
+        source._vectorLength, _caseSensitivity == CaseSensitivity.IGNORE_CASE);
+  }
+
   /**
    * Returns a copy of this instance that will load no more than the number of embeddings specified from the underlying
    * data file.  Reading all embeddings is somewhat expensive (in both time and, especially, RAM) so it may be prudent
@@ -233,7 +279,7 @@ public class Word2VecEmbedding
 
 
           int vectorBytes = _vectorLength * 4;
-          _vectorsPerBuffer = Integer.MAX_VALUE / vectorBytes;
+          _vectorsPerBuffer = Word2VecEmbeddingStore.getVectorsPerBuffer(_vectorLength);
           int maxBufferBytes = _vectorsPerBuffer * vectorBytes;
           long bytesNeeded = ((long) embeddingCount) * vectorBytes;
 
@@ -301,6 +347,27 @@ public class Word2VecEmbedding
     }
   }
 
+  // should only be invoked when this instance is locked, like readEmbeddings()
+  private void openEmbeddingStore() {
+    Word2VecEmbeddingStore store;
+    try {
+      store = Word2VecEmbeddingStore.open(Paths.get(_embeddingStorePath));
+    } catch (IOException ioe) {
+      throw new RuntimeException(ioe);
+    }
+
+    if (store.isLowerCased() != (_caseSensitivity == CaseSensitivity.IGNORE_CASE)) {
+      throw new IllegalStateException("The embedding store " + _embeddingStorePath + " was written with "
+          + (store.isLowerCased() ? "" : "out ") + "ignoring case, but this instance's case sensitivity is "
+          + _caseSensitivity);
+    }
+    _embeddingStore = store;
+  }
+
+  private int getVectorIndex(long hash) {
+    return _embeddingStore != null ? _embeddingStore.getVectorIndex(hash) : _embeddingIndex.get(hash);
+  }
+
   private int greedyMatch(List<String> tokens, int start, boolean lowercase, List<DenseFloatBufferVector> result) {
     long hash = 0;
     int bestVecIndex = -1;
@@ -309,7 +376,7 @@ public class Word2VecEmbedding
       String token = lowercase ? tokens.get(j).toLowerCase() : tokens.get(j);
       hash = Murmurish.hash(token, hash + (hash >> 31));
 
-      int vectorIndex = _embeddingIndex.get(hash);
+      int vectorIndex = getVectorIndex(hash);
       if (vectorIndex == MISSING_VECTOR_INDEX) {
         break;
       } else if (vectorIndex != MARKER_VECTOR_INDEX) {
@@ -345,15 +412,22 @@ public class Word2VecEmbedding
   }
 
   private DenseFloatBufferVector getVector(int vectorIndex) {
+    if (_embeddingStore != null) {
+      return _embeddingStore.getVector(vectorIndex);
+    }
     return new DenseFloatBufferVector(getFloatBufferForVectorIndex(vectorIndex),
         getFloatBufferOffsetForVectorIndex(vectorIndex), _vectorLength);
   }
 
   @Override
   public List<DenseFloatBufferVector> apply(List<String> value0) {
-    if (_embeddingIndex == null) {
+    if (_embeddingIndex == null && _embeddingStore == null) {
       synchronized (this) {
-        if (_embeddingIndex == null) {
+        if (_embeddingStorePath != null) {
+          if (_embeddingStore == null) {
+            openEmbeddingStore();
+          }
+        } else if (_embeddingIndex == null) {
           readEmbeddings();
         }
       }
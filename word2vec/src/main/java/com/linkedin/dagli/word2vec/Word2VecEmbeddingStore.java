@@ -0,0 +1,228 @@
+package com.linkedin.dagli.word2vec;
+
+import com.linkedin.dagli.math.vector.DenseFloatBufferVector;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+/**
+ * A preprocessed, read-only store of Word2Vec embeddings that is memory-mapped rather than read onto the heap.  Opening
+ * a store is nearly instantaneous (regardless of its size), the embeddings are paged in by the operating system as
+ * they are used, and all processes on a host that map the same file share a single copy of it in the page cache.
+ *
+ * The file consists of a header, the (sorted) hashes of the phrases and phrase prefixes in the dictionary, the vector
+ * index (or marker) corresponding to each hash, and finally the vectors themselves.  All values are little-endian:
+ * <pre>
+ *   int magic, int version, int flags, int vectorLength, int hashCount, int vectorCount
+ *   long[hashCount] hashes (in ascending order)
+ *   int[hashCount] vectorIndices
+ *   float[vectorCount * vectorLength] vectors
+ * </pre>
+ */
+final class Word2VecEmbeddingStore {
+  private static final int MAGIC = 0x44573256; // "DW2V"
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 6 * Integer.BYTES;
+  private static final int LOWER_CASED_FLAG = 1;
+  private static final int WRITE_BUFFER_SIZE = 8 * 1024 * 1024; // 8MB
+
+  private final boolean _lowerCased;
+  private final int _vectorLength;
+  private final int _vectorsPerBuffer;
+  private final LongBuffer _hashes;
+  private final IntBuffer _vectorIndices;
+  private final FloatBuffer[] _floatBuffers;
+
+  private Word2VecEmbeddingStore(boolean lowerCased, int vectorLength, int vectorsPerBuffer, LongBuffer hashes,
+      IntBuffer vectorIndices, FloatBuffer[] floatBuffers) {
+    _lowerCased = lowerCased;
+    _vectorLength = vectorLength;
+    _vectorsPerBuffer = vectorsPerBuffer;
+    _hashes = hashes;
+    _vectorIndices = vectorIndices;
+    _floatBuffers = floatBuffers;
+  }
+
+  /**
+   * Gets the maximum number of vectors that will be stored in each (mapped) buffer, such that no buffer exceeds the
+   * maximum size of a {@link ByteBuffer}.
+   *
+   * @param vectorLength the length of each vector
+   * @return the number of vectors per buffer
+   */
+  static int getVectorsPerBuffer(int vectorLength) {
+    return Integer.MAX_VALUE / (vectorLength * Float.BYTES);
+  }
+
+  /**
+   * Memory-maps an existing store.
+   *
+   * @param path the path of the store's file
+   * @return the opened store
+   * @throws IOException if the file cannot be read or is not a valid store
+   */
+  static Word2VecEmbeddingStore open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      if (header.getInt() != MAGIC) {
+        throw new IOException(path + " is not a Word2Vec embedding store");
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException(path + " is a Word2Vec embedding store of unsupported version " + version);
+      }
+      int flags = header.getInt();
+      int vectorLength = header.getInt();
+      int hashCount = header.getInt();
+      int vectorCount = header.getInt();
+
+      long hashBytes = (long) hashCount * Long.BYTES;
+      long indexBytes = (long) hashCount * Integer.BYTES;
+      long vectorsOffset = HEADER_BYTES + hashBytes + indexBytes;
+      if (channel.size() != vectorsOffset + (long) vectorCount * vectorLength * Float.BYTES) {
+        throw new IOException("The Word2Vec embedding store " + path + " has been truncated or corrupted");
+      }
+
+      LongBuffer hashes = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, hashBytes)
+          .order(ByteOrder.LITTLE_ENDIAN)
+          .asLongBuffer();
+      IntBuffer vectorIndices = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + hashBytes, indexBytes)
+          .order(ByteOrder.LITTLE_ENDIAN)
+          .asIntBuffer();
+
+      int vectorsPerBuffer = getVectorsPerBuffer(vectorLength);
+      long bufferBytes = (long) vectorsPerBuffer * vectorLength * Float.BYTES;
+      FloatBuffer[] floatBuffers = new FloatBuffer[(vectorCount + vectorsPerBuffer - 1) / vectorsPerBuffer];
+      for (int i = 0; i < floatBuffers.length; i++) {
+        long offset = vectorsOffset + i * bufferBytes;
+        long size = Math.min(bufferBytes, channel.size() - offset);
+        floatBuffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, size)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .asFloatBuffer();
+      }
+
+      // the mappings remain valid after the channel is closed
+      return new Word2VecEmbeddingStore((flags & LOWER_CASED_FLAG) != 0, vectorLength, vectorsPerBuffer, hashes,
+          vectorIndices, floatBuffers);
+    }
+  }
+
+  /**
+   * Writes a new store.
+   *
+   * @param path the path of the file to write (any existing file will be replaced)
+   * @param embeddingIndex a map from the hashes of phrases (and phrase prefixes) to the indices of their vectors (or
+   *                       to {@link Word2VecEmbedding#MARKER_VECTOR_INDEX} for prefixes without their own vector)
+   * @param floatBuffers the buffers containing the vectors
+   * @param vectorsPerBuffer the number of vectors stored in each buffer (except possibly the last)
+   * @param vectorLength the length of each vector
+   * @param lowerCased whether the phrases were lower-cased before being hashed
+   * @throws IOException if the file cannot be written
+   */
+  static void write(Path path, Long2IntOpenHashMap embeddingIndex, FloatBuffer[] floatBuffers, int vectorsPerBuffer,
+      int vectorLength, boolean lowerCased) throws IOException {
+    long[] hashes = embeddingIndex.keySet().toLongArray();
+    Arrays.sort(hashes);
+    int vectorCount = 0;
+    for (long hash : hashes) {
+      if (embeddingIndex.get(hash) >= 0) {
+        vectorCount++;
+      }
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+      buffer.putInt(MAGIC)
+          .putInt(VERSION)
+          .putInt(lowerCased ? LOWER_CASED_FLAG : 0)
+          .putInt(vectorLength)
+          .putInt(hashes.length)
+          .putInt(vectorCount);
+
+      for (long hash : hashes) {
+        flushIfFull(channel, buffer, Long.BYTES);
+        buffer.putLong(hash);
+      }
+      for (long hash : hashes) {
+        flushIfFull(channel, buffer, Integer.BYTES);
+        buffer.putInt(embeddingIndex.get(hash));
+      }
+      for (int i = 0; i < vectorCount; i++) {
+        FloatBuffer source = floatBuffers[i / vectorsPerBuffer];
+        int offset = (i % vectorsPerBuffer) * vectorLength;
+        for (int j = 0; j < vectorLength; j++) {
+          flushIfFull(channel, buffer, Float.BYTES);
+          buffer.putFloat(source.get(offset + j));
+        }
+      }
+
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int bytesNeeded) throws IOException {
+    if (buffer.remaining() < bytesNeeded) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  /**
+   * @return whether the phrases in this store were lower-cased before being hashed
+   */
+  boolean isLowerCased() {
+    return _lowerCased;
+  }
+
+  /**
+   * Finds the vector index (or marker) corresponding to a hash.
+   *
+   * @param hash the hash of a phrase or phrase prefix
+   * @return the index of the phrase's vector, {@link Word2VecEmbedding#MARKER_VECTOR_INDEX} if the hash is of a
+   *         prefix without its own vector, or {@link Word2VecEmbedding#MISSING_VECTOR_INDEX} if the hash is unknown
+   */
+  int getVectorIndex(long hash) {
+    int low = 0;
+    int high = _hashes.limit() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midHash = _hashes.get(mid);
+      if (midHash < hash) {
+        low = mid + 1;
+      } else if (midHash > hash) {
+        high = mid - 1;
+      } else {
+        return _vectorIndices.get(mid);
+      }
+    }
+    return Word2VecEmbedding.MISSING_VECTOR_INDEX;
+  }
+
+  /**
+   * Gets a vector as a view of the mapped file (no values are copied).
+   *
+   * @param vectorIndex the index of the vector
+   * @return a vector backed by the mapped file
+   */
+  DenseFloatBufferVector getVector(int vectorIndex) {
+    return new DenseFloatBufferVector(_floatBuffers[vectorIndex / _vectorsPerBuffer],
+        (vectorIndex % _vectorsPerBuffer) * _vectorLength, _vectorLength);
+  }
+}
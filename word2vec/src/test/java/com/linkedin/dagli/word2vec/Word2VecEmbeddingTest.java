@@ -1,6 +1,9 @@
 package com.linkedin.dagli.word2vec;
 
 import com.linkedin.dagli.math.vector.DenseFloatBufferVector;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Disabled;
@@ -28,4 +31,33 @@ public class Word2VecEmbeddingTest {
     assertTrue(sfrEmbed.get(0).size64() == 300);
     assertEquals(sfEmbed.get(0), sfrEmbed.get(0));
   }
+
+  @Test
+  public void testEmbeddingStore() throws IOException {
+    Word2VecEmbedding embed = new Word2VecEmbedding().withResourcePath("word2vec-test-vectors.bin", false);
+    List<List<String>> inputs = Arrays.asList(Arrays.asList("San"), Arrays.asList("San", "Francisco", "rules"),
+        Arrays.asList("DOG", "Dog", "cat", "San"), Arrays.asList("Francisco"));
+
+    Path path = Files.createTempFile("Word2VecEmbeddingTest", ".store");
+    try {
+      embed.writeEmbeddingStore(path);
+      Word2VecEmbedding mapped = embed.withEmbeddingStore(path);
+
+      for (List<String> input : inputs) {
+        assertEquals(embed.apply(input), mapped.apply(input));
+      }
+
+      List<DenseFloatBufferVector> result = mapped.apply(Arrays.asList("San", "Francisco", "dog"));
+      assertEquals(2, result.size());
+      assertEquals(DenseFloatBufferVector.class, result.get(0).getClass());
+      assertEquals(4, result.get(0).get(0));
+      assertEquals(13, result.get(1).get(0));
+
+      // the store was written with case-sensitive phrases
+      assertThrows(IllegalStateException.class, () -> mapped.withCaseSensitivity(
+          Word2VecEmbedding.CaseSensitivity.IGNORE_CASE).apply(Arrays.asList("San")));
+    } finally {
+      Files.delete(path);
+    }
+  }
 }
@@ -4,7 +4,6 @@ import com.linkedin.dagli.annotation.equality.ValueEquality;
 import com.linkedin.dagli.function.FunctionResult1;
 import com.linkedin.dagli.generator.Constant;
 import com.linkedin.dagli.input.DenseFeatureVectorInput;
-import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
 import com.linkedin.dagli.math.vector.DenseVector;
 import com.linkedin.dagli.math.vector.Vector;
 import com.linkedin.dagli.preparer.AbstractStreamPreparer3;
@@ -13,20 +12,19 @@ import com.linkedin.dagli.preparer.PreparerResult;
 import com.linkedin.dagli.producer.MissingInput;
 import com.linkedin.dagli.producer.Producer;
 import com.linkedin.dagli.transformer.AbstractPreparableTransformer3;
-import com.linkedin.dagli.transformer.AbstractPreparedTransformer2;
-import com.linkedin.dagli.transformer.AbstractPreparedTransformer3;
+import com.linkedin.dagli.transformer.AbstractPreparedStatefulTransformer2;
+import com.linkedin.dagli.transformer.AbstractPreparedStatefulTransformer3;
 import com.linkedin.dagli.transformer.PreparedTransformer;
-import com.linkedin.dagli.tuple.Tuple3;
 import com.linkedin.dagli.util.array.ArraysEx;
 import com.linkedin.dagli.util.invariant.Arguments;
 import com.linkedin.dagli.vector.CategoricalFeatureVector;
 import com.linkedin.dagli.vector.DensifiedVector;
 import com.linkedin.dagli.view.PreparedTransformerView;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
-import java.util.ArrayList;
 import java.util.HashMap;
-import ml.dmlc.xgboost4j.LabeledPoint;
+import java.util.List;
 import ml.dmlc.xgboost4j.java.Booster;
 import ml.dmlc.xgboost4j.java.DMatrix;
 import ml.dmlc.xgboost4j.java.XGBoost;
@@ -49,6 +47,10 @@ abstract class AbstractXGBoostModel<
 
   private static final int MISSING_ID_MARKER = -1;
 
+  // the preferred minibatch size for inference; each minibatch is predicted with a single DMatrix, amortizing the
+  // (considerable) per-call overhead of XGBoost's native library
+  private static final int PREFERRED_MINIBATCH_SIZE = 256;
+
   /**
    * Types of objective functions used by XGBoost.  These are not necessarily exhaustive, but are rather the ones
    * presently in use.
@@ -96,6 +98,7 @@ abstract class AbstractXGBoostModel<
   protected int _rounds = 4;
   protected int _threadCount = -1; // <= 0 means "use the number of logical cores"
   protected int _earlyStoppingRounds = -1; // <= 0 means "no early stopping"
+  protected XGBoostTrainingDataStorage _trainingDataStorage = XGBoostTrainingDataStorage.MEMORY;
 
   /**
    * Creates a new instance.  The weight input is initially set to a null generator, such that all examples will
@@ -282,6 +285,30 @@ abstract class AbstractXGBoostModel<
     return _earlyStoppingRounds >= 1;
   }
 
+  /**
+   * Gets how the training data is stored prior to training.  The default is {@link XGBoostTrainingDataStorage#MEMORY}.
+   *
+   * @return the storage used for the training data
+   */
+  public XGBoostTrainingDataStorage getTrainingDataStorage() {
+    // instances serialized before this property existed will have a null value
+    return _trainingDataStorage == null ? XGBoostTrainingDataStorage.MEMORY : _trainingDataStorage;
+  }
+
+  /**
+   * Sets how the training data is stored as examples are received, prior to training.  The default is
+   * {@link XGBoostTrainingDataStorage#MEMORY}, which stores the data compactly on the heap;
+   * {@link XGBoostTrainingDataStorage#DISK} instead writes it to a temporary file and trains using XGBoost's external
+   * memory mode, which allows for training with data sets too large to fit in RAM.
+   *
+   * @param storage the storage to use for the training data
+   * @return a copy of this instance that will use the specified storage for its training data
+   */
+  public S withTrainingDataStorage(XGBoostTrainingDataStorage storage) {
+    Arguments.check(storage != null, "Training data storage cannot be null");
+    return clone(c -> c._trainingDataStorage = storage);
+  }
+
   /**
    * Gets a producer that provides the actual XGBoost Booster object trained by the model.  This producer is
    * guaranteed to have a constant result ({@link Producer#hasConstantResult()} == true); that is, the Booster
@@ -297,18 +324,6 @@ abstract class AbstractXGBoostModel<
   protected abstract XGBoostObjective getObjective(int labelCount);
   protected abstract XGBoostObjectiveType getObjectiveType();
 
-  protected static LabeledPoint makeDenseLabeledPoint(Number weight, float label, DenseVector vec) {
-    float[] vals = vec instanceof DenseFloatArrayVector ? ((DenseFloatArrayVector) vec).getArray() : vec.toFloatArray();
-
-    if (vals.length == 0) {
-      // xgboost doesn't like empty feature vectors...
-      vals = new float[]{0};
-    }
-
-    float weightValue = weight != null ? weight.floatValue() : 1.0f;
-    return new LabeledPoint(label, null, vals, weightValue, -1, Float.NaN);
-  }
-
   // Not currently used because XGBoost doesn't play well with large indices, but may be useful in the future:
 //  protected static LabeledPoint makeSparseLabeledPoint(Number weight, int labelID, Vector vec) {
 //    int vecSize = Math.toIntExact(vec.size64());
@@ -341,67 +356,78 @@ abstract class AbstractXGBoostModel<
 
   private static class Preparer<L, R, P extends AbstractXGBoostModel.Prepared<L, R, ?>>
       extends AbstractStreamPreparer3<Number, L, DenseVector, R, P> {
-    private final ArrayList<Tuple3<Number, L, DenseVector>> _labeledVectorList = new ArrayList<>();
     private final AbstractXGBoostModel<L, R, P, ?> _owner;
+    private final boolean _isRegression;
+    private final XGBoostTrainingData _trainingData;
+    private final Object2IntOpenHashMap<L> _labelIDMap = new Object2IntOpenHashMap<>();
+
+    // weights are only materialized if and when we encounter the first non-null weight
+    private FloatArrayList _weights = null;
+    private int _exampleCount = 0;
 
     public Preparer(AbstractXGBoostModel<L, R, P, ?> owner) {
       _owner = owner;
+      _isRegression = owner.getObjectiveType() == XGBoostObjectiveType.REGRESSION;
+      _trainingData = owner.getTrainingDataStorage()._trainingDataGenerator.get();
+      _labelIDMap.defaultReturnValue(MISSING_ID_MARKER);
     }
 
     @Override
     public void process(Number weight, L label, DenseVector features) {
-      _labeledVectorList.add(Tuple3.of(weight, label, features));
-    }
+      final float labelValue;
+      if (!_isRegression) {
+        int labelID = _labelIDMap.getInt(label);
+        if (labelID == MISSING_ID_MARKER) { // marker value for "not there"
+          labelID = _labelIDMap.size();
+          _labelIDMap.put(label, labelID);
+        }
+        labelValue = labelID;
+      } else {
+        labelValue = ((Number) label).floatValue();
+      }
 
-    @Override
-    public PreparerResult<P> finish() {
-      boolean isRegression = _owner.getObjectiveType() == XGBoostObjectiveType.REGRESSION;
+      _trainingData.add(labelValue, XGBoostModel.toRow(features));
 
-      Object2IntOpenHashMap<L> labelIDMap = new Object2IntOpenHashMap<>();
-      labelIDMap.defaultReturnValue(MISSING_ID_MARKER);
+      if (weight != null && _weights == null) {
+        _weights = new FloatArrayList(_exampleCount + 1);
+        for (int i = 0; i < _exampleCount; i++) {
+          _weights.add(1.0f);
+        }
+      }
+      if (_weights != null) {
+        _weights.add(weight != null ? weight.floatValue() : 1.0f);
+      }
 
-      DMatrix data;
+      _exampleCount++;
+    }
 
+    @Override
+    public PreparerResult<P> finish() {
       try {
-        data = new DMatrix(_labeledVectorList.stream().map(labeledVector -> {
-          final float label;
-          if (!isRegression) {
-            int labelID = labelIDMap.getInt(labeledVector.get1());
-            if (labelID == MISSING_ID_MARKER) { // marker value for "not there"
-              labelID = labelIDMap.size();
-              labelIDMap.put(labeledVector.get1(), labelID);
-            }
-            label = labelID;
-          } else {
-            label = ((Number) labeledVector.get1()).floatValue();
-          }
+        DMatrix data;
+
+        try {
+          data = _trainingData.toDMatrix();
 
-          DenseVector vec = labeledVector.get2();
-          return makeDenseLabeledPoint(labeledVector.get0(), label, vec);
-        }).iterator(), null);
-
-        // need to set the weights here, too, because there's a bug in the DMatrix constructor whereby weights on the
-        // LabeledPoints don't get used.
-        float[] weights = new float[_labeledVectorList.size()];
-        boolean hasWeights = false;
-        for (int i = 0; i < _labeledVectorList.size(); i++) {
-          Number num = _labeledVectorList.get(i).get0();
-          if (num != null) {
-            hasWeights = true;
-            weights[i] = num.floatValue();
-          } else {
-            weights[i] = 1.0f;
+          // weights must be set on the DMatrix itself, as there is no (working) way to provide them alongside the
+          // examples
+          if (_weights != null) {
+            data.setWeight(_weights.toFloatArray());
+            _weights = null;
           }
+        } catch (XGBoostError err) {
+          // this shouldn't happen, but if it does just rethrow
+          throw new RuntimeException(err);
         }
-        if (hasWeights) {
-          data.setWeight(weights);
-        }
-      } catch (XGBoostError err) {
-        // this shouldn't happen, but if it does just rethrow
-        throw new RuntimeException(err);
+
+        return train(data);
+      } finally {
+        _trainingData.close();
       }
+    }
 
-      XGBoostObjective objective = _owner.getObjective(labelIDMap.size());
+    private PreparerResult<P> train(DMatrix data) {
+      XGBoostObjective objective = _owner.getObjective(_labelIDMap.size());
       HashMap<String, Object> params = new HashMap<>();
       params.put("eta", _owner.getLearningRateMultiplier());
       params.put("max_depth", _owner.getMaxDepth());
@@ -411,7 +437,7 @@ abstract class AbstractXGBoostModel<
           _owner._threadCount <= 0 ? Runtime.getRuntime().availableProcessors() : _owner._threadCount);
 
       if (objective.shouldSpecifyNumberOfClasses()) {
-        params.put("num_class", labelIDMap.size());
+        params.put("num_class", _labelIDMap.size());
       }
       //params.put("num_output_group", 100000000);
 
@@ -423,7 +449,7 @@ abstract class AbstractXGBoostModel<
         Booster booster =
             XGBoost.train(data, params, _owner.getRounds(), watches, null, null, null, _owner._earlyStoppingRounds);
         XGBoostModel.IS_THREAD_CONFIGURED_FOR_SINGLE_THREADED_PREDICTION.set(false);
-        return new PreparerResult<>(_owner.createPrepared(labelIDMap, booster));
+        return new PreparerResult<>(_owner.createPrepared(_labelIDMap, booster));
       } catch (XGBoostError err) {
         throw new RuntimeException("Encountered an XGBoostException while training model", err);
       } finally {
@@ -479,7 +505,7 @@ abstract class AbstractXGBoostModel<
    */
   @ValueEquality
   private static class XGBoostLeaves
-      extends AbstractPreparedTransformer2<Prepared<?, ?, ?>, DenseVector, int[], XGBoostLeaves> {
+      extends AbstractPreparedStatefulTransformer2<Prepared<?, ?, ?>, DenseVector, int[], Void, XGBoostLeaves> {
     private static final long serialVersionUID = 1;
 
     /**
@@ -494,10 +520,40 @@ abstract class AbstractXGBoostModel<
       super(preparedModelInput, denseVectorInput);
     }
 
+    private static float[][] predictLeaves(Booster booster, DMatrix dmatrix) throws XGBoostError {
+      return booster.predictLeaf(dmatrix, 0);
+    }
+
+    @Override
+    protected int[] apply(Void executionCache, Prepared<?, ?, ?> value0, DenseVector value1) {
+      return ArraysEx.toIntegersLossy(
+          XGBoostModel.predictAsFloats(value0.getBooster(), value1, XGBoostLeaves::predictLeaves));
+    }
+
     @Override
-    public int[] apply(Prepared<?, ?, ?> value0, DenseVector value1) {
-      return ArraysEx.toIntegersLossy(XGBoostModel.predictAsFloats(value0.getBooster(), value1,
-          (booster, dmatrix) -> booster.predictLeaf(dmatrix, 0)[0]));
+    protected void applyAll(Void executionCache, List<? extends Prepared<?, ?, ?>> values0,
+        List<? extends DenseVector> values1, List<? super int[]> results) {
+      if (values0.isEmpty()) {
+        return;
+      }
+
+      // the model input will almost always be constant-result; if it isn't, just fall back to per-example inference
+      Booster booster = values0.get(0).getBooster();
+      for (int i = 1; i < values0.size(); i++) {
+        if (values0.get(i).getBooster() != booster) {
+          super.applyAll(executionCache, values0, values1, results);
+          return;
+        }
+      }
+
+      for (float[] leaves : XGBoostModel.predictAsFloats(booster, values1, XGBoostLeaves::predictLeaves)) {
+        results.add(ArraysEx.toIntegersLossy(leaves));
+      }
+    }
+
+    @Override
+    protected int getPreferredMinibatchSize() {
+      return PREFERRED_MINIBATCH_SIZE;
     }
   }
 
@@ -513,7 +569,7 @@ abstract class AbstractXGBoostModel<
    * @param <S> the type of the class ultimately deriving from this class
    */
   protected abstract static class Prepared<L, R, S extends Prepared<L, R, S>>
-      extends AbstractPreparedTransformer3<Number, L, DenseVector, R, S> {
+      extends AbstractPreparedStatefulTransformer3<Number, L, DenseVector, R, Void, S> {
 
     private static final long serialVersionUID = 1;
 
@@ -540,5 +596,31 @@ abstract class AbstractXGBoostModel<
     public Booster getBooster() {
       return _booster;
     }
+
+    /**
+     * Converts the "raw" prediction made by XGBoost for an example into the result of this transformer.
+     *
+     * @param prediction the array of floats predicted by the model for a single example
+     * @return the result corresponding to the prediction
+     */
+    protected abstract R fromPrediction(float[] prediction);
+
+    @Override
+    protected R apply(Void executionCache, Number weight, L label, DenseVector vector) {
+      return fromPrediction(XGBoostModel.predictAsFloats(_booster, vector, Booster::predict));
+    }
+
+    @Override
+    protected void applyAll(Void executionCache, List<? extends Number> weights, List<? extends L> labels,
+        List<? extends DenseVector> vectors, List<? super R> results) {
+      for (float[] prediction : XGBoostModel.predictAsFloats(_booster, vectors, Booster::predict)) {
+        results.add(fromPrediction(prediction));
+      }
+    }
+
+    @Override
+    protected int getPreferredMinibatchSize() {
+      return PREFERRED_MINIBATCH_SIZE;
+    }
   }
 }
@@ -6,7 +6,6 @@ import com.linkedin.dagli.math.distribution.ArrayDiscreteDistribution;
 import com.linkedin.dagli.math.distribution.DiscreteDistribution;
 import com.linkedin.dagli.math.distribution.DiscreteDistributions;
 import com.linkedin.dagli.math.distribution.LabelProbability;
-import com.linkedin.dagli.math.vector.DenseVector;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.stream.Collectors;
@@ -68,10 +67,7 @@ public class XGBoostClassification<L>
     }
 
     @Override
-    public DiscreteDistribution<L> apply(Number weight, L label, DenseVector vector) {
-      final float[] probs =
-          XGBoostModel.predictAsFloats(_booster, vector, (booster, dmatrix) -> booster.predict(dmatrix)[0]);
-
+    protected DiscreteDistribution<L> fromPrediction(float[] probs) {
       // for binary and degenerate (0 or 1 label) problems, the model used should be logistic regression, producing a
       // single probability:
       assert _idLabelMap.size() > 2 || probs.length == 1;
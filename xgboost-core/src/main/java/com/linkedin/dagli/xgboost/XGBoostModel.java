@@ -1,7 +1,9 @@
 package com.linkedin.dagli.xgboost;
 
+import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
 import com.linkedin.dagli.math.vector.DenseVector;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import ml.dmlc.xgboost4j.java.Booster;
 import ml.dmlc.xgboost4j.java.DMatrix;
@@ -16,6 +18,10 @@ abstract class XGBoostModel {
   // This lock avoids segfault-causing contention between thread-local configuration and XGBoost inference
   private static final ReentrantReadWriteLock LOCK = new ReentrantReadWriteLock();
 
+  // The row used in place of an empty feature vector (XGBoost does not accept rows without any features); this is never
+  // modified (DMatrix copies its data)
+  private static final float[] EMPTY_ROW = new float[]{0};
+
   // This is used to track whether the thread is properly configured to perform prediction with a single thread,
   // rather than spawning multiple threads.
   // Due to the internals of XGBoost each top-level (Java) thread must be configured and configuration is sticky to
@@ -60,6 +66,90 @@ abstract class XGBoostModel {
    * @return an array of floats whose meaning depends on the supplied {@link PredictAsFloatsMethod} and the model
    */
   static float[] predictAsFloats(Booster booster, DenseVector vector, PredictAsFloatsMethod predictor) {
+    float[] row = toRow(vector);
+    return predictAsFloats(booster, row, 1, row.length, predictor)[0];
+  }
+
+  /**
+   * Gets the (dense) row of feature values that will represent the given vector.  The returned array may be the
+   * vector's own backing array and must not be modified.
+   *
+   * @param vector the vector whose row should be obtained
+   * @return the row of feature values for the vector; this will never be empty
+   */
+  static float[] toRow(DenseVector vector) {
+    float[] row = vector instanceof DenseFloatArrayVector ? ((DenseFloatArrayVector) vector).getArray()
+        : vector.toFloatArray();
+
+    // xgboost doesn't like empty feature vectors...
+    return row.length == 0 ? EMPTY_ROW : row;
+  }
+
+  /**
+   * Given a minibatch of examples represented as {@link DenseVector}s, makes a "raw" prediction of a float array for
+   * each.  All examples are packed into a single, row-major {@link DMatrix} so that XGBoost is invoked just once for
+   * the entire minibatch.
+   *
+   * Rows that are shorter than the longest vector in the minibatch are padded with missing values, which is exactly
+   * how XGBoost would see them if each was predicted individually.
+   *
+   * @param vectors the feature vectors for which we should make predictions
+   * @return an array of float arrays (one per vector, in the same order) whose meaning depends on the supplied
+   *         {@link PredictAsFloatsMethod} and the model
+   */
+  static float[][] predictAsFloats(Booster booster, List<? extends DenseVector> vectors,
+      PredictAsFloatsMethod predictor) {
+    final int rowCount = vectors.size();
+
+    int columnCount = 1; // xgboost doesn't like empty feature vectors, so we always have at least one column
+    for (int i = 0; i < rowCount; i++) {
+      columnCount = Math.max(columnCount, denseLength(vectors.get(i)));
+    }
+
+    float[] data = new float[Math.multiplyExact(rowCount, columnCount)];
+    Arrays.fill(data, Float.NaN);
+
+    for (int i = 0; i < rowCount; i++) {
+      DenseVector vector = vectors.get(i);
+      int offset = i * columnCount;
+      int length = denseLength(vector);
+
+      if (length == 0) {
+        data[offset] = 0; // same as EMPTY_ROW
+      } else if (vector instanceof DenseFloatArrayVector) {
+        System.arraycopy(((DenseFloatArrayVector) vector).getArray(), 0, data, offset, length);
+      } else {
+        vector.copyTo(data, offset, length);
+      }
+    }
+
+    return predictAsFloats(booster, data, rowCount, columnCount, predictor);
+  }
+
+  /**
+   * Gets the number of elements in the (dense) row that will represent the given vector; these are the elements that
+   * would be present in the array used to predict for this vector individually.
+   *
+   * @param vector the vector whose length should be found
+   * @return the number of elements that will represent the vector
+   */
+  private static int denseLength(DenseVector vector) {
+    return vector instanceof DenseFloatArrayVector ? ((DenseFloatArrayVector) vector).getArray().length
+        : Math.toIntExact(vector.maxNonZeroElementIndex().orElse(-1) + 1);
+  }
+
+  /**
+   * Makes predictions for the examples contained in a row-major matrix of features.  Missing features are denoted by
+   * {@link Float#NaN}.
+   *
+   * @param data the row-major feature matrix
+   * @param rowCount the number of rows (examples) in the matrix
+   * @param columnCount the number of columns (features) in the matrix
+   * @param predictor the method that will be used to obtain the predictions
+   * @return an array of float arrays, one per row
+   */
+  private static float[][] predictAsFloats(Booster booster, float[] data, int rowCount, int columnCount,
+      PredictAsFloatsMethod predictor) {
     configureBooster(booster);
 
     // get lock to make this mutually exclusive to thread-local configuration
@@ -67,9 +157,7 @@ abstract class XGBoostModel {
 
     DMatrix dmatrix = null;
     try {
-      dmatrix =
-          new DMatrix(Collections.singleton(AbstractXGBoostModel.makeDenseLabeledPoint(null, 0, vector)).iterator(),
-              null);
+      dmatrix = new DMatrix(data, rowCount, columnCount, Float.NaN);
       return predictor.predictAsFloats(booster, dmatrix);
     } catch (XGBoostError err) {
       throw new RuntimeException("XGBoost threw an exception during inference", err);
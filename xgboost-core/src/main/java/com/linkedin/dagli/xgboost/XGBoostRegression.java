@@ -2,7 +2,6 @@ package com.linkedin.dagli.xgboost;
 
 import com.linkedin.dagli.annotation.equality.HandleEquality;
 import com.linkedin.dagli.annotation.equality.ValueEquality;
-import com.linkedin.dagli.math.vector.DenseVector;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import ml.dmlc.xgboost4j.java.Booster;
 
@@ -49,8 +48,8 @@ public class XGBoostRegression extends AbstractXGBoostModel<Number, Float, XGBoo
     }
 
     @Override
-    public Float apply(Number weight, Number label, DenseVector vector) {
-      return XGBoostModel.predictAsFloats(_booster, vector, (booster, dmatrix) -> booster.predict(dmatrix)[0])[0];
+    protected Float fromPrediction(float[] prediction) {
+      return prediction[0];
     }
   }
 }
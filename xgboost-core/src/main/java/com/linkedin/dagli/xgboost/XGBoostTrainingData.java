@@ -0,0 +1,203 @@
+package com.linkedin.dagli.xgboost;
+
+import com.linkedin.dagli.util.environment.DagliSystemProperties;
+import com.linkedin.dagli.util.invariant.Arguments;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import ml.dmlc.xgboost4j.java.DMatrix;
+import ml.dmlc.xgboost4j.java.XGBoostError;
+
+
+/**
+ * Accumulates the (labeled) training examples for an XGBoost model as they are streamed to the preparer, and then
+ * creates the {@link DMatrix} used for training.
+ *
+ * Every feature value in an example's (dense) row is kept, including zeros, so that XGBoost sees exactly the same data
+ * regardless of how it is stored.  Example weights are not handled here; they are set on the resulting
+ * {@link DMatrix} by the caller.
+ */
+abstract class XGBoostTrainingData implements AutoCloseable {
+  /**
+   * Adds an example.
+   *
+   * @param label the example's label (or label ID, for classification)
+   * @param row the example's feature values; must not be empty
+   */
+  abstract void add(float label, float[] row);
+
+  /**
+   * Creates a {@link DMatrix} containing all the examples added so far.  No further examples may be added after this
+   * method is called.
+   *
+   * @return a new {@link DMatrix} containing the examples
+   * @throws XGBoostError if XGBoost fails to create the matrix
+   */
+  abstract DMatrix toDMatrix() throws XGBoostError;
+
+  /**
+   * Releases any resources (e.g. temporary files) held by this instance.  The {@link DMatrix} returned by
+   * {@link #toDMatrix()} should be disposed of before this method is called.
+   */
+  @Override
+  public void close() { }
+
+  /**
+   * Stores the examples in primitive arrays on the heap: the (concatenated) feature values of all rows, the offsets at
+   * which each row begins, and the labels.  These arrays are handed to XGBoost as they are (rather than copied) and are
+   * released once XGBoost has copied them into the {@link DMatrix}'s native memory.
+   */
+  static class InMemory extends XGBoostTrainingData {
+    private final FloatArrayList _values = new FloatArrayList();
+    private final LongArrayList _rowOffsets = new LongArrayList();
+    private final FloatArrayList _labels = new FloatArrayList();
+
+    // the length of every row seen so far, or -1 if the rows have had different lengths
+    private int _rowLength = 0;
+
+    InMemory() {
+      _rowOffsets.add(0);
+    }
+
+    @Override
+    void add(float label, float[] row) {
+      if (_labels.isEmpty()) {
+        _rowLength = row.length;
+      } else if (_rowLength != row.length) {
+        _rowLength = -1;
+      }
+
+      _labels.add(label);
+      _values.addElements(_values.size(), row);
+      _rowOffsets.add(_values.size());
+    }
+
+    @Override
+    DMatrix toDMatrix() throws XGBoostError {
+      final int rowCount = _labels.size();
+
+      final DMatrix result;
+      if (rowCount > 0 && _rowLength > 0) {
+        // all rows are the same length: no need for a (memory-consuming) array of indices; XGBoost reads only the first
+        // rowCount * rowLength values, so the (possibly longer) backing array can be used without trimming it
+        result = new DMatrix(_values.elements(), rowCount, _rowLength, Float.NaN);
+      } else {
+        // XGBoost infers the number of rows and values from the lengths of the arrays, so these must be trimmed;
+        // trimming replaces the backing array, so the untrimmed array can be collected before the next is allocated
+        _values.trim();
+        _rowOffsets.trim();
+        final float[] values = _values.elements();
+        final long[] rowOffsets = _rowOffsets.elements();
+
+        int[] indices = new int[values.length];
+        for (int i = 0; i < rowCount; i++) {
+          int rowStart = (int) rowOffsets[i];
+          int rowEnd = (int) rowOffsets[i + 1];
+          for (int j = rowStart; j < rowEnd; j++) {
+            indices[j] = j - rowStart;
+          }
+        }
+        result = new DMatrix(rowOffsets, indices, values, DMatrix.SparseType.CSR);
+      }
+
+      _labels.trim();
+      result.setLabel(_labels.elements());
+
+      // XGBoost now has its own copy of the data; the heap copy would otherwise remain reachable throughout training
+      _values.clear();
+      _values.trim();
+      _rowOffsets.clear();
+      _rowOffsets.trim();
+      _labels.clear();
+      _labels.trim();
+
+      return result;
+    }
+  }
+
+  /**
+   * Writes the examples to a LIBSVM-format file in a temporary directory, which XGBoost then loads in external memory
+   * mode.  Feature indices are written zero-based, which is how XGBoost's LIBSVM parser interprets them by default;
+   * missing (NaN) feature values are simply omitted from their rows.
+   *
+   * The parser cannot read the textual representations of infinite or NaN values, so infinite feature values and
+   * non-finite labels are rejected (with an {@link IllegalArgumentException}) rather than written.
+   */
+  static class LibSVMFile extends XGBoostTrainingData {
+    private final Path _directory;
+    private final Path _dataFile;
+    private final BufferedWriter _writer;
+    private final StringBuilder _line = new StringBuilder();
+
+    LibSVMFile() {
+      try {
+        _directory = Files.createTempDirectory(Paths.get(DagliSystemProperties.getTempDirectory()), "XGBoost");
+        _directory.toFile().deleteOnExit();
+        _dataFile = _directory.resolve("train.libsvm");
+        _writer = Files.newBufferedWriter(_dataFile, StandardCharsets.US_ASCII);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    void add(float label, float[] row) {
+      Arguments.check(Float.isFinite(label), () -> "Labels must be finite when training data is stored on disk, but "
+          + "got " + label);
+
+      _line.setLength(0);
+      _line.append(label);
+      for (int i = 0; i < row.length; i++) {
+        if (!Float.isNaN(row[i])) { // NaN denotes a missing value
+          Arguments.check(!Float.isInfinite(row[i]), () -> "Feature values cannot be infinite when training data is "
+              + "stored on disk; use XGBoostTrainingDataStorage.MEMORY instead");
+          _line.append(' ').append(i).append(':').append(row[i]);
+        }
+      }
+      _line.append('\n');
+
+      try {
+        _writer.append(_line);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    DMatrix toDMatrix() throws XGBoostError {
+      try {
+        _writer.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      // the "#" suffix tells XGBoost to use external memory, caching pages of the loaded data with the given prefix
+      return new DMatrix(_dataFile.toAbsolutePath() + "#" + _directory.resolve("cache").toAbsolutePath());
+    }
+
+    @Override
+    public void close() {
+      try {
+        _writer.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        // delete the data file and any cache files XGBoost created alongside it
+        File[] files = _directory.toFile().listFiles();
+        if (files != null) {
+          for (File file : files) {
+            file.delete();
+          }
+        }
+        _directory.toFile().delete();
+      }
+    }
+  }
+}
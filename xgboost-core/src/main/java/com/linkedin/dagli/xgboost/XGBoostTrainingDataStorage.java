@@ -0,0 +1,33 @@
+package com.linkedin.dagli.xgboost;
+
+import java.util.function.Supplier;
+
+
+/**
+ * Determines how an XGBoost model stores its training data while the examples are being streamed to it, prior to
+ * training.
+ */
+public enum XGBoostTrainingDataStorage {
+  /**
+   * Feature values, labels and weights are appended to compact primitive arrays on the JVM's heap (about 4 bytes per
+   * feature value and 8 bytes per example) from which the training {@code DMatrix} is then built directly.  This is
+   * the fastest option, but the total number of feature values across all examples is limited to
+   * {@link Integer#MAX_VALUE} (approximately 2 billion).
+   */
+  MEMORY(XGBoostTrainingData.InMemory::new),
+
+  /**
+   * Examples are written as they are received to a LIBSVM-format file in the dagli.tmpdir directory, which is then
+   * loaded by XGBoost using its external memory mode (with its page cache also placed in the dagli.tmpdir directory).
+   * Only the per-example weights (if any) are kept on the heap.  This is slower than {@link #MEMORY} but allows
+   * training on data sets that would not otherwise fit in RAM.  Infinite feature values and non-finite labels cannot be
+   * written to the file and will cause an {@link IllegalArgumentException}.
+   */
+  DISK(XGBoostTrainingData.LibSVMFile::new);
+
+  final Supplier<XGBoostTrainingData> _trainingDataGenerator;
+
+  XGBoostTrainingDataStorage(Supplier<XGBoostTrainingData> generator) {
+    _trainingDataGenerator = generator;
+  }
+}
@@ -4,11 +4,13 @@ import com.linkedin.dagli.dag.DAG;
 import com.linkedin.dagli.dag.DAG3x1;
 import com.linkedin.dagli.dag.LocalDAGExecutor;
 import com.linkedin.dagli.generator.Constant;
+import com.linkedin.dagli.math.distribution.DiscreteDistribution;
 import com.linkedin.dagli.math.vector.DenseFloatArrayVector;
 import com.linkedin.dagli.placeholder.Placeholder;
 import com.linkedin.dagli.tester.Tester;
 import com.linkedin.dagli.tuple.Tuple2;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
@@ -62,8 +64,53 @@ public class XGBoostClassifierTest {
     trainAndCheck(getUnaryExamples(200), getUnaryExamples(100), 1);
   }
 
+  @Test
+  public void testDiskTrainingDataStorage() {
+    trainAndCheck(getQuadnaryExamples(200), getQuadnaryExamples(100), 4, XGBoostTrainingDataStorage.DISK);
+    trainAndCheck(getBinaryExamples(200), getBinaryExamples(100), 2, XGBoostTrainingDataStorage.DISK);
+  }
+
+  @Test
+  public void testDiskTrainingDataRejectsNonFiniteValues() {
+    try (XGBoostTrainingData trainingData = new XGBoostTrainingData.LibSVMFile()) {
+      trainingData.add(1, new float[] { 0, Float.NaN, 2 }); // NaN features are missing values
+      assertThrows(IllegalArgumentException.class,
+          () -> trainingData.add(1, new float[] { 0, Float.POSITIVE_INFINITY }));
+      assertThrows(IllegalArgumentException.class, () -> trainingData.add(Float.NaN, new float[] { 0, 1 }));
+    }
+  }
+
+  @Test
+  public void testBatchedInference() {
+    XGBoostClassification.Prepared<Integer> prepared = getTrainedModel();
+
+    List<Tuple2<Integer, DenseFloatArrayVector>> evalData = new ArrayList<>(getQuadnaryExamples(100));
+    // vectors shorter than the others (including empty vectors) must be padded with missing values in the minibatch
+    evalData.add(Tuple2.of(0, DenseFloatArrayVector.wrap()));
+    evalData.add(Tuple2.of(1, DenseFloatArrayVector.wrap(1.0f)));
+
+    List<Number> weights = evalData.stream().map(v -> (Number) null).collect(Collectors.toList());
+    List<Integer> labels = evalData.stream().map(Tuple2::get0).collect(Collectors.toList());
+    List<DenseFloatArrayVector> vectors = evalData.stream().map(Tuple2::get1).collect(Collectors.toList());
+
+    ArrayList<DiscreteDistribution<Integer>> batchResults = new ArrayList<>(evalData.size());
+    prepared.internalAPI()
+        .applyAllUnsafe(prepared.internalAPI().createExecutionCache(evalData.size()), evalData.size(),
+            Arrays.asList(weights, labels, vectors), batchResults);
+
+    assertEquals(evalData.size(), batchResults.size());
+    for (int i = 0; i < evalData.size(); i++) {
+      assertEquals(prepared.apply(null, labels.get(i), vectors.get(i)), batchResults.get(i));
+    }
+  }
+
   public void trainAndCheck(List<Tuple2<Integer, DenseFloatArrayVector>> trainingData,
       List<Tuple2<Integer, DenseFloatArrayVector>> evalData, int labelCount) {
+    trainAndCheck(trainingData, evalData, labelCount, XGBoostTrainingDataStorage.MEMORY);
+  }
+
+  public void trainAndCheck(List<Tuple2<Integer, DenseFloatArrayVector>> trainingData,
+      List<Tuple2<Integer, DenseFloatArrayVector>> evalData, int labelCount, XGBoostTrainingDataStorage storage) {
 
     Placeholder<Integer> labelPlaceholder = new Placeholder<>("Label");
     Placeholder<Integer> weightPlaceholder = new Placeholder<>("Weight");
@@ -74,7 +121,8 @@ public class XGBoostClassifierTest {
             .withWeightInput(weightPlaceholder)
             .withFeaturesInput(featuresPlaceholder)
             .withRounds(4)
-            .withMaxDepth(3);
+            .withMaxDepth(3)
+            .withTrainingDataStorage(storage);
 
     Tester.of(booster).input(10, 1, DenseFloatArrayVector.wrap(1)).test();
 